@@ -19,12 +19,15 @@ package uno.informatics.data.feature;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import uno.informatics.common.ConversionUtilities;
 import uno.informatics.common.io.IOUtilities;
 import uno.informatics.common.io.RowReader;
+import uno.informatics.data.DataTypeConstants;
 import uno.informatics.data.Dataset;
 import uno.informatics.data.Feature;
 import uno.informatics.data.dataset.FeatureData;
@@ -54,6 +57,53 @@ public abstract class AbstractFeatureData extends SimpleEntityPojo implements Fe
     public static final String MIN = "MIN";
     public static final String MAX = "MAX";
     
+    /**
+     * Key of the {@link DataOption} giving the number of threads used to read
+     * data files, reading is sequential if not set
+     */
+    public static final String PARALLELISM = "PARALLELISM";
+    
+    /**
+     * Key of the {@link DataOption} selecting the features read from data
+     * files, either an <code>int[]</code> of feature indices or a
+     * <code>String[]</code> of feature identifiers. All features are read if
+     * not set.
+     */
+    public static final String COLUMNS = "COLUMNS";
+    
+    /**
+     * Key of the {@link DataOption} selecting the rows read from data files,
+     * either a {@link java.util.Collection} of row identifiers or a
+     * {@link java.util.function.BiPredicate} on the row identifier and name.
+     * The filter is checked before the values of a row are converted. All
+     * rows are read if not set.
+     */
+    public static final String ROW_FILTER = "ROW_FILTER";
+    
+    /**
+     * Key of the {@link DataOption} giving the number of rows from which the
+     * types of the features are inferred, as an {@link Integer}. The rows are
+     * a random sample of all of the rows of the data file, rather than only
+     * the first rows. All rows are used if not set.
+     */
+    public static final String SAMPLE_SIZE = "SAMPLE_SIZE";
+    
+    /**
+     * Key of the {@link DataOption} giving the seed, as a {@link Long}, of the
+     * random numbers used to sample rows when the {@link #SAMPLE_SIZE} option
+     * is set, so that the same rows are sampled each time. A random seed is
+     * used if not set.
+     */
+    public static final String SAMPLE_SEED = "SAMPLE_SEED";
+    
+    /**
+     * Key of the {@link DataOption} which if <code>true</code> infers the
+     * types of the features of a data file without a TYPE row from their
+     * values, rather than reading all values as strings. The file is still
+     * read only once, the cells are buffered until the types are known.
+     */
+    public static final String INFER_TYPES = "INFER_TYPES";
+    
     private List<Feature> features;
     private Dataset dataset;
 
@@ -120,8 +170,72 @@ public abstract class AbstractFeatureData extends SimpleEntityPojo implements Fe
         return generateDatasetFeatures(path, fileType, columnLabel, INVALID_ROW_COUNT, options);
     }
 
+    /**
+     * Generates the features of the columns of a data file, inferring the
+     * possible data types of each column from its values. Reading stops as
+     * soon as further rows can not change the possible data types, that is
+     * once every column can only be a string. If the {@link #SAMPLE_SIZE}
+     * option is set the types are inferred from a random sample of the rows.
+     * 
+     * @param filePath
+     *            the path of the data file
+     * @param type
+     *            the file type, TXT or CSV
+     * @param columnLabel
+     *            not used
+     * @param numRows
+     *            the maximum number of rows read after the header row,
+     *            including any names row, or a negative number to read all
+     *            rows
+     * @param options
+     *            the options
+     * @return the features of the columns
+     * @throws IOException
+     *             if the file can not be read or the rows are not the right
+     *             size
+     */
     public static final List<ColumnFeature> generateDatasetFeatures(Path filePath, FileType type, String columnLabel,
             int numRows, DataOption... options) throws IOException {
+        return inferColumns(filePath, type, numRows, null, options);
+    }
+
+    /**
+     * Generates statistics of the values of each column of a data file,
+     * including the possible data types, the number of missing values, the
+     * number of distinct values and the smallest and largest values. All of
+     * the rows are read, unless limited by the number of rows, or only a
+     * random sample of the rows if the {@link #SAMPLE_SIZE} option is set.
+     * 
+     * @param filePath
+     *            the path of the data file
+     * @param type
+     *            the file type, TXT or CSV
+     * @param numRows
+     *            the maximum number of rows read after the header row,
+     *            including any names row, or a negative number to read all
+     *            rows
+     * @param options
+     *            the options
+     * @return the statistics of the columns
+     * @throws IOException
+     *             if the file can not be read or the rows are not the right
+     *             size
+     */
+    public static final List<ColumnStatistics> generateColumnStatistics(Path filePath, FileType type, int numRows,
+            DataOption... options) throws IOException {
+        List<ColumnStatistics> statistics = new ArrayList<ColumnStatistics>();
+
+        inferColumns(filePath, type, numRows, statistics, options);
+
+        return statistics;
+    }
+
+    /**
+     * Infers the features of the columns of a data file, and if a list of
+     * statistics is given, adds the statistics of each column to it
+     */
+    private static List<ColumnFeature> inferColumns(Path filePath, FileType type, int numRows,
+            List<ColumnStatistics> statistics, DataOption[] options) throws IOException {
         RowReader reader = null;
         List<ColumnFeature> features = null;
 
@@ -146,26 +260,27 @@ public abstract class AbstractFeatureData extends SimpleEntityPojo implements Fe
         
         String uniqueIdentifier = DataOption.findValue(options, ID, String.class);
         
+        int sampleSize = DataOption.findValue(options, SAMPLE_SIZE, Integer.class, INVALID_ROW_COUNT);
+        
+        Long seed = DataOption.findValue(options, SAMPLE_SEED, Long.class);
+        
         reader = IOUtilities.createRowReader(filePath, type);
 
-        if (reader != null && reader.ready()) {
-            features = new ArrayList<ColumnFeature>();
-
-            List<String> colIds = null;
-            List<String> colNames = null;
-            
-            List<Integer> dataTypes = new ArrayList<Integer>();
-
-            int columnCount = 0;
-            int row = 0;
-            int rowsRead = 0;
-
-            List<String> cells;
-            String rowID = null ;
-            boolean hasRowNames = false ;
-            
-            if (reader.nextRow()) {
-               
+        try {
+            if (reader != null && reader.ready()) {
+                List<String> colIds = null;
+                List<String> colNames = null;
+    
+                int row = 0;
+                int rowsRead = 0;
+    
+                List<String> cells;
+                String rowID = null ;
+                boolean hasRowNames = false ;
+                
+                if (!reader.nextRow()) 
+                    throw new IOException("No enough rows");
+                   
                 colIds = reader.getRowCellsAsString();
                 
                 if (ID.equals(colIds.get(0))) {
@@ -187,105 +302,191 @@ public abstract class AbstractFeatureData extends SimpleEntityPojo implements Fe
                     colIds.remove(0) ;
                 }
                 
-                columnCount = colIds.size() ;
+                int columnCount = colIds.size() ;
 
                 ++row;
 
-                if (reader.nextRow()) {  
+                if (!reader.nextRow())
+                    throw new IOException("No enough rows");
                     
+                reader.nextColumn() ;
+                
+                rowID = reader.getCellAsString() ;
+                
+                if (hasRowNames) {
                     reader.nextColumn() ;
-                    
-                    rowID = reader.getCellAsString() ;
-                    
-                    if (hasRowNames) {
-                        reader.nextColumn() ;
+                }
+                reader.nextColumn() ;
+                
+                cells = reader.getRowCellsAsString();
+                
+                ++row;
+                ++rowsRead;
+                
+                if (NAME.equals(rowID))  {
+                    if (reader.nextRow()) {
+                        colNames = cells ;
+                        
+                        cells = readRowCells(reader, hasRowNames) ;
+                        
+                        ++row;
+                        ++rowsRead;
                     }
-                    reader.nextColumn() ;
+                    else {
+                        throw new IOException("Not enough rows");
+                    } 
+                } else {
+                    colNames = colIds ;                        
+                }
+                
+                if (colIds.size() != colNames.size()) {
+                    throw new IOException(String.format("Number of column IDs : %d  does not match number of column Name %d !", colIds.size(), colNames.size()));
+                }
+                
+                if (cells.size() != columnCount) {
+                    throw new IOException(String.format("Number of headers : %d  does not match number of columns %d !", columnCount, cells.size()));        
+                } 
+                
+                int[] dataTypes = new int[columnCount];
+                
+                Arrays.fill(dataTypes, ~DataTypeConstants.UNKNOWN_ID);
+                
+                ColumnStatistics[] columnStatistics = null;
+                
+                if (statistics != null) {
+                    columnStatistics = new ColumnStatistics[columnCount];
                     
-                    cells = reader.getRowCellsAsString();
+                    for (int i = 0; i < columnCount; ++i)
+                        columnStatistics[i] = new ColumnStatistics(colIds.get(i), colNames.get(i));
+                }
+                
+                if (sampleSize > 0) {
+                    Random random = seed != null ? new Random(seed) : new Random();
                     
-                    ++row;
-                    ++rowsRead;
+                    List<List<String>> sample = new ArrayList<List<String>>(Math.min(sampleSize, 1024));
                     
-                    boolean hasColNames = NAME.equals(rowID) ; 
+                    sample.add(cells);
                     
-                    if (hasColNames)  {
-                        if (reader.nextRow()) {
-    
-                            reader.nextColumn() ;
-                            colNames = cells ;
-    
-                            if (hasRowNames) {
-                                reader.nextColumn() ;
-                            }
-                            reader.nextColumn() ;
-                            
-                            ++row;
-                            ++rowsRead;
-                        }
-                        else {
-                            throw new IOException("Not enough rows");
-                        } 
-                    } else {
-                        colNames = colIds ;                        
+                    // reservoir sampling by skipping rows, only the sampled
+                    // rows are split into cells
+                    double weight = 0;
+                    long index = 0;
+                    long next = 0;
+                    
+                    if (sample.size() == sampleSize) {
+                        weight = Math.exp(Math.log(1 - random.nextDouble()) / sampleSize);
+                        next = index + getSkippedRows(random, weight) + 1;
                     }
-      
-                    cells = reader.getRowCellsAsString();
                     
-                    dataTypes = ConversionUtilities.getDataTypes(cells);
-
-                    features = new ArrayList<ColumnFeature>(columnCount);
-
-                    dataTypes = ConversionUtilities.getDataTypes(cells);
-
-                    while (reader.nextRow() && (numRows < 0 || rowsRead < numRows)) {
-                        reader.nextColumn() ;
+                    while ((numRows < 0 || rowsRead < numRows) && reader.nextRow()) {
+                        ++index;
                         
-                        if (hasRowNames) {
-                            reader.nextColumn() ;
+                        if (sample.size() < sampleSize) {
+                            sample.add(readRowCells(reader, hasRowNames, columnCount, row));
+                            
+                            if (sample.size() == sampleSize) {
+                                weight = Math.exp(Math.log(1 - random.nextDouble()) / sampleSize);
+                                next = index + getSkippedRows(random, weight) + 1;
+                            }
+                        } else if (index == next) {
+                            sample.set(random.nextInt(sampleSize), readRowCells(reader, hasRowNames, columnCount, row));
+                            
+                            weight = weight * Math.exp(Math.log(1 - random.nextDouble()) / sampleSize);
+                            next = index + getSkippedRows(random, weight) + 1;
                         }
-                        reader.nextColumn() ;
                         
-                        cells = reader.getRowCellsAsString();
-
-                        if (cells.size() != columnCount)
-                            throw new IOException(String.format("Row %d is not right size, expecting %d but was %d!",
-                                    row, columnCount, cells.size()));
-
-                        dataTypes = ConversionUtilities.getDataTypes(cells, dataTypes);
-
                         ++row;
                         ++rowsRead;
                     }
+                    
+                    Iterator<List<String>> iterator = sample.iterator();
+                    
+                    while (iterator.hasNext() && !addRow(iterator.next(), dataTypes, columnStatistics)) ;
                 } else {
-                    throw new IOException("No enough rows");
+                    boolean terminal = addRow(cells, dataTypes, columnStatistics);
+                    
+                    while (!terminal && (numRows < 0 || rowsRead < numRows) && reader.nextRow()) {
+                        terminal = addRow(readRowCells(reader, hasRowNames, columnCount, row), dataTypes,
+                            columnStatistics);
+    
+                        ++row;
+                        ++rowsRead;
+                    }
+                }
+                
+                features = new ArrayList<ColumnFeature>(columnCount);
+                
+                for (int i = 0; i < columnCount; ++i) {
+                    if (columnStatistics != null) {
+                        statistics.add(columnStatistics[i]);
+                        
+                        dataTypes[i] = columnStatistics[i].getPossibleDataTypes();
+                    } else if (dataTypes[i] == ~DataTypeConstants.UNKNOWN_ID) {
+                        // all of the values are missing
+                        dataTypes[i] = DataTypeConstants.UNKNOWN_ID;
+                    }
+                    
+                    features.add(DatasetUtils.createDefaultColumnFeature(colIds.get(i), colNames.get(i), dataTypes[i]));
                 }
             }
+        } finally {
+            if (reader != null)
+                reader.close();
+        }
 
-            reader.close();
-            
-            if (colIds.size() != colNames.size()) {
-                throw new IOException(String.format("Number of column IDs : %d  does not match number of column Name %d !", colIds.size(), colNames.size()));
-            }
-            
-            if (dataTypes.size() != colIds.size()) {
-                throw new IOException(String.format("Number of headers : %d  does not match number of columns %d !", colIds.size(), dataTypes.size()));        
-            } 
-           
-
-            Iterator<String> iterator1 = colIds.iterator();
-            Iterator<String> iterator2 = colNames.iterator();
-            Iterator<Integer> iterator3 = dataTypes.iterator();
-            
-            while (iterator1.hasNext()) {
-                features.add(DatasetUtils.createDefaultColumnFeature(iterator1.next(), iterator2.next(), iterator3.next()));
+        return features;
+    }
+
+    /**
+     * Adds the cells of a row to the possible data types of each column, or
+     * to the statistics of each column if given, and checks if the possible
+     * data types of all columns can no longer change. Missing cells do not
+     * narrow the possible data types, as in {@link ColumnStatistics#add(String)}.
+     */
+    private static boolean addRow(List<String> cells, int[] dataTypes, ColumnStatistics[] statistics) {
+        boolean terminal = statistics == null;
+        
+        for (int i = 0; i < dataTypes.length; ++i) {
+            if (statistics != null) {
+                statistics[i].add(cells.get(i));
+            } else if (!ColumnStatistics.isTerminal(dataTypes[i])) {
+                if (!ColumnStatistics.isMissing(cells.get(i)))
+                    dataTypes[i] = dataTypes[i] & ConversionUtilities.getDataType(cells.get(i));
+                
+                terminal = terminal && ColumnStatistics.isTerminal(dataTypes[i]);
             }
         }
+        
+        return terminal;
+    }
+
+    private static List<String> readRowCells(RowReader reader, boolean hasRowNames) throws IOException {
+        reader.nextColumn() ;
+        
+        if (hasRowNames) {
+            reader.nextColumn() ;
+        }
+        reader.nextColumn() ;
+        
+        return reader.getRowCellsAsString();
+    }
 
-        if (reader != null)
-            reader.close();
+    private static List<String> readRowCells(RowReader reader, boolean hasRowNames, int columnCount, int row)
+            throws IOException {
+        List<String> cells = readRowCells(reader, hasRowNames);
 
-        return features;
+        if (cells.size() != columnCount)
+            throw new IOException(String.format("Row %d is not right size, expecting %d but was %d!",
+                    row, columnCount, cells.size()));
+        
+        return cells;
+    }
 
+    /**
+     * Gets the number of rows skipped before the next sampled row, see
+     * Li, "Reservoir-sampling algorithms of time complexity O(n(1 + log(N/n)))"
+     */
+    private static long getSkippedRows(Random random, double weight) {
+        return (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - weight));
     }
 }
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature;
+
+import java.util.List;
+
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.FeatureData;
+
+/**
+ * Collects the values of the rows of feature data as they are read, in file
+ * order, and creates the feature data once all rows are read, so that the
+ * values can be stored in the form of the feature data as they are read.
+ *
+ * @author Guy Davenport
+ *
+ * @param <T>
+ *            the type of feature data created
+ */
+public interface FeatureDataCollector<T extends FeatureData> {
+
+    /**
+     * Adds the values of the next row
+     *
+     * @param features
+     *            the features of the data, which are the same for all rows
+     * @param values
+     *            the values of the row, one for each feature, which are
+     *            <code>null</code> if missing
+     */
+    public void addValues(List<? extends Feature> features, List<Object> values);
+
+    /**
+     * Gets the number of rows added
+     *
+     * @return the number of rows added
+     */
+    public int getRowCount();
+
+    /**
+     * Creates the feature data from the rows added
+     *
+     * @param uniqueIdentifier
+     *            the unique identifier of the data
+     * @param name
+     *            the name of the data
+     * @param features
+     *            the features of the data
+     * @param rowHeaders
+     *            the headers of the rows added
+     * @return the feature data
+     */
+    public T createData(String uniqueIdentifier, String name, List<? extends Feature> features,
+            List<SimpleEntity> rowHeaders);
+}
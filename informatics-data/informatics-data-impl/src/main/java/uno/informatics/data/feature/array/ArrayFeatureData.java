@@ -18,20 +18,31 @@ package uno.informatics.data.feature.array;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiPredicate;
 
+import uno.informatics.common.Constants;
 import uno.informatics.common.ConversionException;
 import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.StringColumnBuffer;
+import uno.informatics.common.ValueConverter;
 import uno.informatics.common.io.IOUtilities;
 import uno.informatics.common.io.RowReader;
 import uno.informatics.common.io.RowWriter;
+import uno.informatics.common.io.text.FlushPolicy;
+import uno.informatics.common.io.text.MappedTextFileRowReader;
+import uno.informatics.common.io.text.ParallelTextFileReader;
 import uno.informatics.common.io.text.TextFileRowReader;
+import uno.informatics.common.io.text.TextFileRowWriter;
 import uno.informatics.data.DataType;
 import uno.informatics.data.DataTypeConstants;
 import uno.informatics.data.Feature;
@@ -42,6 +53,7 @@ import uno.informatics.data.dataset.DatasetException;
 import uno.informatics.data.dataset.FeatureData;
 import uno.informatics.data.dataset.FeatureDataRow;
 import uno.informatics.data.feature.AbstractFeatureData;
+import uno.informatics.data.feature.FeatureDataCollector;
 import uno.informatics.data.io.FileType;
 import uno.informatics.data.pojo.DataPojo;
 import uno.informatics.data.pojo.FeaturePojo;
@@ -61,6 +73,11 @@ public class ArrayFeatureData extends AbstractFeatureData {
      * 
      */
     private static final long serialVersionUID = 1L;
+    
+    // data types chosen for inferred features in order of preference
+    private static final DataType[] INFERRED_DATA_TYPES = new DataType[] { DataType.INTEGER, DataType.LONG, 
+        DataType.BIG_INTEGER, DataType.DOUBLE, DataType.BIG_DECIMAL, DataType.BOOLEAN, DataType.DATE };
+    
     private FeatureDataRow[] rows;
     private int rowCount;
 
@@ -162,13 +179,71 @@ public class ArrayFeatureData extends AbstractFeatureData {
         return rowHeaders ;
     }
     
+    /**
+     * Reads feature data from a CSV or TXT file. If the {@link #PARALLELISM}
+     * option is greater than one, the data rows of the file are read and
+     * converted in parallel, giving the same feature data as reading
+     * sequentially. If the file has no TYPE row and the {@link #INFER_TYPES}
+     * option is set, the cells are buffered by column while the types of the
+     * features are inferred, and converted once all rows are read, in which
+     * case the rows are read sequentially.
+     * 
+     * @param filePath
+     *            the path of the file to be read
+     * @param type
+     *            the file type, which must be CSV or TXT
+     * @param options
+     *            data options
+     * @return the feature data read from the file
+     * @throws IOException
+     *             if the data can not be read
+     */
     public static final ArrayFeatureData readData(Path filePath, FileType type, DataOption... options)
             throws IOException {
+        
+        int parallelism = DatasetUtils.getReadParallelism(filePath,
+                DataOption.findValue(options, PARALLELISM, Integer.class, 1));
+
+        return readData(filePath, type, parallelism, new ArrayFeatureDataCollector(), options);
+    }
+    
+    /**
+     * Reads feature data from a CSV or TXT file, as
+     * {@link #readData(Path, FileType, DataOption...)}, passing the values of
+     * each row to a collector as they are converted, which creates the feature
+     * data. The rows are always read sequentially, so that the values of at most
+     * one row are held other than by the collector, and the {@link #PARALLELISM}
+     * option is ignored.
+     * 
+     * @param <T>
+     *            the type of feature data created by the collector
+     * @param filePath
+     *            the path of the file to be read
+     * @param type
+     *            the file type, which must be CSV or TXT
+     * @param collector
+     *            the collector of the values of the rows
+     * @param options
+     *            data options
+     * @return the feature data created by the collector
+     * @throws IOException
+     *             if the data can not be read
+     */
+    public static final <T extends FeatureData> T readData(Path filePath, FileType type, 
+            FeatureDataCollector<T> collector, DataOption... options) throws IOException {
+        if (collector == null) {
+            throw new IllegalArgumentException("Collector not defined.");
+        }
+        
+        return readData(filePath, type, 1, collector, options);
+    }
+    
+    private static final <T extends FeatureData> T readData(Path filePath, FileType type, int parallelism, 
+            FeatureDataCollector<T> collector, DataOption... options) throws IOException {
 
-        ArrayFeatureData data = null;
+        T data = null;
 
         RowReader reader = null;
-        List<List<Object>> rowList = new LinkedList<>();
 
         // validate arguments
 
@@ -191,6 +266,8 @@ public class ArrayFeatureData extends AbstractFeatureData {
         
         String uniqueIdentifier = DataOption.findValue(options, ID, String.class);
         String name = DataOption.findValue(options, NAME, String.class);
+        BiPredicate<String, String> rowFilter = createRowFilter(options);
+        boolean inferTypes = DataOption.findValue(options, INFER_TYPES, Boolean.class, false);
         
         if (name == null){
             name = filePath.getFileName().toString() ;
@@ -198,8 +275,13 @@ public class ArrayFeatureData extends AbstractFeatureData {
             
         // TODO extract options and pass to reader
         try {
-            reader = IOUtilities.createRowReader(filePath, type, TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
-                    TextFileRowReader.REMOVE_WHITE_SPACE, TextFileRowReader.REMOVE_QUOTES);
+            if (parallelism > 1) {
+                reader = IOUtilities.createMappedRowReader(filePath, type, TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
+                        TextFileRowReader.REMOVE_WHITE_SPACE, TextFileRowReader.REMOVE_QUOTES);
+            } else {
+                reader = IOUtilities.createRowReader(filePath, type, TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
+                        TextFileRowReader.REMOVE_WHITE_SPACE, TextFileRowReader.REMOVE_QUOTES);
+            }
 
             if (reader != null && reader.ready()) {
                 int columnCount = 0;
@@ -218,7 +300,10 @@ public class ArrayFeatureData extends AbstractFeatureData {
                 List<String> columnIDs;
                 List<String> columnNames;
                 List<FeaturePojo> newFeatures = null;
-                int[] types = null;
+                // compiled once the features are known
+                ValueConverter[] converters = null;
+                // cells of each column, if the types are inferred
+                StringColumnBuffer[] columns = null;
 
                 Iterator<String> iterator;
 
@@ -253,11 +338,20 @@ public class ArrayFeatureData extends AbstractFeatureData {
                         }
 
                         columnIDs = new ArrayList<>(columnCount);
-                        columnNames = new ArrayList<>(columnCount);
 
                         while (iterator.hasNext()) {
                             columnIDs.add(iterator.next());
                         }
+                        
+                        if (DataOption.hasOption(options, COLUMNS)) {
+                            columnIDs = DatasetUtils.selectColumns(reader, columnIDs, cells.size() - columnCount, 
+                                    DataOption.findValue(options, COLUMNS, int[].class), 
+                                    DataOption.findValue(options, COLUMNS, String[].class));
+                            
+                            columnCount = columnIDs.size() ;
+                        }
+                        
+                        columnNames = new ArrayList<>(columnCount);
                     } else {
                         throw new IllegalArgumentException("First row is empty!");
                     }
@@ -372,17 +466,19 @@ public class ArrayFeatureData extends AbstractFeatureData {
                                                     columnIDs, columnNames, typeCells, minCells, maxCells
                                             );
 
-                                            types = DatasetUtils.getConversionTypes(newFeatures);
+                                            converters = ValueConverter.getConverters(DatasetUtils.getConversionTypes(newFeatures));
                                         } else {
-                                            addHeaders(rowId, rowName, rowHeaders);
-
                                             newFeatures = createFeatures(
                                                     columnIDs, columnNames, typeCells, minCells, new LinkedList<>()
                                             );
 
-                                            types = DatasetUtils.getConversionTypes(newFeatures);
+                                            converters = ValueConverter.getConverters(DatasetUtils.getConversionTypes(newFeatures));
 
-                                            addValues(rowList, cells, newFeatures, types);
+                                            if (rowFilter == null || rowFilter.test(rowId, rowName)) {
+                                                addHeaders(rowId, rowName, rowHeaders);
+    
+                                                addValues(collector, cells, newFeatures, converters);
+                                            }
                                         }
                                     }
                                 } else {
@@ -390,27 +486,64 @@ public class ArrayFeatureData extends AbstractFeatureData {
                                             columnIDs, columnNames, typeCells, new LinkedList<>(), new LinkedList<>()
                                     );
 
-                                    types = DatasetUtils.getConversionTypes(newFeatures);
-
-                                    addHeaders(rowId, rowName, rowHeaders);
+                                    converters = ValueConverter.getConverters(DatasetUtils.getConversionTypes(newFeatures));
 
-                                    addValues(rowList, cells, newFeatures, types);
+                                    if (rowFilter == null || rowFilter.test(rowId, rowName)) {
+                                        addHeaders(rowId, rowName, rowHeaders);
+    
+                                        addValues(collector, cells, newFeatures, converters);
+                                    }
                                 }
                             }
+                        } else if (inferTypes) {
+                            columns = new StringColumnBuffer[columnCount];
+                            
+                            for (int i = 0; i < columnCount; ++i) {
+                                columns[i] = new StringColumnBuffer();
+                            }
+                            
+                            if (rowFilter == null || rowFilter.test(rowId, rowName)) {
+                                addHeaders(rowId, rowName, rowHeaders);
+    
+                                addCells(columns, cells, row);
+                            }
                         } else {
                             newFeatures = createFeatures(columnIDs, columnNames);
 
-                            types = DatasetUtils.getConversionTypes(newFeatures);
+                            converters = ValueConverter.getConverters(DatasetUtils.getConversionTypes(newFeatures));
 
-                            addHeaders(rowId, rowName, rowHeaders);
-
-                            addValues(rowList, cells, newFeatures, types);
+                            if (rowFilter == null || rowFilter.test(rowId, rowName)) {
+                                addHeaders(rowId, rowName, rowHeaders);
+    
+                                addValues(collector, cells, newFeatures, converters);
+                            }
                         }
                     }
 
                     ++row;
 
-                    while (reader.nextRow()) {
+                    if (parallelism > 1 && columns == null) {
+                        List<Map.Entry<SimpleEntity, List<Object>>> rows = readRows(
+                                (MappedTextFileRowReader) reader, row, parallelism, hasRowNames, columnCount, 
+                                converters, rowFilter) ;
+                        
+                        // scales depend on the order of the values, so are updated in file order
+                        for (Map.Entry<SimpleEntity, List<Object>> entry : rows) {
+                            if (entry == null) {
+                                continue ;
+                            }
+                            
+                            rowHeaders.add(entry.getKey());
+                            
+                            if (entry.getValue() != null) {
+                                collector.addValues(newFeatures, entry.getValue());
+
+                                updateRowScales(newFeatures, entry.getValue());
+                            }
+                        }
+                    }
+                    
+                    while ((parallelism == 1 || columns != null) && reader.nextRow()) {
 
                         if (reader.nextColumn()){
                             rowId = reader.getCellAsString();
@@ -423,6 +556,13 @@ public class ArrayFeatureData extends AbstractFeatureData {
                         } else {
                             rowName = null;
                         }
+                        
+                        // skip the row before any values are converted
+                        if (rowFilter != null && !rowFilter.test(rowId, rowName)) {
+                            ++row;
+                            
+                            continue ;
+                        }
 
                         addHeaders(rowId, rowName, rowHeaders);
 
@@ -436,12 +576,24 @@ public class ArrayFeatureData extends AbstractFeatureData {
                                 );
                             }
 
-                            addValues(rowList, cells, newFeatures, types);
+                            if (columns != null) {
+                                addCells(columns, cells, row);
+                            } else {
+                                addValues(collector, cells, newFeatures, converters);
+                            }
                         }
 
                         ++row;
                     }
                     
+                    if (columns != null) {
+                        newFeatures = createFeatures(columnIDs, columnNames, columns);
+                        
+                        converters = ValueConverter.getConverters(DatasetUtils.getConversionTypes(newFeatures));
+                        
+                        addValues(collector, columns, newFeatures, converters);
+                    }
+                    
                     // sort values of ordinal variables
                     if(newFeatures != null){
                         for(Feature feature : newFeatures){
@@ -458,17 +610,17 @@ public class ArrayFeatureData extends AbstractFeatureData {
 
                 reader.close();
                 
-                if (rowList.isEmpty()){
+                if (collector.getRowCount() == 0){
                     throw new IOException("The data has no values!");    
                 }
 
-                data = new ArrayFeatureData(filePath.getFileName().toString(), filePath.getFileName().toString(),
-                            newFeatures, rowHeaders, rowList);
+                data = collector.createData(filePath.getFileName().toString(), filePath.getFileName().toString(),
+                            newFeatures, rowHeaders);
 
                 // check unique identifiers
                 Set<String> uniqueIds = new HashSet<>();
                 for (int i = 0; i < data.getRowCount(); i++) {
-                    SimpleEntity header = data.getRow(i).getHeader();
+                    SimpleEntity header = data.getHeader(i);
                     if (header != null && !uniqueIds.add(header.getUniqueIdentifier())) {
                         throw new IOException(String.format(
                                 "Duplicate name/id %s for item %d. "
@@ -505,7 +657,7 @@ public class ArrayFeatureData extends AbstractFeatureData {
         }
 
         if (filePath.toFile().exists()) {
-            throw new IOException("File does  exist : " + filePath + ".");
+            throw new IOException("File already exists : " + filePath + ".");
         }
 
         if (type == null) {
@@ -520,6 +672,11 @@ public class ArrayFeatureData extends AbstractFeatureData {
         RowWriter writer = IOUtilities.createRowWriter(filePath, type, TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
                     TextFileRowReader.REMOVE_WHITE_SPACE);
         
+        // the writer is closed once all rows are written, so only needs to flush then
+        if (writer instanceof TextFileRowWriter) {
+            ((TextFileRowWriter) writer).setFlushPolicy(FlushPolicy.CLOSE);
+        }
+        
         
         writer.writeCell(ID);
         writer.newColumn() ;
@@ -607,15 +764,153 @@ public class ArrayFeatureData extends AbstractFeatureData {
         writer.close(); 
     }
 
-    private static void addValues(List<List<Object>> rowList, List<String> cells, List<FeaturePojo> features,
-            int[] types) throws ConversionException {
-        List<Object> values = convertCells(cells, types);
+    /**
+     * Reads the remaining rows in parallel, the first of which is the given
+     * row of the file
+     */
+    private static List<Map.Entry<SimpleEntity, List<Object>>> readRows(MappedTextFileRowReader reader, 
+            int firstRow, int parallelism, boolean hasRowNames, int columnCount, ValueConverter[] converters, 
+            BiPredicate<String, String> rowFilter) throws IOException, ConversionException {
+        ParallelTextFileReader parallelReader = new ParallelTextFileReader(reader);
 
-        rowList.add(values);
+        parallelReader.setParallelism(parallelism);
+
+        return parallelReader.readRows((rowReader, index) -> readRow(rowReader, 
+                index != Constants.UNKNOWN_COUNT ? firstRow + index : Constants.UNKNOWN_COUNT, 
+                hasRowNames, columnCount, converters, rowFilter));
+    }
+
+    /**
+     * Reads a data row as its header and converted values, the values are
+     * <code>null</code> if the row has no cells after the header. Returns
+     * <code>null</code> if the row is rejected by the row filter. The row of
+     * the file is only used in errors, and is {@link Constants#UNKNOWN_COUNT}
+     * if not known.
+     */
+    private static Map.Entry<SimpleEntity, List<Object>> readRow(RowReader reader, int row, boolean hasRowNames, 
+            int columnCount, ValueConverter[] converters, BiPredicate<String, String> rowFilter) 
+                    throws IOException, ConversionException {
+        String rowId;
+        String rowName;
+        
+        if (reader.nextColumn()){
+            rowId = reader.getCellAsString();
+        } else {
+            throw new IllegalArgumentException("First cell in row not found!");
+        }
+
+        if (hasRowNames && reader.nextColumn()){
+            rowName = reader.getCellAsString();
+        } else {
+            rowName = null;
+        }
+
+        if (rowFilter != null && !rowFilter.test(rowId, rowName)) {
+            return null;
+        }
+        
+        List<SimpleEntity> rowHeaders = new ArrayList<>(1);
+        List<Object> values = null;
+
+        addHeaders(rowId, rowName, rowHeaders);
+
+        if (reader.nextColumn()) {
+            List<String> cells = reader.getRowCellsAsString();
+
+            if (cells.size() != columnCount){
+                if (row != Constants.UNKNOWN_COUNT) {
+                    throw new IOException(
+                            String.format("In row %d number of cell not as expected. "
+                                        + "Should be %d but was %d!", row, columnCount, cells.size())
+                    );
+                } else {
+                    throw new IOException(
+                            String.format("Number of cell not as expected. Should be %d but was %d!", 
+                                    columnCount, cells.size())
+                    );
+                }
+            }
+
+            values = ValueConverter.convertRow(converters, cells);
+        }
+
+        return new SimpleImmutableEntry<>(rowHeaders.get(0), values);
+    }
+
+    /**
+     * Creates the filter given by the {@link #ROW_FILTER} option, or
+     * <code>null</code> if all rows are read
+     */
+    @SuppressWarnings("unchecked")
+    private static BiPredicate<String, String> createRowFilter(DataOption[] options) {
+        if (!DataOption.hasOption(options, ROW_FILTER)) {
+            return null;
+        }
+        
+        Collection<?> ids = DataOption.findValue(options, ROW_FILTER, Collection.class);
+        
+        if (ids != null) {
+            // a set is used so each row is checked in constant time
+            Set<?> idSet = ids instanceof Set ? (Set<?>) ids : new HashSet<>(ids);
+            
+            return (rowId, rowName) -> idSet.contains(rowId != null ? rowId : rowName);
+        }
+        
+        BiPredicate<String, String> predicate = DataOption.findValue(options, ROW_FILTER, BiPredicate.class);
+        
+        if (predicate == null) {
+            throw new IllegalArgumentException(
+                    "Using ROW_FILTER DataOption: Value must be a Collection of row IDs or a BiPredicate!");
+        }
+        
+        return predicate;
+    }
+
+    private static void addValues(FeatureDataCollector<?> collector, List<String> cells, 
+            List<FeaturePojo> features, ValueConverter[] converters) throws ConversionException {
+        List<Object> values = ValueConverter.convertRow(converters, cells);
+
+        collector.addValues(features, values);
 
         updateRowScales(features, values);
     }
 
+    private static void addCells(StringColumnBuffer[] columns, List<String> cells, int row) throws IOException {
+        if (cells.size() != columns.length){
+            throw new IOException(
+                    String.format("In row %d number of cell not as expected. "
+                                + "Should be %d but was %d!", row, columns.length, cells.size())
+            );
+        }
+        
+        Iterator<String> iterator = cells.iterator();
+        
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i].add(iterator.next());
+        }
+    }
+
+    /**
+     * Converts the buffered cells of each column, adding them to the rows in
+     * file order
+     */
+    private static void addValues(FeatureDataCollector<?> collector, StringColumnBuffer[] columns, 
+            List<FeaturePojo> features, ValueConverter[] converters) throws ConversionException {
+        int rowCount = columns.length > 0 ? columns[0].size() : 0;
+        
+        for (int row = 0; row < rowCount; ++row) {
+            List<Object> values = new ArrayList<>(columns.length);
+            
+            for (int i = 0; i < columns.length; ++i) {
+                values.add(columns[i].convert(converters[i], row));
+            }
+            
+            collector.addValues(features, values);
+            
+            updateRowScales(features, values);
+        }
+    }
+
     private static void addHeaders(String rowId, String rowName, List<SimpleEntity> rowHeaders) {
    
         if (rowId != null) {
@@ -666,6 +961,43 @@ public class ArrayFeatureData extends AbstractFeatureData {
         return features;
     }
 
+    /**
+     * Creates features of the types inferred from the buffered cells of each
+     * column, choosing the first possible type in the order integer, long,
+     * big integer, double, big decimal, boolean, date and string, so that
+     * no value loses precision, and the first scale type for the data type
+     */
+    private static List<FeaturePojo> createFeatures(List<String> columnIDs, List<String> columnNames,
+            StringColumnBuffer[] columns) {
+        List<FeaturePojo> features = new ArrayList<>(columns.length);
+
+        Iterator<String> iterator1 = columnIDs.iterator();
+        Iterator<String> iterator2 = columnNames.iterator();
+
+        for (int i = 0; i < columns.length; ++i){
+            String id = iterator1.next();
+            String name = iterator2.next();
+            
+            DataType dataType = getInferredDataType(columns[i].getPossibleDataTypes());
+            
+            ScalePojo scale = new ScalePojo(id, name, dataType, DatasetUtils.getScaleTypes(dataType).get(0));
+            
+            features.add(new FeaturePojo(id, name, new MethodPojo(id, name, scale)));
+        }
+
+        return features;
+    }
+    
+    private static DataType getInferredDataType(int possibleDataTypes) {
+        for (DataType dataType : INFERRED_DATA_TYPES) {
+            if ((possibleDataTypes & DataTypeConstants.getConversionType(dataType)) != 0) {
+                return dataType;
+            }
+        }
+        
+        return DataType.STRING;
+    }
+
     private static FeaturePojo createFeature(String id, String name, String type, String min, String max)
             throws DatasetException {
         try {
@@ -796,10 +1128,6 @@ public class ArrayFeatureData extends AbstractFeatureData {
         }
     }
 
-    private static List<Object> convertCells(List<String> cells, int[] types) throws ConversionException {
-        return ConversionUtilities.convertToObjectList(cells, types);
-    }
-
     private void setValuesWithHeaders(Object[][] values) throws IllegalArgumentException {
         rowCount = 0;
 
@@ -840,8 +1168,8 @@ public class ArrayFeatureData extends AbstractFeatureData {
             rowHeaders = new SimpleEntity[rowCount];
             
             for (int i = 0; i < values.length; ++i) {
-                if (columnCount != values[i].length - 1){
-                    throw new IllegalArgumentException("Row : " + i + " size : " + (values[i].length - 1)
+                if (columnCount != values[i].length){
+                    throw new IllegalArgumentException("Row : " + i + " size : " + values[i].length
                             + " does not match the number of features : " + columnCount);
                 }
     
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.array;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.feature.FeatureDataCollector;
+
+/**
+ * Collects the rows of values of an {@link ArrayFeatureData} as they are read
+ *
+ * @author Guy Davenport
+ *
+ */
+class ArrayFeatureDataCollector implements FeatureDataCollector<ArrayFeatureData> {
+
+    private final List<List<Object>> rowList = new LinkedList<>();
+
+    @Override
+    public void addValues(List<? extends Feature> features, List<Object> values) {
+        rowList.add(values);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowList.size();
+    }
+
+    @Override
+    public ArrayFeatureData createData(String uniqueIdentifier, String name, List<? extends Feature> features,
+            List<SimpleEntity> rowHeaders) {
+        return new ArrayFeatureData(uniqueIdentifier, name, features, rowHeaders, rowList);
+    }
+}
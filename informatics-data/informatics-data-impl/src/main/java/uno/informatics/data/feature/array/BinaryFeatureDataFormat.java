@@ -0,0 +1,867 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.array;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.thoughtworks.xstream.XStream;
+
+import uno.informatics.data.DataType;
+import uno.informatics.data.Entity;
+import uno.informatics.data.Feature;
+import uno.informatics.data.Method;
+import uno.informatics.data.Scale;
+import uno.informatics.data.ScaleType;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.pojo.EntityPojo;
+import uno.informatics.data.pojo.FeaturePojo;
+import uno.informatics.data.pojo.MethodPojo;
+import uno.informatics.data.pojo.ScalePojo;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+
+/**
+ * A versioned binary format for feature data, used in the zip files written by
+ * {@link ZipFeatureDataWriter}. The data is written in three parts, all
+ * numbers big-endian:
+ * 
+ * <ul>
+ * <li>a header, see {@link BinaryFeatureDataHeader}, with the identification,
+ * the features and the number of rows, which starts with {@link #MAGIC} and
+ * the format version</li>
+ * <li>the row headers</li>
+ * <li>the values, in blocks of up to {@link BinaryFeatureDataHeader#getBlockSize()}
+ * rows, each block storing the values of each column together in the most
+ * compact form for the class of the values: <code>int</code>,
+ * <code>long</code>, <code>double</code> or dates as <code>long</code>, each
+ * with a bit set of missing values, booleans as a bit set, strings as a
+ * dictionary of the distinct strings and a code for each value, and other
+ * values each with a tag giving its class</li>
+ * </ul>
+ * 
+ * The features are written field by field, unless any has an ontology term,
+ * in which case they are written as XML, as in the text format.
+ * 
+ * @author Guy Davenport
+ *
+ */
+public class BinaryFeatureDataFormat {
+
+    public static final int MAGIC = 0x55464442;
+
+    /**
+     * The current version of the format. Version 2 added the flag for blocks
+     * that are deflated before they are written to their zip entries.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The default number of rows in a block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+
+    // how the features are written
+    private static final byte BINARY_FEATURES = 0;
+    private static final byte XML_FEATURES = 1;
+
+    // how the values of a column in a block are written
+    private static final byte NULL_COLUMN = 0;
+    private static final byte INT_COLUMN = 1;
+    private static final byte LONG_COLUMN = 2;
+    private static final byte DOUBLE_COLUMN = 3;
+    private static final byte BOOLEAN_COLUMN = 4;
+    private static final byte STRING_COLUMN = 5;
+    private static final byte DATE_COLUMN = 6;
+    private static final byte OBJECT_COLUMN = 7;
+
+    // the class of a value in an object column, or of a scale value
+    private static final byte NULL_VALUE = 0;
+    private static final byte INTEGER_VALUE = 1;
+    private static final byte LONG_VALUE = 2;
+    private static final byte DOUBLE_VALUE = 3;
+    private static final byte BOOLEAN_VALUE = 4;
+    private static final byte STRING_VALUE = 5;
+    private static final byte DATE_VALUE = 6;
+    private static final byte SHORT_VALUE = 7;
+    private static final byte FLOAT_VALUE = 8;
+    private static final byte BIG_INTEGER_VALUE = 9;
+    private static final byte BIG_DECIMAL_VALUE = 10;
+
+    private static final int MISSING_CODE = -1;
+
+    // the size of the buffer used to write and read primitive values
+    private static final int CHUNK_SIZE = 8192;
+
+    private BinaryFeatureDataFormat() {
+
+    }
+
+    /**
+     * Writes the header
+     * 
+     * @param output
+     *            the output to which the header is written
+     * @param header
+     *            the header
+     * @param xstream
+     *            used to write features that can not be written field by
+     *            field
+     * @throws IOException
+     *             if the header can not be written
+     */
+    public static final void writeHeader(DataOutputStream output, BinaryFeatureDataHeader header, XStream xstream)
+            throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        writeString(output, header.getUniqueIdentifier());
+        writeString(output, header.getName());
+
+        output.writeInt(header.getRowCount());
+        output.writeInt(header.getBlockSize());
+        output.writeBoolean(header.isBlocksDeflated());
+        output.writeInt(header.getFeatures().size());
+
+        if (hasOntologyTerms(header.getFeatures())) {
+            output.writeByte(XML_FEATURES);
+
+            byte[] xml = xstream.toXML(new ArrayList<Feature>(header.getFeatures()))
+                    .getBytes(StandardCharsets.UTF_8);
+
+            output.writeInt(xml.length);
+            output.write(xml);
+        } else {
+            output.writeByte(BINARY_FEATURES);
+
+            for (Feature feature : header.getFeatures())
+                writeFeature(output, feature);
+        }
+    }
+
+    /**
+     * Reads the header
+     * 
+     * @param input
+     *            the input from which the header is read
+     * @param xstream
+     *            used to read features that were written as XML
+     * @return the header
+     * @throws IOException
+     *             if the header can not be read, is not in this format or is
+     *             of a later version
+     */
+    @SuppressWarnings("unchecked")
+    public static final BinaryFeatureDataHeader readHeader(DataInputStream input, XStream xstream)
+            throws IOException {
+        if (input.readInt() != MAGIC)
+            throw new IOException("Not binary feature data");
+
+        int version = input.readInt();
+
+        if (version < 1 || version > VERSION)
+            throw new IOException("Unsupported binary feature data version : " + version);
+
+        String uniqueIdentifier = readString(input);
+        String name = readString(input);
+
+        int rowCount = input.readInt();
+        int blockSize = input.readInt();
+        boolean blocksDeflated = version >= 2 ? input.readBoolean() : false;
+        int featureCount = input.readInt();
+
+        List<Feature> features;
+
+        byte kind = input.readByte();
+
+        if (kind == XML_FEATURES) {
+            byte[] xml = new byte[input.readInt()];
+
+            input.readFully(xml);
+
+            features = (List<Feature>) xstream.fromXML(new String(xml, StandardCharsets.UTF_8));
+        } else if (kind == BINARY_FEATURES) {
+            features = new ArrayList<Feature>(featureCount);
+
+            for (int i = 0; i < featureCount; ++i)
+                features.add(readFeature(input));
+        } else {
+            throw new IOException("Unknown features format : " + kind);
+        }
+
+        if (features.size() != featureCount)
+            throw new IOException("Expected " + featureCount + " features but found " + features.size());
+
+        return new BinaryFeatureDataHeader(version, uniqueIdentifier, name, features, rowCount, blockSize,
+                blocksDeflated);
+    }
+
+    /**
+     * Writes the row headers
+     * 
+     * @param output
+     *            the output to which the row headers are written
+     * @param rowHeaders
+     *            the row headers, or <code>null</code> if there are none
+     * @throws IOException
+     *             if the row headers can not be written
+     */
+    public static final void writeRowHeaders(DataOutputStream output, SimpleEntity[] rowHeaders)
+            throws IOException {
+        output.writeInt(rowHeaders != null ? rowHeaders.length : MISSING_CODE);
+
+        if (rowHeaders != null) {
+            for (SimpleEntity header : rowHeaders) {
+                writeString(output, header != null ? header.getUniqueIdentifier() : null);
+                writeString(output, header != null ? header.getName() : null);
+            }
+        }
+    }
+
+    /**
+     * Reads the row headers
+     * 
+     * @param input
+     *            the input from which the row headers are read
+     * @return the row headers, or <code>null</code> if there are none
+     * @throws IOException
+     *             if the row headers can not be read
+     */
+    public static final SimpleEntity[] readRowHeaders(DataInputStream input) throws IOException {
+        int count = readRowHeaderCount(input);
+
+        if (count == MISSING_CODE)
+            return null;
+
+        SimpleEntity[] rowHeaders = new SimpleEntity[count];
+
+        for (int i = 0; i < count; ++i)
+            rowHeaders[i] = readRowHeader(input);
+
+        return rowHeaders;
+    }
+
+    /**
+     * Reads the number of row headers, after which the row headers can be read
+     * one at a time with {@link #readRowHeader(DataInputStream)}
+     * 
+     * @param input
+     *            the input from which the row headers are read
+     * @return the number of row headers, or <code>-1</code> if there are none
+     * @throws IOException
+     *             if the number of row headers can not be read
+     */
+    public static final int readRowHeaderCount(DataInputStream input) throws IOException {
+        return input.readInt();
+    }
+
+    /**
+     * Reads the next row header
+     * 
+     * @param input
+     *            the input from which the row header is read
+     * @return the row header, or <code>null</code> if the row has no header
+     * @throws IOException
+     *             if the row header can not be read
+     */
+    public static final SimpleEntity readRowHeader(DataInputStream input) throws IOException {
+        String uniqueIdentifier = readString(input);
+        String name = readString(input);
+
+        return uniqueIdentifier != null || name != null ? new SimpleEntityPojo(uniqueIdentifier, name) : null;
+    }
+
+    /**
+     * Writes a block of rows
+     * 
+     * @param output
+     *            the output to which the block is written
+     * @param rows
+     *            the values of each row
+     * @param start
+     *            the index of the first row of the block
+     * @param end
+     *            the index after the last row of the block
+     * @param columnCount
+     *            the number of values in each row
+     * @throws IOException
+     *             if the block can not be written
+     */
+    public static final void writeBlock(DataOutputStream output, Object[][] rows, int start, int end,
+            int columnCount) throws IOException {
+        output.writeInt(end - start);
+        output.writeInt(columnCount);
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+
+        for (int column = 0; column < columnCount; ++column) {
+            byte encoding = getEncoding(rows, start, end, column);
+
+            output.writeByte(encoding);
+
+            switch (encoding) {
+                case NULL_COLUMN:
+                    break;
+                case INT_COLUMN:
+                    writeMissing(output, rows, start, end, column);
+
+                    for (int i = start; i < end; ++i) {
+                        Object value = rows[i][column];
+
+                        flush(output, buffer, 4);
+                        buffer.putInt(value != null ? (Integer) value : 0);
+                    }
+
+                    break;
+                case LONG_COLUMN:
+                    writeMissing(output, rows, start, end, column);
+
+                    for (int i = start; i < end; ++i) {
+                        Object value = rows[i][column];
+
+                        flush(output, buffer, 8);
+                        buffer.putLong(value != null ? (Long) value : 0L);
+                    }
+
+                    break;
+                case DOUBLE_COLUMN:
+                    writeMissing(output, rows, start, end, column);
+
+                    for (int i = start; i < end; ++i) {
+                        Object value = rows[i][column];
+
+                        flush(output, buffer, 8);
+                        buffer.putDouble(value != null ? (Double) value : 0.0);
+                    }
+
+                    break;
+                case DATE_COLUMN:
+                    writeMissing(output, rows, start, end, column);
+
+                    for (int i = start; i < end; ++i) {
+                        Object value = rows[i][column];
+
+                        flush(output, buffer, 8);
+                        buffer.putLong(value != null ? ((Date) value).getTime() : 0L);
+                    }
+
+                    break;
+                case BOOLEAN_COLUMN:
+                    writeMissing(output, rows, start, end, column);
+
+                    BitSet values = new BitSet(end - start);
+
+                    for (int i = start; i < end; ++i)
+                        values.set(i - start, Boolean.TRUE.equals(rows[i][column]));
+
+                    writeBitSet(output, values);
+
+                    break;
+                case STRING_COLUMN:
+                    writeStrings(output, buffer, rows, start, end, column);
+
+                    break;
+                default:
+                    for (int i = start; i < end; ++i)
+                        writeValue(output, rows[i][column]);
+
+                    break;
+            }
+
+            flush(output, buffer, CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Reads a block of rows
+     * 
+     * @param input
+     *            the input from which the block is read
+     * @param rows
+     *            the array in which the values of each row are put
+     * @param start
+     *            the index in the array of the first row of the block
+     * @return the number of rows in the block
+     * @throws IOException
+     *             if the block can not be read
+     */
+    public static final int readBlock(DataInputStream input, Object[][] rows, int start) throws IOException {
+        int rowCount = input.readInt();
+        int columnCount = input.readInt();
+
+        int end = start + rowCount;
+
+        if (rowCount < 0 || end > rows.length)
+            throw new IOException("Invalid block size : " + rowCount);
+
+        for (int i = start; i < end; ++i)
+            rows[i] = new Object[columnCount];
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+
+        buffer.limit(0);
+
+        for (int column = 0; column < columnCount; ++column) {
+            byte encoding = input.readByte();
+
+            BitSet missing;
+
+            switch (encoding) {
+                case NULL_COLUMN:
+                    break;
+                case INT_COLUMN:
+                    missing = readBitSet(input);
+
+                    for (int i = start; i < end; ++i) {
+                        fill(input, buffer, 4, end - i);
+
+                        int value = buffer.getInt();
+
+                        rows[i][column] = missing.get(i - start) ? null : value;
+                    }
+
+                    break;
+                case LONG_COLUMN:
+                    missing = readBitSet(input);
+
+                    for (int i = start; i < end; ++i) {
+                        fill(input, buffer, 8, end - i);
+
+                        long value = buffer.getLong();
+
+                        rows[i][column] = missing.get(i - start) ? null : value;
+                    }
+
+                    break;
+                case DOUBLE_COLUMN:
+                    missing = readBitSet(input);
+
+                    for (int i = start; i < end; ++i) {
+                        fill(input, buffer, 8, end - i);
+
+                        double value = buffer.getDouble();
+
+                        rows[i][column] = missing.get(i - start) ? null : value;
+                    }
+
+                    break;
+                case DATE_COLUMN:
+                    missing = readBitSet(input);
+
+                    for (int i = start; i < end; ++i) {
+                        fill(input, buffer, 8, end - i);
+
+                        long value = buffer.getLong();
+
+                        rows[i][column] = missing.get(i - start) ? null : new Date(value);
+                    }
+
+                    break;
+                case BOOLEAN_COLUMN:
+                    missing = readBitSet(input);
+
+                    BitSet values = readBitSet(input);
+
+                    for (int i = start; i < end; ++i)
+                        rows[i][column] = missing.get(i - start) ? null : values.get(i - start);
+
+                    break;
+                case STRING_COLUMN:
+                    String[] dictionary = new String[input.readInt()];
+
+                    for (int i = 0; i < dictionary.length; ++i)
+                        dictionary[i] = readString(input);
+
+                    for (int i = start; i < end; ++i) {
+                        fill(input, buffer, 4, end - i);
+
+                        int code = buffer.getInt();
+
+                        rows[i][column] = code != MISSING_CODE ? dictionary[code] : null;
+                    }
+
+                    break;
+                case OBJECT_COLUMN:
+                    for (int i = start; i < end; ++i)
+                        rows[i][column] = readValue(input);
+
+                    break;
+                default:
+                    throw new IOException("Unknown column format : " + encoding);
+            }
+        }
+
+        return rowCount;
+    }
+
+    private static boolean hasOntologyTerms(List<Feature> features) {
+        for (Feature feature : features) {
+            if (feature != null) {
+                if (feature.getType() != null)
+                    return true;
+
+                Method method = feature.getMethod();
+
+                if (method != null) {
+                    if (method.getType() != null)
+                        return true;
+
+                    if (method.getScale() != null && method.getScale().getType() != null)
+                        return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static void writeFeature(DataOutputStream output, Feature feature) throws IOException {
+        output.writeBoolean(feature != null);
+
+        if (feature != null) {
+            writeEntity(output, feature);
+
+            Method method = feature.getMethod();
+
+            output.writeBoolean(method != null);
+
+            if (method != null) {
+                writeEntity(output, method);
+
+                Scale scale = method.getScale();
+
+                output.writeBoolean(scale != null);
+
+                if (scale != null) {
+                    writeEntity(output, scale);
+
+                    writeString(output, scale.getDataType() != null ? scale.getDataType().name() : null);
+                    writeString(output, scale.getScaleType() != null ? scale.getScaleType().name() : null);
+
+                    writeValue(output, scale.getMinimumValue());
+                    writeValue(output, scale.getMaximumValue());
+
+                    List<Object> values = scale.getValues();
+
+                    output.writeInt(values != null ? values.size() : MISSING_CODE);
+
+                    if (values != null) {
+                        for (Object value : values)
+                            writeValue(output, value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Feature readFeature(DataInputStream input) throws IOException {
+        if (!input.readBoolean())
+            return null;
+
+        String[] feature = readEntity(input);
+
+        MethodPojo method = null;
+
+        if (input.readBoolean()) {
+            String[] methodEntity = readEntity(input);
+
+            ScalePojo scale = null;
+
+            if (input.readBoolean()) {
+                String[] scaleEntity = readEntity(input);
+
+                String dataType = readString(input);
+                String scaleType = readString(input);
+
+                try {
+                    scale = new ScalePojo(scaleEntity[0], scaleEntity[1], scaleEntity[2],
+                            dataType != null ? DataType.valueOf(dataType) : null,
+                            scaleType != null ? ScaleType.valueOf(scaleType) : null);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown data type " + dataType + " or scale type " + scaleType, e);
+                }
+
+                setAbbreviation(scale, scaleEntity[3]);
+
+                Object minimum = readValue(input);
+                Object maximum = readValue(input);
+
+                if (minimum != null)
+                    scale.setMinimumValue((Number) minimum);
+
+                if (maximum != null)
+                    scale.setMaximumValue((Number) maximum);
+
+                int count = input.readInt();
+
+                if (count != MISSING_CODE) {
+                    List<Object> values = new ArrayList<Object>(count);
+
+                    for (int i = 0; i < count; ++i)
+                        values.add(readValue(input));
+
+                    scale.setValues(values);
+                }
+            }
+
+            method = new MethodPojo(methodEntity[0], methodEntity[1], methodEntity[2], scale);
+
+            setAbbreviation(method, methodEntity[3]);
+        }
+
+        FeaturePojo pojo = new FeaturePojo(feature[0], feature[1], feature[2], method);
+
+        setAbbreviation(pojo, feature[3]);
+
+        return pojo;
+    }
+
+    private static void writeEntity(DataOutputStream output, Entity entity) throws IOException {
+        writeString(output, entity.getUniqueIdentifier());
+        writeString(output, entity.getName());
+        writeString(output, entity.getDescription());
+        writeString(output, entity.getAbbreviation());
+    }
+
+    private static String[] readEntity(DataInputStream input) throws IOException {
+        return new String[] { readString(input), readString(input), readString(input), readString(input) };
+    }
+
+    private static void setAbbreviation(EntityPojo entity, String abbreviation) {
+        if (abbreviation != null)
+            entity.setAbbreviation(abbreviation);
+    }
+
+    private static byte getEncoding(Object[][] rows, int start, int end, int column) {
+        Class<?> type = null;
+
+        for (int i = start; i < end; ++i) {
+            Object value = rows[i][column];
+
+            if (value != null) {
+                if (type == null)
+                    type = value.getClass();
+                else if (type != value.getClass())
+                    return OBJECT_COLUMN;
+            }
+        }
+
+        if (type == null)
+            return NULL_COLUMN;
+        else if (type == Integer.class)
+            return INT_COLUMN;
+        else if (type == Long.class)
+            return LONG_COLUMN;
+        else if (type == Double.class)
+            return DOUBLE_COLUMN;
+        else if (type == Boolean.class)
+            return BOOLEAN_COLUMN;
+        else if (type == String.class)
+            return STRING_COLUMN;
+        else if (type == Date.class)
+            return DATE_COLUMN;
+        else
+            return OBJECT_COLUMN;
+    }
+
+    private static void writeMissing(DataOutputStream output, Object[][] rows, int start, int end, int column)
+            throws IOException {
+        BitSet missing = new BitSet(end - start);
+
+        for (int i = start; i < end; ++i)
+            if (rows[i][column] == null)
+                missing.set(i - start);
+
+        writeBitSet(output, missing);
+    }
+
+    private static void writeStrings(DataOutputStream output, ByteBuffer buffer, Object[][] rows, int start,
+            int end, int column) throws IOException {
+        Map<String, Integer> codes = new HashMap<String, Integer>();
+        List<String> dictionary = new ArrayList<String>();
+
+        for (int i = start; i < end; ++i) {
+            String value = (String) rows[i][column];
+
+            if (value != null && !codes.containsKey(value)) {
+                codes.put(value, dictionary.size());
+                dictionary.add(value);
+            }
+        }
+
+        output.writeInt(dictionary.size());
+
+        for (String value : dictionary)
+            writeString(output, value);
+
+        for (int i = start; i < end; ++i) {
+            Object value = rows[i][column];
+
+            flush(output, buffer, 4);
+            buffer.putInt(value != null ? codes.get(value) : MISSING_CODE);
+        }
+
+        flush(output, buffer, CHUNK_SIZE);
+    }
+
+    private static void writeBitSet(DataOutputStream output, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+
+        output.writeInt(words.length);
+
+        for (long word : words)
+            output.writeLong(word);
+    }
+
+    private static BitSet readBitSet(DataInputStream input) throws IOException {
+        long[] words = new long[input.readInt()];
+
+        for (int i = 0; i < words.length; ++i)
+            words[i] = input.readLong();
+
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Writes out the buffer if it does not have room for a number of bytes
+     */
+    private static void flush(DataOutputStream output, ByteBuffer buffer, int size) throws IOException {
+        if (buffer.remaining() < size) {
+            output.write(buffer.array(), 0, buffer.position());
+
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads as many values of a size as fit into the buffer, up to a number
+     * remaining, if the buffer has no value left
+     */
+    private static void fill(DataInputStream input, ByteBuffer buffer, int size, int remaining)
+            throws IOException {
+        if (buffer.remaining() < size) {
+            int length = (int) Math.min((long) size * remaining, buffer.capacity() / size * size);
+
+            buffer.clear();
+
+            input.readFully(buffer.array(), 0, length);
+
+            buffer.limit(length);
+        }
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL_VALUE);
+        } else if (value instanceof Integer) {
+            output.writeByte(INTEGER_VALUE);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG_VALUE);
+            output.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE_VALUE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN_VALUE);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            output.writeByte(DATE_VALUE);
+            output.writeLong(((Date) value).getTime());
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT_VALUE);
+            output.writeShort((Short) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT_VALUE);
+            output.writeFloat((Float) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BIG_INTEGER_VALUE);
+            writeString(output, value.toString());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(BIG_DECIMAL_VALUE);
+            writeString(output, value.toString());
+        } else {
+            // as in the text format
+            output.writeByte(STRING_VALUE);
+            writeString(output, value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        byte tag = input.readByte();
+
+        switch (tag) {
+            case NULL_VALUE:
+                return null;
+            case INTEGER_VALUE:
+                return input.readInt();
+            case LONG_VALUE:
+                return input.readLong();
+            case DOUBLE_VALUE:
+                return input.readDouble();
+            case BOOLEAN_VALUE:
+                return input.readBoolean();
+            case STRING_VALUE:
+                return readString(input);
+            case DATE_VALUE:
+                return new Date(input.readLong());
+            case SHORT_VALUE:
+                return input.readShort();
+            case FLOAT_VALUE:
+                return input.readFloat();
+            case BIG_INTEGER_VALUE:
+                return new BigInteger(readString(input));
+            case BIG_DECIMAL_VALUE:
+                return new BigDecimal(readString(input));
+            default:
+                throw new IOException("Unknown value type : " + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        } else {
+            output.writeInt(MISSING_CODE);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+
+        if (length == MISSING_CODE)
+            return null;
+
+        byte[] bytes = new byte[length];
+
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.array;
+
+import java.util.List;
+
+import uno.informatics.data.Feature;
+
+/**
+ * The header of feature data in the binary format of
+ * {@link BinaryFeatureDataFormat}, giving the identification, features and
+ * dimensions of the data, and how the rows are split into blocks
+ * 
+ * @author Guy Davenport
+ *
+ */
+public class BinaryFeatureDataHeader {
+    private final int version;
+    private final String uniqueIdentifier;
+    private final String name;
+    private final List<Feature> features;
+    private final int rowCount;
+    private final int blockSize;
+    private final boolean blocksDeflated;
+
+    public BinaryFeatureDataHeader(String uniqueIdentifier, String name, List<Feature> features, int rowCount,
+            int blockSize) {
+        this(uniqueIdentifier, name, features, rowCount, blockSize, false);
+    }
+
+    public BinaryFeatureDataHeader(String uniqueIdentifier, String name, List<Feature> features, int rowCount,
+            int blockSize, boolean blocksDeflated) {
+        this(BinaryFeatureDataFormat.VERSION, uniqueIdentifier, name, features, rowCount, blockSize,
+                blocksDeflated);
+    }
+
+    BinaryFeatureDataHeader(int version, String uniqueIdentifier, String name, List<Feature> features, int rowCount,
+            int blockSize, boolean blocksDeflated) {
+        if (features == null) {
+            throw new IllegalArgumentException("Features not defined.");
+        }
+
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("Invalid row count : " + rowCount);
+        }
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invalid block size : " + blockSize);
+        }
+
+        this.version = version;
+        this.uniqueIdentifier = uniqueIdentifier;
+        this.name = name;
+        this.features = features;
+        this.rowCount = rowCount;
+        this.blockSize = blockSize;
+        this.blocksDeflated = blocksDeflated;
+    }
+
+    /**
+     * Gets the version of the format in which the data was written
+     * 
+     * @return the version of the format
+     */
+    public final int getVersion() {
+        return version;
+    }
+
+    public final String getUniqueIdentifier() {
+        return uniqueIdentifier;
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    public final List<Feature> getFeatures() {
+        return features;
+    }
+
+    public final int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the maximum number of rows in a block, all blocks but the last
+     * have this number of rows
+     * 
+     * @return the maximum number of rows in a block
+     */
+    public final int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Checks if each block is deflated before it is written to its zip entry,
+     * which is then stored without further compression, so that the blocks
+     * can be compressed in parallel. Otherwise the blocks are compressed by
+     * their zip entries.
+     * 
+     * @return <code>true</code> if each block is deflated before it is written
+     *         to its zip entry
+     */
+    public final boolean isBlocksDeflated() {
+        return blocksDeflated;
+    }
+
+    /**
+     * Gets the number of blocks
+     * 
+     * @return the number of blocks
+     */
+    public final int getBlockCount() {
+        return (int) ((rowCount + (long) blockSize - 1) / blockSize);
+    }
+
+    /**
+     * Gets the index of the first row of a block
+     * 
+     * @param block
+     *            the index of the block
+     * @return the index of the first row of the block
+     */
+    public final int getBlockStart(int block) {
+        return (int) Math.min((long) block * blockSize, rowCount);
+    }
+
+    /**
+     * Gets the number of rows in a block
+     * 
+     * @param block
+     *            the index of the block
+     * @return the number of rows in the block
+     */
+    public final int getBlockRowCount(int block) {
+        return getBlockStart(block + 1) - getBlockStart(block);
+    }
+}
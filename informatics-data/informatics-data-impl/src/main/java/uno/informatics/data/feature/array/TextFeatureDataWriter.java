@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uno.informatics.data.feature.array;
+
+import static uno.informatics.data.feature.AbstractFeatureData.ID;
+import static uno.informatics.data.feature.AbstractFeatureData.MAX;
+import static uno.informatics.data.feature.AbstractFeatureData.MIN;
+import static uno.informatics.data.feature.AbstractFeatureData.NAME;
+import static uno.informatics.data.feature.AbstractFeatureData.TYPE;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import uno.informatics.common.Constants;
+import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.io.IOUtilities;
+import uno.informatics.common.io.text.FlushPolicy;
+import uno.informatics.common.io.text.TextFileRowWriter;
+import uno.informatics.data.Feature;
+import uno.informatics.data.Scale;
+import uno.informatics.data.ScaleType;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.FeatureDataRow;
+import uno.informatics.data.io.FileType;
+
+/**
+ * Writes feature data to a text file one row at a time, in the format read by
+ * {@link ArrayFeatureData#readData(Path, FileType, uno.informatics.data.utils.DataOption...)},
+ * without holding the rows in memory, so that data with more rows than can be
+ * held in memory can be written as the rows are produced.
+ * 
+ * The header rows are written when the writer is created. The minimum and
+ * maximum values of interval and ratio features are found from the rows
+ * written, and are written into the MIN and MAX header rows when the writer
+ * is closed, in cells of {@link #RANGE_CELL_WIDTH} characters that are padded
+ * with spaces, which are removed when the file is read. Since the header is
+ * updated in place, the file can not be gzip compressed.
+ * 
+ * A writer is not thread-safe.
+ * 
+ * @author Guy Davenport
+ */
+public class TextFeatureDataWriter implements Closeable {
+
+    /**
+     * The width in characters of the cells of the MIN and MAX header rows of
+     * interval and ratio features, which is enough for any integer, long or
+     * double
+     */
+    public static final int RANGE_CELL_WIDTH = 32;
+
+    private final Path filePath;
+    private final List<Feature> features;
+    private final String delimiter;
+
+    // true for the interval and ratio features which have a minimum and maximum
+    private final boolean[] ranged;
+    private final Number[] minimumValues;
+    private final Number[] maximumValues;
+
+    // the position in bytes of the MIN row in the file
+    private final long rangePosition;
+
+    private TextFileRowWriter writer;
+
+    private int rowCount;
+
+    /**
+     * Creates a writer for a new file and writes the header rows
+     * 
+     * @param filePath
+     *            the path of the file to be written, which must not exist
+     * @param type
+     *            the type of the file, {@link FileType#TXT} or
+     *            {@link FileType#CSV}
+     * @param features
+     *            the features of the data, which are the columns of each row
+     * @throws IOException
+     *             if the file exists or can not be written
+     */
+    public TextFeatureDataWriter(Path filePath, FileType type, List<? extends Feature> features)
+            throws IOException {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path not defined.");
+        }
+
+        if (filePath.toFile().exists()) {
+            throw new IOException("File already exists : " + filePath + ".");
+        }
+
+        if (IOUtilities.isGzipFile(filePath)) {
+            throw new IllegalArgumentException("Gzip files are not supported : " + filePath + ".");
+        }
+
+        if (type == null) {
+            throw new IllegalArgumentException("File type not defined.");
+        }
+
+        if (type != FileType.TXT && type != FileType.CSV) {
+            throw new IllegalArgumentException(
+                    String.format("Only file types TXT and CSV are supported. Got: %s.", type));
+        }
+
+        if (features == null) {
+            throw new IllegalArgumentException("Features not defined.");
+        }
+
+        this.filePath = filePath;
+        this.features = new ArrayList<Feature>(features);
+
+        delimiter = type == FileType.CSV ? Constants.COMMA_DELIMITER : Constants.TAB_DELIMITER;
+
+        int columnCount = this.features.size();
+
+        ranged = new boolean[columnCount];
+        minimumValues = new Number[columnCount];
+        maximumValues = new Number[columnCount];
+
+        for (int i = 0; i < columnCount; ++i) {
+            ScaleType scaleType = getScale(i).getScaleType();
+
+            ranged[i] = ScaleType.INTERVAL.equals(scaleType) || ScaleType.RATIO.equals(scaleType);
+        }
+
+        String header = createHeader();
+
+        rangePosition = header.getBytes(StandardCharsets.UTF_8).length;
+
+        BufferedWriter bufferedWriter = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        try {
+            bufferedWriter.write(header);
+            bufferedWriter.write(createRange(minimumValues, maximumValues));
+
+            writer = new TextFileRowWriter(bufferedWriter);
+
+            writer.setDelimiterString(delimiter);
+            writer.setFlushPolicy(FlushPolicy.CLOSE);
+        } catch (IOException | RuntimeException e) {
+            bufferedWriter.close();
+
+            throw e;
+        }
+    }
+
+    public final Path getFilePath() {
+        return filePath;
+    }
+
+    public final List<Feature> getFeatures() {
+        return features;
+    }
+
+    /**
+     * Gets the number of rows written
+     * 
+     * @return the number of rows written
+     */
+    public final int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the minimum value of a feature in the rows written so far
+     * 
+     * @param column
+     *            the index of the feature
+     * @return the minimum value, or <code>null</code> if the feature is not an
+     *         interval or ratio feature or no values have been written
+     */
+    public final Number getMinimumValue(int column) {
+        return minimumValues[column];
+    }
+
+    /**
+     * Gets the maximum value of a feature in the rows written so far
+     * 
+     * @param column
+     *            the index of the feature
+     * @return the maximum value, or <code>null</code> if the feature is not an
+     *         interval or ratio feature or no values have been written
+     */
+    public final Number getMaximumValue(int column) {
+        return maximumValues[column];
+    }
+
+    /**
+     * Writes a row
+     * 
+     * @param header
+     *            the header of the row, which must have an identifier
+     * @param values
+     *            the values of the row, one for each feature, which are
+     *            <code>null</code> if missing
+     * @throws IOException
+     *             if the row can not be written
+     */
+    public final void writeRow(SimpleEntity header, Object[] values) throws IOException {
+        if (writer == null) {
+            throw new IOException("Writer is closed");
+        }
+
+        if (header == null || header.getUniqueIdentifier() == null) {
+            throw new IllegalArgumentException(String.format("No identifier defined for row %d.", rowCount));
+        }
+
+        if (values == null || values.length != ranged.length) {
+            throw new IllegalArgumentException("Row : " + rowCount + " size : " + (values != null ? values.length : 0)
+                    + " does not match the number of features : " + ranged.length);
+        }
+
+        for (int i = 0; i < values.length; ++i) {
+            if (ranged[i] && values[i] != null) {
+                updateRange(i, values[i]);
+            }
+        }
+
+        writer.newRow();
+        writer.writeCell(header.getUniqueIdentifier());
+        writer.newColumn();
+        writer.writeCell(header.getName());
+        writer.newColumn();
+        writer.writeRowCellsAsArray(values);
+
+        ++rowCount;
+    }
+
+    /**
+     * Writes a row
+     * 
+     * @param row
+     *            the row to be written, which must have a header
+     * @throws IOException
+     *             if the row can not be written
+     */
+    public final void writeRow(FeatureDataRow row) throws IOException {
+        writeRow(row.getHeader(), row.getValuesAsArray());
+    }
+
+    /**
+     * Writes a batch of rows
+     * 
+     * @param rows
+     *            the rows to be written, which must have headers
+     * @throws IOException
+     *             if the rows can not be written
+     */
+    public final void writeRows(List<? extends FeatureDataRow> rows) throws IOException {
+        Iterator<? extends FeatureDataRow> iterator = rows.iterator();
+
+        while (iterator.hasNext()) {
+            writeRow(iterator.next());
+        }
+    }
+
+    /**
+     * Writes the remaining rows, then writes the minimum and maximum values
+     * into the header and closes the file
+     * 
+     * @throws IOException
+     *             if the file can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+
+            writer = null;
+
+            byte[] range = createRange(minimumValues, maximumValues).getBytes(StandardCharsets.UTF_8);
+
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(range);
+
+                long position = rangePosition;
+
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        }
+    }
+
+    private Scale getScale(int column) {
+        Feature feature = features.get(column);
+
+        if (feature == null || feature.getMethod() == null || feature.getMethod().getScale() == null) {
+            throw new IllegalArgumentException("Scale not defined for feature : " + column);
+        }
+
+        return feature.getMethod().getScale();
+    }
+
+    private void updateRange(int column, Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Interval and Ratio variables should use a numeric data type.");
+        }
+
+        Number number = (Number) value;
+
+        if (minimumValues[column] == null || number.doubleValue() < minimumValues[column].doubleValue()) {
+            minimumValues[column] = number;
+        }
+
+        if (maximumValues[column] == null || number.doubleValue() > maximumValues[column].doubleValue()) {
+            maximumValues[column] = number;
+        }
+    }
+
+    /**
+     * Creates the ID, NAME and TYPE header rows, as written by
+     * {@link ArrayFeatureData#writeData(Path, FileType)}
+     */
+    private String createHeader() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(ID);
+        builder.append(delimiter);
+        builder.append(NAME);
+
+        for (Feature feature : features) {
+            builder.append(delimiter);
+            append(builder, feature.getUniqueIdentifier());
+        }
+
+        builder.append(System.lineSeparator());
+        builder.append(NAME);
+        builder.append(delimiter);
+
+        for (Feature feature : features) {
+            builder.append(delimiter);
+            append(builder, feature.getName());
+        }
+
+        builder.append(System.lineSeparator());
+        builder.append(TYPE);
+        builder.append(delimiter);
+
+        for (int i = 0; i < features.size(); ++i) {
+            Scale scale = getScale(i);
+
+            builder.append(delimiter);
+            builder.append(scale.getScaleType().getAbbreviation());
+            builder.append(scale.getDataType().getAbbreviation());
+        }
+
+        builder.append(System.lineSeparator());
+
+        return builder.toString();
+    }
+
+    /**
+     * Creates the MIN and MAX header rows, which are always the same length
+     */
+    private String createRange(Number[] minimumValues, Number[] maximumValues) throws IOException {
+        StringBuilder builder = new StringBuilder();
+
+        appendRange(builder, MIN, minimumValues);
+
+        builder.append(System.lineSeparator());
+
+        appendRange(builder, MAX, maximumValues);
+
+        return builder.toString();
+    }
+
+    private void appendRange(StringBuilder builder, String rowIdentifier, Number[] values) throws IOException {
+        builder.append(rowIdentifier);
+        builder.append(delimiter);
+
+        for (int i = 0; i < values.length; ++i) {
+            builder.append(delimiter);
+
+            if (ranged[i]) {
+                String value = values[i] != null ? ConversionUtilities.convertToString(values[i]) : "";
+
+                if (value.length() > RANGE_CELL_WIDTH) {
+                    throw new IOException("Value : " + value + " is wider than " + RANGE_CELL_WIDTH + " characters");
+                }
+
+                builder.append(value);
+
+                for (int j = value.length(); j < RANGE_CELL_WIDTH; ++j) {
+                    builder.append(' ');
+                }
+            }
+        }
+    }
+
+    private static void append(StringBuilder builder, String value) {
+        if (value != null) {
+            builder.append(value);
+        }
+    }
+}
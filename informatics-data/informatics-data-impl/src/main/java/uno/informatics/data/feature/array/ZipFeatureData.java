@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uno.informatics.data.feature.array;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipFile;
+
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.FeatureDataRow;
+import uno.informatics.data.feature.AbstractFeatureData;
+import uno.informatics.data.io.FileType;
+
+/**
+ * Feature data in a zip file in the binary format of
+ * {@link BinaryFeatureDataFormat}, which is read from the file on demand, see
+ * {@link ZipFeatureDataReader#readLazily()}. Only the header entry is read
+ * when the data is opened, so the identifier, name, features and row count
+ * are available at once. The row headers are read when first needed, and the
+ * blocks of values are read when a row in the block is first requested.
+ * 
+ * The most recently used blocks are cached, up to the number of blocks set
+ * with {@link #setCacheSize(int)}, after which the least recently used block
+ * is evicted. Methods that return all of the values or rows, such as
+ * {@link #getValuesAsArray()}, use the cached blocks but do not add blocks to
+ * the cache, so that they do not evict the blocks in use. The values returned
+ * are copies, so changing them does not change the cached blocks.
+ * 
+ * The zip file is held open until the data is closed, after which values and
+ * row headers that have not been read throw an {@link IllegalStateException}.
+ * Since the methods of the data do not throw checked exceptions, an entry that
+ * can not be read throws an {@link UncheckedIOException}. The data can be
+ * used by multiple threads.
+ * 
+ * The data can not be serialized, since it depends on the open zip file.
+ * 
+ * @author Guy Davenport
+ */
+public class ZipFeatureData extends AbstractFeatureData implements Closeable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of blocks cached by default
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4;
+
+    private final transient ZipFile zipFile;
+    private final transient BinaryFeatureDataHeader header;
+
+    // blocks in order of access, the least recently used first
+    private final transient LinkedHashMap<Integer, Object[][]> cache;
+
+    private int cacheSize;
+    private volatile boolean closed;
+
+    private SimpleEntity[] rowHeaders;
+    private Set<Integer> ids;
+
+    /**
+     * Creates data read on demand from an open zip file
+     * 
+     * @param zipFile
+     *            the zip file, which is closed when the data is closed
+     * @param header
+     *            the header read from the zip file
+     */
+    ZipFeatureData(ZipFile zipFile, BinaryFeatureDataHeader header) {
+        super(header.getUniqueIdentifier(), header.getName(), header.getFeatures());
+
+        this.zipFile = zipFile;
+        this.header = header;
+
+        cacheSize = DEFAULT_CACHE_SIZE;
+        cache = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true);
+    }
+
+    public final synchronized int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the maximum number of blocks of values that are cached, by default
+     * {@link #DEFAULT_CACHE_SIZE}. The least recently used blocks are evicted
+     * if more blocks are already cached.
+     * 
+     * @param cacheSize
+     *            the maximum number of cached blocks
+     */
+    public final synchronized void setCacheSize(int cacheSize) {
+        if (cacheSize < 1)
+            throw new IllegalArgumentException("Cache size must be at least 1");
+
+        this.cacheSize = cacheSize;
+
+        evict();
+    }
+
+    /**
+     * Gets the number of blocks of values that are currently cached
+     * 
+     * @return the number of cached blocks
+     */
+    public final synchronized int getCachedBlockCount() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the number of rows in each block of values, except the last
+     * 
+     * @return the number of rows in each block
+     */
+    public final int getBlockSize() {
+        return header.getBlockSize();
+    }
+
+    @Override
+    public final int getRowCount() {
+        return header.getRowCount();
+    }
+
+    /**
+     * Gets a row, reading the block of values of the row if it is not cached
+     * 
+     * @param rowIndex
+     *            the index of the row
+     * @return the row
+     * @throws UncheckedIOException
+     *             if the block of the row can not be read
+     */
+    @Override
+    public final FeatureDataRow getRow(int rowIndex) {
+        checkRow(rowIndex);
+
+        int block = rowIndex / header.getBlockSize();
+
+        return ArrayFeatureDataRow.createRow(getRowHeader(rowIndex),
+                getBlock(block, true)[rowIndex - header.getBlockStart(block)].clone());
+    }
+
+    @Override
+    public final FeatureDataRow[] getRowsAsArray() {
+        SimpleEntity[] rowHeaders = loadRowHeaders();
+        FeatureDataRow[] rows = new FeatureDataRow[getRowCount()];
+
+        for (int block = 0; block < header.getBlockCount(); ++block) {
+            Object[][] values = getBlockCopy(block);
+            int start = header.getBlockStart(block);
+
+            for (int i = 0; i < values.length; ++i)
+                rows[start + i] = ArrayFeatureDataRow.createRow(rowHeaders[start + i], values[i]);
+        }
+
+        return rows;
+    }
+
+    @Override
+    public final List<FeatureDataRow> getRows() {
+        return Arrays.asList(getRowsAsArray());
+    }
+
+    @Override
+    public List<List<Object>> getValues() {
+        Object[][] values = getValuesAsArray();
+
+        List<List<Object>> list = new ArrayList<List<Object>>(values.length);
+
+        for (Object[] row : values)
+            list.add(Arrays.asList(row));
+
+        return list;
+    }
+
+    @Override
+    public Object[][] getValuesAsArray() {
+        Object[][] values = new Object[getRowCount()][];
+
+        for (int block = 0; block < header.getBlockCount(); ++block) {
+            Object[][] blockValues = getBlockCopy(block);
+
+            System.arraycopy(blockValues, 0, values, header.getBlockStart(block), blockValues.length);
+        }
+
+        return values;
+    }
+
+    @Override
+    public List<SimpleEntity> getRowHeaders() {
+        return Arrays.asList(loadRowHeaders().clone());
+    }
+
+    @Override
+    public SimpleEntity[] getRowHeadersAsArray() {
+        return loadRowHeaders().clone();
+    }
+
+    @Override
+    public SimpleEntity getHeader(int id) {
+        checkRow(id);
+
+        return getRowHeader(id);
+    }
+
+    @Override
+    public int getSize() {
+        return getRowCount();
+    }
+
+    @Override
+    public final synchronized Set<Integer> getIDs() {
+        if (ids == null) {
+            Set<Integer> ids = new HashSet<>();
+
+            for (int i = 0; i < getRowCount(); i++) {
+                ids.add(i);
+            }
+
+            this.ids = Collections.unmodifiableSet(ids);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Writes the data to a text file one row at a time with a
+     * {@link TextFeatureDataWriter}, reading one block of values at a time
+     */
+    @Override
+    public final void writeData(Path filePath, FileType type) throws IOException {
+        try (TextFeatureDataWriter writer = new TextFeatureDataWriter(filePath, type, getFeatures())) {
+            SimpleEntity[] rowHeaders = loadRowHeaders();
+
+            for (int block = 0; block < header.getBlockCount(); ++block) {
+                Object[][] values = getBlock(block, false);
+                int start = header.getBlockStart(block);
+
+                for (int i = 0; i < values.length; ++i)
+                    writer.writeRow(rowHeaders[start + i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Closes the zip file and releases the cached blocks
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+
+            cache.clear();
+        }
+
+        zipFile.close();
+    }
+
+    /**
+     * Refuses to serialize the data, which depends on the open zip file
+     * 
+     * @throws NotSerializableException
+     *             always
+     */
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        throw new NotSerializableException(
+                getClass().getName() + " : data read from a zip file on demand can not be serialized");
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("Feature data is closed");
+    }
+
+    private void checkRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= getRowCount())
+            throw new IndexOutOfBoundsException("Invalid row : " + rowIndex);
+    }
+
+    private SimpleEntity getRowHeader(int rowIndex) {
+        return loadRowHeaders()[rowIndex];
+    }
+
+    private synchronized SimpleEntity[] loadRowHeaders() {
+        if (rowHeaders == null) {
+            checkOpen();
+
+            try (DataInputStream input = ZipFeatureDataFileHandler.openEntry(zipFile,
+                    ZipFeatureDataFileHandler.BINARY_ROW_HEADER_ENTRY)) {
+                SimpleEntity[] rowHeaders = BinaryFeatureDataFormat.readRowHeaders(input);
+
+                if (rowHeaders == null) {
+                    rowHeaders = new SimpleEntity[getRowCount()];
+                } else if (rowHeaders.length != getRowCount()) {
+                    throw new IOException("Number of row headers : " + rowHeaders.length
+                            + " does not match row count : " + getRowCount());
+                }
+
+                this.rowHeaders = rowHeaders;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return rowHeaders;
+    }
+
+    /**
+     * Gets a block of values from the cache, or reads it from the zip file,
+     * adding it to the cache if required
+     */
+    private Object[][] getBlock(int block, boolean addToCache) {
+        synchronized (this) {
+            Object[][] values = cache.get(block);
+
+            if (values != null)
+                return values;
+        }
+
+        // blocks are read outside of the lock, so that other threads can use
+        // the cached blocks, which may lead to a block being read twice
+        Object[][] values = readBlock(block);
+
+        if (addToCache) {
+            synchronized (this) {
+                Object[][] cached = cache.get(block);
+
+                if (cached != null)
+                    return cached;
+
+                cache.put(block, values);
+
+                evict();
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Gets a block of values from the cache, copying the rows so that they can
+     * be changed without changing the cache, or reads it from the zip file
+     * without adding it to the cache
+     */
+    private Object[][] getBlockCopy(int block) {
+        Object[][] values;
+
+        synchronized (this) {
+            values = cache.get(block);
+        }
+
+        if (values == null)
+            return readBlock(block);
+
+        Object[][] copy = new Object[values.length][];
+
+        for (int i = 0; i < values.length; ++i)
+            copy[i] = values[i].clone();
+
+        return copy;
+    }
+
+    /**
+     * Evicts the least recently used blocks until no more than the cache size
+     * are cached
+     */
+    private void evict() {
+        Iterator<Integer> iterator = cache.keySet().iterator();
+
+        while (cache.size() > cacheSize) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private Object[][] readBlock(int block) {
+        checkOpen();
+
+        Object[][] values = new Object[header.getBlockRowCount(block)][];
+
+        try (DataInputStream input = ZipFeatureDataFileHandler.openBlock(zipFile, header, block)) {
+            if (BinaryFeatureDataFormat.readBlock(input, values, 0) != values.length)
+                throw new IOException("Block " + block + " is not the expected size");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return values;
+    }
+}
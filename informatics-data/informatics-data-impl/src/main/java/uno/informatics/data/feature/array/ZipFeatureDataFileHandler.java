@@ -16,7 +16,14 @@
 
 package uno.informatics.data.feature.array;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.StaxDriver;
@@ -42,6 +49,14 @@ public class ZipFeatureDataFileHandler extends FileHandler {
 
     protected static final String DATA_VALUES_ENTRY_PREIFX = DATA_DIRECTORY + "/values";
 
+    protected static final String HEADER_ENTRY = META_DATA_DIRECTORY + "/header.bin";
+
+    protected static final String BINARY_ROW_HEADER_ENTRY = META_DATA_DIRECTORY + "/rowHeaders.bin";
+
+    protected static final String DATA_BLOCK_ENTRY_PREFIX = DATA_DIRECTORY + "/block";
+
+    protected static final String BINARY_SUFFIX = ".bin";
+
     protected static final String CSV_SUFFIX = ".csv";
 
     protected static final String TXT_SUFFIX = ".txt";
@@ -63,4 +78,63 @@ public class ZipFeatureDataFileHandler extends FileHandler {
 
         return xstream;
     }
+
+    /**
+     * Gets the name of the entry of a block of values in the binary format
+     * 
+     * @param block
+     *            the index of the block
+     * @return the name of the entry
+     */
+    protected static String getBlockEntry(int block) {
+        return DATA_BLOCK_ENTRY_PREFIX + block + BINARY_SUFFIX;
+    }
+
+    /**
+     * Opens an entry of a zip file
+     * 
+     * @param zipFile
+     *            the zip file
+     * @param name
+     *            the name of the entry
+     * @return a buffered input for the entry
+     * @throws IOException
+     *             if the entry is missing or can not be opened
+     */
+    protected static DataInputStream openEntry(ZipFile zipFile, String name) throws IOException {
+        return new DataInputStream(new BufferedInputStream(getInputStream(zipFile, name)));
+    }
+
+    /**
+     * Opens the entry of a block of values in the binary format, inflating the
+     * block if it was deflated before it was written to its entry
+     * 
+     * @param zipFile
+     *            the zip file
+     * @param header
+     *            the header of the data
+     * @param block
+     *            the index of the block
+     * @return a buffered input for the block
+     * @throws IOException
+     *             if the entry is missing or can not be opened
+     */
+    protected static DataInputStream openBlock(ZipFile zipFile, BinaryFeatureDataHeader header, int block)
+            throws IOException {
+        InputStream input = getInputStream(zipFile, getBlockEntry(block));
+
+        if (header.isBlocksDeflated())
+            input = new InflaterInputStream(input);
+
+        return new DataInputStream(new BufferedInputStream(input));
+    }
+
+    private static InputStream getInputStream(ZipFile zipFile, String name) throws IOException {
+        ZipEntry zipEntry = zipFile.getEntry(name);
+
+        if (zipEntry == null)
+            throw new IOException("Entry missing : " + name);
+
+        return zipFile.getInputStream(zipEntry);
+    }
 }
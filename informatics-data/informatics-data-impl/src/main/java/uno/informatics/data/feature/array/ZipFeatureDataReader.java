@@ -16,115 +16,236 @@
 
 package uno.informatics.data.feature.array;
 
-import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.File;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.ZipEntry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.zip.ZipFile;
 
 import com.thoughtworks.xstream.XStream;
 
 import uno.informatics.common.io.IOUtilities;
-import uno.informatics.common.io.TableReader;
 import uno.informatics.data.Data;
 import uno.informatics.data.SimpleEntity;
 import uno.informatics.data.dataset.DatasetException;
 import uno.informatics.data.dataset.FeatureData;
+import uno.informatics.data.dataset.FeatureDataRow;
 import uno.informatics.data.io.DataReader;
-import uno.informatics.data.io.FileType;
-import uno.informatics.data.pojo.FeaturePojo;
-import uno.informatics.data.utils.DatasetUtils;
 
 // TODO  needs updating 
 
 /**
+ * Reads feature data from a zip file written by {@link ZipFeatureDataWriter},
+ * in either the binary format of {@link BinaryFeatureDataFormat} or the
+ * earlier text format, with the features and row headers as XML and the
+ * values as a text file. Data too large to be read into memory can be read
+ * one row at a time with a reader from {@link #createRowReader()}.
+ * 
  * @author Guy Davenport
  */
 public class ZipFeatureDataReader extends ZipFeatureDataFileHandler implements DataReader {
     @SuppressWarnings("unused")
     private static final String SPREADSHEET_NAME = "values";
 
+    private int parallelism = 1;
+
     public ZipFeatureDataReader(File file) {
         super(file);
     }
 
+    public final int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used to decode the blocks of values in the
+     * binary format, by default 1
+     * 
+     * @param parallelism
+     *            the number of threads
+     */
+    public final void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        this.parallelism = parallelism;
+    }
+
     /*
      * (non-Javadoc)
      * 
      * @see uno.informatics.data.io.DatasetWriter#read()
      */
-    @SuppressWarnings("unchecked")
     @Override
     public Data read() throws DatasetException {
-        FeatureData dataset = null;
-
         try {
-            ZipFile zipFile = new ZipFile(getFile());
+            try (ZipFile zipFile = new ZipFile(getFile())) {
+                if (zipFile.getEntry(HEADER_ENTRY) != null) {
+                    return readBinary(zipFile, createXStream());
+                }
+            }
 
-            XStream xstream = createXStream();
+            return readText();
+        } catch (Exception e) {
+            throw new DatasetException(e);
+        }
+    }
 
-            ZipEntry zipEntry = zipFile.getEntry(IDENTIFICATION_ENTRY);
+    /**
+     * Creates a reader for the rows of the data, which reads one row at a
+     * time, so that files larger than the available memory can be processed.
+     * The reader must be closed once the rows have been read.
+     * 
+     * @return a reader for the rows of the data
+     * @throws DatasetException
+     *             if the file can not be opened
+     */
+    public ZipFeatureDataRowReader createRowReader() throws DatasetException {
+        try {
+            return new ZipFeatureDataRowReader(getFile());
+        } catch (IOException e) {
+            throw new DatasetException(e);
+        }
+    }
 
-            SimpleEntity identification = (SimpleEntity) xstream.fromXML(zipFile.getInputStream(zipEntry));
+    /**
+     * Opens the data for reading on demand, reading only the identifier, name,
+     * features and row count, so that these are available without reading the
+     * row headers and values, which are read when first needed. The data must
+     * be closed once it is no longer used. Only data in the binary format of
+     * {@link BinaryFeatureDataFormat} can be read on demand.
+     * 
+     * @return the data read on demand
+     * @throws DatasetException
+     *             if the file can not be opened, or is not in the binary
+     *             format
+     */
+    public ZipFeatureData readLazily() throws DatasetException {
+        ZipFile zipFile = null;
 
-            zipEntry = zipFile.getEntry(FEATURES_ENTRY);
+        try {
+            zipFile = new ZipFile(getFile());
 
+            if (zipFile.getEntry(HEADER_ENTRY) == null)
+                throw new IOException("Only the binary format can be read on demand : " + getFile());
 
-            List<FeaturePojo> features = (List<FeaturePojo>) xstream.fromXML(zipFile.getInputStream(zipEntry));
+            try (DataInputStream input = openEntry(zipFile, HEADER_ENTRY)) {
+                return new ZipFeatureData(zipFile, BinaryFeatureDataFormat.readHeader(input, createXStream()));
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(zipFile);
 
-            zipEntry = zipFile.getEntry(FILE_TYPE_ENTRY);
+            throw new DatasetException(e);
+        }
+    }
 
-            FileType fileType = (FileType) xstream.fromXML(zipFile.getInputStream(zipEntry));
+    /**
+     * Reads data written in the earlier text format, one row at a time
+     */
+    private FeatureData readText() throws IOException {
+        try (ZipFeatureDataRowReader reader = new ZipFeatureDataRowReader(getFile())) {
+            int rowCount = reader.getRowCount();
 
-            zipEntry = zipFile.getEntry(ROW_HEADER_ENTRY);
+            List<SimpleEntity> rowHeaders = new ArrayList<SimpleEntity>(Math.max(rowCount, 0));
+            List<Object[]> values = new ArrayList<Object[]>(Math.max(rowCount, 0));
 
-            List<SimpleEntity> rowHeaders = null;
+            FeatureDataRow row;
 
-            if (zipEntry != null) {
-                rowHeaders = (List<SimpleEntity>) xstream.fromXML(zipFile.getInputStream(zipEntry));
-            }
-            
-            switch (fileType) {
-                case CSV:
-                    zipEntry = zipFile.getEntry(DATA_VALUES_ENTRY_PREIFX + CSV_SUFFIX);
-                    break;
-                case TXT:
-                    zipEntry = zipFile.getEntry(DATA_VALUES_ENTRY_PREIFX + TXT_SUFFIX);
-                    break;
-                case XLS:
-                    zipEntry = zipFile.getEntry(DATA_VALUES_ENTRY_PREIFX + XLS_SUFFIX);
-                    break;
-                case XLSX:
-                    zipEntry = zipFile.getEntry(DATA_VALUES_ENTRY_PREIFX + XLSX_SUFFIX);
-                    break;
-                default:
-                    break;
+            while ((row = reader.nextRow()) != null) {
+                rowHeaders.add(row.getHeader());
+                values.add(row.getValuesAsArray());
             }
 
-            TableReader reader = IOUtilities.createRowReader(
-                    new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry))), fileType);
+            return new ArrayFeatureData(reader.getUniqueIdentifier(), reader.getName(), reader.getFeatures(),
+                    rowHeaders.toArray(new SimpleEntity[rowHeaders.size()]),
+                    values.toArray(new Object[values.size()][]));
+        }
+    }
 
-            reader.setAllConversionTypes(DatasetUtils.getConversionTypes(features));
+    /**
+     * Reads the blocks in parallel, each into its own rows of the values
+     */
+    private void readBlocks(ZipFile zipFile, BinaryFeatureDataHeader header, Object[][] values)
+            throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
 
-            List<List<Object>> values = reader.readCells();
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(header.getBlockCount());
 
-            reader.close();
+            for (int block = 0; block < header.getBlockCount(); ++block) {
+                int index = block;
 
-            zipFile.close();
+                tasks.add(pool.submit(() -> {
+                    readBlock(zipFile, header, index, values);
 
-            dataset = createDataset(identification, features, rowHeaders, values);
+                    return null;
+                }));
+            }
 
-        } catch (Exception e) {
-            throw new DatasetException(e);
+            for (ForkJoinTask<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while reading " + getFile());
+        } catch (ExecutionException e) {
+            throw IOUtilities.toIOException(e);
+        } finally {
+            pool.shutdownNow();
         }
+    }
 
-        return dataset;
+    private static void closeQuietly(ZipFile zipFile) {
+        if (zipFile != null) {
+            try {
+                zipFile.close();
+            } catch (IOException e) {
+                // the original exception is reported
+            }
+        }
     }
 
-    private FeatureData createDataset(SimpleEntity identification, List<FeaturePojo> features,
-            List<SimpleEntity> rowHeaders, List<List<Object>> values) throws DatasetException {
-        return new ArrayFeatureData(identification.getUniqueIdentifier(), identification.getName(), features, rowHeaders, values);
+    private static void readBlock(ZipFile zipFile, BinaryFeatureDataHeader header, int block, Object[][] values)
+            throws IOException {
+        try (DataInputStream input = openBlock(zipFile, header, block)) {
+            if (BinaryFeatureDataFormat.readBlock(input, values, header.getBlockStart(block)) != header
+                    .getBlockRowCount(block))
+                throw new IOException("Block " + block + " is not the expected size");
+        }
     }
 
+    /**
+     * Reads data written in the binary format of
+     * {@link BinaryFeatureDataFormat}
+     */
+    private FeatureData readBinary(ZipFile zipFile, XStream xstream) throws IOException {
+        BinaryFeatureDataHeader header;
+
+        try (DataInputStream input = openEntry(zipFile, HEADER_ENTRY)) {
+            header = BinaryFeatureDataFormat.readHeader(input, xstream);
+        }
+
+        SimpleEntity[] rowHeaders;
+
+        try (DataInputStream input = openEntry(zipFile, BINARY_ROW_HEADER_ENTRY)) {
+            rowHeaders = BinaryFeatureDataFormat.readRowHeaders(input);
+        }
+
+        Object[][] values = new Object[header.getRowCount()][];
+
+        if (parallelism > 1 && header.getBlockCount() > 1) {
+            readBlocks(zipFile, header, values);
+        } else {
+            for (int block = 0; block < header.getBlockCount(); ++block)
+                readBlock(zipFile, header, block, values);
+        }
+
+        return new ArrayFeatureData(header.getUniqueIdentifier(), header.getName(), header.getFeatures(),
+                rowHeaders, values);
+    }
 }
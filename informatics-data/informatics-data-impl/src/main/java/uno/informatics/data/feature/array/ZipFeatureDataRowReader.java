@@ -0,0 +1,331 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uno.informatics.data.feature.array;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import com.thoughtworks.xstream.XStream;
+
+import uno.informatics.common.io.IOUtilities;
+import uno.informatics.common.io.RowReader;
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.FeatureDataRow;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.pojo.FeaturePojo;
+import uno.informatics.data.utils.DatasetUtils;
+
+/**
+ * Reads the rows of feature data from a zip file written by
+ * {@link ZipFeatureDataWriter} one at a time, without reading all of the data
+ * into memory, so that files larger than the available memory can be
+ * processed. The features, identifier and name of the data are read when the
+ * reader is created.
+ * 
+ * In the binary format of {@link BinaryFeatureDataFormat} at most one block of
+ * rows is held in memory at a time. In the earlier text format one row is held
+ * in memory at a time, but all of the row headers are read when the reader is
+ * created, since they are stored as a single XML entry.
+ * 
+ * A reader is not thread-safe.
+ * 
+ * @author Guy Davenport
+ */
+public class ZipFeatureDataRowReader extends ZipFeatureDataFileHandler implements Closeable {
+
+    private final ZipFile zipFile;
+
+    private String uniqueIdentifier;
+    private String name;
+    private List<? extends Feature> features;
+
+    private int rowCount = -1;
+    private int rowIndex;
+
+    // binary format
+    private BinaryFeatureDataHeader header;
+    private DataInputStream rowHeaderInput;
+    private boolean hasRowHeaders;
+    private Object[][] block;
+    private int blockIndex = -1;
+    private int blockRowIndex;
+    private int blockRowCount;
+
+    // text format
+    private RowReader textReader;
+    private Iterator<SimpleEntity> rowHeaderIterator;
+
+    private FeatureDataRow nextRow;
+
+    /**
+     * Opens a zip file and reads the features, identifier and name of the data
+     * 
+     * @param file
+     *            the zip file
+     * @throws IOException
+     *             if the file can not be opened or the features can not be
+     *             read
+     */
+    public ZipFeatureDataRowReader(File file) throws IOException {
+        super(file);
+
+        zipFile = new ZipFile(file);
+
+        try {
+            XStream xstream = createXStream();
+
+            if (zipFile.getEntry(HEADER_ENTRY) != null) {
+                openBinary(xstream);
+            } else {
+                openText(xstream);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+
+            throw e;
+        }
+    }
+
+    public final String getUniqueIdentifier() {
+        return uniqueIdentifier;
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the features of the data, which are the columns of each row
+     * 
+     * @return the features of the data
+     */
+    public final List<? extends Feature> getFeatures() {
+        return features;
+    }
+
+    /**
+     * Gets the number of rows in the data, if known before the rows are read
+     * 
+     * @return the number of rows, or <code>-1</code> if not known
+     */
+    public final int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the index of the next row to be read
+     * 
+     * @return the number of rows read so far
+     */
+    public final int getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * Checks if there is another row to be read
+     * 
+     * @return <code>true</code> if there is another row to be read
+     * @throws IOException
+     *             if the next row can not be read
+     */
+    public final boolean hasNextRow() throws IOException {
+        if (nextRow == null)
+            nextRow = header != null ? readBinaryRow() : readTextRow();
+
+        return nextRow != null;
+    }
+
+    /**
+     * Reads the next row. The values of the row are of the types of the data
+     * types of the features, or <code>null</code> if missing.
+     * 
+     * @return the next row, or <code>null</code> if there are no more rows
+     * @throws IOException
+     *             if the next row can not be read
+     */
+    public final FeatureDataRow nextRow() throws IOException {
+        if (!hasNextRow())
+            return null;
+
+        FeatureDataRow row = nextRow;
+
+        nextRow = null;
+
+        ++rowIndex;
+
+        return row;
+    }
+
+    /**
+     * Reads up to a number of rows, so that the rows can be processed in
+     * batches
+     * 
+     * @param maximumCount
+     *            the maximum number of rows to be read
+     * @return the rows read, which are fewer than the maximum number only if
+     *         there are no more rows, or empty if there are no more rows
+     * @throws IOException
+     *             if the rows can not be read
+     */
+    public final List<FeatureDataRow> nextRows(int maximumCount) throws IOException {
+        if (maximumCount < 1)
+            throw new IllegalArgumentException("Invalid maximum count : " + maximumCount);
+
+        List<FeatureDataRow> rows = new ArrayList<FeatureDataRow>(
+                rowCount >= 0 ? Math.min(maximumCount, rowCount - rowIndex) : Math.min(maximumCount, 1024));
+
+        FeatureDataRow row;
+
+        while (rows.size() < maximumCount && (row = nextRow()) != null)
+            rows.add(row);
+
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowHeaderInput != null)
+                rowHeaderInput.close();
+
+            if (textReader != null)
+                textReader.close();
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private void openBinary(XStream xstream) throws IOException {
+        try (DataInputStream input = openEntry(zipFile, HEADER_ENTRY)) {
+            header = BinaryFeatureDataFormat.readHeader(input, xstream);
+        }
+
+        uniqueIdentifier = header.getUniqueIdentifier();
+        name = header.getName();
+        features = header.getFeatures();
+        rowCount = header.getRowCount();
+
+        rowHeaderInput = openEntry(zipFile, BINARY_ROW_HEADER_ENTRY);
+
+        int rowHeaderCount = BinaryFeatureDataFormat.readRowHeaderCount(rowHeaderInput);
+
+        hasRowHeaders = rowHeaderCount >= 0;
+
+        if (hasRowHeaders && rowHeaderCount != rowCount)
+            throw new IOException(
+                    "Number of row headers : " + rowHeaderCount + " does not match row count : " + rowCount);
+
+        block = new Object[Math.min(header.getBlockSize(), rowCount)][];
+    }
+
+    @SuppressWarnings("unchecked")
+    private void openText(XStream xstream) throws IOException {
+        SimpleEntity identification = (SimpleEntity) xstream.fromXML(openEntry(zipFile, IDENTIFICATION_ENTRY));
+
+        uniqueIdentifier = identification.getUniqueIdentifier();
+        name = identification.getName();
+
+        List<FeaturePojo> textFeatures = (List<FeaturePojo>) xstream.fromXML(openEntry(zipFile, FEATURES_ENTRY));
+
+        features = textFeatures;
+
+        FileType fileType = (FileType) xstream.fromXML(openEntry(zipFile, FILE_TYPE_ENTRY));
+
+        if (zipFile.getEntry(ROW_HEADER_ENTRY) != null) {
+            List<SimpleEntity> rowHeaders = (List<SimpleEntity>) xstream
+                    .fromXML(openEntry(zipFile, ROW_HEADER_ENTRY));
+
+            rowCount = rowHeaders.size();
+            rowHeaderIterator = rowHeaders.iterator();
+        }
+
+        String valuesEntry;
+
+        switch (fileType) {
+            case CSV:
+                valuesEntry = DATA_VALUES_ENTRY_PREIFX + CSV_SUFFIX;
+                break;
+            case TXT:
+                valuesEntry = DATA_VALUES_ENTRY_PREIFX + TXT_SUFFIX;
+                break;
+            default:
+                throw new IOException("File type not supported : " + fileType);
+        }
+
+        textReader = IOUtilities.createRowReader(
+                new BufferedReader(new InputStreamReader(openEntry(zipFile, valuesEntry))), fileType);
+
+        textReader.setAllConversionTypes(DatasetUtils.getConversionTypes(textFeatures));
+    }
+
+    private FeatureDataRow readBinaryRow() throws IOException {
+        if (blockRowIndex == blockRowCount) {
+            if (blockIndex + 1 >= header.getBlockCount())
+                return null;
+
+            ++blockIndex;
+
+            try (DataInputStream input = openBlock(zipFile, header, blockIndex)) {
+                blockRowCount = BinaryFeatureDataFormat.readBlock(input, block, 0);
+            }
+
+            if (blockRowCount != header.getBlockRowCount(blockIndex))
+                throw new IOException("Block " + blockIndex + " is not the expected size");
+
+            blockRowIndex = 0;
+        }
+
+        Object[] values = block[blockRowIndex];
+
+        // release the row, so that it can be collected once processed
+        block[blockRowIndex] = null;
+
+        ++blockRowIndex;
+
+        return new ArrayFeatureDataRow(hasRowHeaders ? BinaryFeatureDataFormat.readRowHeader(rowHeaderInput) : null,
+                values);
+    }
+
+    private FeatureDataRow readTextRow() throws IOException {
+        if (rowCount >= 0 && rowIndex >= rowCount || !textReader.nextRow())
+            return null;
+
+        Object[] cells = textReader.getRowCellsAsArray();
+
+        Object[] values;
+
+        // trailing missing values may not be read
+        if (cells.length < features.size()) {
+            values = new Object[features.size()];
+
+            System.arraycopy(cells, 0, values, 0, cells.length);
+        } else {
+            values = cells;
+        }
+
+        return new ArrayFeatureDataRow(rowHeaderIterator != null ? rowHeaderIterator.next() : null, values);
+    }
+}
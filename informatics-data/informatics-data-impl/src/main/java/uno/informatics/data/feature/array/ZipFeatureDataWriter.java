@@ -16,14 +16,26 @@
 
 package uno.informatics.data.feature.array;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStreamWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
@@ -44,24 +56,133 @@ import uno.informatics.data.pojo.SimpleEntityPojo;
 //TODO  needs updating 
 
 /**
+ * Writes feature data to a zip file, by default in the binary format of
+ * {@link BinaryFeatureDataFormat}, or in the text format of earlier versions
+ * if a file type is set with {@link #setFileType(FileType)}
+ * 
  * @author Guy Davenport
  *
  */
 public class ZipFeatureDataWriter extends ZipFeatureDataFileHandler implements DataWriter {
     private FileType fileType;
-
+    private boolean binary;
+    private int blockSize;
+    private int compressionLevel;
+    private int parallelism;
+
+    /**
+     * Creates a writer that writes in the binary format of
+     * {@link BinaryFeatureDataFormat}
+     * 
+     * @param file
+     *            the zip file to be written
+     */
     public ZipFeatureDataWriter(File file) {
         super(file);
 
-        setFileType(FileType.TXT);
+        fileType = FileType.TXT;
+        binary = true;
+        blockSize = BinaryFeatureDataFormat.DEFAULT_BLOCK_SIZE;
+
+        // the values compress well enough at the fastest level
+        compressionLevel = Deflater.BEST_SPEED;
+        parallelism = 1;
     }
 
     public final FileType getFileType() {
         return fileType;
     }
 
+    /**
+     * Sets the file type in which the values are written in the text format,
+     * and selects the text format, with the features and row headers written
+     * as XML
+     * 
+     * @param fileType
+     *            the file type of the values
+     */
     public final void setFileType(FileType fileType) {
         this.fileType = fileType;
+
+        binary = false;
+    }
+
+    public final boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Sets if the data is written in the binary format of
+     * {@link BinaryFeatureDataFormat}, which is the default, or in the text
+     * format of earlier versions
+     * 
+     * @param binary
+     *            <code>true</code> to write in the binary format
+     */
+    public final void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    public final int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Sets the number of rows in each block of values in the binary format
+     * 
+     * @param blockSize
+     *            the number of rows in each block
+     */
+    public final void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invalid block size : " + blockSize);
+        }
+
+        this.blockSize = blockSize;
+    }
+
+    public final int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the level at which the binary format is compressed, by default
+     * {@link Deflater#BEST_SPEED}
+     * 
+     * @param compressionLevel
+     *            the compression level, from {@link Deflater#NO_COMPRESSION}
+     *            to {@link Deflater#BEST_COMPRESSION}, or
+     *            {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public final void setCompressionLevel(int compressionLevel) {
+        if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+                && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level : " + compressionLevel);
+        }
+
+        this.compressionLevel = compressionLevel;
+    }
+
+    public final int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used to encode and compress the blocks of
+     * values in the binary format, by default 1. If more than 1, each block is
+     * deflated before it is written to its zip entry, which is then stored
+     * without further compression, so that the blocks can be compressed at
+     * the same time. At most twice as many blocks as threads are held in
+     * memory at a time.
+     * 
+     * @param parallelism
+     *            the number of threads
+     */
+    public final void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        this.parallelism = parallelism;
     }
 
     /*
@@ -73,7 +194,9 @@ public class ZipFeatureDataWriter extends ZipFeatureDataFileHandler implements D
      */
     @Override
     public void write(Data dataset) throws DatasetException {
-        if (dataset instanceof FeatureData) {
+        if (binary && dataset instanceof FeatureData) {
+            writeBinary((FeatureData) dataset);
+        } else if (dataset instanceof FeatureData) {
             FeatureData featureDataset = (FeatureData) dataset;
 
             try {
@@ -164,4 +287,152 @@ public class ZipFeatureDataWriter extends ZipFeatureDataFileHandler implements D
         }
     }
 
+    private void writeBinary(FeatureData dataset) throws DatasetException {
+        try (ZipOutputStream outputStream = new ZipOutputStream(
+                new BufferedOutputStream(new FileOutputStream(getFile())))) {
+
+            outputStream.setLevel(compressionLevel);
+
+            // buffered, so that single numbers are not deflated one by one
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+
+            BinaryFeatureDataHeader header = new BinaryFeatureDataHeader(dataset.getUniqueIdentifier(),
+                    dataset.getName(), dataset.getFeatures(), dataset.getRowCount(), blockSize, parallelism > 1);
+
+            outputStream.putNextEntry(new ZipEntry(HEADER_ENTRY));
+
+            BinaryFeatureDataFormat.writeHeader(output, header, createXStream());
+
+            output.flush();
+
+            outputStream.closeEntry();
+
+            outputStream.putNextEntry(new ZipEntry(BINARY_ROW_HEADER_ENTRY));
+
+            BinaryFeatureDataFormat.writeRowHeaders(output,
+                    dataset.getRowCount() > 0 ? dataset.getRowHeadersAsArray() : null);
+
+            output.flush();
+
+            outputStream.closeEntry();
+
+            if (header.isBlocksDeflated()) {
+                writeBlocks(outputStream, dataset, header);
+            } else {
+                Object[][] rows = new Object[Math.min(blockSize, header.getRowCount())][];
+
+                int columnCount = dataset.getFeatures().size();
+
+                for (int block = 0; block < header.getBlockCount(); ++block) {
+                    int count = getBlockRows(dataset, header, block, rows);
+
+                    outputStream.putNextEntry(new ZipEntry(getBlockEntry(block)));
+
+                    BinaryFeatureDataFormat.writeBlock(output, rows, 0, count, columnCount);
+
+                    output.flush();
+
+                    outputStream.closeEntry();
+                }
+            }
+        } catch (IOException e) {
+            throw new DatasetException(e);
+        }
+    }
+
+    /**
+     * Encodes and deflates the blocks in parallel, and writes them in order to
+     * stored entries
+     */
+    private void writeBlocks(ZipOutputStream outputStream, FeatureData dataset, BinaryFeatureDataHeader header)
+            throws IOException {
+        int columnCount = dataset.getFeatures().size();
+
+        int maximumPending = parallelism * 2;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>(maximumPending);
+
+        try {
+            int written = 0;
+
+            for (int block = 0; block < header.getBlockCount(); ++block) {
+                if (pending.size() >= maximumPending)
+                    writeBlock(outputStream, written++, pending.removeFirst());
+
+                Object[][] rows = new Object[header.getBlockRowCount(block)][];
+
+                int count = getBlockRows(dataset, header, block, rows);
+
+                pending.addLast(pool.submit(() -> deflateBlock(rows, count, columnCount, compressionLevel)));
+            }
+
+            while (!pending.isEmpty())
+                writeBlock(outputStream, written++, pending.removeFirst());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int getBlockRows(FeatureData dataset, BinaryFeatureDataHeader header, int block, Object[][] rows) {
+        int start = header.getBlockStart(block);
+        int count = header.getBlockRowCount(block);
+
+        for (int i = 0; i < count; ++i)
+            rows[i] = dataset.getRow(start + i).getValuesAsArray();
+
+        return count;
+    }
+
+    private static byte[] deflateBlock(Object[][] rows, int count, int columnCount, int compressionLevel)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Deflater deflater = new Deflater(compressionLevel);
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new DeflaterOutputStream(bytes, deflater)))) {
+                BinaryFeatureDataFormat.writeBlock(output, rows, 0, count, columnCount);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeBlock(ZipOutputStream outputStream, int block, Future<byte[]> future)
+            throws IOException {
+        byte[] bytes;
+
+        try {
+            bytes = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw IOUtilities.toIOException(e);
+        }
+
+        CRC32 crc = new CRC32();
+
+        crc.update(bytes);
+
+        ZipEntry zipEntry = new ZipEntry(getBlockEntry(block));
+
+        // already deflated
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(bytes.length);
+        zipEntry.setCompressedSize(bytes.length);
+        zipEntry.setCrc(crc.getValue());
+
+        outputStream.putNextEntry(zipEntry);
+
+        outputStream.write(bytes);
+
+        outputStream.closeEntry();
+    }
 }
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import java.util.BitSet;
+
+import uno.informatics.data.DataType;
+
+/**
+ * A column of boolean values stored as bits
+ *
+ * @author Guy Davenport
+ *
+ */
+public class BooleanFeatureColumn extends FeatureColumn {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BitSet values;
+
+    /**
+     * Creates a column in which all values are missing
+     *
+     * @param size
+     *            the number of values
+     */
+    public BooleanFeatureColumn(int size) {
+        super(DataType.BOOLEAN, size, false);
+
+        values = new BitSet(size);
+
+        setAllMissing();
+    }
+
+    @Override
+    public final Object getValue(int row) {
+        return isMissing(row) ? null : (Object) values.get(row);
+    }
+
+    @Override
+    public final void setValue(int row, Object value) {
+        checkRow(row);
+
+        if (value == null) {
+            values.clear(row);
+            setMissing(row, true);
+        } else if (value instanceof Boolean) {
+            setBoolean(row, (Boolean) value);
+        } else {
+            throw createException(value);
+        }
+    }
+
+    @Override
+    public final BooleanFeatureColumn copyOf(int size) {
+        BooleanFeatureColumn column = new BooleanFeatureColumn(size);
+
+        column.values.or(values.get(0, Math.min(size(), size)));
+
+        copyMissing(column);
+
+        return column;
+    }
+
+    /**
+     * Gets a value, which is <code>false</code> if the value is missing
+     *
+     * @param row
+     *            the row of the value
+     * @return the value
+     */
+    public final boolean getBoolean(int row) {
+        checkRow(row);
+
+        return values.get(row);
+    }
+
+    /**
+     * Sets a value, which is then not missing
+     *
+     * @param row
+     *            the row of the value
+     * @param value
+     *            the value
+     */
+    public final void setBoolean(int row, boolean value) {
+        checkRow(row);
+
+        values.set(row, value);
+        setMissing(row, false);
+    }
+
+    /**
+     * Copies the values to an array, missing values are <code>false</code>
+     *
+     * @return a copy of the values
+     */
+    public final boolean[] toBooleanArray() {
+        boolean[] array = new boolean[size()];
+
+        for (int i = values.nextSetBit(0); i >= 0; i = values.nextSetBit(i + 1)) {
+            array[i] = true;
+        }
+
+        return array;
+    }
+
+    @Override
+    public long getMemorySize() {
+        return super.getMemorySize() + REFERENCE_SIZE + OBJECT_HEADER_SIZE + getArraySize(values.size() / 64, 8);
+    }
+}
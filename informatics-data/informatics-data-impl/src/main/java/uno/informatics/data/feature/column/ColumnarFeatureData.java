@@ -0,0 +1,463 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import uno.informatics.data.DataType;
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.FeatureData;
+import uno.informatics.data.dataset.FeatureDataRow;
+import uno.informatics.data.feature.AbstractFeatureData;
+import uno.informatics.data.feature.array.ArrayFeatureData;
+import uno.informatics.data.feature.array.TextFeatureDataWriter;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.pojo.DataPojo;
+import uno.informatics.data.utils.DataOption;
+
+/**
+ * Feature data stored by column, each column in the most compact form for
+ * the data type of its feature, see {@link FeatureColumn#create(DataType, int)},
+ * so that numbers and booleans are not stored as objects. Rows are views of
+ * the columns, and the values of a column can be copied to an array of
+ * primitives, for example with {@link #getDoubleColumn(int)}.
+ * 
+ * @author Guy Davenport
+ *
+ */
+public class ColumnarFeatureData extends AbstractFeatureData {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FeatureColumn[] columns;
+    private final SimpleEntity[] rowHeaders;
+    private final Set<Integer> ids;
+
+    public ColumnarFeatureData(String name, List<? extends Feature> features, List<SimpleEntity> rowHeaders,
+            List<List<Object>> values) {
+        this(null, name, features, rowHeaders, values);
+    }
+
+    /**
+     * Creates columnar data from rows of values
+     * 
+     * @param uniqueIdentifier
+     *            the unique identifier of the data
+     * @param name
+     *            the name of the data
+     * @param features
+     *            the features, which give the data type of each column
+     * @param rowHeaders
+     *            the headers of the rows
+     * @param values
+     *            the values of each row
+     * @throws IllegalArgumentException
+     *             if a row is not the same size as the features, a value is
+     *             not of the data type of its feature or the row headers are
+     *             not unique
+     */
+    public ColumnarFeatureData(String uniqueIdentifier, String name, List<? extends Feature> features,
+            List<SimpleEntity> rowHeaders, List<List<Object>> values) {
+        super(uniqueIdentifier, name, features);
+
+        int rowCount = values != null ? values.size() : 0;
+
+        if (rowCount > 0 && rowHeaders == null) {
+            throw new IllegalArgumentException("Headers not defined whereas row count is : " + rowCount);
+        }
+
+        if (rowCount > 0 && rowHeaders.size() != rowCount) {
+            throw new IllegalArgumentException(
+                    "Number of headers : " + rowHeaders.size() + " does not match row count : " + rowCount);
+        }
+
+        this.rowHeaders = rowCount > 0 ? rowHeaders.toArray(new SimpleEntity[rowCount]) : new SimpleEntity[0];
+
+        columns = createColumns(getFeatures(), rowCount);
+
+        if (rowCount > 0) {
+            Iterator<List<Object>> iterator = values.iterator();
+
+            int row = 0;
+
+            while (iterator.hasNext()) {
+                setRow(row, iterator.next());
+
+                ++row;
+            }
+        }
+
+        DataPojo.checkHeaders(this.rowHeaders);
+
+        ids = createIds(rowCount);
+    }
+
+    /**
+     * Creates columnar data from columns
+     * 
+     * @param uniqueIdentifier
+     *            the unique identifier of the data
+     * @param name
+     *            the name of the data
+     * @param features
+     *            the features
+     * @param rowHeaders
+     *            the headers of the rows
+     * @param columns
+     *            a column for each feature, with a value for each row, which
+     *            are used as is
+     * @throws IllegalArgumentException
+     *             if there is not a column for each feature or a column is
+     *             not the same size as the row headers
+     */
+    public ColumnarFeatureData(String uniqueIdentifier, String name, List<? extends Feature> features,
+            SimpleEntity[] rowHeaders, FeatureColumn[] columns) {
+        super(uniqueIdentifier, name, features);
+
+        if (rowHeaders == null) {
+            throw new IllegalArgumentException("Headers not defined.");
+        }
+
+        if (columns == null || columns.length != getFeatures().size()) {
+            throw new IllegalArgumentException("Number of columns does not match the number of features : "
+                    + getFeatures().size());
+        }
+
+        for (int i = 0; i < columns.length; ++i) {
+            if (columns[i] == null || columns[i].size() != rowHeaders.length) {
+                throw new IllegalArgumentException(
+                        "Column : " + i + " size does not match row count : " + rowHeaders.length);
+            }
+        }
+
+        this.rowHeaders = rowHeaders.clone();
+        this.columns = columns.clone();
+
+        DataPojo.checkHeaders(this.rowHeaders);
+
+        ids = createIds(rowHeaders.length);
+    }
+
+    /**
+     * Creates columnar data with the same identifier, name, features, row
+     * headers and values as other feature data
+     * 
+     * @param data
+     *            the data to be copied
+     */
+    public ColumnarFeatureData(FeatureData data) {
+        this(data.getUniqueIdentifier(), data.getName(), data.getFeatures(),
+                data.getRowCount() > 0 ? data.getRowHeaders() : null,
+                data.getRowCount() > 0 ? data.getValues() : null);
+    }
+
+    /**
+     * Reads feature data from a CSV or TXT file, as
+     * {@link ArrayFeatureData#readData(Path, FileType, DataOption...)}, and
+     * stores it by column. The values of each row are set in the columns as
+     * the row is read, so the rows are not held as objects, and the rows are
+     * always read sequentially.
+     * 
+     * @param filePath
+     *            the path of the file to be read
+     * @param type
+     *            the file type, which must be CSV or TXT
+     * @param options
+     *            data options
+     * @return the feature data read from the file
+     * @throws IOException
+     *             if the data can not be read
+     */
+    public static final ColumnarFeatureData readData(Path filePath, FileType type, DataOption... options)
+            throws IOException {
+        return ArrayFeatureData.readData(filePath, type, new ColumnarFeatureDataCollector(), options);
+    }
+
+    @Override
+    public final int getRowCount() {
+        return rowHeaders.length;
+    }
+
+    @Override
+    public final FeatureDataRow getRow(int rowIndex) {
+        return new ColumnarFeatureDataRow(this, rowIndex);
+    }
+
+    @Override
+    public final FeatureDataRow[] getRowsAsArray() {
+        FeatureDataRow[] rows = new FeatureDataRow[rowHeaders.length];
+
+        for (int i = 0; i < rows.length; ++i) {
+            rows[i] = new ColumnarFeatureDataRow(this, i);
+        }
+
+        return rows;
+    }
+
+    @Override
+    public final List<FeatureDataRow> getRows() {
+        return Arrays.asList(getRowsAsArray());
+    }
+
+    @Override
+    public List<List<Object>> getValues() {
+        List<List<Object>> values = new ArrayList<List<Object>>(rowHeaders.length);
+
+        for (int i = 0; i < rowHeaders.length; ++i) {
+            values.add(getRow(i).getValues());
+        }
+
+        return values;
+    }
+
+    @Override
+    public Object[][] getValuesAsArray() {
+        Object[][] values = new Object[rowHeaders.length][];
+
+        for (int i = 0; i < rowHeaders.length; ++i) {
+            values[i] = getRow(i).getValuesAsArray();
+        }
+
+        return values;
+    }
+
+    @Override
+    public List<SimpleEntity> getRowHeaders() {
+        return Arrays.asList(rowHeaders.clone());
+    }
+
+    @Override
+    public SimpleEntity[] getRowHeadersAsArray() {
+        return rowHeaders;
+    }
+
+    @Override
+    public SimpleEntity getHeader(int id) {
+        return rowHeaders[id];
+    }
+
+    @Override
+    public int getSize() {
+        return rowHeaders.length;
+    }
+
+    @Override
+    public Set<Integer> getIDs() {
+        return ids;
+    }
+
+    /**
+     * Gets the column of values of a feature
+     * 
+     * @param columnIndex
+     *            the index of the feature
+     * @return the column of values of the feature
+     */
+    public final FeatureColumn getColumn(int columnIndex) {
+        return columns[columnIndex];
+    }
+
+    /**
+     * Copies the values of an integer or short feature to an array, missing
+     * values are <code>0</code>
+     * 
+     * @param columnIndex
+     *            the index of the feature
+     * @return the values of the feature
+     * @throws IllegalArgumentException
+     *             if the feature is not an integer or short
+     */
+    public final int[] getIntColumn(int columnIndex) {
+        if (columns[columnIndex] instanceof IntFeatureColumn) {
+            return ((IntFeatureColumn) columns[columnIndex]).toIntArray();
+        }
+
+        throw createException(columnIndex, "an Integer");
+    }
+
+    /**
+     * Copies the values of a long feature to an array, missing values are
+     * <code>0</code>
+     * 
+     * @param columnIndex
+     *            the index of the feature
+     * @return the values of the feature
+     * @throws IllegalArgumentException
+     *             if the feature is not a long
+     */
+    public final long[] getLongColumn(int columnIndex) {
+        if (columns[columnIndex] instanceof LongFeatureColumn) {
+            return ((LongFeatureColumn) columns[columnIndex]).toLongArray();
+        }
+
+        throw createException(columnIndex, "a Long");
+    }
+
+    /**
+     * Copies the values of a numeric feature stored as primitives, that is a
+     * short, integer, long, float or double feature, to an array of doubles,
+     * missing values are {@link Double#NaN}
+     * 
+     * @param columnIndex
+     *            the index of the feature
+     * @return the values of the feature
+     * @throws IllegalArgumentException
+     *             if the feature is not a short, integer, long, float or
+     *             double
+     */
+    public final double[] getDoubleColumn(int columnIndex) {
+        FeatureColumn column = columns[columnIndex];
+
+        if (column instanceof DoubleFeatureColumn) {
+            return ((DoubleFeatureColumn) column).toDoubleArray();
+        } else if (column instanceof IntFeatureColumn) {
+            return ((IntFeatureColumn) column).toDoubleArray();
+        } else if (column instanceof LongFeatureColumn) {
+            return ((LongFeatureColumn) column).toDoubleArray();
+        }
+
+        throw createException(columnIndex, "a numeric");
+    }
+
+    /**
+     * Copies the values of a boolean feature to an array, missing values are
+     * <code>false</code>
+     * 
+     * @param columnIndex
+     *            the index of the feature
+     * @return the values of the feature
+     * @throws IllegalArgumentException
+     *             if the feature is not a boolean
+     */
+    public final boolean[] getBooleanColumn(int columnIndex) {
+        if (columns[columnIndex] instanceof BooleanFeatureColumn) {
+            return ((BooleanFeatureColumn) columns[columnIndex]).toBooleanArray();
+        }
+
+        throw createException(columnIndex, "a Boolean");
+    }
+
+    /**
+     * Copies the values of a string feature to an array, missing values are
+     * <code>null</code>
+     * 
+     * @param columnIndex
+     *            the index of the feature
+     * @return the values of the feature
+     * @throws IllegalArgumentException
+     *             if the feature is not a string
+     */
+    public final String[] getStringColumn(int columnIndex) {
+        if (columns[columnIndex] instanceof StringFeatureColumn) {
+            return ((StringFeatureColumn) columns[columnIndex]).toStringArray();
+        }
+
+        throw createException(columnIndex, "a String");
+    }
+
+    /**
+     * Gets an estimate of the number of bytes of heap memory used by the
+     * values and the array of row headers, not including the headers and
+     * features themselves, assuming compressed references
+     * 
+     * @return the estimated number of bytes used by the values
+     */
+    public final long getMemorySize() {
+        long size = FeatureColumn.align(16 + 4L * columns.length) + FeatureColumn.align(16 + 4L * rowHeaders.length);
+
+        for (FeatureColumn column : columns) {
+            size += column.getMemorySize();
+        }
+
+        return size;
+    }
+
+    /**
+     * Writes the data with a {@link TextFeatureDataWriter}, one row at a time
+     */
+    @Override
+    public final void writeData(Path filePath, FileType type) throws IOException {
+        try (TextFeatureDataWriter writer = new TextFeatureDataWriter(filePath, type, getFeatures())) {
+            Object[] values = new Object[columns.length];
+
+            for (int row = 0; row < rowHeaders.length; ++row) {
+                for (int i = 0; i < columns.length; ++i) {
+                    values[i] = columns[i].getValue(row);
+                }
+
+                writer.writeRow(rowHeaders[row], values);
+            }
+        }
+    }
+
+    private void setRow(int row, List<Object> values) {
+        if (values == null || values.size() != columns.length) {
+            throw new IllegalArgumentException("Row : " + row + " size : " + (values != null ? values.size() : 0)
+                    + " does not match the number of features : " + columns.length);
+        }
+
+        Iterator<Object> iterator = values.iterator();
+
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i].setValue(row, iterator.next());
+        }
+    }
+
+    static FeatureColumn[] createColumns(List<? extends Feature> features, int rowCount) {
+        FeatureColumn[] columns = new FeatureColumn[features.size()];
+
+        Iterator<? extends Feature> iterator = features.iterator();
+
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i] = FeatureColumn.create(getDataType(iterator.next()), rowCount);
+        }
+
+        return columns;
+    }
+
+    private static DataType getDataType(Feature feature) {
+        if (feature != null && feature.getMethod() != null && feature.getMethod().getScale() != null
+                && feature.getMethod().getScale().getDataType() != null) {
+            return feature.getMethod().getScale().getDataType();
+        } else {
+            return DataType.UNKNOWN;
+        }
+    }
+
+    private IllegalArgumentException createException(int columnIndex, String type) {
+        return new IllegalArgumentException("Feature : " + columnIndex + " is not " + type + " feature : "
+                + columns[columnIndex].getDataType().getName());
+    }
+
+    private static Set<Integer> createIds(int n) {
+        Set<Integer> ids = new HashSet<>();
+
+        for (int i = 0; i < n; i++) {
+            ids.add(i);
+        }
+
+        return Collections.unmodifiableSet(ids);
+    }
+}
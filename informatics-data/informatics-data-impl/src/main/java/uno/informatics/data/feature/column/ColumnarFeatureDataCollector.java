@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import java.util.Iterator;
+import java.util.List;
+
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.feature.FeatureDataCollector;
+
+/**
+ * Collects the values of the rows of a {@link ColumnarFeatureData} as they are
+ * read, setting them directly in the columns. The columns are created from the
+ * features of the first row, and doubled in size when full, then trimmed to the
+ * number of rows when the data is created.
+ *
+ * @author Guy Davenport
+ *
+ */
+class ColumnarFeatureDataCollector implements FeatureDataCollector<ColumnarFeatureData> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private FeatureColumn[] columns;
+
+    private int capacity;
+
+    private int rowCount;
+
+    @Override
+    public void addValues(List<? extends Feature> features, List<Object> values) {
+        if (columns == null) {
+            capacity = INITIAL_CAPACITY;
+            columns = ColumnarFeatureData.createColumns(features, capacity);
+        }
+
+        if (values == null || values.size() != columns.length) {
+            throw new IllegalArgumentException("Row : " + rowCount + " size : " + (values != null ? values.size() : 0)
+                    + " does not match the number of features : " + columns.length);
+        }
+
+        if (rowCount == capacity) {
+            resize(capacity * 2);
+        }
+
+        Iterator<Object> iterator = values.iterator();
+
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i].setValue(rowCount, iterator.next());
+        }
+
+        ++rowCount;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public ColumnarFeatureData createData(String uniqueIdentifier, String name, List<? extends Feature> features,
+            List<SimpleEntity> rowHeaders) {
+        if (columns == null) {
+            columns = ColumnarFeatureData.createColumns(features, 0);
+        } else if (capacity != rowCount) {
+            resize(rowCount);
+        }
+
+        return new ColumnarFeatureData(uniqueIdentifier, name, features,
+                rowHeaders.toArray(new SimpleEntity[rowHeaders.size()]), columns);
+    }
+
+    // copies one column at a time, so that at most one column is held twice
+    private void resize(int size) {
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i] = columns[i].copyOf(size);
+        }
+
+        capacity = size;
+    }
+}
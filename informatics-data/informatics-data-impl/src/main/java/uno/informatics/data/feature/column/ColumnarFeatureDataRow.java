@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import java.util.Arrays;
+import java.util.List;
+
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.FeatureDataRow;
+
+/**
+ * A view of a row of a {@link ColumnarFeatureData}, the values are read from
+ * the columns of the data when requested
+ *
+ * @author Guy Davenport
+ *
+ */
+public class ColumnarFeatureDataRow implements FeatureDataRow {
+
+    private final ColumnarFeatureData data;
+    private final int row;
+
+    /**
+     * Creates a view of a row of columnar data
+     *
+     * @param data
+     *            the data
+     * @param row
+     *            the index of the row
+     */
+    public ColumnarFeatureDataRow(ColumnarFeatureData data, int row) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data not defined.");
+        }
+
+        if (row < 0 || row >= data.getRowCount()) {
+            throw new IndexOutOfBoundsException("Invalid row : " + row);
+        }
+
+        this.data = data;
+        this.row = row;
+    }
+
+    @Override
+    public final List<Object> getValues() {
+        return Arrays.asList(getValuesAsArray());
+    }
+
+    /**
+     * Gets a copy of the values of the row
+     * 
+     * @return a copy of the values of the row
+     */
+    @Override
+    public final Object[] getValuesAsArray() {
+        Object[] values = new Object[getColumnCount()];
+
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = data.getColumn(i).getValue(row);
+        }
+
+        return values;
+    }
+
+    @Override
+    public final Object getValue(int columnIndex) {
+        return data.getColumn(columnIndex).getValue(row);
+    }
+
+    @Override
+    public final int getColumnCount() {
+        return data.getFeatures().size();
+    }
+
+    @Override
+    public final SimpleEntity getHeader() {
+        return data.getHeader(row);
+    }
+
+    public final int getRowIndex() {
+        return row;
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import uno.informatics.data.DataType;
+
+/**
+ * A column of double or float values stored as <code>double</code>
+ *
+ * @author Guy Davenport
+ *
+ */
+public class DoubleFeatureColumn extends FeatureColumn {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double[] values;
+
+    /**
+     * Creates a column in which all values are missing
+     *
+     * @param dataType
+     *            the data type of the values, {@link DataType#DOUBLE} or
+     *            {@link DataType#FLOAT}
+     * @param size
+     *            the number of values
+     */
+    public DoubleFeatureColumn(DataType dataType, int size) {
+        super(dataType, size, false);
+
+        if (dataType != DataType.DOUBLE && dataType != DataType.FLOAT) {
+            throw new IllegalArgumentException("Data type must be Double or Float : " + dataType.getName());
+        }
+
+        values = new double[size];
+
+        setAllMissing();
+    }
+
+    @Override
+    public final Object getValue(int row) {
+        if (isMissing(row)) {
+            return null;
+        }
+
+        return getDataType() == DataType.FLOAT ? (Object) (float) values[row] : (Object) values[row];
+    }
+
+    @Override
+    public final void setValue(int row, Object value) {
+        checkRow(row);
+
+        if (value == null) {
+            values[row] = Double.NaN;
+            setMissing(row, true);
+        } else if (value instanceof Double || value instanceof Float || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            values[row] = ((Number) value).doubleValue();
+            setMissing(row, false);
+        } else {
+            throw createException(value);
+        }
+    }
+
+    @Override
+    public final DoubleFeatureColumn copyOf(int size) {
+        DoubleFeatureColumn column = new DoubleFeatureColumn(getDataType(), size);
+
+        System.arraycopy(values, 0, column.values, 0, Math.min(values.length, size));
+
+        copyMissing(column);
+
+        return column;
+    }
+
+    /**
+     * Gets a value, which is {@link Double#NaN} if the value is missing
+     *
+     * @param row
+     *            the row of the value
+     * @return the value
+     */
+    public final double getDouble(int row) {
+        checkRow(row);
+
+        return values[row];
+    }
+
+    /**
+     * Sets a value, which is then not missing
+     *
+     * @param row
+     *            the row of the value
+     * @param value
+     *            the value
+     */
+    public final void setDouble(int row, double value) {
+        checkRow(row);
+
+        values[row] = getDataType() == DataType.FLOAT ? (float) value : value;
+        setMissing(row, false);
+    }
+
+    /**
+     * Copies the values to an array, missing values are
+     * {@link Double#NaN}
+     *
+     * @return a copy of the values
+     */
+    public final double[] toDoubleArray() {
+        return values.clone();
+    }
+
+    @Override
+    public long getMemorySize() {
+        return super.getMemorySize() + REFERENCE_SIZE + getArraySize(values.length, 8);
+    }
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uno.informatics.data.feature.column;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+import uno.informatics.data.DataType;
+
+/**
+ * The values of one feature of a {@link ColumnarFeatureData}, stored in the
+ * most compact form for the data type of the feature. Values may be missing,
+ * which are <code>null</code> when the values are read as objects.
+ *
+ * @author Guy Davenport
+ *
+ */
+public abstract class FeatureColumn implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // estimated heap sizes in bytes, assuming compressed references
+    protected static final int OBJECT_HEADER_SIZE = 16;
+    protected static final int ARRAY_HEADER_SIZE = 16;
+    protected static final int REFERENCE_SIZE = 4;
+
+    private final DataType dataType;
+    private final int size;
+
+    // only used by columns that can not mark missing values in their values
+    private final BitSet missing;
+
+    protected FeatureColumn(DataType dataType, int size, boolean missingMarked) {
+        if (dataType == null) {
+            throw new IllegalArgumentException("Data type not defined.");
+        }
+
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid size : " + size);
+        }
+
+        this.dataType = dataType;
+        this.size = size;
+
+        missing = missingMarked ? null : new BitSet();
+    }
+
+    /**
+     * Creates a column for values of a data type, in which all values are
+     * missing. Integers and shorts are stored as <code>int</code>, longs as
+     * <code>long</code>, doubles and floats as <code>double</code>, booleans
+     * as bits, strings as codes of a dictionary of the distinct strings and
+     * other types as objects.
+     *
+     * @param dataType
+     *            the data type of the values
+     * @param size
+     *            the number of values
+     * @return a column for the data type
+     */
+    public static final FeatureColumn create(DataType dataType, int size) {
+        if (dataType == null) {
+            throw new IllegalArgumentException("Data type not defined.");
+        }
+
+        switch (dataType) {
+            case SHORT:
+            case INTEGER:
+                return new IntFeatureColumn(dataType, size);
+            case LONG:
+                return new LongFeatureColumn(dataType, size);
+            case FLOAT:
+            case DOUBLE:
+                return new DoubleFeatureColumn(dataType, size);
+            case BOOLEAN:
+                return new BooleanFeatureColumn(size);
+            case STRING:
+                return new StringFeatureColumn(size);
+            default:
+                return new ObjectFeatureColumn(dataType, size);
+        }
+    }
+
+    public final DataType getDataType() {
+        return dataType;
+    }
+
+    /**
+     * Gets the number of values in the column
+     *
+     * @return the number of values in the column
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Checks if a value is missing
+     *
+     * @param row
+     *            the row of the value
+     * @return <code>true</code> if the value is missing
+     */
+    public boolean isMissing(int row) {
+        checkRow(row);
+
+        return missing.get(row);
+    }
+
+    /**
+     * Gets a value as an object of the data type of the column
+     *
+     * @param row
+     *            the row of the value
+     * @return the value, or <code>null</code> if the value is missing
+     */
+    public abstract Object getValue(int row);
+
+    /**
+     * Sets a value
+     *
+     * @param row
+     *            the row of the value
+     * @param value
+     *            the value, or <code>null</code> if the value is missing
+     * @throws IllegalArgumentException
+     *             if the value can not be stored in the column
+     */
+    public abstract void setValue(int row, Object value);
+
+    /**
+     * Copies the column to a column of another size, in which the values after
+     * the last value of this column are missing
+     *
+     * @param size
+     *            the number of values of the copy
+     * @return a copy of the column
+     */
+    public abstract FeatureColumn copyOf(int size);
+
+    /**
+     * Gets an estimate of the number of bytes of heap memory used by the
+     * column, assuming compressed references
+     *
+     * @return the estimated number of bytes used by the column
+     */
+    public long getMemorySize() {
+        return OBJECT_HEADER_SIZE + (missing != null ? OBJECT_HEADER_SIZE + getArraySize(missing.size() / 64, 8) : 0);
+    }
+
+    protected final void setMissing(int row, boolean missing) {
+        this.missing.set(row, missing);
+    }
+
+    protected final void setAllMissing() {
+        missing.set(0, size);
+    }
+
+    /**
+     * Copies the missing values of the rows in both columns to another column
+     */
+    protected final void copyMissing(FeatureColumn column) {
+        int count = Math.min(size, column.size);
+
+        column.missing.clear(0, count);
+        column.missing.or(missing.get(0, count));
+    }
+
+    protected final void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Invalid row : " + row);
+        }
+    }
+
+    protected final IllegalArgumentException createException(Object value) {
+        return new IllegalArgumentException("Value : " + value + " can not be stored in a column of type "
+                + dataType.getName());
+    }
+
+    /**
+     * Gets the estimated size of an array, aligned to 8 bytes
+     */
+    protected static final long getArraySize(long length, int elementSize) {
+        return align(ARRAY_HEADER_SIZE + length * elementSize);
+    }
+
+    protected static final long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import uno.informatics.data.DataType;
+
+/**
+ * A column of long values stored as <code>long</code>
+ *
+ * @author Guy Davenport
+ *
+ */
+public class LongFeatureColumn extends FeatureColumn {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long[] values;
+
+    /**
+     * Creates a column in which all values are missing
+     *
+     * @param dataType
+     *            the data type of the values, {@link DataType#LONG}
+     * @param size
+     *            the number of values
+     */
+    public LongFeatureColumn(DataType dataType, int size) {
+        super(dataType, size, false);
+
+        if (dataType != DataType.LONG) {
+            throw new IllegalArgumentException("Data type must be Long : " + dataType.getName());
+        }
+
+        values = new long[size];
+
+        setAllMissing();
+    }
+
+    @Override
+    public final Object getValue(int row) {
+        return isMissing(row) ? null : (Object) values[row];
+    }
+
+    @Override
+    public final void setValue(int row, Object value) {
+        checkRow(row);
+
+        if (value == null) {
+            values[row] = 0;
+            setMissing(row, true);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            values[row] = ((Number) value).longValue();
+            setMissing(row, false);
+        } else {
+            throw createException(value);
+        }
+    }
+
+    @Override
+    public final LongFeatureColumn copyOf(int size) {
+        LongFeatureColumn column = new LongFeatureColumn(getDataType(), size);
+
+        System.arraycopy(values, 0, column.values, 0, Math.min(values.length, size));
+
+        copyMissing(column);
+
+        return column;
+    }
+
+    /**
+     * Gets a value, which is <code>0</code> if the value is missing
+     *
+     * @param row
+     *            the row of the value
+     * @return the value
+     */
+    public final long getLong(int row) {
+        checkRow(row);
+
+        return values[row];
+    }
+
+    /**
+     * Sets a value, which is then not missing
+     *
+     * @param row
+     *            the row of the value
+     * @param value
+     *            the value
+     */
+    public final void setLong(int row, long value) {
+        checkRow(row);
+
+        values[row] = value;
+        setMissing(row, false);
+    }
+
+    /**
+     * Copies the values to an array, missing values are <code>0</code>
+     *
+     * @return a copy of the values
+     */
+    public final long[] toLongArray() {
+        return values.clone();
+    }
+
+    /**
+     * Copies the values to an array, missing values are
+     * {@link Double#NaN}
+     *
+     * @return a copy of the values
+     */
+    public final double[] toDoubleArray() {
+        double[] array = new double[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            array[i] = isMissing(i) ? Double.NaN : values[i];
+        }
+
+        return array;
+    }
+
+    @Override
+    public long getMemorySize() {
+        return super.getMemorySize() + REFERENCE_SIZE + getArraySize(values.length, 8);
+    }
+}
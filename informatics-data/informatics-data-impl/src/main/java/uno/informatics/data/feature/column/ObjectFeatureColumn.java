@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+
+import uno.informatics.data.DataType;
+
+/**
+ * A column of values of data types with no primitive representation, such
+ * as dates and big numbers, stored as objects
+ *
+ * @author Guy Davenport
+ *
+ */
+public class ObjectFeatureColumn extends FeatureColumn {
+
+    private static final long serialVersionUID = 1L;
+
+    // estimated size of a value, which depends on its type
+    private static final int VALUE_SIZE = 32;
+
+    private final Object[] values;
+
+    /**
+     * Creates a column in which all values are missing
+     *
+     * @param dataType
+     *            the data type of the values
+     * @param size
+     *            the number of values
+     */
+    public ObjectFeatureColumn(DataType dataType, int size) {
+        super(dataType, size, true);
+
+        values = new Object[size];
+    }
+
+    @Override
+    public final boolean isMissing(int row) {
+        checkRow(row);
+
+        return values[row] == null;
+    }
+
+    @Override
+    public final Object getValue(int row) {
+        checkRow(row);
+
+        return values[row];
+    }
+
+    @Override
+    public final void setValue(int row, Object value) {
+        checkRow(row);
+
+        if (value != null && !isValid(value)) {
+            throw createException(value);
+        }
+
+        values[row] = value;
+    }
+
+    @Override
+    public final ObjectFeatureColumn copyOf(int size) {
+        ObjectFeatureColumn column = new ObjectFeatureColumn(getDataType(), size);
+
+        System.arraycopy(values, 0, column.values, 0, Math.min(values.length, size));
+
+        return column;
+    }
+
+    /**
+     * Estimates the size of the values as 32 bytes each,
+     * since the size of a value depends on its type
+     */
+    @Override
+    public long getMemorySize() {
+        long size = super.getMemorySize() + REFERENCE_SIZE + getArraySize(values.length, REFERENCE_SIZE);
+
+        for (Object value : values) {
+            if (value != null) {
+                size += VALUE_SIZE;
+            }
+        }
+
+        return size;
+    }
+
+    private boolean isValid(Object value) {
+        switch (getDataType()) {
+            case DATE:
+                return value instanceof Date;
+            case BIG_INTEGER:
+                return value instanceof BigInteger;
+            case BIG_DECIMAL:
+                return value instanceof BigDecimal;
+            default:
+                return true;
+        }
+    }
+}
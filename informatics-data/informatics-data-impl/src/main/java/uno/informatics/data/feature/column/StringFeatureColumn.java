@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.feature.column;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uno.informatics.data.DataType;
+
+/**
+ * A column of string values stored as codes of a dictionary of the distinct
+ * strings, so that each distinct string is stored once
+ *
+ * @author Guy Davenport
+ *
+ */
+public class StringFeatureColumn extends FeatureColumn {
+
+    private static final long serialVersionUID = 1L;
+
+    // the code of a missing value
+    private static final int MISSING = -1;
+
+    // estimated size of an entry of the map of strings to codes
+    private static final int ENTRY_SIZE = 32 + REFERENCE_SIZE;
+
+    private final int[] codes;
+
+    private final List<String> dictionary = new ArrayList<String>();
+
+    private final Map<String, Integer> index = new HashMap<String, Integer>();
+
+    /**
+     * Creates a column in which all values are missing
+     *
+     * @param size
+     *            the number of values
+     */
+    public StringFeatureColumn(int size) {
+        super(DataType.STRING, size, true);
+
+        codes = new int[size];
+
+        for (int i = 0; i < size; ++i) {
+            codes[i] = MISSING;
+        }
+    }
+
+    @Override
+    public final boolean isMissing(int row) {
+        checkRow(row);
+
+        return codes[row] == MISSING;
+    }
+
+    @Override
+    public final Object getValue(int row) {
+        return getString(row);
+    }
+
+    @Override
+    public final void setValue(int row, Object value) {
+        if (value == null || value instanceof String) {
+            setString(row, (String) value);
+        } else {
+            throw createException(value);
+        }
+    }
+
+    /**
+     * Copies the column, including its dictionary, so that the codes of the
+     * values are the same in the copy
+     */
+    @Override
+    public final StringFeatureColumn copyOf(int size) {
+        StringFeatureColumn column = new StringFeatureColumn(size);
+
+        System.arraycopy(codes, 0, column.codes, 0, Math.min(codes.length, size));
+
+        column.dictionary.addAll(dictionary);
+        column.index.putAll(index);
+
+        return column;
+    }
+
+    /**
+     * Gets a value
+     *
+     * @param row
+     *            the row of the value
+     * @return the value, or <code>null</code> if the value is missing
+     */
+    public final String getString(int row) {
+        checkRow(row);
+
+        return codes[row] != MISSING ? dictionary.get(codes[row]) : null;
+    }
+
+    /**
+     * Sets a value, adding it to the dictionary if it is a new string
+     *
+     * @param row
+     *            the row of the value
+     * @param value
+     *            the value, or <code>null</code> if the value is missing
+     */
+    public final void setString(int row, String value) {
+        checkRow(row);
+
+        if (value != null) {
+            Integer code = index.get(value);
+
+            if (code == null) {
+                code = dictionary.size();
+
+                dictionary.add(value);
+                index.put(value, code);
+            }
+
+            codes[row] = code;
+        } else {
+            codes[row] = MISSING;
+        }
+    }
+
+    /**
+     * Gets the code of a value, which is its index in the dictionary
+     *
+     * @param row
+     *            the row of the value
+     * @return the code of the value, or <code>-1</code> if the value is
+     *         missing
+     */
+    public final int getCode(int row) {
+        checkRow(row);
+
+        return codes[row];
+    }
+
+    /**
+     * Gets the distinct strings in the column, in the order they were first
+     * set
+     *
+     * @return the distinct strings in the column
+     */
+    public final List<String> getDictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    /**
+     * Copies the values to an array, missing values are <code>null</code>
+     *
+     * @return a copy of the values
+     */
+    public final String[] toStringArray() {
+        String[] array = new String[codes.length];
+
+        for (int i = 0; i < codes.length; ++i) {
+            array[i] = codes[i] != MISSING ? dictionary.get(codes[i]) : null;
+        }
+
+        return array;
+    }
+
+    @Override
+    public long getMemorySize() {
+        long size = super.getMemorySize() + 3 * REFERENCE_SIZE + getArraySize(codes.length, 4);
+
+        // the list and its array
+        size += OBJECT_HEADER_SIZE + getArraySize(dictionary.size(), REFERENCE_SIZE);
+
+        // the map, its table and entries, with codes that are not cached
+        size += OBJECT_HEADER_SIZE + 32 + getArraySize(Integer.highestOneBit(Math.max(index.size(), 1) * 2), 
+                REFERENCE_SIZE) + (long) index.size() * (ENTRY_SIZE + OBJECT_HEADER_SIZE);
+
+        for (String string : dictionary) {
+            size += align(OBJECT_HEADER_SIZE + 8) + getArraySize(string.length(), 2);
+        }
+
+        return size;
+    }
+}
@@ -35,6 +35,20 @@ public abstract class AbstractMatrixData<ValueType extends Object> extends Simpl
     public static final String ID = "ID";
     public static final String NAME = "NAME";
     public static final String ELEMENT_FEATURE = "ELEMENT_FEATURE";
+    
+    /**
+     * Key of the {@link uno.informatics.data.utils.DataOption} giving the number
+     * of threads used to read data files, reading is sequential if not set
+     */
+    public static final String PARALLELISM = "PARALLELISM";
+    
+    /**
+     * Key of the {@link uno.informatics.data.utils.DataOption} selecting the
+     * columns read from data files, either an <code>int[]</code> of column
+     * indices or a <code>String[]</code> of column identifiers. All columns
+     * are read if not set.
+     */
+    public static final String COLUMNS = "COLUMNS";
 
     private Feature valueFeature;
     private Dataset dataset;
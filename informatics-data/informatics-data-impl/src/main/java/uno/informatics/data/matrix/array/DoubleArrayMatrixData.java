@@ -20,19 +20,25 @@ import static uno.informatics.common.Constants.UNKNOWN_COUNT;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
+import uno.informatics.common.ConversionException;
 import uno.informatics.common.io.IOUtilities;
 import uno.informatics.common.io.RowReader;
+import uno.informatics.common.io.text.MappedTextFileRowReader;
+import uno.informatics.common.io.text.ParallelTextFileReader;
 import uno.informatics.data.Feature;
 import uno.informatics.data.SimpleEntity;
 import uno.informatics.data.dataset.MatrixData;
 import uno.informatics.data.io.FileType;
 import uno.informatics.data.pojo.SimpleEntityPojo;
 import uno.informatics.data.utils.DataOption;
+import uno.informatics.data.utils.DatasetUtils;
 
 /**
  * @author Guy Davenport
@@ -62,8 +68,32 @@ public class DoubleArrayMatrixData extends ArrayMatrixData<Double> {
         super(uniqueIdentifier, name, elementFeature, values);
     }
 
+    /**
+     * Reads matrix data from a CSV or TXT file. If the {@link #PARALLELISM}
+     * option is greater than one, the data rows of the file are read and
+     * converted in parallel, giving the same matrix as reading sequentially.
+     * 
+     * @param filePath
+     *            the path of the file to be read
+     * @param type
+     *            the file type, which must be CSV or TXT
+     * @param options
+     *            data options
+     * @return the matrix data read from the file
+     * @throws IOException
+     *             if the data can not be read
+     */
     public static final MatrixData<Double> readData(Path filePath, FileType type, DataOption... options)
             throws IOException {
+        
+        int parallelism = DatasetUtils.getReadParallelism(filePath,
+                DataOption.findValue(options, PARALLELISM, Integer.class, 1));
+
+        return readData(filePath, type, parallelism, options);
+    }
+    
+    private static final MatrixData<Double> readData(Path filePath, FileType type, int parallelism, 
+            DataOption... options) throws IOException {
 
         // validate arguments
 
@@ -96,7 +126,11 @@ public class DoubleArrayMatrixData extends ArrayMatrixData<Double> {
         RowReader reader = null;
         List<List<Double>> rowList = new LinkedList<List<Double>>();
 
-        reader = IOUtilities.createRowReader(filePath, type);
+        if (parallelism > 1) {
+            reader = IOUtilities.createMappedRowReader(filePath, type);
+        } else {
+            reader = IOUtilities.createRowReader(filePath, type);
+        }
 
         if (reader != null && reader.ready()) {
             int columnCount = UNKNOWN_COUNT;
@@ -128,6 +162,12 @@ public class DoubleArrayMatrixData extends ArrayMatrixData<Double> {
                     headers.remove(0);
                 }
 
+                if (DataOption.hasOption(options, COLUMNS)) {
+                    headers = DatasetUtils.selectColumns(reader, headers, hasRowNames ? 2 : 1, 
+                            DataOption.findValue(options, COLUMNS, int[].class), 
+                            DataOption.findValue(options, COLUMNS, String[].class));
+                }
+
                 columnCount = headers.size();
 
                 columnHeaders = new ArrayList<SimpleEntity>(columnCount);
@@ -183,7 +223,17 @@ public class DoubleArrayMatrixData extends ArrayMatrixData<Double> {
                     }
                 }
 
-                while (reader.nextRow()) {
+                if (parallelism > 1) {
+                    List<Map.Entry<SimpleEntity, List<Double>>> rows = readRows((MappedTextFileRowReader) reader,
+                            row + 1, parallelism, hasRowNames, columnCount);
+                    
+                    for (Map.Entry<SimpleEntity, List<Double>> entry : rows) {
+                        rowList.add(entry.getValue());
+                        rowHeaders.add(entry.getKey());
+                    }
+                }
+                
+                while (parallelism == 1 && reader.nextRow()) {
                     ++row;
 
                     reader.nextColumn();
@@ -210,8 +260,6 @@ public class DoubleArrayMatrixData extends ArrayMatrixData<Double> {
                     } else {
                         rowHeaders.add(new SimpleEntityPojo(rowID));
                     }
-
-                    ++row;
                 }
             }
         }
@@ -233,6 +281,59 @@ public class DoubleArrayMatrixData extends ArrayMatrixData<Double> {
 
     }
 
+    /**
+     * Reads the remaining rows in parallel, the first of which is the given
+     * row of the file
+     */
+    private static List<Map.Entry<SimpleEntity, List<Double>>> readRows(MappedTextFileRowReader reader, 
+            int firstRow, int parallelism, boolean hasRowNames, int columnCount) throws IOException {
+        ParallelTextFileReader parallelReader = new ParallelTextFileReader(reader);
+
+        parallelReader.setParallelism(parallelism);
+
+        try {
+            return parallelReader.readRows((rowReader, index) -> readRow(rowReader, hasRowNames, columnCount,
+                    index != UNKNOWN_COUNT ? firstRow + index : UNKNOWN_COUNT));
+        } catch (ConversionException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static Map.Entry<SimpleEntity, List<Double>> readRow(RowReader reader, boolean hasRowNames, 
+            int columnCount, int row) throws IOException {
+        String rowID;
+        String rowName = null;
+        
+        reader.nextColumn();
+
+        rowID = reader.getCellAsString();
+
+        if (hasRowNames) {
+            reader.nextColumn();
+
+            rowName = reader.getCellAsString();
+        }
+
+        reader.nextColumn();
+
+        List<Double> cells = reader.getRowCellsAsDouble();
+
+        if (cells.size() != columnCount) {
+            if (row != UNKNOWN_COUNT)
+                throw new IOException(String.format("Row %d is not right size, expecting %d but was %d!", row,
+                        columnCount, cells.size()));
+            else
+                throw new IOException(String.format("Row is not right size, expecting %d but was %d!",
+                        columnCount, cells.size()));
+        }
+
+        if (hasRowNames) {
+            return new SimpleImmutableEntry<>(new SimpleEntityPojo(rowID, rowName), cells);
+        } else {
+            return new SimpleImmutableEntry<>(new SimpleEntityPojo(rowID), cells);
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
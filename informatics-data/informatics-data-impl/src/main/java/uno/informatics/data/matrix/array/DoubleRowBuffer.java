@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.matrix.array;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffers rows of doubles, all of the same size, as they are read. The values
+ * are copied into a single array in row-major order, which grows as rows are
+ * added, so the rows are not held as separate arrays. If the values no longer
+ * fit in a single array, see {@link PrimitiveDoubleMatrixData#MAX_FLAT_SIZE},
+ * the rows are held as separate arrays from then on.
+ *
+ * @author Guy Davenport
+ *
+ */
+class DoubleRowBuffer {
+
+    private static final int INITIAL_ROW_CAPACITY = 16;
+
+    private final int columnCount;
+
+    // the values in row-major order, or null if held by row
+    private double[] values;
+
+    // the values of each row, or null if held in a single array
+    private List<double[]> rows;
+
+    private int rowCount;
+
+    DoubleRowBuffer(int columnCount) {
+        if (columnCount < 0) {
+            throw new IllegalArgumentException("Invalid column count : " + columnCount);
+        }
+
+        this.columnCount = columnCount;
+
+        values = new double[(int) Math.min(PrimitiveDoubleMatrixData.MAX_FLAT_SIZE,
+                (long) columnCount * INITIAL_ROW_CAPACITY)];
+    }
+
+    final int getRowCount() {
+        return rowCount;
+    }
+
+    final int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Checks if the values are held in a single array
+     *
+     * @return <code>true</code> if the values are held in a single array
+     */
+    final boolean isFlat() {
+        return rows == null;
+    }
+
+    /**
+     * Adds a row, which is copied if the values are held in a single array
+     * and otherwise held as is
+     *
+     * @param row
+     *            the values of the row
+     * @throws IllegalArgumentException
+     *             if the row is not the same size as the column count
+     */
+    final void add(double[] row) {
+        if (row.length != columnCount) {
+            throw new IllegalArgumentException(
+                    "Row " + rowCount + " size : " + row.length + " does not match column count : " + columnCount);
+        }
+
+        if (rows == null && (long) (rowCount + 1) * columnCount <= PrimitiveDoubleMatrixData.MAX_FLAT_SIZE) {
+            int offset = rowCount * columnCount;
+
+            if (offset + columnCount > values.length) {
+                // grows by half, so that the unused space is at most a third
+                values = Arrays.copyOf(values, (int) Math.min(PrimitiveDoubleMatrixData.MAX_FLAT_SIZE,
+                        Math.max((long) offset + columnCount, values.length + (long) (values.length >> 1))));
+            }
+
+            System.arraycopy(row, 0, values, offset, columnCount);
+        } else {
+            if (rows == null) {
+                splitRows();
+            }
+
+            rows.add(row);
+        }
+
+        ++rowCount;
+    }
+
+    /**
+     * Gets the values in row-major order, in an array of the size of the
+     * values, and releases them from the buffer
+     *
+     * @return the values in row-major order
+     */
+    final double[] takeValues() {
+        double[] taken = values.length == rowCount * columnCount ? values
+                : Arrays.copyOf(values, rowCount * columnCount);
+
+        values = null;
+
+        return taken;
+    }
+
+    /**
+     * Gets the rows, and releases them from the buffer
+     *
+     * @return the rows
+     */
+    final double[][] takeRows() {
+        double[][] taken = rows.toArray(new double[rowCount][]);
+
+        rows = null;
+
+        return taken;
+    }
+
+    private void splitRows() {
+        rows = new ArrayList<double[]>();
+
+        for (int i = 0; i < rowCount; ++i) {
+            rows.add(Arrays.copyOfRange(values, i * columnCount, (i + 1) * columnCount));
+        }
+
+        values = null;
+    }
+}
@@ -0,0 +1,724 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.matrix.array;
+
+import static uno.informatics.common.Constants.UNKNOWN_COUNT;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uno.informatics.common.ConversionException;
+import uno.informatics.common.io.IOUtilities;
+import uno.informatics.common.io.RowReader;
+import uno.informatics.common.io.text.MappedTextFileRowReader;
+import uno.informatics.common.io.text.ParallelTextFileReader;
+import uno.informatics.common.io.text.TextFileRowReader;
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.matrix.AbstractMatrixData;
+import uno.informatics.data.pojo.DataPojo;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+import uno.informatics.data.utils.DataOption;
+import uno.informatics.data.utils.DatasetUtils;
+
+/**
+ * Matrix data of doubles stored as primitives rather than as {@link Double}
+ * objects, in a single row-major <code>double[]</code>, or in a
+ * <code>double[]</code> per row if the matrix has more than
+ * {@link #MAX_FLAT_SIZE} values. Values can be read without boxing with
+ * {@link #getDouble(int, int)} and whole rows or columns copied with
+ * {@link #getRowAsDoubleArray(int)} and {@link #getColumnAsDoubleArray(int)}.
+ * 
+ * The {@link uno.informatics.data.dataset.MatrixData} methods are a boxed
+ * view of the values, so that the matrix can be used in place of a
+ * {@link DoubleArrayMatrixData}, but {@link #getValues()} and
+ * {@link #getValuesAsArray()} create copies, which for large matrices should
+ * be avoided. Missing values are {@link Double#NaN}, rather than
+ * <code>null</code>.
+ * 
+ * @author Guy Davenport
+ *
+ */
+public class PrimitiveDoubleMatrixData extends AbstractMatrixData<Double> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The largest number of values stored in a single array
+     */
+    public static final int MAX_FLAT_SIZE = Integer.MAX_VALUE - 8;
+
+    private final int rowCount;
+    private final int columnCount;
+
+    // the values in row-major order, or null if stored by row
+    private final double[] values;
+
+    // the values of each row, or null if stored in a single array
+    private final double[][] rows;
+
+    private SimpleEntity[] rowHeaders;
+    private SimpleEntity[] columnHeaders;
+
+    private Set<Integer> ids;
+
+    public PrimitiveDoubleMatrixData(String name, Feature elementFeature, double[][] values) {
+        this(null, name, elementFeature, values);
+    }
+
+    /**
+     * Creates a matrix with a copy of the values
+     * 
+     * @param uniqueIdentifier
+     *            the unique identifier of the matrix
+     * @param name
+     *            the name of the matrix
+     * @param elementFeature
+     *            the feature describing the values
+     * @param values
+     *            the values of each row, all of which must be the same size
+     * @throws IllegalArgumentException
+     *             if the rows are not all the same size
+     */
+    public PrimitiveDoubleMatrixData(String uniqueIdentifier, String name, Feature elementFeature,
+            double[][] values) {
+        this(uniqueIdentifier, name, elementFeature, values != null ? Arrays.asList(values) : null);
+    }
+
+    /**
+     * Creates a matrix in which all values are <code>0.0</code>
+     * 
+     * @param uniqueIdentifier
+     *            the unique identifier of the matrix
+     * @param name
+     *            the name of the matrix
+     * @param elementFeature
+     *            the feature describing the values
+     * @param rowCount
+     *            the number of rows
+     * @param columnCount
+     *            the number of columns
+     */
+    public PrimitiveDoubleMatrixData(String uniqueIdentifier, String name, Feature elementFeature, int rowCount,
+            int columnCount) {
+        super(uniqueIdentifier, name, elementFeature);
+
+        if (rowCount < 0 || columnCount < 0) {
+            throw new IllegalArgumentException("Invalid size : " + rowCount + " x " + columnCount);
+        }
+
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+
+        if (isFlat(rowCount, columnCount)) {
+            values = new double[rowCount * columnCount];
+            rows = null;
+        } else {
+            values = null;
+            rows = new double[rowCount][columnCount];
+        }
+    }
+
+    /**
+     * Creates a matrix with a copy of the rows
+     */
+    private PrimitiveDoubleMatrixData(String uniqueIdentifier, String name, Feature elementFeature,
+            List<double[]> rowList) {
+        super(uniqueIdentifier, name, elementFeature);
+
+        rowCount = rowList != null ? rowList.size() : 0;
+        columnCount = rowCount > 0 ? rowList.get(0).length : 0;
+
+        for (int i = 0; i < rowCount; ++i) {
+            if (rowList.get(i).length != columnCount)
+                throw new IllegalArgumentException(
+                        "Row " + i + " size : " + rowList.get(i).length + " does not match column count : " + columnCount);
+        }
+
+        if (isFlat(rowCount, columnCount)) {
+            values = new double[rowCount * columnCount];
+            rows = null;
+
+            for (int i = 0; i < rowCount; ++i) {
+                System.arraycopy(rowList.get(i), 0, values, i * columnCount, columnCount);
+            }
+        } else {
+            values = null;
+            rows = new double[rowCount][];
+
+            for (int i = 0; i < rowCount; ++i)
+                rows[i] = rowList.get(i).clone();
+        }
+    }
+
+    /**
+     * Creates a matrix from the rows in a buffer, which are taken from the
+     * buffer without being copied again if they fit in a single array
+     */
+    private PrimitiveDoubleMatrixData(String uniqueIdentifier, String name, Feature elementFeature,
+            DoubleRowBuffer buffer) {
+        super(uniqueIdentifier, name, elementFeature);
+
+        rowCount = buffer.getRowCount();
+        columnCount = rowCount > 0 ? buffer.getColumnCount() : 0;
+
+        if (buffer.isFlat()) {
+            values = buffer.takeValues();
+            rows = null;
+        } else {
+            values = null;
+            rows = buffer.takeRows();
+        }
+    }
+
+    /**
+     * Reads matrix data from a CSV or TXT file, with the same layout and options
+     * as {@link DoubleArrayMatrixData#readData(Path, FileType, DataOption...)},
+     * but the values of each row are read as primitives. Missing values are
+     * read as {@link Double#NaN}.
+     * 
+     * @param filePath
+     *            the path of the file to be read
+     * @param type
+     *            the file type, which must be CSV or TXT
+     * @param options
+     *            data options
+     * @return the matrix data read from the file
+     * @throws IOException
+     *             if the data can not be read
+     */
+    public static final PrimitiveDoubleMatrixData readData(Path filePath, FileType type, DataOption... options)
+            throws IOException {
+
+        int parallelism = DatasetUtils.getReadParallelism(filePath,
+                DataOption.findValue(options, PARALLELISM, Integer.class, 1));
+
+        return readData(filePath, type, parallelism, options);
+    }
+
+    /**
+     * Gets a value without boxing
+     * 
+     * @param rowIndex
+     *            the row index of the required value
+     * @param columnIndex
+     *            the column index of the required value
+     * @return the value in the matrix at a given row index and column index
+     */
+    public final double getDouble(int rowIndex, int columnIndex) {
+        checkIndices(rowIndex, columnIndex);
+
+        return values != null ? values[rowIndex * columnCount + columnIndex] : rows[rowIndex][columnIndex];
+    }
+
+    /**
+     * Sets a value
+     * 
+     * @param rowIndex
+     *            the row index of the value
+     * @param columnIndex
+     *            the column index of the value
+     * @param value
+     *            the new value
+     */
+    public final void setDouble(int rowIndex, int columnIndex, double value) {
+        checkIndices(rowIndex, columnIndex);
+
+        if (values != null)
+            values[rowIndex * columnCount + columnIndex] = value;
+        else
+            rows[rowIndex][columnIndex] = value;
+    }
+
+    /**
+     * Gets a copy of the values of a row
+     * 
+     * @param rowIndex
+     *            the index of the row
+     * @return a copy of the values of the row
+     */
+    public final double[] getRowAsDoubleArray(int rowIndex) {
+        double[] row = new double[columnCount];
+
+        copyRow(rowIndex, row, 0);
+
+        return row;
+    }
+
+    /**
+     * Copies the values of a row to an array
+     * 
+     * @param rowIndex
+     *            the index of the row
+     * @param destination
+     *            the array to which the values are copied
+     * @param offset
+     *            the position in the array of the first value of the row
+     */
+    public final void copyRow(int rowIndex, double[] destination, int offset) {
+        if (rowIndex < 0 || rowIndex >= rowCount)
+            throw new IndexOutOfBoundsException("Invalid row : " + rowIndex);
+
+        if (values != null)
+            System.arraycopy(values, rowIndex * columnCount, destination, offset, columnCount);
+        else
+            System.arraycopy(rows[rowIndex], 0, destination, offset, columnCount);
+    }
+
+    /**
+     * Gets a copy of the values of a column
+     * 
+     * @param columnIndex
+     *            the index of the column
+     * @return a copy of the values of the column
+     */
+    public final double[] getColumnAsDoubleArray(int columnIndex) {
+        double[] column = new double[rowCount];
+
+        copyColumn(columnIndex, column, 0);
+
+        return column;
+    }
+
+    /**
+     * Copies the values of a column to an array
+     * 
+     * @param columnIndex
+     *            the index of the column
+     * @param destination
+     *            the array to which the values are copied
+     * @param offset
+     *            the position in the array of the value of the first row
+     */
+    public final void copyColumn(int columnIndex, double[] destination, int offset) {
+        if (columnIndex < 0 || columnIndex >= columnCount)
+            throw new IndexOutOfBoundsException("Invalid column : " + columnIndex);
+
+        if (offset < 0 || offset + rowCount > destination.length)
+            throw new IndexOutOfBoundsException("Invalid offset : " + offset);
+
+        if (values != null) {
+            for (int i = 0, j = columnIndex; i < rowCount; ++i, j += columnCount)
+                destination[offset + i] = values[j];
+        } else {
+            for (int i = 0; i < rowCount; ++i)
+                destination[offset + i] = rows[i][columnIndex];
+        }
+    }
+
+    /**
+     * Gets a copy of all the values as a 2-dimension array of primitives
+     * 
+     * @return a copy of all the values
+     */
+    public final double[][] getValuesAsDoubleArray() {
+        double[][] array = new double[rowCount][];
+
+        for (int i = 0; i < rowCount; ++i)
+            array[i] = getRowAsDoubleArray(i);
+
+        return array;
+    }
+
+    /**
+     * Checks if the values are stored in a single row-major array
+     * 
+     * @return <code>true</code> if the values are stored in a single array,
+     *         <code>false</code> if they are stored by row
+     */
+    public final boolean isFlat() {
+        return values != null;
+    }
+
+    @Override
+    public final List<List<Double>> getValues() {
+        List<List<Double>> list = new ArrayList<List<Double>>(rowCount);
+
+        for (int i = 0; i < rowCount; ++i) {
+            List<Double> row = new ArrayList<Double>(columnCount);
+
+            for (int j = 0; j < columnCount; ++j)
+                row.add(getDouble(i, j));
+
+            list.add(row);
+        }
+
+        return list;
+    }
+
+    /**
+     * Gets a boxed copy of all the values
+     * 
+     * @return a boxed copy of all the values
+     */
+    @Override
+    public final Double[][] getValuesAsArray() {
+        Double[][] array = new Double[rowCount][columnCount];
+
+        for (int i = 0; i < rowCount; ++i)
+            for (int j = 0; j < columnCount; ++j)
+                array[i][j] = getDouble(i, j);
+
+        return array;
+    }
+
+    @Override
+    public final Double getValue(int rowIndex, int columnIndex) {
+        return getDouble(rowIndex, columnIndex);
+    }
+
+    @Override
+    public final int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public final int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public boolean hasRowHeaders() {
+        return rowHeaders != null;
+    }
+
+    @Override
+    public List<SimpleEntity> getRowHeaders() {
+        return rowHeaders != null ? Arrays.asList(rowHeaders.clone()) : null;
+    }
+
+    @Override
+    public SimpleEntity[] getRowHeadersAsArray() {
+        return rowHeaders;
+    }
+
+    @Override
+    public SimpleEntity getRowHeader(int rowIndex) {
+        return rowHeaders != null ? rowHeaders[rowIndex] : null;
+    }
+
+    @Override
+    public boolean hasColumnHeaders() {
+        return columnHeaders != null;
+    }
+
+    @Override
+    public List<SimpleEntity> getColumnHeaders() {
+        return columnHeaders != null ? Arrays.asList(columnHeaders.clone()) : null;
+    }
+
+    @Override
+    public SimpleEntity[] getColumnHeadersAsArray() {
+        return columnHeaders;
+    }
+
+    @Override
+    public SimpleEntity getColumnHeader(int columnIndex) {
+        return columnHeaders != null ? columnHeaders[columnIndex] : null;
+    }
+
+    public final void setRowHeaders(List<SimpleEntity> rowHeaders) {
+        setRowHeaders(rowHeaders != null ? rowHeaders.toArray(new SimpleEntity[rowHeaders.size()]) : null);
+    }
+
+    /**
+     * Sets the row headers, which must have unique identifiers
+     * 
+     * @param rowHeaders
+     *            the row headers, one for each row, or <code>null</code> or
+     *            empty for no headers
+     */
+    public final void setRowHeaders(SimpleEntity[] rowHeaders) {
+        if (rowHeaders != null && rowHeaders.length > 0) {
+            if (rowHeaders.length != rowCount)
+                throw new IllegalArgumentException(
+                        "Number of row headers : " + rowHeaders.length + " does not match row count : " + rowCount);
+
+            DataPojo.checkHeaders(rowHeaders);
+
+            this.rowHeaders = rowHeaders.clone();
+
+            Set<Integer> ids = new HashSet<Integer>();
+
+            for (int i = 0; i < rowCount; i++)
+                ids.add(i);
+
+            this.ids = Collections.unmodifiableSet(ids);
+        } else {
+            this.rowHeaders = null;
+            this.ids = null;
+        }
+    }
+
+    public final void setColumnHeaders(List<SimpleEntity> columnHeaders) {
+        setColumnHeaders(
+                columnHeaders != null ? columnHeaders.toArray(new SimpleEntity[columnHeaders.size()]) : null);
+    }
+
+    /**
+     * Sets the column headers
+     * 
+     * @param columnHeaders
+     *            the column headers, one for each column, or <code>null</code>
+     *            or empty for no headers
+     */
+    public final void setColumnHeaders(SimpleEntity[] columnHeaders) {
+        if (columnHeaders != null && columnHeaders.length > 0) {
+            if (columnHeaders.length != columnCount)
+                throw new IllegalArgumentException("Number of column headers : " + columnHeaders.length
+                        + " does not match column count : " + columnCount);
+
+            this.columnHeaders = columnHeaders.clone();
+        } else {
+            this.columnHeaders = null;
+        }
+    }
+
+    @Override
+    public SimpleEntity getHeader(int id) {
+        return rowHeaders[id];
+    }
+
+    @Override
+    public int getSize() {
+        return rowHeaders != null ? rowHeaders.length : 0;
+    }
+
+    @Override
+    public Set<Integer> getIDs() {
+        return ids;
+    }
+
+    private static boolean isFlat(int rowCount, int columnCount) {
+        return (long) rowCount * columnCount <= MAX_FLAT_SIZE;
+    }
+
+    private void checkIndices(int rowIndex, int columnIndex) {
+        // the flat index of an invalid column may still be in the array
+        if (rowIndex < 0 || rowIndex >= rowCount || columnIndex < 0 || columnIndex >= columnCount)
+            throw new IndexOutOfBoundsException("Invalid position : " + rowIndex + "," + columnIndex);
+    }
+
+    private static final PrimitiveDoubleMatrixData readData(Path filePath, FileType type, int parallelism,
+            DataOption... options) throws IOException {
+
+        // validate arguments
+
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path not defined.");
+        }
+
+        if (!filePath.toFile().exists()) {
+            throw new IOException("File does not exist : " + filePath + ".");
+        }
+
+        if (type == null) {
+            throw new IllegalArgumentException("File type not defined.");
+        }
+
+        if (type != FileType.TXT && type != FileType.CSV) {
+            throw new IllegalArgumentException(
+                    String.format("Only file types TXT and CSV are supported. Got: %s.", type));
+        }
+
+        String uniqueIdentifier = DataOption.findValue(options, ID, String.class);
+        String name = DataOption.findValue(options, NAME, String.class);
+        Feature elementFeature = DataOption.findValue(options, ELEMENT_FEATURE, Feature.class);
+
+        if (name == null)
+            name = filePath.getFileName().toString();
+
+        List<SimpleEntity> columnHeaders = null;
+        List<SimpleEntity> rowHeaders = new ArrayList<SimpleEntity>();
+        DoubleRowBuffer buffer = new DoubleRowBuffer(0);
+
+        RowReader reader;
+
+        if (parallelism > 1) {
+            reader = IOUtilities.createMappedRowReader(filePath, type);
+        } else {
+            reader = IOUtilities.createRowReader(filePath, type);
+        }
+
+        try {
+            if (reader != null && reader.ready() && reader.nextRow()) {
+                boolean hasRowNames = false;
+
+                List<String> headers = reader.getRowCellsAsString();
+
+                if (ID.equals(headers.get(0))) {
+                    headers.remove(0); // ignore cell!
+
+                    if (NAME.equals(headers.get(0))) {
+                        hasRowNames = true;
+                        headers.remove(0); // ignore cell!
+                    }
+                } else {
+                    if (uniqueIdentifier != null)
+                        throw new IllegalArgumentException("Using ID DataOption: First cell must be " + ID);
+
+                    uniqueIdentifier = headers.get(0);
+
+                    headers.remove(0);
+                }
+
+                if (DataOption.hasOption(options, COLUMNS)) {
+                    headers = DatasetUtils.selectColumns(reader, headers, hasRowNames ? 2 : 1,
+                            DataOption.findValue(options, COLUMNS, int[].class),
+                            DataOption.findValue(options, COLUMNS, String[].class));
+                }
+
+                int columnCount = headers.size();
+
+                columnHeaders = new ArrayList<SimpleEntity>(columnCount);
+
+                for (String header : headers)
+                    columnHeaders.add(new SimpleEntityPojo(header));
+
+                buffer = new DoubleRowBuffer(columnCount);
+
+                int row = 1;
+
+                if (reader.nextRow()) {
+                    ++row;
+
+                    Map.Entry<SimpleEntity, double[]> entry = readRow(reader, hasRowNames, columnCount, row);
+
+                    if (NAME.equals(entry.getKey().getUniqueIdentifier())) {
+                        // the names are read again, as strings
+                        Iterator<String> iterator1 = reader.getRowCellsAsString().iterator();
+                        Iterator<SimpleEntity> iterator2 = columnHeaders.iterator();
+
+                        while (iterator1.hasNext() && iterator2.hasNext())
+                            ((SimpleEntityPojo) iterator2.next()).setName(iterator1.next());
+                    } else {
+                        rowHeaders.add(entry.getKey());
+                        buffer.add(entry.getValue());
+                    }
+
+                    if (parallelism > 1) {
+                        List<Map.Entry<SimpleEntity, double[]>> rows = readRows((MappedTextFileRowReader) reader,
+                                row + 1, parallelism, hasRowNames, columnCount);
+
+                        for (int i = 0; i < rows.size(); ++i) {
+                            rowHeaders.add(rows.get(i).getKey());
+                            buffer.add(rows.get(i).getValue());
+
+                            // released once copied, so that the rows are not all held twice
+                            rows.set(i, null);
+                        }
+                    } else {
+                        while (reader.nextRow()) {
+                            ++row;
+
+                            entry = readRow(reader, hasRowNames, columnCount, row);
+
+                            rowHeaders.add(entry.getKey());
+                            buffer.add(entry.getValue());
+                        }
+                    }
+                }
+            }
+        } finally {
+            if (reader != null)
+                reader.close();
+        }
+
+        PrimitiveDoubleMatrixData matrix = new PrimitiveDoubleMatrixData(uniqueIdentifier, name, elementFeature,
+                buffer);
+
+        if (columnHeaders != null && !columnHeaders.isEmpty() && matrix.getRowCount() > 0)
+            matrix.setColumnHeaders(columnHeaders);
+
+        if (!rowHeaders.isEmpty())
+            matrix.setRowHeaders(rowHeaders);
+
+        return matrix;
+    }
+
+    /**
+     * Reads the remaining rows in parallel, the first of which is the given
+     * row of the file
+     */
+    private static List<Map.Entry<SimpleEntity, double[]>> readRows(MappedTextFileRowReader reader, int firstRow,
+            int parallelism, boolean hasRowNames, int columnCount) throws IOException {
+        ParallelTextFileReader parallelReader = new ParallelTextFileReader(reader);
+
+        parallelReader.setParallelism(parallelism);
+
+        try {
+            return parallelReader.readRows((rowReader, index) -> readRow(rowReader, hasRowNames, columnCount,
+                    index != UNKNOWN_COUNT ? firstRow + index : UNKNOWN_COUNT));
+        } catch (ConversionException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Reads the header and values of a row, the values as primitives, in which
+     * missing values are {@link Double#NaN}. A row of column names is read as
+     * a row with the identifier {@link #NAME}, without its values.
+     */
+    private static Map.Entry<SimpleEntity, double[]> readRow(RowReader reader, boolean hasRowNames, int columnCount,
+            int row) throws IOException {
+        String rowName = null;
+
+        reader.nextColumn();
+
+        String rowID = reader.getCellAsString();
+
+        if (hasRowNames) {
+            reader.nextColumn();
+
+            rowName = reader.getCellAsString();
+        }
+
+        reader.nextColumn();
+
+        if (NAME.equals(rowID) && row == 2)
+            return new SimpleImmutableEntry<>(new SimpleEntityPojo(rowID), null);
+
+        if (reader instanceof TextFileRowReader)
+            ((TextFileRowReader) reader).setDefaultDouble(Double.NaN);
+
+        double[] cells = reader.getRowCellsAsDoubleArray();
+
+        if (cells.length != columnCount) {
+            if (row > 0)
+                throw new IOException(String.format("Row %d is not right size, expecting %d but was %d!", row,
+                        columnCount, cells.length));
+            else
+                throw new IOException(String.format("Row is not right size, expecting %d but was %d!",
+                        columnCount, cells.length));
+        }
+
+        if (hasRowNames) {
+            return new SimpleImmutableEntry<>(new SimpleEntityPojo(rowID, rowName), cells);
+        } else {
+            return new SimpleImmutableEntry<>(new SimpleEntityPojo(rowID), cells);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.matrix.mapped;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import uno.informatics.data.DataType;
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.matrix.AbstractMatrixData;
+import uno.informatics.data.pojo.DataPojo;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+
+/**
+ * Read-only matrix data of doubles backed by a memory-mapped matrix file in
+ * the format of {@link MappedMatrixFileHandler}, as written by
+ * {@link MappedMatrixWriter}. Only the headers are read into the heap, the
+ * values are paged in by the operating system as they are accessed, so a
+ * matrix can be larger than the heap, opens without reading the values and
+ * can be scanned without creating garbage using {@link #getDouble(int, int)},
+ * {@link #copyRow(int, double[], int)} and
+ * {@link #copyColumn(int, double[], int)}.
+ * 
+ * The {@link uno.informatics.data.dataset.MatrixData} methods box the
+ * values, and {@link #getValues()} and {@link #getValuesAsArray()} copy the
+ * whole matrix into the heap. Missing values are {@link Double#NaN}.
+ * 
+ * The file is mapped until the matrix is garbage collected, so it should not
+ * be modified or deleted while the matrix is in use.
+ * 
+ * @author Guy Davenport
+ *
+ */
+public class MappedDoubleMatrixData extends AbstractMatrixData<Double> {
+
+    private static final long serialVersionUID = 1L;
+
+    // the size of each mapped region, a multiple of all element sizes
+    private static final int PAGE_SHIFT = 30;
+    private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+    private final File file;
+    private final DataType elementType;
+    private final int elementSize;
+    private final int rowCount;
+    private final int columnCount;
+    private final long valuesOffset;
+
+    private final SimpleEntity[] rowHeaders;
+    private final SimpleEntity[] columnHeaders;
+    private final Set<Integer> ids;
+
+    private transient ByteBuffer[] pages;
+
+    private MappedDoubleMatrixData(File file, String uniqueIdentifier, String name, Feature elementFeature,
+            DataType elementType, int rowCount, int columnCount, long valuesOffset, SimpleEntity[] rowHeaders,
+            SimpleEntity[] columnHeaders) throws IOException {
+        super(uniqueIdentifier, name, elementFeature);
+
+        this.file = file;
+        this.elementType = elementType;
+        this.elementSize = MappedMatrixFileHandler.getElementSize(elementType);
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.valuesOffset = valuesOffset;
+        this.rowHeaders = rowHeaders;
+        this.columnHeaders = columnHeaders;
+
+        if (rowHeaders != null) {
+            DataPojo.checkHeaders(rowHeaders);
+
+            Set<Integer> ids = new HashSet<Integer>();
+
+            for (int i = 0; i < rowCount; i++)
+                ids.add(i);
+
+            this.ids = Collections.unmodifiableSet(ids);
+        } else {
+            this.ids = null;
+        }
+
+        pages = map();
+    }
+
+    /**
+     * Opens a matrix file
+     * 
+     * @param filePath
+     *            the path of the matrix file
+     * @return the matrix data backed by the file
+     * @throws IOException
+     *             if the file can not be read or is not a matrix file
+     */
+    public static final MappedDoubleMatrixData readData(Path filePath) throws IOException {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path not defined.");
+        }
+
+        if (!filePath.toFile().exists()) {
+            throw new IOException("File does not exist : " + filePath + ".");
+        }
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(MappedMatrixFileHandler.HEADER_SIZE);
+
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException("Not a matrix file : " + filePath);
+            }
+
+            header.flip();
+
+            if (header.getInt() != MappedMatrixFileHandler.MAGIC)
+                throw new IOException("Not a matrix file : " + filePath);
+
+            int version = header.getInt();
+
+            if (version > MappedMatrixFileHandler.VERSION)
+                throw new IOException("Unsupported matrix file version : " + version);
+
+            DataType elementType;
+
+            try {
+                elementType = MappedMatrixFileHandler.getElementType(header.getInt());
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getLocalizedMessage(), e);
+            }
+
+            int rowCount = header.getInt();
+            int columnCount = header.getInt();
+
+            header.getInt(); // reserved
+
+            long valuesOffset = header.getLong();
+            long metadataOffset = header.getLong();
+            long rowHeadersOffset = header.getLong();
+            long columnHeadersOffset = header.getLong();
+
+            long valuesSize = (long) rowCount * columnCount * MappedMatrixFileHandler.getElementSize(elementType);
+
+            if (rowCount < 0 || columnCount < 0 || valuesOffset + valuesSize > channel.size())
+                throw new IOException("Matrix file is truncated : " + filePath);
+
+            DataInputStream input = createInput(channel, metadataOffset);
+
+            String uniqueIdentifier = readString(input);
+            String name = readString(input);
+            Feature elementFeature = null;
+
+            int featureSize = input.readInt();
+
+            if (featureSize >= 0) {
+                byte[] xml = new byte[featureSize];
+
+                input.readFully(xml);
+
+                elementFeature = (Feature) new MappedMatrixFileHandler(filePath.toFile()).createXStream()
+                        .fromXML(new String(xml, StandardCharsets.UTF_8));
+            }
+
+            SimpleEntity[] rowHeaders = rowHeadersOffset != MappedMatrixFileHandler.NO_OFFSET
+                    ? readHeaders(createInput(channel, rowHeadersOffset), rowCount) : null;
+
+            SimpleEntity[] columnHeaders = columnHeadersOffset != MappedMatrixFileHandler.NO_OFFSET
+                    ? readHeaders(createInput(channel, columnHeadersOffset), columnCount) : null;
+
+            return new MappedDoubleMatrixData(filePath.toFile(), uniqueIdentifier, name, elementFeature, elementType,
+                    rowCount, columnCount, valuesOffset, rowHeaders, columnHeaders);
+        }
+    }
+
+    /**
+     * Gets the type in which the values are stored in the file
+     * 
+     * @return either {@link DataType#DOUBLE} or {@link DataType#FLOAT}
+     */
+    public final DataType getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Gets a value without boxing
+     * 
+     * @param rowIndex
+     *            the row index of the required value
+     * @param columnIndex
+     *            the column index of the required value
+     * @return the value in the matrix at a given row index and column index
+     */
+    public final double getDouble(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount || columnIndex < 0 || columnIndex >= columnCount)
+            throw new IndexOutOfBoundsException("Invalid position : " + rowIndex + "," + columnIndex);
+
+        return get(((long) rowIndex * columnCount + columnIndex) * elementSize);
+    }
+
+    /**
+     * Gets a copy of the values of a row
+     * 
+     * @param rowIndex
+     *            the index of the row
+     * @return a copy of the values of the row
+     */
+    public final double[] getRowAsDoubleArray(int rowIndex) {
+        double[] row = new double[columnCount];
+
+        copyRow(rowIndex, row, 0);
+
+        return row;
+    }
+
+    /**
+     * Copies the values of a row to an array
+     * 
+     * @param rowIndex
+     *            the index of the row
+     * @param destination
+     *            the array to which the values are copied
+     * @param offset
+     *            the position in the array of the first value of the row
+     */
+    public final void copyRow(int rowIndex, double[] destination, int offset) {
+        if (rowIndex < 0 || rowIndex >= rowCount)
+            throw new IndexOutOfBoundsException("Invalid row : " + rowIndex);
+
+        if (offset < 0 || offset + columnCount > destination.length)
+            throw new IndexOutOfBoundsException("Invalid offset : " + offset);
+
+        long position = (long) rowIndex * columnCount * elementSize;
+
+        for (int i = 0; i < columnCount; ++i, position += elementSize)
+            destination[offset + i] = get(position);
+    }
+
+    /**
+     * Gets a copy of the values of a column
+     * 
+     * @param columnIndex
+     *            the index of the column
+     * @return a copy of the values of the column
+     */
+    public final double[] getColumnAsDoubleArray(int columnIndex) {
+        double[] column = new double[rowCount];
+
+        copyColumn(columnIndex, column, 0);
+
+        return column;
+    }
+
+    /**
+     * Copies the values of a column to an array
+     * 
+     * @param columnIndex
+     *            the index of the column
+     * @param destination
+     *            the array to which the values are copied
+     * @param offset
+     *            the position in the array of the value of the first row
+     */
+    public final void copyColumn(int columnIndex, double[] destination, int offset) {
+        if (columnIndex < 0 || columnIndex >= columnCount)
+            throw new IndexOutOfBoundsException("Invalid column : " + columnIndex);
+
+        if (offset < 0 || offset + rowCount > destination.length)
+            throw new IndexOutOfBoundsException("Invalid offset : " + offset);
+
+        long position = (long) columnIndex * elementSize;
+        long rowSize = (long) columnCount * elementSize;
+
+        for (int i = 0; i < rowCount; ++i, position += rowSize)
+            destination[offset + i] = get(position);
+    }
+
+    @Override
+    public final List<List<Double>> getValues() {
+        List<List<Double>> list = new ArrayList<List<Double>>(rowCount);
+
+        for (int i = 0; i < rowCount; ++i) {
+            List<Double> row = new ArrayList<Double>(columnCount);
+
+            for (int j = 0; j < columnCount; ++j)
+                row.add(getDouble(i, j));
+
+            list.add(row);
+        }
+
+        return list;
+    }
+
+    /**
+     * Gets a boxed copy of all the values
+     * 
+     * @return a boxed copy of all the values
+     */
+    @Override
+    public final Double[][] getValuesAsArray() {
+        Double[][] array = new Double[rowCount][columnCount];
+
+        for (int i = 0; i < rowCount; ++i)
+            for (int j = 0; j < columnCount; ++j)
+                array[i][j] = getDouble(i, j);
+
+        return array;
+    }
+
+    @Override
+    public final Double getValue(int rowIndex, int columnIndex) {
+        return getDouble(rowIndex, columnIndex);
+    }
+
+    @Override
+    public final int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public final int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public boolean hasRowHeaders() {
+        return rowHeaders != null;
+    }
+
+    @Override
+    public List<SimpleEntity> getRowHeaders() {
+        return rowHeaders != null ? Arrays.asList(rowHeaders.clone()) : null;
+    }
+
+    @Override
+    public SimpleEntity[] getRowHeadersAsArray() {
+        return rowHeaders;
+    }
+
+    @Override
+    public SimpleEntity getRowHeader(int rowIndex) {
+        return rowHeaders != null ? rowHeaders[rowIndex] : null;
+    }
+
+    @Override
+    public boolean hasColumnHeaders() {
+        return columnHeaders != null;
+    }
+
+    @Override
+    public List<SimpleEntity> getColumnHeaders() {
+        return columnHeaders != null ? Arrays.asList(columnHeaders.clone()) : null;
+    }
+
+    @Override
+    public SimpleEntity[] getColumnHeadersAsArray() {
+        return columnHeaders;
+    }
+
+    @Override
+    public SimpleEntity getColumnHeader(int columnIndex) {
+        return columnHeaders != null ? columnHeaders[columnIndex] : null;
+    }
+
+    @Override
+    public SimpleEntity getHeader(int id) {
+        return rowHeaders[id];
+    }
+
+    @Override
+    public int getSize() {
+        return rowHeaders != null ? rowHeaders.length : 0;
+    }
+
+    @Override
+    public Set<Integer> getIDs() {
+        return ids;
+    }
+
+    private double get(long position) {
+        ByteBuffer page = pages[(int) (position >>> PAGE_SHIFT)];
+        int index = (int) (position & PAGE_MASK);
+
+        return elementSize == 8 ? page.getDouble(index) : page.getFloat(index);
+    }
+
+    /**
+     * Maps the values in regions of at most 1 GB, so that no value is split
+     * between regions
+     */
+    private ByteBuffer[] map() throws IOException {
+        long size = (long) rowCount * columnCount * elementSize;
+
+        ByteBuffer[] pages = new ByteBuffer[(int) ((size + PAGE_MASK) >>> PAGE_SHIFT)];
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int i = 0; i < pages.length; ++i) {
+                long start = (long) i << PAGE_SHIFT;
+
+                pages[i] = channel.map(MapMode.READ_ONLY, valuesOffset + start, Math.min(size - start, PAGE_MASK + 1));
+            }
+        }
+
+        return pages;
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+
+        pages = map();
+    }
+
+    private static DataInputStream createInput(FileChannel channel, long offset) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(offset))));
+    }
+
+    private static SimpleEntity[] readHeaders(DataInputStream input, int count) throws IOException {
+        SimpleEntity[] headers = new SimpleEntity[count];
+
+        for (int i = 0; i < count; ++i) {
+            String id = input.readUTF();
+            String name = readString(input);
+
+            headers[i] = new SimpleEntityPojo(id, name);
+        }
+
+        return headers;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
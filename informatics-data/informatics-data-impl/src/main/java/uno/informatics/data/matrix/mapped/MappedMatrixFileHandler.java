@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.matrix.mapped;
+
+import java.io.File;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+
+import uno.informatics.data.DataType;
+import uno.informatics.data.pojo.FileHandler;
+
+/**
+ * The binary format of matrix files that are memory-mapped by
+ * {@link MappedDoubleMatrixData}. All numbers are big-endian. A file starts
+ * with a fixed header of {@link #HEADER_SIZE} bytes:
+ * 
+ * <pre>
+ *  0  int   magic number, {@link #MAGIC}
+ *  4  int   format version, {@link #VERSION}
+ *  8  int   element type, {@link #DOUBLE_ELEMENT} or {@link #FLOAT_ELEMENT}
+ * 12  int   row count
+ * 16  int   column count
+ * 20  int   reserved
+ * 24  long  offset of the values
+ * 32  long  offset of the identification
+ * 40  long  offset of the row headers, or -1 if none
+ * 48  long  offset of the column headers, or -1 if none
+ * 56  long  reserved
+ * </pre>
+ * 
+ * The values follow the header in row-major order, missing values as NaN.
+ * After the values comes the identification of the matrix, that is its
+ * unique identifier and name, and the element feature as XML, followed by
+ * the row and column headers, each an identifier and an optional name.
+ * 
+ * @author Guy Davenport
+ *
+ */
+public class MappedMatrixFileHandler extends FileHandler {
+
+    public static final int MAGIC = 0x554D4D58;
+
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 64;
+
+    public static final int DOUBLE_ELEMENT = 1;
+
+    public static final int FLOAT_ELEMENT = 2;
+
+    protected static final int NO_OFFSET = -1;
+
+    public MappedMatrixFileHandler(File file) {
+        super(file);
+    }
+
+    protected XStream createXStream() {
+        XStream xstream = new XStream(new StaxDriver());
+
+        xstream.setClassLoader(getClass().getClassLoader());
+
+        return xstream;
+    }
+
+    /**
+     * Gets the code of an element type in the header
+     * 
+     * @param elementType
+     *            the element type, either {@link DataType#DOUBLE} or
+     *            {@link DataType#FLOAT}
+     * @return the code of the element type
+     * @throws IllegalArgumentException
+     *             if the element type is not supported
+     */
+    protected static final int getElementCode(DataType elementType) {
+        if (elementType == DataType.DOUBLE) {
+            return DOUBLE_ELEMENT;
+        } else if (elementType == DataType.FLOAT) {
+            return FLOAT_ELEMENT;
+        } else {
+            throw new IllegalArgumentException("Element type not supported : " + elementType);
+        }
+    }
+
+    /**
+     * Gets the element type for a code in the header
+     * 
+     * @param elementCode
+     *            the code of the element type
+     * @return the element type
+     * @throws IllegalArgumentException
+     *             if the code is not a known element type
+     */
+    protected static final DataType getElementType(int elementCode) {
+        switch (elementCode) {
+            case DOUBLE_ELEMENT:
+                return DataType.DOUBLE;
+            case FLOAT_ELEMENT:
+                return DataType.FLOAT;
+            default:
+                throw new IllegalArgumentException("Unknown element type : " + elementCode);
+        }
+    }
+
+    protected static final int getElementSize(DataType elementType) {
+        return elementType == DataType.FLOAT ? 4 : 8;
+    }
+}
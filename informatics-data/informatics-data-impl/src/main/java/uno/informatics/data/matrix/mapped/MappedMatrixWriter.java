@@ -0,0 +1,550 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uno.informatics.data.matrix.mapped;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import uno.informatics.common.io.IOUtilities;
+import uno.informatics.common.io.RowReader;
+import uno.informatics.common.io.text.TextFileRowReader;
+import uno.informatics.data.DataType;
+import uno.informatics.data.Feature;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.MatrixData;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.matrix.AbstractMatrixData;
+import uno.informatics.data.matrix.array.PrimitiveDoubleMatrixData;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+import uno.informatics.data.utils.DataOption;
+import uno.informatics.data.utils.DatasetUtils;
+
+/**
+ * Writes a matrix file in the format of {@link MappedMatrixFileHandler} one
+ * row at a time, so that a matrix larger than the heap can be written. Only
+ * the row headers are kept in memory. The file is complete once the writer
+ * is closed, and is deleted if the writer is aborted instead.
+ * 
+ * @author Guy Davenport
+ *
+ */
+public class MappedMatrixWriter extends MappedMatrixFileHandler implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final DataType elementType;
+    private final int columnCount;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    private String uniqueIdentifier;
+    private String name;
+    private Feature elementFeature;
+
+    private SimpleEntity[] columnHeaders;
+    private List<SimpleEntity> rowHeaders;
+
+    private int rowCount;
+    private boolean closed;
+
+    /**
+     * Creates a writer for a new file
+     * 
+     * @param file
+     *            the file to be written, which must not exist
+     * @param elementType
+     *            the type in which the values are stored, either
+     *            {@link DataType#DOUBLE} or {@link DataType#FLOAT}
+     * @param columnCount
+     *            the number of values in each row
+     * @throws IOException
+     *             if the file exists or can not be created
+     */
+    public MappedMatrixWriter(File file, DataType elementType, int columnCount) throws IOException {
+        super(file);
+
+        if (file == null) {
+            throw new IllegalArgumentException("File not defined.");
+        }
+
+        if (columnCount < 0) {
+            throw new IllegalArgumentException("Invalid column count : " + columnCount);
+        }
+
+        if (file.exists()) {
+            throw new IOException("File already exists : " + file + ".");
+        }
+
+        getElementCode(elementType);
+
+        this.elementType = elementType;
+        this.columnCount = columnCount;
+
+        path = file.toPath();
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        // the header is written once the offsets are known
+        channel.position(HEADER_SIZE);
+    }
+
+    public final void setUniqueIdentifier(String uniqueIdentifier) {
+        this.uniqueIdentifier = uniqueIdentifier;
+    }
+
+    public final void setName(String name) {
+        this.name = name;
+    }
+
+    public final void setElementFeature(Feature elementFeature) {
+        this.elementFeature = elementFeature;
+    }
+
+    /**
+     * Sets the column headers
+     * 
+     * @param columnHeaders
+     *            the column headers, one for each column, or <code>null</code>
+     *            for no headers
+     */
+    public final void setColumnHeaders(List<SimpleEntity> columnHeaders) {
+        if (columnHeaders != null && columnHeaders.size() != columnCount) {
+            throw new IllegalArgumentException("Number of column headers : " + columnHeaders.size()
+                    + " does not match column count : " + columnCount);
+        }
+
+        this.columnHeaders = columnHeaders != null ? columnHeaders.toArray(new SimpleEntity[columnCount]) : null;
+    }
+
+    /**
+     * Writes the next row
+     * 
+     * @param header
+     *            the header of the row, which must be defined for all rows or
+     *            for none
+     * @param values
+     *            the values of the row, missing values as {@link Double#NaN}
+     * @throws IOException
+     *             if the row can not be written
+     */
+    public final void writeRow(SimpleEntity header, double[] values) throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+
+        if (values == null || values.length != columnCount) {
+            throw new IllegalArgumentException("Row " + rowCount + " size : " + (values != null ? values.length : 0)
+                    + " does not match column count : " + columnCount);
+        }
+
+        if (rowCount == Integer.MAX_VALUE) {
+            throw new IOException("Too many rows");
+        }
+
+        if (rowCount == 0 && header != null) {
+            rowHeaders = new ArrayList<SimpleEntity>();
+        }
+
+        if ((header != null) != (rowHeaders != null)) {
+            throw new IllegalArgumentException("Row " + rowCount + " header must be defined for all rows or none");
+        }
+
+        if (header != null) {
+            if (header.getUniqueIdentifier() == null) {
+                throw new IllegalArgumentException(String.format("No identifier defined for item %d.", rowCount));
+            }
+
+            rowHeaders.add(header);
+        }
+
+        int elementSize = getElementSize(elementType);
+
+        for (double value : values) {
+            if (buffer.remaining() < elementSize) {
+                flush();
+            }
+
+            if (elementType == DataType.FLOAT) {
+                buffer.putFloat((float) value);
+            } else {
+                buffer.putDouble(value);
+            }
+        }
+
+        ++rowCount;
+    }
+
+    /**
+     * Writes the identification and headers after the values and the fixed
+     * header at the start of the file, and closes the file
+     * 
+     * @throws IOException
+     *             if the file can not be written
+     */
+    @Override
+    public final void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            flush();
+
+            long metadataOffset = channel.position();
+
+            writeBytes(createMetadata());
+
+            long rowHeadersOffset = NO_OFFSET;
+
+            if (rowHeaders != null) {
+                rowHeadersOffset = channel.position();
+
+                writeBytes(createHeaders(rowHeaders.toArray(new SimpleEntity[rowHeaders.size()])));
+            }
+
+            long columnHeadersOffset = NO_OFFSET;
+
+            if (columnHeaders != null && rowCount > 0) {
+                columnHeadersOffset = channel.position();
+
+                writeBytes(createHeaders(columnHeaders));
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(getElementCode(elementType));
+            header.putInt(rowCount);
+            header.putInt(rowCount > 0 ? columnCount : 0);
+            header.putInt(0);
+            header.putLong(HEADER_SIZE);
+            header.putLong(metadataOffset);
+            header.putLong(rowHeadersOffset);
+            header.putLong(columnHeadersOffset);
+            header.putLong(0);
+
+            header.flip();
+
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Closes the file without writing the headers, and deletes it, so that a
+     * failed write does not leave a file that looks complete
+     * 
+     * @throws IOException
+     *             if the file can not be closed or deleted
+     */
+    public final void abort() throws IOException {
+        closed = true;
+
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Writes matrix data to a matrix file, which is deleted if the data can
+     * not be written
+     * 
+     * @param matrix
+     *            the matrix to be written, missing values are written as NaN
+     * @param file
+     *            the file to be written, which must not exist
+     * @param elementType
+     *            the type in which the values are stored, either
+     *            {@link DataType#DOUBLE} or {@link DataType#FLOAT}
+     * @throws IOException
+     *             if the file can not be written
+     */
+    public static final void write(MatrixData<? extends Number> matrix, File file, DataType elementType)
+            throws IOException {
+        MappedMatrixWriter writer = new MappedMatrixWriter(file, elementType, matrix.getColumnCount());
+
+        try {
+            writer.setUniqueIdentifier(matrix.getUniqueIdentifier());
+            writer.setName(matrix.getName());
+            writer.setElementFeature(matrix.getValueFeature());
+            writer.setColumnHeaders(matrix.hasColumnHeaders() ? matrix.getColumnHeaders() : null);
+
+            double[] row = new double[matrix.getColumnCount()];
+
+            for (int i = 0; i < matrix.getRowCount(); ++i) {
+                if (matrix instanceof PrimitiveDoubleMatrixData) {
+                    ((PrimitiveDoubleMatrixData) matrix).copyRow(i, row, 0);
+                } else {
+                    for (int j = 0; j < row.length; ++j) {
+                        Number value = matrix.getValue(i, j);
+
+                        row[j] = value != null ? value.doubleValue() : Double.NaN;
+                    }
+                }
+
+                writer.writeRow(matrix.hasRowHeaders() ? matrix.getRowHeader(i) : null, row);
+            }
+
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            abort(writer, e);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Converts a CSV or TXT matrix file, with the layout and options read by
+     * {@link uno.informatics.data.matrix.array.DoubleArrayMatrixData#readData(Path, FileType, DataOption...)},
+     * to a matrix file, one row at a time, so that the matrix need not fit in
+     * the heap. Missing values are written as NaN. The
+     * {@link AbstractMatrixData#PARALLELISM} option is ignored. If the file
+     * can not be converted, the matrix file is deleted.
+     * 
+     * @param filePath
+     *            the path of the file to be converted
+     * @param type
+     *            the file type, which must be CSV or TXT
+     * @param file
+     *            the matrix file to be written, which must not exist
+     * @param elementType
+     *            the type in which the values are stored, either
+     *            {@link DataType#DOUBLE} or {@link DataType#FLOAT}
+     * @param options
+     *            data options
+     * @throws IOException
+     *             if the file can not be read or written
+     */
+    public static final void convert(Path filePath, FileType type, File file, DataType elementType,
+            DataOption... options) throws IOException {
+
+        // validate arguments
+
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path not defined.");
+        }
+
+        if (!filePath.toFile().exists()) {
+            throw new IOException("File does not exist : " + filePath + ".");
+        }
+
+        if (type == null) {
+            throw new IllegalArgumentException("File type not defined.");
+        }
+
+        if (type != FileType.TXT && type != FileType.CSV) {
+            throw new IllegalArgumentException(
+                    String.format("Only file types TXT and CSV are supported. Got: %s.", type));
+        }
+
+        String uniqueIdentifier = DataOption.findValue(options, AbstractMatrixData.ID, String.class);
+        String name = DataOption.findValue(options, AbstractMatrixData.NAME, String.class);
+        Feature elementFeature = DataOption.findValue(options, AbstractMatrixData.ELEMENT_FEATURE, Feature.class);
+
+        if (name == null)
+            name = filePath.getFileName().toString();
+
+        RowReader reader = IOUtilities.createRowReader(filePath, type);
+
+        try {
+            if (reader instanceof TextFileRowReader)
+                ((TextFileRowReader) reader).setDefaultDouble(Double.NaN);
+
+            List<String> headers = new ArrayList<String>();
+            boolean hasRowNames = false;
+
+            if (reader != null && reader.ready() && reader.nextRow()) {
+                headers = reader.getRowCellsAsString();
+
+                if (AbstractMatrixData.ID.equals(headers.get(0))) {
+                    headers.remove(0); // ignore cell!
+
+                    if (AbstractMatrixData.NAME.equals(headers.get(0))) {
+                        hasRowNames = true;
+                        headers.remove(0); // ignore cell!
+                    }
+                } else {
+                    if (uniqueIdentifier != null)
+                        throw new IllegalArgumentException(
+                                "Using ID DataOption: First cell must be " + AbstractMatrixData.ID);
+
+                    uniqueIdentifier = headers.get(0);
+
+                    headers.remove(0);
+                }
+
+                if (DataOption.hasOption(options, AbstractMatrixData.COLUMNS)) {
+                    headers = DatasetUtils.selectColumns(reader, headers, hasRowNames ? 2 : 1,
+                            DataOption.findValue(options, AbstractMatrixData.COLUMNS, int[].class),
+                            DataOption.findValue(options, AbstractMatrixData.COLUMNS, String[].class));
+                }
+            }
+
+            int columnCount = headers.size();
+
+            List<SimpleEntity> columnHeaders = new ArrayList<SimpleEntity>(columnCount);
+
+            for (String header : headers)
+                columnHeaders.add(new SimpleEntityPojo(header));
+
+            MappedMatrixWriter writer = new MappedMatrixWriter(file, elementType, columnCount);
+
+            try {
+                writer.setUniqueIdentifier(uniqueIdentifier);
+                writer.setName(name);
+                writer.setElementFeature(elementFeature);
+
+                int row = 1;
+
+                while (reader != null && reader.nextRow()) {
+                    ++row;
+
+                    reader.nextColumn();
+
+                    String rowID = reader.getCellAsString();
+                    String rowName = null;
+
+                    if (hasRowNames) {
+                        reader.nextColumn();
+
+                        rowName = reader.getCellAsString();
+                    }
+
+                    reader.nextColumn();
+
+                    if (row == 2 && AbstractMatrixData.NAME.equals(rowID)) {
+                        List<String> names = reader.getRowCellsAsString();
+
+                        for (int i = 0; i < columnCount && i < names.size(); ++i)
+                            ((SimpleEntityPojo) columnHeaders.get(i)).setName(names.get(i));
+                    } else {
+                        double[] cells = reader.getRowCellsAsDoubleArray();
+
+                        if (cells.length != columnCount)
+                            throw new IOException(String.format("Row %d is not right size, expecting %d but was %d!",
+                                    row, columnCount, cells.length));
+
+                        writer.writeRow(hasRowNames ? new SimpleEntityPojo(rowID, rowName)
+                                : new SimpleEntityPojo(rowID), cells);
+                    }
+                }
+
+                if (!columnHeaders.isEmpty())
+                    writer.setColumnHeaders(columnHeaders);
+
+                writer.close();
+            } catch (IOException | RuntimeException e) {
+                abort(writer, e);
+
+                throw e;
+            }
+        } finally {
+            if (reader != null)
+                reader.close();
+        }
+    }
+
+    private static void abort(MappedMatrixWriter writer, Exception cause) {
+        try {
+            writer.abort();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+
+        while (wrapped.hasRemaining()) {
+            channel.write(wrapped);
+        }
+    }
+
+    private byte[] createMetadata() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+
+        writeString(output, uniqueIdentifier);
+        writeString(output, name);
+
+        if (elementFeature != null) {
+            byte[] xml = createXStream().toXML(elementFeature).getBytes(StandardCharsets.UTF_8);
+
+            output.writeInt(xml.length);
+            output.write(xml);
+        } else {
+            output.writeInt(NO_OFFSET);
+        }
+
+        output.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] createHeaders(SimpleEntity[] headers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+
+        for (SimpleEntity header : headers) {
+            output.writeUTF(header.getUniqueIdentifier());
+            writeString(output, header.getName());
+        }
+
+        output.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+
+        if (value != null)
+            output.writeUTF(value);
+    }
+}
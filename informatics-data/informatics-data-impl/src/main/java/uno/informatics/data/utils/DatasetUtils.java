@@ -16,11 +16,16 @@ package uno.informatics.data.utils;
  * limitations under the License.
  *******************************************************************************/
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import uno.informatics.common.io.RowReader;
+import uno.informatics.common.io.text.ParallelTextFileReader;
 import uno.informatics.data.DataType;
 import uno.informatics.data.DataTypeConstants;
 import uno.informatics.data.Feature;
@@ -210,4 +215,98 @@ public class DatasetUtils {
 
         return newFeature;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the number of threads with which a data file is read, which is the
+     * requested parallelism if the file can be read in parallel, see
+     * {@link ParallelTextFileReader#isSupported(Path)}, otherwise 1. The check
+     * is made before the file is read, so that errors while reading in
+     * parallel are reported rather than hidden by reading again sequentially.
+     * 
+     * @param filePath
+     *            the path of the file
+     * @param parallelism
+     *            the requested number of threads
+     * @return the number of threads with which the file is read
+     * @throws IOException
+     *             if the file can not be checked
+     */
+    public static final int getReadParallelism(Path filePath, int parallelism) throws IOException {
+        return parallelism > 1 && ParallelTextFileReader.isSupported(filePath) ? parallelism : 1;
+    }
+
+    /**
+     * Restricts a reader to the header columns at the start of each row and
+     * the selected data columns, which are read in file order. Data columns
+     * are selected either by index or by identifier.
+     * 
+     * @param reader
+     *            the reader positioned on the header row
+     * @param columnIDs
+     *            the identifiers of all data columns
+     * @param headerCount
+     *            the number of header columns before the data columns
+     * @param indices
+     *            the indices of the selected data columns, or
+     *            <code>null</code> to select by identifier
+     * @param identifiers
+     *            the identifiers of the selected data columns, used if no
+     *            indices are given
+     * @return the identifiers of the selected data columns in file order
+     * @throws IOException
+     *             if the columns can not be selected in the reader
+     */
+    public static final List<String> selectColumns(RowReader reader, List<String> columnIDs, int headerCount, 
+            int[] indices, String[] identifiers) throws IOException {
+
+        if (indices == null) {
+            if (identifiers == null) {
+                throw new IllegalArgumentException(
+                        "Using COLUMNS DataOption: Value must be an int[] or String[]!");
+            }
+            
+            indices = new int[identifiers.length];
+            
+            for (int i = 0; i < identifiers.length; ++i) {
+                indices[i] = columnIDs.indexOf(identifiers[i]);
+                
+                if (indices[i] < 0) {
+                    throw new IllegalArgumentException(
+                            String.format("Using COLUMNS DataOption: Column %s not found!", identifiers[i]));
+                }
+            }
+        }
+        
+        boolean[] selected = new boolean[columnIDs.size()];
+        
+        for (int index : indices) {
+            if (index < 0 || index >= selected.length) {
+                throw new IllegalArgumentException(
+                        String.format("Using COLUMNS DataOption: Column index %d out of range!", index));
+            }
+            
+            selected[index] = true;
+        }
+        
+        List<String> selectedIDs = new ArrayList<>(indices.length);
+        int[] columns = new int[headerCount + indices.length];
+        int count = 0;
+        
+        while (count < headerCount) {
+            columns[count] = count;
+            ++count;
+        }
+        
+        for (int i = 0; i < selected.length; ++i) {
+            if (selected[i]) {
+                selectedIDs.add(columnIDs.get(i));
+                columns[count] = headerCount + i;
+                ++count;
+            }
+        }
+        
+        reader.setSelectedColumns(Arrays.copyOf(columns, count));
+        
+        return selectedIDs;
+    }
+}
@@ -25,8 +25,11 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
-import uno.informatics.common.ConversionException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
 import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.DateParser;
 import uno.informatics.data.DataType;
 import uno.informatics.data.Feature;
 import uno.informatics.data.Method;
@@ -46,6 +49,21 @@ import uno.informatics.data.pojo.SimpleEntityPojo;
  * 
  */
 public class TestData {
+    private static DateParser defaultDateParser;
+
+    // the dates in the test data are day first
+    @BeforeClass
+    public static void setDayFirstDateParser() {
+        defaultDateParser = ConversionUtilities.getDateParser();
+
+        ConversionUtilities.setDateParser(DateParser.getDayFirst());
+    }
+
+    @AfterClass
+    public static void resetDateParser() {
+        ConversionUtilities.setDateParser(defaultDateParser);
+    }
+
     protected final static String UID = "uid";
     protected final static String NAME = "name";
     protected final static String DESCRIPTION = "description";
@@ -497,11 +515,7 @@ public class TestData {
      * @return
      */
     private static Object createDate(String value) {
-        try {
-            return ConversionUtilities.convertToDate(value);
-        } catch (ConversionException e) {
-            return null;
-        }
+        return DateParser.getDayFirst().parse(value);
     }
     
     protected void checkCompleteData(FeatureData expectedData, FeatureData actualData) {
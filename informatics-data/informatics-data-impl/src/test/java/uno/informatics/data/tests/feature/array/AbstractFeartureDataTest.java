@@ -1,17 +1,26 @@
 package uno.informatics.data.tests.feature.array;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.DateParser;
 import uno.informatics.data.DataTypeConstants;
 import uno.informatics.data.Method;
 import uno.informatics.data.Ontology;
@@ -20,9 +29,25 @@ import uno.informatics.data.Scale;
 import uno.informatics.data.feature.AbstractFeatureData;
 import uno.informatics.data.feature.ColumnFeature;
 import uno.informatics.data.feature.ColumnFeaturePojo;
+import uno.informatics.data.feature.ColumnStatistics;
 import uno.informatics.data.io.FileType;
+import uno.informatics.data.utils.DataOption;
 
 public class AbstractFeartureDataTest {
+    private static DateParser defaultDateParser;
+
+    // the dates in the test files are day first
+    @BeforeClass
+    public static void setDayFirstDateParser() {
+        defaultDateParser = ConversionUtilities.getDateParser();
+
+        ConversionUtilities.setDateParser(DateParser.getDayFirst());
+    }
+
+    @AfterClass
+    public static void resetDateParser() {
+        ConversionUtilities.setDateParser(defaultDateParser);
+    }
     
     @Test
     public void testGenerateDatasetFeaturesIDsOnly() {
@@ -108,6 +133,167 @@ public class AbstractFeartureDataTest {
         }
     }
 
+    @Test
+    public void testGenerateColumnStatistics() {
+        try {
+            List<ColumnStatistics> statistics = AbstractFeatureData.generateColumnStatistics(
+                    Paths.get(this.getClass().getResource("/feature/row_names_col_names.csv").getFile()), FileType.CSV, -1);
+
+            assertEquals(5, statistics.size());
+            
+            assertEquals("col1", statistics.get(0).getUniqueIdentifier());
+            assertEquals("Col 1", statistics.get(0).getName());
+            assertEquals(DataTypeConstants.NUMBER_IDS | DataTypeConstants.STRING_ID, statistics.get(0).getPossibleDataTypes());
+            assertEquals(3, statistics.get(0).getValueCount());
+            assertEquals(0, statistics.get(0).getMissingCount());
+            assertEquals(3, statistics.get(0).getDistinctCount());
+            assertEquals(1.0, statistics.get(0).getMinimum());
+            assertEquals(3.0, statistics.get(0).getMaximum());
+            
+            assertEquals(DataTypeConstants.STRING_ID, statistics.get(2).getPossibleDataTypes());
+            assertEquals("R1C3", statistics.get(2).getMinimum());
+            assertEquals("R3C3", statistics.get(2).getMaximum());
+            
+            assertEquals(2, statistics.get(3).getDistinctCount());
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testGenerateDatasetFeaturesWithGaps() {
+        try {
+            Path path = writeFile("ID,col1,col2,col3,col4\nrow1,,1.5,,a\nrow2,2, ,,\nrow3,3,,,b\n");
+            
+            List<ColumnFeature> features = AbstractFeatureData.generateDatasetFeatures(path, FileType.CSV, null);
+            List<ColumnStatistics> statistics = AbstractFeatureData.generateColumnStatistics(path, FileType.CSV, -1);
+            
+            assertEquals(statistics.size(), features.size());
+            
+            for (int i = 0; i < features.size(); ++i)
+                assertEquals(features.get(i).getUniqueIdentifier(), statistics.get(i).getPossibleDataTypes(),
+                        features.get(i).getPossibleDataTypes());
+            
+            assertEquals(DataTypeConstants.INT_ID, features.get(0).getPossibleDataTypes() & DataTypeConstants.INT_ID);
+            assertEquals(DataTypeConstants.DOUBLE_ID, features.get(1).getPossibleDataTypes() & DataTypeConstants.DOUBLE_ID);
+            assertEquals(DataTypeConstants.UNKNOWN_ID, features.get(2).getPossibleDataTypes());
+            assertEquals(DataTypeConstants.STRING_ID, features.get(3).getPossibleDataTypes());
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testGenerateDatasetFeaturesStopsWhenAllStrings() {
+        try {
+            // the last row is not the right size, but is not read
+            Path path = writeFile("ID,col1,col2\nrow1,a,1\nrow2,b,c\nrow3,c\n");
+            
+            List<ColumnFeature> expected = new ArrayList<ColumnFeature>();
+
+            expected.add(new ColumnFeaturePojo("col1", DataTypeConstants.STRING_ID));
+            expected.add(new ColumnFeaturePojo("col2", DataTypeConstants.STRING_ID));
+
+            assertFeaturesEquals(expected, AbstractFeatureData.generateDatasetFeatures(path, FileType.CSV, null));
+            
+            try {
+                AbstractFeatureData.generateColumnStatistics(path, FileType.CSV, -1);
+                
+                fail("Last row should be read");
+            } catch (IOException e) {
+                
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testGenerateDatasetFeaturesWithSample() {
+        try {
+            StringBuilder builder = new StringBuilder("ID,col1,col2\n");
+            
+            for (int i = 0; i < 10000; ++i) {
+                builder.append("row").append(i).append(',').append(i).append(',').append(i == 9000 ? "x" : "1").append('\n');
+            }
+            
+            Path path = writeFile(builder.toString());
+            
+            List<ColumnStatistics> statistics = AbstractFeatureData.generateColumnStatistics(path, FileType.CSV, -1, 
+                    new DataOption(AbstractFeatureData.SAMPLE_SIZE, 100), new DataOption(AbstractFeatureData.SAMPLE_SEED, 1L));
+            
+            assertEquals(100, statistics.get(0).getValueCount());
+            assertEquals(100, statistics.get(0).getDistinctCount());
+            
+            // the sample is from all of the rows, not the first rows
+            assertTrue((Double)statistics.get(0).getMaximum() > 5000);
+            
+            // all rows are sampled if the sample is large enough
+            List<ColumnFeature> features = AbstractFeatureData.generateDatasetFeatures(path, FileType.CSV, null, 
+                    new DataOption(AbstractFeatureData.SAMPLE_SIZE, 20000));
+            
+            assertEquals(DataTypeConstants.STRING_ID, features.get(1).getPossibleDataTypes());
+            
+            features = AbstractFeatureData.generateDatasetFeatures(path, FileType.CSV, null, 100);
+            
+            assertEquals(DataTypeConstants.NUMBER_IDS | DataTypeConstants.STRING_ID, features.get(1).getPossibleDataTypes());
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testDistinctCountEstimate() {
+        ColumnStatistics statistics = new ColumnStatistics("col1", "Col 1");
+        
+        for (int i = 0; i < 100000; ++i) {
+            statistics.add(String.valueOf(i % 50000));
+        }
+        
+        statistics.add(null);
+        statistics.add("");
+        statistics.add(" ");
+        
+        assertEquals(3, statistics.getMissingCount());
+        assertEquals(DataTypeConstants.INT_ID, statistics.getPossibleDataTypes() & DataTypeConstants.INT_ID);
+        assertFalse(statistics.hasTerminalDataTypes());
+        assertEquals(0.0, statistics.getMinimum());
+        assertEquals(49999.0, statistics.getMaximum());
+        assertTrue(Math.abs(statistics.getDistinctCount() - 50000) < 5000);
+    }
+
+    @Test
+    public void testMissingValuesOnly() {
+        ColumnStatistics statistics = new ColumnStatistics("col1", "Col 1");
+        
+        statistics.add(null);
+        statistics.add("");
+        
+        assertEquals(2, statistics.getMissingCount());
+        assertEquals(DataTypeConstants.UNKNOWN_ID, statistics.getPossibleDataTypes());
+        assertFalse(statistics.hasTerminalDataTypes());
+        
+        statistics.add("x");
+        
+        assertEquals(DataTypeConstants.STRING_ID, statistics.getPossibleDataTypes());
+        assertTrue(statistics.hasTerminalDataTypes());
+    }
+
+    private Path writeFile(String text) throws IOException {
+        Path path = Files.createTempFile("features", ".csv");
+        
+        path.toFile().deleteOnExit();
+        
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        
+        return path;
+    }
+
     /**
      * @param expected
      * @param generateDatasetFeatures
@@ -16,21 +16,32 @@
 
 package uno.informatics.data.tests.feature.array;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.function.BiPredicate;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.Test;
 
+import uno.informatics.data.DataType;
+import uno.informatics.data.Scale;
+import uno.informatics.data.ScaleType;
 import uno.informatics.data.dataset.FeatureData;
+import uno.informatics.data.feature.AbstractFeatureData;
 import uno.informatics.data.feature.array.ArrayFeatureData;
 import uno.informatics.data.io.FileType;
 import uno.informatics.data.tests.TestData;
+import uno.informatics.data.utils.DataOption;
 
 /**
  * @author Guy Davenport
@@ -300,6 +311,307 @@ public class ArrayFeatureDataReadCSVTest extends TestData {
         }
     }
     
+    @Test
+    public void testReadFeatureDatasetInParallel() {
+        try {
+            Path path = Files.createTempFile("parallel", ".csv");
+            
+            path.toFile().deleteOnExit();
+            
+            StringBuilder builder = new StringBuilder("ID,NAME,col1,col2,col3,col4\nTYPE,,II,RD,NS,OI\n");
+            
+            for (int i = 0; i < 20000; ++i) {
+                builder.append("row").append(i).append(",r").append(i).append(',').append(i % 997 - 300)
+                    .append(',').append(i * 0.25).append(",\"R").append(i % 13).append("\",").append(i % 7)
+                    .append('\n');
+            }
+            
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+            
+            FeatureData expected = ArrayFeatureData.readData(path, getFileType());
+            
+            assertSameRows(expected, ArrayFeatureData.readData(path, getFileType(), 
+                    new DataOption(AbstractFeatureData.PARALLELISM, 4), 
+                    new DataOption(AbstractFeatureData.ROW_FILTER, Arrays.asList("row3", "row19999"))), 
+                    3, 19999);
+            
+            for (int parallelism = 1; parallelism <= 4; ++parallelism) {
+                FeatureData dataset = ArrayFeatureData.readData(path, getFileType(), 
+                        new DataOption(AbstractFeatureData.PARALLELISM, parallelism));
+                
+                assertEquals("row count", expected.getRowCount(), dataset.getRowCount());
+                
+                for (int i = 0; i < expected.getRowCount(); ++i) {
+                    assertEquals("header " + i, expected.getRow(i).getHeader(), dataset.getRow(i).getHeader());
+                    assertEquals("row " + i, expected.getRow(i).getValues(), dataset.getRow(i).getValues());
+                }
+                
+                for (int i = 0; i < expected.getFeatures().size(); ++i) {
+                    Scale expectedScale = expected.getFeatures().get(i).getMethod().getScale();
+                    Scale scale = dataset.getFeatures().get(i).getMethod().getScale();
+                    
+                    assertEquals("min " + i, expectedScale.getMinimumValue(), scale.getMinimumValue());
+                    assertEquals("max " + i, expectedScale.getMaximumValue(), scale.getMaximumValue());
+                    assertEquals("values " + i, expectedScale.getValues(), scale.getValues());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testReadFeatureDatasetWithSelectedColumns() {
+        try {
+            Path path = Paths.get(ArrayFeatureData.class.getResource(OBJECT_TABLE_WITH_ROW_IDS_NAMES_TYPE_MIN_MAX).getPath());
+
+            FeatureData expected = ArrayFeatureData.readData(path, getFileType());
+            
+            DataOption[] selections = new DataOption[] {
+                    new DataOption(AbstractFeatureData.COLUMNS, new int[] {3, 0}),
+                    new DataOption(AbstractFeatureData.COLUMNS, new String[] {"col4", "col1"})
+            };
+            
+            for (DataOption selection : selections) {
+                FeatureData dataset = ArrayFeatureData.readData(path, getFileType(), selection);
+                
+                assertEquals("feature count", 2, dataset.getFeatures().size());
+                assertEquals("feature 0", expected.getFeatures().get(0), dataset.getFeatures().get(0));
+                assertEquals("feature 1", expected.getFeatures().get(3), dataset.getFeatures().get(1));
+                assertEquals("row count", expected.getRowCount(), dataset.getRowCount());
+                
+                for (int i = 0; i < expected.getRowCount(); ++i) {
+                    assertEquals("header " + i, expected.getRow(i).getHeader(), dataset.getRow(i).getHeader());
+                    assertEquals("value " + i + ",0", expected.getRow(i).getValues().get(0), dataset.getRow(i).getValues().get(0));
+                    assertEquals("value " + i + ",1", expected.getRow(i).getValues().get(3), dataset.getRow(i).getValues().get(1));
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testReadFeatureDatasetWithRowFilter() {
+        try {
+            Path path = Paths.get(ArrayFeatureData.class.getResource(OBJECT_TABLE_WITH_ROW_IDS_NAMES_TYPES).getPath());
+
+            FeatureData expected = ArrayFeatureData.readData(path, getFileType());
+            
+            BiPredicate<String, String> predicate = (rowId, rowName) -> !"r2".equals(rowName);
+            
+            DataOption[] filters = new DataOption[] {
+                    new DataOption(AbstractFeatureData.ROW_FILTER, Arrays.asList("row3", "row1", "unknown")),
+                    new DataOption(AbstractFeatureData.ROW_FILTER, predicate)
+            };
+            
+            for (DataOption filter : filters) {
+                FeatureData dataset = ArrayFeatureData.readData(path, getFileType(), filter);
+                
+                assertEquals("row count", 2, dataset.getRowCount());
+                assertEquals("header 0", expected.getRow(0).getHeader(), dataset.getRow(0).getHeader());
+                assertEquals("row 0", expected.getRow(0).getValues(), dataset.getRow(0).getValues());
+                assertEquals("header 1", expected.getRow(2).getHeader(), dataset.getRow(1).getHeader());
+                assertEquals("row 1", expected.getRow(2).getValues(), dataset.getRow(1).getValues());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testReadCompressedFeatureDatasetInParallel() {
+        try {
+            Path path = Files.createTempFile("parallel", ".csv.gz");
+            
+            path.toFile().deleteOnExit();
+            
+            StringBuilder builder = new StringBuilder("ID,NAME,col1,col2\nTYPE,,II,RD\n");
+            
+            for (int i = 0; i < 1000; ++i) {
+                builder.append("row").append(i).append(",r").append(i).append(',').append(i).append(',')
+                    .append(i * 0.25).append('\n');
+            }
+            
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(path))) {
+                output.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            
+            // compressed files can not be split, so are read sequentially
+            FeatureData expected = ArrayFeatureData.readData(path, getFileType());
+            FeatureData dataset = ArrayFeatureData.readData(path, getFileType(), 
+                    new DataOption(AbstractFeatureData.PARALLELISM, 4));
+            
+            assertEquals("row count", 1000, dataset.getRowCount());
+            
+            for (int i = 0; i < expected.getRowCount(); ++i) {
+                assertEquals("row " + i, expected.getRow(i).getValues(), dataset.getRow(i).getValues());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testReadInvalidFeatureDatasetInParallelGivesRow() {
+        try {
+            Path path = Files.createTempFile("parallel", ".csv");
+            
+            path.toFile().deleteOnExit();
+            
+            // without an ID cell the first cell is a column, so the rows are one cell short
+            StringBuilder builder = new StringBuilder("TEST,col1,col2\n");
+            
+            for (int i = 0; i < 20000; ++i) {
+                builder.append("row").append(i).append(',').append(i).append(',').append(i * 0.25).append('\n');
+            }
+            
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+            
+            String expected = null;
+            
+            try {
+                ArrayFeatureData.readData(path, getFileType());
+            } catch (IOException e) {
+                expected = e.getMessage();
+            }
+            
+            assertEquals("In row 2 number of cell not as expected. Should be 3 but was 2!", expected);
+            
+            for (int parallelism = 2; parallelism <= 4; ++parallelism) {
+                try {
+                    ArrayFeatureData.readData(path, getFileType(), 
+                            new DataOption(AbstractFeatureData.PARALLELISM, parallelism));
+                    
+                    fail("Row size not checked");
+                } catch (IOException e) {
+                    assertEquals(expected, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test(expected = IOException.class)
+    public void testReadInvalidFeatureDatasetInParallel() throws IOException {
+        Path path = Files.createTempFile("parallel", ".csv");
+        
+        path.toFile().deleteOnExit();
+        
+        StringBuilder builder = new StringBuilder("ID,NAME,col1\nTYPE,,II\n");
+        
+        for (int i = 0; i < 1000; ++i) {
+            builder.append("row").append(i).append(",r").append(i).append(',').append(i == 500 ? "x" : i)
+                .append('\n');
+        }
+        
+        Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+        
+        // reported by the parallel reader, rather than read again sequentially
+        ArrayFeatureData.readData(path, getFileType(), new DataOption(AbstractFeatureData.PARALLELISM, 4));
+    }
+    
+    @Test
+    public void testReadFeatureDatasetInferringTypes() {
+        try {
+            Path path = Paths.get(ArrayFeatureData.class.getResource(OBJECT_TABLE_WITH_ROW_IDS_NAMES).getPath());
+            
+            FeatureData expected = ArrayFeatureData.readData(
+                    Paths.get(ArrayFeatureData.class.getResource(OBJECT_TABLE_WITH_ROW_IDS_NAMES_TYPES).getPath()), 
+                    getFileType());
+
+            for (int parallelism = 1; parallelism <= 2; ++parallelism) {
+                FeatureData dataset = ArrayFeatureData.readData(path, getFileType(), 
+                        new DataOption(AbstractFeatureData.INFER_TYPES, true), 
+                        new DataOption(AbstractFeatureData.PARALLELISM, parallelism));
+                
+                assertEquals("row count", expected.getRowCount(), dataset.getRowCount());
+                
+                for (int i = 0; i < expected.getFeatures().size(); ++i) {
+                    assertEquals("type " + i, expected.getFeatures().get(i).getMethod().getScale().getDataType(), 
+                            dataset.getFeatures().get(i).getMethod().getScale().getDataType());
+                }
+                
+                assertEquals(ScaleType.INTERVAL, dataset.getFeatures().get(0).getMethod().getScale().getScaleType());
+                assertEquals(1, dataset.getFeatures().get(0).getMethod().getScale().getMinimumValue());
+                assertEquals(3, dataset.getFeatures().get(0).getMethod().getScale().getMaximumValue());
+                
+                for (int i = 0; i < expected.getRowCount(); ++i) {
+                    assertEquals("header " + i, expected.getRow(i).getHeader(), dataset.getRow(i).getHeader());
+                    assertEquals("row " + i, expected.getRow(i).getValues(), dataset.getRow(i).getValues());
+                }
+            }
+            
+            // without the option all values are strings
+            assertEquals(DataType.STRING, ArrayFeatureData.readData(path, getFileType()).getFeatures().get(0)
+                    .getMethod().getScale().getDataType());
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test
+    public void testReadFeatureDatasetInferringTypesWithMissingValues() {
+        try {
+            Path path = Files.createTempFile("infer", getFileType() == FileType.CSV ? ".csv" : ".txt");
+            
+            path.toFile().deleteOnExit();
+            
+            String delimiter = getFileType() == FileType.CSV ? "," : "\t";
+            
+            Files.write(path, String.join("\n", "ID" + delimiter + "a" + delimiter + "b" + delimiter + "c", 
+                    "r1" + delimiter + "1" + delimiter + delimiter + "3000000000", 
+                    "r2" + delimiter + delimiter + "x" + delimiter + "2.5", 
+                    "r3" + delimiter + "3" + delimiter + "y" + delimiter + "1").getBytes(StandardCharsets.UTF_8));
+            
+            FeatureData dataset = ArrayFeatureData.readData(path, getFileType(), 
+                    new DataOption(AbstractFeatureData.INFER_TYPES, true), 
+                    new DataOption(AbstractFeatureData.ROW_FILTER, Arrays.asList("r1", "r2")));
+            
+            assertEquals(DataType.INTEGER, dataset.getFeatures().get(0).getMethod().getScale().getDataType());
+            assertEquals(DataType.STRING, dataset.getFeatures().get(1).getMethod().getScale().getDataType());
+            assertEquals(DataType.DOUBLE, dataset.getFeatures().get(2).getMethod().getScale().getDataType());
+            
+            assertEquals(2, dataset.getRowCount());
+            assertEquals(Arrays.asList(1, null, 3000000000.0), dataset.getRow(0).getValues());
+            assertEquals(Arrays.asList(null, "x", 2.5), dataset.getRow(1).getValues());
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadFeatureDatasetWithUnknownColumn() throws IOException {
+        Path path = Paths.get(ArrayFeatureData.class.getResource(OBJECT_TABLE_WITH_ROW_IDS_NAMES_TYPE_MIN_MAX).getPath());
+
+        ArrayFeatureData.readData(path, getFileType(), 
+                new DataOption(AbstractFeatureData.COLUMNS, new String[] {"unknown"}));
+    }
+    
+    private void assertSameRows(FeatureData expected, FeatureData dataset, int... rows) {
+        assertEquals("row count", rows.length, dataset.getRowCount());
+        
+        for (int i = 0; i < rows.length; ++i) {
+            assertEquals("header " + i, expected.getRow(rows[i]).getHeader(), dataset.getRow(i).getHeader());
+            assertEquals("row " + i, expected.getRow(rows[i]).getValues(), dataset.getRow(i).getValues());
+        }
+    }
+    
     @Test
     public void erroneousFiles() throws IOException {
         System.out.println(" |- Test erroneous files:");
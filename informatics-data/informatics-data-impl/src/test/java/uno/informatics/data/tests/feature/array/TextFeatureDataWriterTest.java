@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.data.tests.feature.array;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import uno.informatics.data.DataType;
+import uno.informatics.data.Feature;
+import uno.informatics.data.Scale;
+import uno.informatics.data.ScaleType;
+import uno.informatics.data.dataset.FeatureData;
+import uno.informatics.data.feature.array.ArrayFeatureData;
+import uno.informatics.data.feature.array.TextFeatureDataWriter;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.pojo.FeaturePojo;
+import uno.informatics.data.pojo.MethodPojo;
+import uno.informatics.data.pojo.ScalePojo;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+import uno.informatics.data.tests.TestData;
+
+/**
+ * @author Guy Davenport
+ *
+ */
+public class TextFeatureDataWriterTest extends TestData {
+
+    @Test
+    public void testWriteReadTXT() {
+        testWriteRead(FileType.TXT, "writeRead.txt");
+    }
+
+    @Test
+    public void testWriteReadCSV() {
+        testWriteRead(FileType.CSV, "writeRead.csv");
+    }
+
+    @Test
+    public void testRange() {
+        try {
+            List<Feature> features = new ArrayList<Feature>();
+
+            features.add(createFeature("int", DataType.INTEGER, ScaleType.INTERVAL));
+            features.add(createFeature("double", DataType.DOUBLE, ScaleType.RATIO));
+            features.add(createFeature("empty", DataType.DOUBLE, ScaleType.RATIO));
+            features.add(createFeature("string", DataType.STRING, ScaleType.NOMINAL));
+
+            Path path = createPath("range.txt");
+
+            int rowCount = 10000;
+
+            try (TextFeatureDataWriter writer = new TextFeatureDataWriter(path, FileType.TXT, features)) {
+                for (int i = 0; i < rowCount; ++i) {
+                    writer.writeRow(new SimpleEntityPojo("row" + i),
+                            new Object[] { i - 5000, i * 0.5 - 1.25, null, "S" + i % 10 });
+                }
+
+                assertEquals(rowCount, writer.getRowCount());
+                assertEquals(-5000, writer.getMinimumValue(0));
+                assertEquals(4999, writer.getMaximumValue(0));
+            }
+
+            FeatureData data = ArrayFeatureData.readData(path, FileType.TXT);
+
+            assertEquals(rowCount, data.getRowCount());
+
+            Scale scale = data.getFeatures().get(0).getMethod().getScale();
+
+            assertEquals(-5000, scale.getMinimumValue());
+            assertEquals(4999, scale.getMaximumValue());
+
+            scale = data.getFeatures().get(1).getMethod().getScale();
+
+            assertEquals(-1.25, scale.getMinimumValue());
+            assertEquals(4998.25, scale.getMaximumValue());
+
+            scale = data.getFeatures().get(2).getMethod().getScale();
+
+            assertNull(scale.getMinimumValue());
+            assertNull(scale.getMaximumValue());
+
+            assertEquals(-4999, data.getRow(1).getValue(0));
+            assertEquals("S9", data.getRow(rowCount - 1).getValue(3));
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGzip() throws IOException {
+        new TextFeatureDataWriter(createPath("writeRead.txt.gz"), FileType.TXT, OBJECT_FEATURES);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRowSize() throws IOException {
+        try (TextFeatureDataWriter writer = new TextFeatureDataWriter(createPath("invalid.txt"), FileType.TXT,
+                OBJECT_FEATURES)) {
+            writer.writeRow(ROW1_HEADER, new Object[] { 1 });
+        }
+    }
+
+    private void testWriteRead(FileType type, String fileName) {
+        try {
+            Path path = createPath(fileName);
+
+            try (TextFeatureDataWriter writer = new TextFeatureDataWriter(path, type, OBJECT_FEATURES)) {
+                writer.writeRow(ROW_HEADERS[0], OBJECT_TABLE_AS_ARRAY[0]);
+                writer.writeRows(new ArrayFeatureData(NAME, OBJECT_FEATURES, new SimpleEntityPojo[] {
+                        (SimpleEntityPojo) ROW_HEADERS[1], (SimpleEntityPojo) ROW_HEADERS[2] },
+                        new Object[][] { OBJECT_TABLE_AS_ARRAY[1], OBJECT_TABLE_AS_ARRAY[2] }).getRows());
+            }
+
+            FeatureData actualData = ArrayFeatureData.readData(path, type);
+
+            checkCompleteData(fileName, fileName, OBJECT_FEATURES, ROW_HEADERS, OBJECT_TABLE_AS_LIST, actualData);
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    private static Feature createFeature(String id, DataType dataType, ScaleType scaleType) {
+        return new FeaturePojo(id, id, new MethodPojo(id, new ScalePojo(id, id, dataType, scaleType)));
+    }
+
+    private static Path createPath(String fileName) throws IOException {
+        Path targetPath = Paths.get("target", "testoutput");
+
+        Files.createDirectories(targetPath);
+
+        return Paths.get(Files.createTempDirectory(targetPath, "textWriter").toString(), fileName);
+    }
+}
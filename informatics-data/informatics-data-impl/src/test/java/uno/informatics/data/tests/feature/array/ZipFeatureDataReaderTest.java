@@ -16,18 +16,36 @@
 
 package uno.informatics.data.tests.feature.array;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
 
 import org.junit.Test;
 
+import uno.informatics.data.DataType;
+import uno.informatics.data.Feature;
+import uno.informatics.data.ScaleType;
+import uno.informatics.data.SimpleEntity;
 import uno.informatics.data.dataset.DatasetException;
 import uno.informatics.data.dataset.FeatureData;
 import uno.informatics.data.feature.array.ArrayFeatureData;
 import uno.informatics.data.feature.array.ZipFeatureDataReader;
+import uno.informatics.data.feature.array.ZipFeatureDataRowReader;
 import uno.informatics.data.feature.array.ZipFeatureDataWriter;
 import uno.informatics.data.io.FileType;
+import uno.informatics.data.pojo.FeaturePojo;
+import uno.informatics.data.pojo.MethodPojo;
+import uno.informatics.data.pojo.ScalePojo;
+import uno.informatics.data.pojo.SimpleEntityPojo;
 import uno.informatics.data.tests.TestData;
 
 /**
@@ -48,6 +66,122 @@ public class ZipFeatureDataReaderTest extends TestData {
         testWriteRead(FileType.CSV);
     }
 
+    @Test
+    public void testWriteReadBinary() {
+        try {
+            ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE_WITH_HEADER));
+
+            assertTrue(writer.isBinary());
+
+            writer.write(createDatasetWithHeaders());
+
+            FeatureData readDataset = (FeatureData) new ZipFeatureDataReader(new File(FILE_WITH_HEADER)).read();
+
+            checkCompleteData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS, OBJECT_TABLE_AS_LIST, readDataset);
+        } catch (DatasetException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWriteReadBinaryInBlocks() {
+        try {
+            FeatureData dataset = createMixedDataset(1000);
+
+            ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE_WITH_HEADER));
+
+            writer.setBlockSize(64);
+
+            writer.write(dataset);
+
+            FeatureData readDataset = (FeatureData) new ZipFeatureDataReader(new File(FILE_WITH_HEADER)).read();
+
+            checkMixedDataset(dataset, readDataset);
+        } catch (DatasetException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWriteReadBinaryParallel() {
+        try {
+            FeatureData dataset = createMixedDataset(1000);
+
+            for (int writerParallelism = 1; writerParallelism <= 4; writerParallelism += 3) {
+                ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE_WITH_HEADER));
+
+                writer.setBlockSize(64);
+                writer.setParallelism(writerParallelism);
+
+                writer.write(dataset);
+
+                for (int readerParallelism = 1; readerParallelism <= 4; readerParallelism += 3) {
+                    ZipFeatureDataReader reader = new ZipFeatureDataReader(new File(FILE_WITH_HEADER));
+
+                    reader.setParallelism(readerParallelism);
+
+                    checkMixedDataset(dataset, (FeatureData) reader.read());
+                }
+
+                try (ZipFeatureDataRowReader reader = new ZipFeatureDataRowReader(new File(FILE_WITH_HEADER))) {
+                    for (int i = 0; i < dataset.getRowCount(); ++i)
+                        assertArrayEquals(dataset.getRow(i).getValuesAsArray(), reader.nextRow().getValuesAsArray());
+
+                    assertNull(reader.nextRow());
+                }
+            }
+        } catch (DatasetException | IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWriteReadBinaryCompressionLevel() {
+        try {
+            FeatureData dataset = createMixedDataset(100);
+
+            for (int level = Deflater.NO_COMPRESSION; level <= Deflater.BEST_COMPRESSION; level += 9) {
+                ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE_WITH_HEADER));
+
+                writer.setCompressionLevel(level);
+                writer.setParallelism(2);
+                writer.setBlockSize(16);
+
+                writer.write(dataset);
+
+                checkMixedDataset(dataset, (FeatureData) new ZipFeatureDataReader(new File(FILE_WITH_HEADER)).read());
+            }
+        } catch (DatasetException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCompressionLevel() {
+        new ZipFeatureDataWriter(new File(FILE_WITH_HEADER)).setCompressionLevel(10);
+    }
+
+    @Test
+    public void testWriteReadBinaryEmpty() {
+        try {
+            ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE_WITH_HEADER));
+
+            writer.write(new ArrayFeatureData(UID, NAME, OBJECT_FEATURES_AS_ARRAY, new Object[0][]));
+
+            FeatureData readDataset = (FeatureData) new ZipFeatureDataReader(new File(FILE_WITH_HEADER)).read();
+
+            assertEquals(0, readDataset.getRowCount());
+            assertEquals(OBJECT_FEATURES.size(), readDataset.getFeatures().size());
+        } catch (DatasetException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
     /**
      * Test method for
      * {@link uno.informatics.data.tests.feature.array.ZipFeatureDataReader#read()}
@@ -77,6 +211,37 @@ public class ZipFeatureDataReaderTest extends TestData {
         }
     }
 
+    private FeatureData createMixedDataset(int rowCount) {
+        Object[][] values = new Object[rowCount][];
+        SimpleEntity[] rowHeaders = new SimpleEntity[rowCount];
+
+        for (int i = 0; i < rowCount; ++i) {
+            values[i] = new Object[] { i % 10 == 0 ? null : i, i % 3 == 0 ? Double.NaN : i * 0.25,
+                    i % 7 == 0 ? null : "S" + (i % 13), i % 2 == 0, OBJECT_ROW1[4],
+                    i % 2 == 0 ? (Object) (long) i : new BigDecimal(i + ".5"), null };
+            rowHeaders[i] = new SimpleEntityPojo("row" + i, i % 5 == 0 ? null : "R" + i);
+        }
+
+        List<Feature> features = new ArrayList<Feature>(OBJECT_FEATURES);
+
+        features.add(new FeaturePojo("col6", "col6", "mixed",
+                new MethodPojo("col6", new ScalePojo("col6", "col6", DataType.UNKNOWN, ScaleType.NONE))));
+        features.add(new FeaturePojo("col7", "col7",
+                new MethodPojo("col7", new ScalePojo("col7", "col7", DataType.UNKNOWN, ScaleType.NONE))));
+
+        return new ArrayFeatureData(UID, NAME, features, rowHeaders, values);
+    }
+
+    private void checkMixedDataset(FeatureData dataset, FeatureData readDataset) {
+        checkCompleteData(UID, NAME, dataset.getFeatures(), dataset.getRowHeadersAsArray(), dataset.getValues(),
+                readDataset);
+
+        for (int i = 0; i < dataset.getRowCount(); ++i)
+            assertEquals(dataset.getRow(i).getHeader().getName(), readDataset.getRow(i).getHeader().getName());
+
+        assertEquals(BigDecimal.class, readDataset.getRow(1).getValue(5).getClass());
+    }
+
     protected FeatureData createDatasetWithHeaders() throws DatasetException {
         return new ArrayFeatureData(UID, NAME, OBJECT_FEATURES_AS_ARRAY, OBJECT_TABLE_AS_ARRAY_WITH_HEADER);
     }
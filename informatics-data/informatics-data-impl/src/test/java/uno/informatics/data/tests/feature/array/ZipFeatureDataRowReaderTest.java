@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.data.tests.feature.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import uno.informatics.data.dataset.DatasetException;
+import uno.informatics.data.dataset.FeatureDataRow;
+import uno.informatics.data.feature.array.ArrayFeatureData;
+import uno.informatics.data.feature.array.ZipFeatureDataReader;
+import uno.informatics.data.feature.array.ZipFeatureDataRowReader;
+import uno.informatics.data.feature.array.ZipFeatureDataWriter;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+import uno.informatics.data.tests.TestData;
+
+/**
+ * @author Guy Davenport
+ *
+ */
+public class ZipFeatureDataRowReaderTest extends TestData {
+
+    private static final String FILE = "target/test_row_reader.zip";
+
+    @Test
+    public void testNextRowBinary() {
+        try {
+            ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE));
+
+            writer.setBlockSize(2);
+
+            writer.write(new ArrayFeatureData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS, OBJECT_TABLE_AS_ARRAY));
+
+            checkRows(3);
+        } catch (DatasetException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNextRowTxt() {
+        testNextRowText(FileType.TXT);
+    }
+
+    @Test
+    public void testNextRowCSV() {
+        testNextRowText(FileType.CSV);
+    }
+
+    @Test
+    public void testNextRows() {
+        try {
+            int rowCount = 250;
+
+            Object[][] values = new Object[rowCount][];
+            SimpleEntityPojo[] rowHeaders = new SimpleEntityPojo[rowCount];
+
+            for (int i = 0; i < rowCount; ++i) {
+                values[i] = new Object[] { i, i * 0.5, i % 4 == 0 ? null : "S" + i, i % 2 == 0,
+                        OBJECT_ROW1[4] };
+                rowHeaders[i] = new SimpleEntityPojo("row" + i);
+            }
+
+            ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE));
+
+            writer.setBlockSize(64);
+
+            writer.write(new ArrayFeatureData(UID, NAME, OBJECT_FEATURES, rowHeaders, values));
+
+            try (ZipFeatureDataRowReader reader = new ZipFeatureDataReader(new File(FILE)).createRowReader()) {
+                assertEquals(rowCount, reader.getRowCount());
+
+                int index = 0;
+
+                List<FeatureDataRow> rows;
+
+                while (!(rows = reader.nextRows(100)).isEmpty()) {
+                    assertEquals(Math.min(100, rowCount - index), rows.size());
+
+                    for (FeatureDataRow row : rows) {
+                        assertEquals(rowHeaders[index], row.getHeader());
+                        assertArrayEquals(values[index], row.getValuesAsArray());
+
+                        ++index;
+                    }
+                }
+
+                assertEquals(rowCount, index);
+                assertEquals(rowCount, reader.getRowIndex());
+            }
+        } catch (DatasetException | IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        try {
+            new ZipFeatureDataWriter(new File(FILE))
+                    .write(new ArrayFeatureData(UID, NAME, OBJECT_FEATURES_AS_ARRAY, new Object[0][]));
+
+            try (ZipFeatureDataRowReader reader = new ZipFeatureDataRowReader(new File(FILE))) {
+                assertEquals(0, reader.getRowCount());
+                assertEquals(OBJECT_FEATURES.size(), reader.getFeatures().size());
+                assertFalse(reader.hasNextRow());
+                assertNull(reader.nextRow());
+            }
+        } catch (DatasetException | IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    private void testNextRowText(FileType fileType) {
+        try {
+            ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE));
+
+            writer.setFileType(fileType);
+
+            writer.write(new ArrayFeatureData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS, OBJECT_TABLE_AS_ARRAY));
+
+            checkRows(3);
+        } catch (DatasetException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    private void checkRows(int rowCount) {
+        try (ZipFeatureDataRowReader reader = new ZipFeatureDataRowReader(new File(FILE))) {
+            assertEquals(UID, reader.getUniqueIdentifier());
+            assertEquals(NAME, reader.getName());
+            assertEquals(OBJECT_FEATURES, reader.getFeatures());
+            assertEquals(rowCount, reader.getRowCount());
+
+            for (int i = 0; i < rowCount; ++i) {
+                FeatureDataRow row = reader.nextRow();
+
+                assertEquals(ROW_HEADERS[i], row.getHeader());
+                assertEquals(ROW_HEADERS[i].getName(), row.getHeader().getName());
+                assertArrayEquals(OBJECT_TABLE_AS_ARRAY[i], row.getValuesAsArray());
+            }
+
+            assertFalse(reader.hasNextRow());
+            assertNull(reader.nextRow());
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.data.tests.feature.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import uno.informatics.data.dataset.DatasetException;
+import uno.informatics.data.dataset.FeatureData;
+import uno.informatics.data.dataset.FeatureDataRow;
+import uno.informatics.data.feature.array.ArrayFeatureData;
+import uno.informatics.data.feature.array.ZipFeatureData;
+import uno.informatics.data.feature.array.ZipFeatureDataReader;
+import uno.informatics.data.feature.array.ZipFeatureDataWriter;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+import uno.informatics.data.tests.TestData;
+
+/**
+ * @author Guy Davenport
+ *
+ */
+public class ZipFeatureDataTest extends TestData {
+
+    private static final String FILE = "target/test_zip_feature_data.zip";
+
+    private static final String TEXT_FILE = "target/test_zip_feature_data.txt";
+
+    private static final int ROW_COUNT = 250;
+
+    private static final int BLOCK_SIZE = 64;
+
+    @Test
+    public void testReadLazily() {
+        try {
+            FeatureData dataset = writeDataset();
+
+            try (ZipFeatureData data = new ZipFeatureDataReader(new File(FILE)).readLazily()) {
+                assertEquals(UID, data.getUniqueIdentifier());
+                assertEquals(NAME, data.getName());
+                assertEquals(OBJECT_FEATURES.size(), data.getFeatures().size());
+                assertEquals(ROW_COUNT, data.getRowCount());
+                assertEquals(BLOCK_SIZE, data.getBlockSize());
+                assertEquals(0, data.getCachedBlockCount());
+
+                assertArrayEquals(dataset.getRowHeadersAsArray(), data.getRowHeadersAsArray());
+                assertArrayEquals(dataset.getValuesAsArray(), data.getValuesAsArray());
+
+                // reading all of the values does not fill the cache
+                assertEquals(0, data.getCachedBlockCount());
+
+                checkCompleteData(UID, NAME, dataset.getFeatures(), dataset.getRowHeadersAsArray(),
+                        dataset.getValues(), data);
+            }
+        } catch (DatasetException | IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testGetRow() {
+        try {
+            FeatureData dataset = writeDataset();
+
+            try (ZipFeatureData data = new ZipFeatureDataReader(new File(FILE)).readLazily()) {
+                data.setCacheSize(2);
+
+                checkRow(dataset, data, 0);
+                assertEquals(1, data.getCachedBlockCount());
+
+                checkRow(dataset, data, 1);
+                assertEquals(1, data.getCachedBlockCount());
+
+                checkRow(dataset, data, BLOCK_SIZE);
+                assertEquals(2, data.getCachedBlockCount());
+
+                // evicts the first block
+                checkRow(dataset, data, ROW_COUNT - 1);
+                assertEquals(2, data.getCachedBlockCount());
+
+                checkRow(dataset, data, 2);
+                assertEquals(2, data.getCachedBlockCount());
+
+                data.setCacheSize(1);
+
+                assertEquals(1, data.getCachedBlockCount());
+
+                for (int i = 0; i < ROW_COUNT; ++i)
+                    checkRow(dataset, data, i);
+
+                assertEquals(1, data.getCachedBlockCount());
+            }
+        } catch (DatasetException | IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWriteData() {
+        try {
+            FeatureData dataset = writeDataset();
+
+            Path path = Paths.get(TEXT_FILE);
+
+            Files.deleteIfExists(path);
+
+            try (ZipFeatureData data = new ZipFeatureDataReader(new File(FILE)).readLazily()) {
+                data.writeData(path, FileType.TXT);
+            }
+
+            FeatureData readDataset = ArrayFeatureData.readData(path, FileType.TXT);
+
+            assertEquals(ROW_COUNT, readDataset.getRowCount());
+
+            for (int i = 0; i < ROW_COUNT; ++i) {
+                assertEquals(dataset.getRow(i).getHeader(), readDataset.getRow(i).getHeader());
+                assertArrayEquals(dataset.getRow(i).getValuesAsArray(), readDataset.getRow(i).getValuesAsArray());
+            }
+        } catch (DatasetException | IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCopies() {
+        try {
+            FeatureData dataset = writeDataset();
+
+            try (ZipFeatureData data = new ZipFeatureDataReader(new File(FILE)).readLazily()) {
+                // caches the first block
+                data.getRow(0).getValuesAsArray()[0] = -1;
+                data.getValuesAsArray()[1][0] = -1;
+                data.getRowsAsArray()[2].getValuesAsArray()[0] = -1;
+                data.getRowHeadersAsArray()[3] = null;
+
+                assertEquals(1, data.getCachedBlockCount());
+
+                for (int i = 0; i < 4; ++i)
+                    checkRow(dataset, data, i);
+            }
+        } catch (DatasetException | IOException e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testClosed() throws DatasetException, IOException {
+        writeDataset();
+
+        ZipFeatureData data = new ZipFeatureDataReader(new File(FILE)).readLazily();
+
+        data.getRow(0);
+        data.close();
+
+        try {
+            data.getRow(0);
+
+            fail("Row read after close");
+        } catch (IllegalStateException e) {
+            assertEquals("Feature data is closed", e.getMessage());
+        }
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void testSerialize() throws DatasetException, IOException {
+        writeDataset();
+
+        try (ZipFeatureData data = new ZipFeatureDataReader(new File(FILE)).readLazily();
+                ObjectOutputStream output = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            output.writeObject(data);
+        }
+    }
+
+    @Test(expected = DatasetException.class)
+    public void testReadLazilyText() throws DatasetException {
+        ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE));
+
+        writer.setFileType(FileType.TXT);
+
+        writer.write(new ArrayFeatureData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS, OBJECT_TABLE_AS_ARRAY));
+
+        new ZipFeatureDataReader(new File(FILE)).readLazily();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCacheSize() throws DatasetException, IOException {
+        writeDataset();
+
+        try (ZipFeatureData data = new ZipFeatureDataReader(new File(FILE)).readLazily()) {
+            data.setCacheSize(0);
+        }
+    }
+
+    private FeatureData writeDataset() throws DatasetException {
+        Object[][] values = new Object[ROW_COUNT][];
+        SimpleEntityPojo[] rowHeaders = new SimpleEntityPojo[ROW_COUNT];
+
+        for (int i = 0; i < ROW_COUNT; ++i) {
+            values[i] = new Object[] { i, i * 0.5, i % 4 == 0 ? null : "S" + i, i % 2 == 0, OBJECT_ROW1[4] };
+            rowHeaders[i] = new SimpleEntityPojo("row" + i, "Row " + i);
+        }
+
+        FeatureData dataset = new ArrayFeatureData(UID, NAME, OBJECT_FEATURES, rowHeaders, values);
+
+        ZipFeatureDataWriter writer = new ZipFeatureDataWriter(new File(FILE));
+
+        writer.setBlockSize(BLOCK_SIZE);
+
+        writer.write(dataset);
+
+        return dataset;
+    }
+
+    private void checkRow(FeatureData dataset, ZipFeatureData data, int index) {
+        FeatureDataRow row = data.getRow(index);
+
+        assertEquals(dataset.getRow(index).getHeader(), row.getHeader());
+        assertArrayEquals(dataset.getRow(index).getValuesAsArray(), row.getValuesAsArray());
+    }
+}
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.data.tests.feature.column;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import uno.informatics.data.DataType;
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.FeatureData;
+import uno.informatics.data.feature.AbstractFeatureData;
+import uno.informatics.data.feature.array.ArrayFeatureData;
+import uno.informatics.data.feature.column.ColumnarFeatureData;
+import uno.informatics.data.feature.column.DoubleFeatureColumn;
+import uno.informatics.data.feature.column.FeatureColumn;
+import uno.informatics.data.feature.column.IntFeatureColumn;
+import uno.informatics.data.feature.column.StringFeatureColumn;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+import uno.informatics.data.tests.feature.DatasetTest;
+import uno.informatics.data.utils.DataOption;
+
+/**
+ * @author Guy Davenport
+ *
+ */
+public class ColumnarFeatureDataTest extends DatasetTest {
+
+    @Test
+    public void testColumnarFeatureDataFeatureData() {
+        ArrayFeatureData data = new ArrayFeatureData(UID, NAME, OBJECT_FEATURES, OBJECT_TABLE_AS_LIST_WITH_HEADER);
+
+        checkCompleteData(UID, NAME, OBJECT_FEATURES, new ColumnarFeatureData(data), ROW_HEADERS, false);
+    }
+
+    @Test
+    public void testColumnarFeatureDataListOfListOfObject() {
+        ColumnarFeatureData data = new ColumnarFeatureData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS_AS_LIST,
+                OBJECT_TABLE_AS_LIST);
+
+        checkCompleteData(UID, NAME, OBJECT_FEATURES, data, ROW_HEADERS, false);
+
+        assertTrue(data.getColumn(0) instanceof IntFeatureColumn);
+        assertTrue(data.getColumn(1) instanceof DoubleFeatureColumn);
+        assertTrue(data.getColumn(2) instanceof StringFeatureColumn);
+    }
+
+    @Test
+    public void testTypedColumns() {
+        ColumnarFeatureData data = (ColumnarFeatureData) createDataset();
+
+        assertArrayEquals(new int[] { 1, 2, 3 }, data.getIntColumn(0));
+        assertArrayEquals(new double[] { 1, 2, 3 }, data.getDoubleColumn(0), 0.0);
+        assertArrayEquals(new double[] { 1.1, 2.2, 3.3 }, data.getDoubleColumn(1), 0.0);
+        assertArrayEquals(new String[] { "R1C3", "R2C3", "R3C3" }, data.getStringColumn(2));
+        assertTrue(Arrays.equals(new boolean[] { true, false, true }, data.getBooleanColumn(3)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDoubleColumnOfString() {
+        ((ColumnarFeatureData) createDataset()).getDoubleColumn(2);
+    }
+
+    @Test
+    public void testShortColumn() {
+        IntFeatureColumn column = new IntFeatureColumn(DataType.SHORT, 2);
+
+        column.setValue(0, Integer.valueOf(Short.MIN_VALUE));
+        column.setValue(1, (byte) 7);
+
+        assertEquals(Short.MIN_VALUE, column.getValue(0));
+        assertEquals((short) 7, column.getValue(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortColumnOutOfRange() {
+        new IntFeatureColumn(DataType.SHORT, 1).setValue(0, 70000);
+    }
+
+    @Test
+    public void testMissingValues() {
+        List<List<Object>> values = new ArrayList<List<Object>>();
+
+        values.add(Arrays.asList((Object) 1, 1.1, "a", true, null));
+        values.add(Arrays.asList((Object) null, null, null, null, null));
+        values.add(Arrays.asList((Object) 3, 3.3, "a", false, null));
+
+        ColumnarFeatureData data = new ColumnarFeatureData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS_AS_LIST, values);
+
+        assertEquals(values, data.getValues());
+
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(i == 4, data.getColumn(i).isMissing(0));
+            assertTrue(data.getColumn(i).isMissing(1));
+            assertNull(data.getRow(1).getValue(i));
+        }
+
+        assertTrue(Double.isNaN(data.getDoubleColumn(1)[1]));
+        assertEquals(1, ((StringFeatureColumn) data.getColumn(2)).getDictionary().size());
+    }
+
+    @Test
+    public void testMemorySize() {
+        int rowCount = 10000;
+
+        List<List<Object>> values = new ArrayList<List<Object>>(rowCount);
+        List<SimpleEntity> headers = new ArrayList<SimpleEntity>(rowCount);
+
+        for (int i = 0; i < rowCount; ++i) {
+            values.add(Arrays.asList((Object) i, i * 1.1, "R" + (i % 10), i % 2 == 0, null));
+            headers.add(new SimpleEntityPojo("row" + i));
+        }
+
+        ColumnarFeatureData data = new ColumnarFeatureData(UID, NAME, OBJECT_FEATURES, headers, values);
+
+        // an int, double, string code and a bit per row, the objects column
+        // is all nulls
+        long size = data.getMemorySize();
+
+        assertTrue("Memory size " + size + " too large", size < rowCount * (4 + 8 + 4 + 4 + 4 + 8));
+        assertTrue("Memory size " + size + " too small", size > rowCount * (4 + 8 + 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRowSize() {
+        List<List<Object>> values = new ArrayList<List<Object>>();
+
+        values.add(Arrays.asList((Object) 1, 1.1));
+
+        new ColumnarFeatureData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS_AS_LIST.subList(0, 1), values);
+    }
+
+    @Test
+    public void testCopyOf() {
+        ColumnarFeatureData data = new ColumnarFeatureData(UID, NAME, OBJECT_FEATURES, ROW_HEADERS_AS_LIST,
+                OBJECT_TABLE_AS_LIST);
+
+        for (int i = 0; i < OBJECT_FEATURES.size(); ++i) {
+            FeatureColumn column = data.getColumn(i);
+            FeatureColumn larger = column.copyOf(column.size() + 2);
+            FeatureColumn smaller = column.copyOf(1);
+
+            assertEquals(column.size() + 2, larger.size());
+            assertEquals(1, smaller.size());
+
+            for (int row = 0; row < column.size(); ++row) {
+                assertEquals("column " + i + " row " + row, column.getValue(row), larger.getValue(row));
+            }
+
+            assertTrue(larger.isMissing(column.size()));
+            assertTrue(larger.isMissing(column.size() + 1));
+            assertEquals(column.getValue(0), smaller.getValue(0));
+        }
+    }
+
+    @Test
+    public void testReadData() {
+        try {
+            Path path = writeFile("ID,NAME,col1,col2,col3,col4\nTYPE,,II,RD,NS,OI\n");
+
+            FeatureData expected = ArrayFeatureData.readData(path, FileType.CSV);
+            ColumnarFeatureData data = ColumnarFeatureData.readData(path, FileType.CSV);
+
+            assertSameData(expected, data);
+
+            assertTrue(data.getColumn(0) instanceof IntFeatureColumn);
+            assertTrue(data.getColumn(1) instanceof DoubleFeatureColumn);
+            assertTrue(data.getColumn(2) instanceof StringFeatureColumn);
+            assertEquals(13, ((StringFeatureColumn) data.getColumn(2)).getDictionary().size());
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testReadDataInferringTypes() {
+        try {
+            Path path = writeFile("ID,NAME,col1,col2,col3,col4\n");
+
+            DataOption option = new DataOption(AbstractFeatureData.INFER_TYPES, true);
+
+            FeatureData expected = ArrayFeatureData.readData(path, FileType.CSV, option);
+            ColumnarFeatureData data = ColumnarFeatureData.readData(path, FileType.CSV, option);
+
+            assertSameData(expected, data);
+
+            assertTrue(data.getColumn(0) instanceof IntFeatureColumn);
+            assertTrue(data.getColumn(1) instanceof DoubleFeatureColumn);
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWriteData() {
+        try {
+            ColumnarFeatureData expected = ColumnarFeatureData.readData(
+                    writeFile("ID,NAME,col1,col2,col3,col4\nTYPE,,II,RD,NS,OI\n"), FileType.CSV);
+
+            Path path = Files.createTempFile("columnar", ".csv");
+
+            path.toFile().deleteOnExit();
+
+            Files.delete(path);
+
+            expected.writeData(path, FileType.CSV);
+
+            assertSameData(expected, ColumnarFeatureData.readData(path, FileType.CSV));
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    protected FeatureData createDataset() {
+        return new ColumnarFeatureData(new ArrayFeatureData(UID, NAME, OBJECT_FEATURES, OBJECT_TABLE_AS_LIST_WITH_HEADER));
+    }
+
+    /**
+     * Writes a file with more rows than the initial size of the columns, with
+     * missing values
+     */
+    private Path writeFile(String header) throws IOException {
+        Path path = Files.createTempFile("columnar", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        StringBuilder builder = new StringBuilder(header);
+
+        for (int i = 0; i < 100; ++i) {
+            builder.append("row").append(i).append(",r").append(i).append(',')
+                .append(i % 10 == 0 ? "" : String.valueOf(i % 97 - 30)).append(',').append(i * 0.25).append(",R")
+                .append(i % 13).append(',').append(i % 7 == 0 ? "" : String.valueOf(i % 5)).append('\n');
+        }
+
+        Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+        return path;
+    }
+
+    private void assertSameData(FeatureData expected, FeatureData data) {
+        assertEquals("row count", expected.getRowCount(), data.getRowCount());
+
+        for (int i = 0; i < expected.getFeatures().size(); ++i) {
+            assertEquals("type " + i, expected.getFeatures().get(i).getMethod().getScale().getDataType(),
+                    data.getFeatures().get(i).getMethod().getScale().getDataType());
+        }
+
+        for (int i = 0; i < expected.getRowCount(); ++i) {
+            assertEquals("header " + i, expected.getRow(i).getHeader(), data.getRow(i).getHeader());
+            assertEquals("row " + i, expected.getRow(i).getValues(), data.getRow(i).getValues());
+        }
+    }
+}
@@ -21,6 +21,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -102,6 +104,124 @@ public class DoubleArrayMatrixDatasetTest {
         testCreateMatrixDataset(Paths.get(DoubleArrayMatrixDatasetTest.class.getResource(IDS_NAMES_ON_BOTH).getPath()), FileType.TXT, COLUMN_HEADERS_WITH_NAMES, ROW_HEADERS_WITH_NAMES);
     }
 
+    @Test
+    public void testReadMatrixDatasetInParallel() {
+        try {
+            Path path = Files.createTempFile("parallel", ".txt");
+            
+            path.toFile().deleteOnExit();
+            
+            StringBuilder builder = new StringBuilder("ID\tNAME\tCol1\tCol2\tCol3\n");
+            
+            for (int i = 0; i < 20000; ++i) {
+                builder.append("Row").append(i).append("\tR").append(i).append('\t').append(i * 0.5)
+                    .append('\t').append(-i).append('\t').append(i % 11 * 1.25).append('\n');
+            }
+            
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+            
+            MatrixData<Double> expected = DoubleArrayMatrixData.readData(path, FileType.TXT);
+            
+            for (int parallelism = 1; parallelism <= 4; ++parallelism) {
+                MatrixData<Double> matrix = DoubleArrayMatrixData.readData(path, FileType.TXT, 
+                        new DataOption(AbstractMatrixData.PARALLELISM, parallelism));
+                
+                assertEquals("row count not equal!", expected.getRowCount(), matrix.getRowCount());
+                assertEquals("column count not equal!", expected.getColumnCount(), matrix.getColumnCount());
+                assertEquals("row headers not equal!", expected.getRowHeaders(), matrix.getRowHeaders());
+                assertEquals("column headers not equal!", expected.getColumnHeaders(), matrix.getColumnHeaders());
+                
+                for (int x = 0; x < matrix.getRowCount(); ++x)
+                    for (int y = 0; y < matrix.getColumnCount(); ++y)
+                        assertEquals("x=" + x + " y=" + y, expected.getValue(x, y), matrix.getValue(x, y));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testReadMatrixDatasetInParallelWithShortRow() {
+        try {
+            Path path = Files.createTempFile("parallel", ".txt");
+            
+            path.toFile().deleteOnExit();
+            
+            StringBuilder builder = new StringBuilder("ID\tNAME\tCol1\tCol2\tCol3\n");
+            
+            for (int i = 0; i < 20000; ++i) {
+                builder.append("Row").append(i).append("\tR").append(i).append('\t').append(i * 0.5)
+                    .append('\t').append(-i);
+                
+                if (i != 15000)
+                    builder.append('\t').append(i % 11 * 1.25);
+                
+                builder.append('\n');
+            }
+            
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+            
+            String expected = null;
+            
+            try {
+                DoubleArrayMatrixData.readData(path, FileType.TXT);
+            } catch (IOException e) {
+                expected = e.getMessage();
+            }
+            
+            assertEquals("Row 15002 is not right size, expecting 3 but was 2!", expected);
+            
+            for (int parallelism = 2; parallelism <= 4; ++parallelism) {
+                try {
+                    DoubleArrayMatrixData.readData(path, FileType.TXT, 
+                            new DataOption(AbstractMatrixData.PARALLELISM, parallelism));
+                    
+                    fail("Row size not checked");
+                } catch (IOException e) {
+                    assertEquals(expected, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testReadMatrixDatasetWithSelectedColumns() {
+        try {
+            Path path = Paths.get(DoubleArrayMatrixDatasetTest.class.getResource(IDS_NAMES_ON_BOTH).getPath());
+            
+            DataOption[] selections = new DataOption[] {
+                    new DataOption(AbstractMatrixData.COLUMNS, new int[] {4, 1}),
+                    new DataOption(AbstractMatrixData.COLUMNS, new String[] {"Col5", "Col2"})
+            };
+            
+            for (DataOption selection : selections) {
+                MatrixData<Double> matrix = DoubleArrayMatrixData.readData(path, FileType.TXT, selection);
+    
+                assertEquals("row count not equal!", ROW_HEADERS_WITH_NAMES.length, matrix.getRowCount());
+                assertEquals("column count not equal!", 2, matrix.getColumnCount());
+                assertArrayEquals("row headers not equal!", ROW_HEADERS_WITH_NAMES, matrix.getRowHeaders().toArray());
+                assertArrayEquals("column headers not equal!", 
+                        new SimpleEntity[] { COLUMN_HEADERS_WITH_NAMES[1], COLUMN_HEADERS_WITH_NAMES[4] }, 
+                        matrix.getColumnHeaders().toArray());
+    
+                for (int x = 0; x < matrix.getRowCount(); ++x) {
+                    assertEquals("x=" + x + " y=0", new Double("" + (x + 1) + ".2"), (double) matrix.getValue(x, 0), DELTA);
+                    assertEquals("x=" + x + " y=1", new Double("" + (x + 1) + ".5"), (double) matrix.getValue(x, 1), DELTA);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
     public void testCreateMatrixDataset(Path filePath, FileType type, SimpleEntity[] columnHeaders, SimpleEntity[] rowHeaders) {
         try {
             Feature valueFeature = new SimpleFeaturePojo(ELEMENT_NAME, DataType.STRING, ScaleType.NOMINAL);
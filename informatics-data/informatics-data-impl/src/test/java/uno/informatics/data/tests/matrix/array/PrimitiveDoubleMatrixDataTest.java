@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright 2014 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.data.tests.matrix.array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import uno.informatics.data.SimpleEntity;
+import uno.informatics.data.dataset.MatrixData;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.matrix.AbstractMatrixData;
+import uno.informatics.data.matrix.array.DoubleArrayMatrixData;
+import uno.informatics.data.matrix.array.PrimitiveDoubleMatrixData;
+import uno.informatics.data.pojo.SimpleEntityPojo;
+import uno.informatics.data.utils.DataOption;
+
+/**
+ * @author Guy Davenport
+ *
+ */
+public class PrimitiveDoubleMatrixDataTest {
+
+    private static final String IDS = "/matrix/double/ids_only.txt";
+    private static final String IDS_NAMES_ON_BOTH = "/matrix/double/idsNamesOnBoth.txt";
+
+    private static final double DELTA = 0;
+
+    private static final SimpleEntity[] ROW_HEADERS_WITH_NAMES = new SimpleEntity[] {
+            new SimpleEntityPojo("Row1", "R1"),
+            new SimpleEntityPojo("Row2", "R2"),
+            new SimpleEntityPojo("Row3", "R3") };
+
+    private static final SimpleEntity[] COLUMN_HEADERS_WITH_NAMES = new SimpleEntity[] {
+            new SimpleEntityPojo("Col1", "C1"),
+            new SimpleEntityPojo("Col2", "C2"),
+            new SimpleEntityPojo("Col3", "C3"),
+            new SimpleEntityPojo("Col4", "C4"),
+            new SimpleEntityPojo("Col5", "C5") };
+
+    @Test
+    public void testReadDataSameAsBoxed() {
+        try {
+            for (String file : new String[] { IDS, IDS_NAMES_ON_BOTH }) {
+                Path path = Paths.get(PrimitiveDoubleMatrixDataTest.class.getResource(file).getPath());
+
+                MatrixData<Double> expected = DoubleArrayMatrixData.readData(path, FileType.TXT);
+                PrimitiveDoubleMatrixData matrix = PrimitiveDoubleMatrixData.readData(path, FileType.TXT);
+
+                assertMatrixEquals(expected, matrix);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testReadDataWithNames() {
+        try {
+            Path path = Paths.get(PrimitiveDoubleMatrixDataTest.class.getResource(IDS_NAMES_ON_BOTH).getPath());
+
+            PrimitiveDoubleMatrixData matrix = PrimitiveDoubleMatrixData.readData(path, FileType.TXT);
+
+            assertTrue(matrix.isFlat());
+            assertArrayEquals("row headers not equal!", ROW_HEADERS_WITH_NAMES, matrix.getRowHeaders().toArray());
+            assertArrayEquals("column headers not equal!", COLUMN_HEADERS_WITH_NAMES,
+                    matrix.getColumnHeaders().toArray());
+
+            for (int x = 0; x < matrix.getRowCount(); ++x)
+                for (int y = 0; y < matrix.getColumnCount(); ++y)
+                    assertEquals("x=" + x + " y=" + y, new Double("" + (x + 1) + "." + (y + 1)),
+                            matrix.getDouble(x, y), DELTA);
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testReadDataInParallel() {
+        try {
+            Path path = Files.createTempFile("parallel", ".txt");
+
+            path.toFile().deleteOnExit();
+
+            StringBuilder builder = new StringBuilder("ID\tCol1\tCol2\tCol3\n");
+
+            for (int i = 0; i < 20000; ++i) {
+                builder.append("Row").append(i).append('\t').append(i * 0.5).append('\t')
+                    .append(i % 7 == 0 ? "" : String.valueOf(i % 11 * 1.25)).append('\t').append(-i).append('\n');
+            }
+
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+            PrimitiveDoubleMatrixData expected = PrimitiveDoubleMatrixData.readData(path, FileType.TXT);
+
+            assertTrue(Double.isNaN(expected.getDouble(0, 1)));
+            assertEquals(1.25, expected.getDouble(1, 1), DELTA);
+
+            for (int parallelism = 2; parallelism <= 4; ++parallelism) {
+                PrimitiveDoubleMatrixData matrix = PrimitiveDoubleMatrixData.readData(path, FileType.TXT,
+                        new DataOption(AbstractMatrixData.PARALLELISM, parallelism));
+
+                assertEquals("row headers not equal!", expected.getRowHeaders(), matrix.getRowHeaders());
+
+                for (int y = 0; y < matrix.getColumnCount(); ++y)
+                    assertArrayEquals("y=" + y, expected.getColumnAsDoubleArray(y),
+                            matrix.getColumnAsDoubleArray(y), DELTA);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testReadDataInParallelWithShortRow() {
+        try {
+            Path path = Files.createTempFile("parallel", ".txt");
+
+            path.toFile().deleteOnExit();
+
+            StringBuilder builder = new StringBuilder("ID\tCol1\tCol2\tCol3\n");
+
+            for (int i = 0; i < 20000; ++i) {
+                builder.append("Row").append(i).append('\t').append(i * 0.5).append('\t').append(-i);
+
+                if (i != 15000)
+                    builder.append('\t').append(i % 11 * 1.25);
+
+                builder.append('\n');
+            }
+
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+            String expected = null;
+
+            try {
+                PrimitiveDoubleMatrixData.readData(path, FileType.TXT);
+            } catch (IOException e) {
+                expected = e.getMessage();
+            }
+
+            assertEquals("Row 15002 is not right size, expecting 3 but was 2!", expected);
+
+            for (int parallelism = 2; parallelism <= 4; ++parallelism) {
+                try {
+                    PrimitiveDoubleMatrixData.readData(path, FileType.TXT,
+                            new DataOption(AbstractMatrixData.PARALLELISM, parallelism));
+
+                    fail("Row size not checked");
+                } catch (IOException e) {
+                    assertEquals(expected, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testRowsAndColumns() {
+        double[][] values = new double[][] { { 1.1, 1.2, 1.3 }, { 2.1, 2.2, 2.3 } };
+
+        PrimitiveDoubleMatrixData matrix = new PrimitiveDoubleMatrixData("matrix", null, values);
+
+        values[0][0] = 0.0;
+
+        assertEquals(2, matrix.getRowCount());
+        assertEquals(3, matrix.getColumnCount());
+        assertEquals(1.1, matrix.getDouble(0, 0), DELTA);
+        assertEquals(Double.valueOf(2.3), matrix.getValue(1, 2));
+
+        assertArrayEquals(new double[] { 2.1, 2.2, 2.3 }, matrix.getRowAsDoubleArray(1), DELTA);
+        assertArrayEquals(new double[] { 1.2, 2.2 }, matrix.getColumnAsDoubleArray(1), DELTA);
+
+        double[] destination = new double[4];
+
+        matrix.copyColumn(2, destination, 1);
+
+        assertArrayEquals(new double[] { 0, 1.3, 2.3, 0 }, destination, DELTA);
+
+        matrix.setDouble(1, 0, -1);
+
+        assertArrayEquals(new Double[][] { { 1.1, 1.2, 1.3 }, { -1.0, 2.2, 2.3 } }, matrix.getValuesAsArray());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidColumn() {
+        new PrimitiveDoubleMatrixData("matrix", null, new double[][] { { 1, 2 }, { 3, 4 } }).getDouble(0, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRowSize() {
+        new PrimitiveDoubleMatrixData("matrix", null, new double[][] { { 1, 2 }, { 3 } });
+    }
+
+    private void assertMatrixEquals(MatrixData<Double> expected, PrimitiveDoubleMatrixData matrix) {
+        assertEquals("row count not equal!", expected.getRowCount(), matrix.getRowCount());
+        assertEquals("column count not equal!", expected.getColumnCount(), matrix.getColumnCount());
+        assertEquals("row headers not equal!", expected.getRowHeaders(), matrix.getRowHeaders());
+        assertEquals("column headers not equal!", expected.getColumnHeaders(), matrix.getColumnHeaders());
+        assertEquals("values not equal!", expected.getValues(), matrix.getValues());
+    }
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright 2014 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.data.tests.matrix.mapped;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import uno.informatics.data.DataType;
+import uno.informatics.data.Feature;
+import uno.informatics.data.ScaleType;
+import uno.informatics.data.dataset.MatrixData;
+import uno.informatics.data.io.FileType;
+import uno.informatics.data.matrix.AbstractMatrixData;
+import uno.informatics.data.matrix.array.DoubleArrayMatrixData;
+import uno.informatics.data.matrix.array.PrimitiveDoubleMatrixData;
+import uno.informatics.data.matrix.mapped.MappedDoubleMatrixData;
+import uno.informatics.data.matrix.mapped.MappedMatrixWriter;
+import uno.informatics.data.pojo.SimpleFeaturePojo;
+import uno.informatics.data.utils.DataOption;
+
+/**
+ * @author Guy Davenport
+ *
+ */
+public class MappedDoubleMatrixDataTest {
+
+    private static final String IDS = "/matrix/double/ids_only.txt";
+    private static final String IDS_NAMES_ON_BOTH = "/matrix/double/idsNamesOnBoth.txt";
+
+    private static final double DELTA = 0;
+
+    @Test
+    public void testConvert() {
+        try {
+            for (String resource : new String[] { IDS, IDS_NAMES_ON_BOTH }) {
+                Path path = Paths.get(MappedDoubleMatrixDataTest.class.getResource(resource).getPath());
+
+                File file = createTempFile();
+
+                Feature valueFeature = new SimpleFeaturePojo("elements", DataType.DOUBLE, ScaleType.RATIO);
+
+                MappedMatrixWriter.convert(path, FileType.TXT, file, DataType.DOUBLE,
+                        new DataOption(AbstractMatrixData.ELEMENT_FEATURE, valueFeature));
+
+                MatrixData<Double> expected = DoubleArrayMatrixData.readData(path, FileType.TXT);
+                MappedDoubleMatrixData matrix = MappedDoubleMatrixData.readData(file.toPath());
+
+                assertMatrixEquals(expected, matrix);
+                assertEquals(valueFeature.getName(), matrix.getValueFeature().getName());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWriteLargerMatrix() {
+        try {
+            Path path = Files.createTempFile("matrix", ".txt");
+
+            path.toFile().deleteOnExit();
+
+            StringBuilder builder = new StringBuilder("ID\tNAME\tCol1\tCol2\tCol3\n");
+
+            for (int i = 0; i < 20000; ++i) {
+                builder.append("Row").append(i).append("\tR").append(i).append('\t').append(i * 0.5)
+                    .append('\t').append(i % 7 == 0 ? "" : String.valueOf(i % 11 * 1.25)).append('\t').append(-i)
+                    .append('\n');
+            }
+
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+            PrimitiveDoubleMatrixData expected = PrimitiveDoubleMatrixData.readData(path, FileType.TXT);
+
+            for (DataType elementType : new DataType[] { DataType.DOUBLE, DataType.FLOAT }) {
+                File file = createTempFile();
+
+                MappedMatrixWriter.write(expected, file, elementType);
+
+                MappedDoubleMatrixData matrix = MappedDoubleMatrixData.readData(file.toPath());
+
+                assertEquals(elementType, matrix.getElementType());
+                assertEquals(expected.getName(), matrix.getName());
+                assertEquals(expected.getRowHeaders(), matrix.getRowHeaders());
+                assertEquals(expected.getColumnHeaders(), matrix.getColumnHeaders());
+
+                for (int y = 0; y < matrix.getColumnCount(); ++y) {
+                    double[] expectedColumn = expected.getColumnAsDoubleArray(y);
+
+                    if (elementType == DataType.FLOAT) {
+                        for (int x = 0; x < expectedColumn.length; ++x)
+                            expectedColumn[x] = (float) expectedColumn[x];
+                    }
+
+                    assertArrayEquals("y=" + y, expectedColumn, matrix.getColumnAsDoubleArray(y), DELTA);
+                }
+
+                assertArrayEquals(new double[] { 0.5, 1.25, -1 }, matrix.getRowAsDoubleArray(1), DELTA);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWithoutHeaders() {
+        try {
+            File file = createTempFile();
+
+            MappedMatrixWriter.write(new PrimitiveDoubleMatrixData("matrix", null,
+                    new double[][] { { 1, 2 }, { 3, Double.NaN } }), file, DataType.DOUBLE);
+
+            MappedDoubleMatrixData matrix = MappedDoubleMatrixData.readData(file.toPath());
+
+            assertFalse(matrix.hasRowHeaders());
+            assertFalse(matrix.hasColumnHeaders());
+            assertNull(matrix.getUniqueIdentifier());
+            assertNull(matrix.getValueFeature());
+            assertEquals(3.0, matrix.getDouble(1, 0), DELTA);
+            assertEquals(Double.NaN, matrix.getValue(1, 1), DELTA);
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testConvertInvalidFile() throws IOException {
+        Path path = Files.createTempFile("matrix", ".txt");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, "ID\tCol1\tCol2\nRow1\t1\t2\nRow2\t3\n".getBytes(StandardCharsets.UTF_8));
+
+        File file = createTempFile();
+
+        try {
+            MappedMatrixWriter.convert(path, FileType.TXT, file, DataType.DOUBLE);
+
+            fail("Row of wrong size converted");
+        } catch (IOException e) {
+            assertFalse(file.exists());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotMatrixFile() throws IOException {
+        MappedDoubleMatrixData.readData(Paths.get(MappedDoubleMatrixDataTest.class.getResource(IDS).getPath()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedElementType() throws IOException {
+        new MappedMatrixWriter(createTempFile(), DataType.INTEGER, 1);
+    }
+
+    @Test
+    public void testExistingFile() throws IOException {
+        File file = File.createTempFile("matrix", ".bin");
+
+        file.deleteOnExit();
+
+        try {
+            new MappedMatrixWriter(file, DataType.DOUBLE, 1);
+
+            fail("Existing file replaced");
+        } catch (IOException e) {
+            assertTrue(file.exists());
+        }
+    }
+
+    /**
+     * Creates the path of a temporary file that does not exist, since the
+     * writer only writes new files
+     */
+    private static File createTempFile() throws IOException {
+        File file = File.createTempFile("matrix", ".bin");
+
+        Files.delete(file.toPath());
+
+        file.deleteOnExit();
+
+        return file;
+    }
+
+    private void assertMatrixEquals(MatrixData<Double> expected, MappedDoubleMatrixData matrix) {
+        assertEquals("row count not equal!", expected.getRowCount(), matrix.getRowCount());
+        assertEquals("column count not equal!", expected.getColumnCount(), matrix.getColumnCount());
+        assertArrayEquals("row headers not equal!", expected.getRowHeadersAsArray(), matrix.getRowHeadersAsArray());
+        assertArrayEquals("column headers not equal!", expected.getColumnHeadersAsArray(),
+                matrix.getColumnHeadersAsArray());
+
+        for (int i = 0; i < matrix.getRowCount(); ++i) {
+            assertEquals(expected.getRowHeader(i).getName(), matrix.getRowHeader(i).getName());
+
+            for (int j = 0; j < matrix.getColumnCount(); ++j)
+                assertEquals("x=" + i + " y=" + j, expected.getValue(i, j), matrix.getValue(i, j));
+        }
+
+        for (int j = 0; j < matrix.getColumnCount(); ++j)
+            assertEquals(expected.getColumnHeader(j).getName(), matrix.getColumnHeader(j).getName());
+    }
+}
@@ -41,8 +41,6 @@ import static uno.informatics.data.DataTypeConstants.UNKNOWN_ID;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
@@ -52,8 +50,31 @@ import java.util.List;
 public class ConversionUtilities {
     private static final String TRUE = "true";
     private static final String FALSE = "false";
+    private static final String NAN = "NaN";
+    private static final String INFINITY = "Infinity";
 
-    private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyyMMddHHmmssZ");
+    private static final char MAX_ASCII = 127;
+
+    // longest exponent that is always in range of a big decimal
+    private static final int MAX_EXPONENT_DIGITS = 9;
+
+    // converts dates, replaced rather than modified so it can be read by
+    // many threads without locking
+    private static volatile DateParser dateParser = DateParser.getDefault();
+
+    // largest mantissa and powers of ten that are exactly representable as a
+    // double, used to convert decimal text without rounding errors
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[] { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+        1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    // marks a failed conversion, a not a number value that is never the
+    // result of a successful conversion
+    private static final long INVALID_DOUBLE_BITS = 0x7ff80000000bad00L;
+    private static final double INVALID_DOUBLE = Double.longBitsToDouble(INVALID_DOUBLE_BITS);
+
+    // reusable buffer for parsing text that is not already a character array
+    private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[64]);
 
     @SuppressWarnings("unused")
     private static String DEFAULT_DELIMITER = "&";
@@ -95,45 +116,7 @@ public class ConversionUtilities {
      *             types
      */
     public static final Object convertToObject(String string, int types) throws ConversionException {
-        Object value = null;
-
-        if (string != null) {
-            if (value == null && (types & SHORT_ID) != 0)
-                value = convertToShortInternal(string);
-
-            if (value == null && (types & INT_ID) != 0)
-                value = convertToIntegerInternal(string);
-
-            if (value == null && (types & LONG_ID) != 0)
-                value = convertToLongInternal(string);
-
-            if (value == null && (types & FLOAT_ID) != 0)
-                value = convertToFloatInternal(string);
-
-            if (value == null && (types & DOUBLE_ID) != 0)
-                value = convertToDoubleInternal(string);
-
-            if (value == null && (types & BIG_INTEGER_ID) != 0)
-                value = convertToBigIntegerInternal(string);
-
-            if (value == null && (types & BIG_DECIMAL_ID) != 0)
-                value = convertToBigDecimalInternal(string);
-
-            if (value == null && (types & BOOLEAN_ID) != 0)
-                value = convertToBooleanInternal(string);
-
-            if (value == null && (types & DATE_ID) != 0)
-                value = convertToDateInternal(string);
-
-            if (value == null && (types & STRING_ID) != 0)
-                value = string;
-
-            if (value == null)
-                throw new ConversionException(
-                    "Can not convert to Object using requested types " + getTypesNames(types) + "!");
-        }
-
-        return value;
+        return ValueConverter.getConverter(types).convert(string);
     }
 
     public static List<String> getTypesNames(int types) {
@@ -335,27 +318,386 @@ public class ConversionUtilities {
         return value;
     }
 
-    @SuppressWarnings("deprecation")
+    /**
+     * Converts a range of characters to an int without creating a string.
+     * Accepts the same text as {@link #convertToInteger(String)}.
+     *
+     * @param chars
+     *            the character buffer
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @return the int value
+     * @throws ConversionException
+     *             if the characters can not be converted to an int
+     */
+    public static final int convertToInt(char[] chars, int offset, int length) throws ConversionException {
+        // the smallest long is out of range of an int, so can not be confused
+        // with a valid value
+        long value = parseLong(chars, offset, length, Long.MIN_VALUE);
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw new ConversionException("Can not convert to int : " + new String(chars, offset, length));
+
+        return (int) value;
+    }
+
+    /**
+     * Converts a range of characters to a double without creating a string
+     * for plain decimal text, such as <code>-12.5e3</code>, that can be
+     * converted exactly. Any other text is converted as in
+     * {@link #convertToDouble(String)}.
+     *
+     * @param chars
+     *            the character buffer
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @return the double value
+     * @throws ConversionException
+     *             if the characters can not be converted to a double
+     */
+    public static final double convertToDouble(char[] chars, int offset, int length) throws ConversionException {
+        double value = parseDouble(chars, offset, length, INVALID_DOUBLE);
+
+        if (Double.doubleToRawLongBits(value) == INVALID_DOUBLE_BITS)
+            throw new ConversionException("Can not convert to double : " + new String(chars, offset, length));
+
+        return value;
+    }
+
+    /**
+     * Parses text as an int, accepting the same text as
+     * {@link Integer#parseInt(String)}, but returning a default value rather
+     * than throwing an exception if the text is not an int. No objects are
+     * created unless the text contains non ASCII characters.
+     *
+     * @param text
+     *            the text to be parsed, can be <code>null</code>
+     * @param defaultValue
+     *            the value returned if the text is not an int
+     * @return the int value of the text or the default value
+     */
+    public static final int parseInt(CharSequence text, int defaultValue) {
+        if (text == null)
+            return defaultValue;
+
+        return parseInt(toChars(text), 0, text.length(), defaultValue);
+    }
+
+    /**
+     * Parses a range of characters as an int, accepting the same text as
+     * {@link Integer#parseInt(String)}, but returning a default value rather
+     * than throwing an exception if the characters are not an int. No objects
+     * are created unless the characters include non ASCII characters.
+     *
+     * @param chars
+     *            the character buffer
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @param defaultValue
+     *            the value returned if the characters are not an int
+     * @return the int value of the characters or the default value
+     */
+    public static final int parseInt(char[] chars, int offset, int length, int defaultValue) {
+        long value = parseLong(chars, offset, length, Long.MIN_VALUE);
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            return defaultValue;
+
+        return (int) value;
+    }
+
+    /**
+     * Parses text as a long, accepting the same text as
+     * {@link Long#parseLong(String)}, but returning a default value rather
+     * than throwing an exception if the text is not a long. No objects are
+     * created unless the text contains non ASCII characters.
+     *
+     * @param text
+     *            the text to be parsed, can be <code>null</code>
+     * @param defaultValue
+     *            the value returned if the text is not a long
+     * @return the long value of the text or the default value
+     */
+    public static final long parseLong(CharSequence text, long defaultValue) {
+        if (text == null)
+            return defaultValue;
+
+        return parseLong(toChars(text), 0, text.length(), defaultValue);
+    }
+
+    /**
+     * Parses a range of characters as a long, accepting the same text as
+     * {@link Long#parseLong(String)}, but returning a default value rather
+     * than throwing an exception if the characters are not a long. No objects
+     * are created unless the characters include non ASCII characters.
+     *
+     * @param chars
+     *            the character buffer
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @param defaultValue
+     *            the value returned if the characters are not a long
+     * @return the long value of the characters or the default value
+     */
+    public static final long parseLong(char[] chars, int offset, int length, long defaultValue) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            ++i;
+        }
+
+        if (i == end)
+            return defaultValue;
+
+        // accumulate negatively so Long.MIN_VALUE can be represented
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long value = 0;
+        int digit;
+
+        while (i < end) {
+            digit = chars[i] - '0';
+
+            if (digit < 0 || digit > 9) {
+                // non ASCII digits are left to the standard conversion
+                if (chars[i] > MAX_ASCII)
+                    return parseLongSlow(chars, offset, length, defaultValue);
+                else
+                    return defaultValue;
+            }
+
+            if (value < multiplyLimit)
+                return defaultValue;
+
+            value *= 10;
+
+            if (value < limit + digit)
+                return defaultValue;
+
+            value -= digit;
+
+            ++i;
+        }
+
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses text as a double, accepting the same text as
+     * {@link Double#parseDouble(String)}, but returning a default value rather
+     * than throwing an exception if the text is not a double. No objects are
+     * created for plain decimal text, such as <code>-12.5e3</code>, that can
+     * be converted exactly, or for text that is not a double, such as
+     * <code>NA</code> or an empty string. The default value can be
+     * {@link Double#NaN} if missing values are to be marked as such.
+     *
+     * @param text
+     *            the text to be parsed, can be <code>null</code>
+     * @param defaultValue
+     *            the value returned if the text is not a double
+     * @return the double value of the text or the default value
+     */
+    public static final double parseDouble(CharSequence text, double defaultValue) {
+        if (text == null)
+            return defaultValue;
+
+        return parseDouble(toChars(text), 0, text.length(), defaultValue);
+    }
+
+    /**
+     * Parses a range of characters as a double, accepting the same text as
+     * {@link Double#parseDouble(String)}, but returning a default value rather
+     * than throwing an exception if the characters are not a double. No
+     * objects are created for plain decimal text, such as
+     * <code>-12.5e3</code>, that can be converted exactly, or for text that is
+     * not a double, such as <code>NA</code> or an empty string.
+     *
+     * @param chars
+     *            the character buffer
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @param defaultValue
+     *            the value returned if the characters are not a double
+     * @return the double value of the characters or the default value
+     */
+    public static final double parseDouble(char[] chars, int offset, int length, double defaultValue) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            ++i;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        char c;
+
+        while (i < end && (c = chars[i]) >= '0' && c <= '9') {
+            if (mantissa > MAX_EXACT_MANTISSA)
+                return parseDoubleSlow(chars, offset, length, defaultValue);
+
+            mantissa = mantissa * 10 + (c - '0');
+            ++digits;
+            ++i;
+        }
+
+        if (i < end && chars[i] == '.') {
+            ++i;
+
+            while (i < end && (c = chars[i]) >= '0' && c <= '9') {
+                if (mantissa > MAX_EXACT_MANTISSA)
+                    return parseDoubleSlow(chars, offset, length, defaultValue);
+
+                mantissa = mantissa * 10 + (c - '0');
+                --exponent;
+                ++digits;
+                ++i;
+            }
+        }
+
+        if (digits == 0)
+            return parseDoubleSlow(chars, offset, length, defaultValue);
+
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            ++i;
+
+            boolean negativeExponent = false;
+
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                ++i;
+            }
+
+            int exponentDigits = 0;
+            int value = 0;
+
+            while (i < end && (c = chars[i]) >= '0' && c <= '9' && exponentDigits < 4) {
+                value = value * 10 + (c - '0');
+                ++exponentDigits;
+                ++i;
+            }
+
+            if (exponentDigits == 0)
+                return defaultValue;
+
+            exponent += negativeExponent ? -value : value;
+        }
+
+        // anything left, such as a type suffix, white space or too long an
+        // exponent, is left to the standard conversion
+        if (i < end || mantissa > MAX_EXACT_MANTISSA)
+            return parseDoubleSlow(chars, offset, length, defaultValue);
+
+        double value;
+
+        if (mantissa == 0)
+            value = 0.0;
+        else if (exponent == 0)
+            value = mantissa;
+        else if (exponent > 0 && exponent < POWERS_OF_TEN.length)
+            value = mantissa * POWERS_OF_TEN[exponent];
+        else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        else
+            return parseDoubleSlow(chars, offset, length, defaultValue);
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts a range of characters to a boolean without creating a string.
+     * The characters must be <code>true</code> or <code>false</code>, ignoring
+     * case.
+     *
+     * @param chars
+     *            the character buffer
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @return the boolean value
+     * @throws ConversionException
+     *             if the characters are not <code>true</code> or
+     *             <code>false</code>
+     */
+    public static final boolean convertToBoolean(char[] chars, int offset, int length)
+        throws ConversionException {
+        if (matchesIgnoreCase(TRUE, chars, offset, length))
+            return true;
+
+        if (matchesIgnoreCase(FALSE, chars, offset, length))
+            return false;
+
+        throw new ConversionException("Can not convert to boolean : " + new String(chars, offset, length));
+    }
+
+    /**
+     * Converts a string to a date using the date parser, see
+     * {@link #setDateParser(DateParser)}
+     *
+     * @param value
+     *            the string to be converted
+     * @return the date, or <code>null</code> if the string is
+     *         <code>null</code>
+     * @throws ConversionException
+     *             if the string can not be converted to a date
+     */
     public static final Date convertToDate(String value) throws ConversionException {
         if (value != null) {
-            try {
-                return DATE_FORMAT.parse(value);
-            } catch (Exception e) {
-                try {
-                    return new Date(value);
-                } catch (Exception e2) {
-                    throw new ConversionException(e2);
-                }
-            }
+            Date date = dateParser.parse(value);
+
+            if (date != null)
+                return date;
+            else
+                throw new ConversionException("Can not convert to date : " + value);
         } else {
             return null;
         }
     }
 
+    /**
+     * Gets the parser used to convert strings to dates and dates to strings
+     *
+     * @return the parser used to convert strings to dates
+     */
+    public static final DateParser getDateParser() {
+        return dateParser;
+    }
+
+    /**
+     * Sets the parser used to convert strings to dates and dates to strings,
+     * by default {@link DateParser#getDefault()}
+     *
+     * @param dateParser
+     *            the parser used to convert strings to dates
+     */
+    public static final void setDateParser(DateParser dateParser) {
+        if (dateParser == null)
+            throw new NullPointerException("Date parser undefined");
+
+        ConversionUtilities.dateParser = dateParser;
+    }
+
     public static final String convertToString(Object value) {
         if (value != null)
             if (value instanceof Date)
-                return DATE_FORMAT.format((Date) value);
+                return dateParser.format((Date) value);
             else
                 return value.toString();
         else
@@ -463,72 +805,183 @@ public class ConversionUtilities {
     }
 
     public static List<Object> convertToObjectList(List<String> values, int type) throws ConversionException {
-        List<Object> list = new ArrayList<Object>();
-
-        Iterator<String> iterator = values.iterator();
-
-        while (iterator.hasNext()) {
-            list.add(convertToObject(iterator.next(), type));
-        }
-
-        return list;
+        return ValueConverter.getConverter(type).convertAll(values);
     }
 
+    /**
+     * Converts a row of strings given the possible types of each column, see
+     * {@link #convertToObject(String, int)}. When many rows are converted,
+     * the converters can be compiled once with
+     * {@link ValueConverter#getConverters(int[])} and used with
+     * {@link ValueConverter#convertRow(ValueConverter[], List)}.
+     *
+     * @param values
+     *            the strings of the row
+     * @param types
+     *            the possible types of each column, strings beyond the last
+     *            column are converted with {@link #convertToObject(String)}
+     * @return the converted values in the same order
+     * @throws ConversionException
+     *             if a string can not be converted to one of the possible
+     *             types of its column
+     */
     public static List<Object> convertToObjectList(List<String> values, int[] types)
         throws ConversionException {
-        List<Object> list = new ArrayList<Object>();
+        return ValueConverter.convertRow(ValueConverter.getConverters(types), values);
+    }
 
-        Iterator<String> iterator = values.iterator();
+    /**
+     * Gets the data types to which a string can be converted, as a bit array
+     * of {@link uno.informatics.data.DataTypeConstants} type ids. Plain ASCII
+     * text is classified in a single pass over its characters without
+     * attempting any conversions. Only text that could be a date, or that is
+     * not plain ASCII, is checked by attempting conversions.
+     * 
+     * @param string
+     *            the string to be checked
+     * @return the data types to which the string can be converted, or
+     *         {@link uno.informatics.data.DataTypeConstants#UNKNOWN_ID} if the
+     *         string is <code>null</code>
+     */
+    public static final int getDataType(String string) {
+        if (string == null)
+            return UNKNOWN_ID;
+
+        int length = string.length();
+
+        if (length == 0)
+            return STRING_ID;
+
+        // white space is trimmed by some conversions and not others
+        if (string.charAt(0) <= ' ' || string.charAt(length - 1) <= ' ')
+            return getDataTypeByConversion(string);
 
         int i = 0;
+        char c;
 
-        while (iterator.hasNext()) {
-            if (i < types.length)
-                list.add(convertToObject(iterator.next(), types[i]));
-            else
-                list.add(convertToObject(iterator.next()));
+        while (i < length) {
+            if (string.charAt(i) > MAX_ASCII)
+                return getDataTypeByConversion(string);
 
             ++i;
         }
 
-        return list;
-    }
+        i = 0;
 
-    public static final int getDataType(String string) {
-        int datatype = UNKNOWN_ID;
+        boolean negative = false;
 
-        if (string != null) {
-            datatype = STRING_ID;
+        c = string.charAt(0);
+
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            ++i;
+        }
+
+        if (string.startsWith(NAN, i) && i + NAN.length() == length)
+            return STRING_ID | FLOAT_ID | DOUBLE_ID;
+
+        if (string.startsWith(INFINITY, i) && i + INFINITY.length() == length)
+            return STRING_ID | FLOAT_ID | DOUBLE_ID;
+
+        // hexadecimal floating point
+        if (i + 1 < length && string.charAt(i) == '0'
+            && (string.charAt(i + 1) == 'x' || string.charAt(i + 1) == 'X'))
+            return getDataTypeByConversion(string);
+
+        // accumulate negatively so Long.MIN_VALUE can be represented
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long value = 0;
+        boolean fitsLong = true;
+        int digits = 0;
+        int digit;
+
+        while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+            if (fitsLong) {
+                digit = c - '0';
+
+                if (value < multiplyLimit || value * 10 < limit + digit)
+                    fitsLong = false;
+                else
+                    value = value * 10 - digit;
+            }
+
+            ++digits;
+            ++i;
+        }
+
+        boolean integer = true;
 
-            if (convertToShortInternal(string) != null)
-                datatype = datatype | SHORT_ID;
+        if (i < length && string.charAt(i) == '.') {
+            integer = false;
+            ++i;
 
-            if (convertToIntegerInternal(string) != null)
-                datatype = datatype | INT_ID;
+            while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+                ++digits;
+                ++i;
+            }
+        }
 
-            if (convertToLongInternal(string) != null)
-                datatype = datatype | LONG_ID;
+        if (digits > 0) {
+            int exponentDigits = -1;
 
-            if (convertToFloatInternal(string) != null)
-                datatype = datatype | FLOAT_ID;
+            if (i < length && ((c = string.charAt(i)) == 'e' || c == 'E')) {
+                integer = false;
+                exponentDigits = 0;
+                ++i;
+
+                if (i < length && ((c = string.charAt(i)) == '-' || c == '+'))
+                    ++i;
+
+                while (i < length && (c = string.charAt(i)) >= '0' && c <= '9') {
+                    ++exponentDigits;
+                    ++i;
+                }
+            }
 
-            if (convertToDoubleInternal(string) != null)
-                datatype = datatype | DOUBLE_ID;
+            if (exponentDigits != 0) {
+                if (i == length) {
+                    // plain decimal numbers are never dates or booleans
+                    int datatype = STRING_ID | FLOAT_ID | DOUBLE_ID;
 
-            if (convertToBigIntegerInternal(string) != null)
-                datatype = datatype | BIG_INTEGER_ID;
+                    // very long exponents may be out of range of a big
+                    // decimal
+                    if (exponentDigits > MAX_EXPONENT_DIGITS)
+                        return datatype | (convertToBigDecimalInternal(string) != null ? BIG_DECIMAL_ID : 0);
 
-            if (convertToBigDecimalInternal(string) != null)
-                datatype = datatype | BIG_DECIMAL_ID;
+                    datatype = datatype | BIG_DECIMAL_ID;
 
-            if (convertToBooleanInternal(string) != null)
-                datatype = datatype | BOOLEAN_ID;
+                    if (integer) {
+                        datatype = datatype | BIG_INTEGER_ID;
 
-            if (convertToDateInternal(string) != null)
-                datatype = datatype | DATE_ID;
+                        if (fitsLong) {
+                            datatype = datatype | LONG_ID;
+
+                            if (!negative)
+                                value = -value;
+
+                            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+                                datatype = datatype | INT_ID;
+
+                            if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+                                datatype = datatype | SHORT_ID;
+                        }
+                    }
+
+                    return datatype;
+                } else if (i + 1 == length && isFloatingPointSuffix(string.charAt(i))) {
+                    return STRING_ID | FLOAT_ID | DOUBLE_ID;
+                }
+            }
         }
 
-        return datatype;
+        if (TRUE.equalsIgnoreCase(string) || FALSE.equalsIgnoreCase(string))
+            return STRING_ID | BOOLEAN_ID;
+
+        if (dateParser.isDate(string))
+            return STRING_ID | DATE_ID;
+
+        return STRING_ID;
     }
 
     public static final List<Integer> getDataTypes(List<String> strings) {
@@ -596,6 +1049,47 @@ public class ConversionUtilities {
         return datatypes;
     }
 
+    /**
+     * Gets the data types to which a string can be converted by attempting
+     * each conversion
+     */
+    private static final int getDataTypeByConversion(String string) {
+        int datatype = STRING_ID;
+
+        if (convertToShortInternal(string) != null)
+            datatype = datatype | SHORT_ID;
+
+        if (convertToIntegerInternal(string) != null)
+            datatype = datatype | INT_ID;
+
+        if (convertToLongInternal(string) != null)
+            datatype = datatype | LONG_ID;
+
+        if (convertToFloatInternal(string) != null)
+            datatype = datatype | FLOAT_ID;
+
+        if (convertToDoubleInternal(string) != null)
+            datatype = datatype | DOUBLE_ID;
+
+        if (convertToBigIntegerInternal(string) != null)
+            datatype = datatype | BIG_INTEGER_ID;
+
+        if (convertToBigDecimalInternal(string) != null)
+            datatype = datatype | BIG_DECIMAL_ID;
+
+        if (convertToBooleanInternal(string) != null)
+            datatype = datatype | BOOLEAN_ID;
+
+        if (convertToDateInternal(string) != null)
+            datatype = datatype | DATE_ID;
+
+        return datatype;
+    }
+
+    private static final boolean isFloatingPointSuffix(char c) {
+        return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+    }
+
     private static final BigDecimal convertToBigDecimalInternal(String string) {
         try {
             return convertToBigDecimal(string);
@@ -667,4 +1161,140 @@ public class ConversionUtilities {
             return null;
         }
     }
+
+    private static final long parseLongSlow(char[] chars, int offset, int length, long defaultValue) {
+        try {
+            return Long.parseLong(new String(chars, offset, length));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static final double parseDoubleSlow(char[] chars, int offset, int length, double defaultValue) {
+        // only text that looks like a double is converted, so that missing
+        // values and the like do not cost an exception
+        if (!isDoubleText(chars, offset, length))
+            return defaultValue;
+
+        try {
+            return Double.parseDouble(new String(chars, offset, length));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Checks if characters have the form of the text accepted by
+     * {@link Double#parseDouble(String)}, leaving the details of hexadecimal
+     * text to the standard conversion
+     */
+    private static final boolean isDoubleText(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        // white space is removed as String.trim() would
+        while (i < end && chars[i] <= ' ')
+            ++i;
+
+        while (end > i && chars[end - 1] <= ' ')
+            --end;
+
+        if (i < end && (chars[i] == '-' || chars[i] == '+'))
+            ++i;
+
+        if (i == end)
+            return false;
+
+        if (chars[i] == NAN.charAt(0))
+            return matches(NAN, chars, i, end - i);
+
+        if (chars[i] == INFINITY.charAt(0))
+            return matches(INFINITY, chars, i, end - i);
+
+        if (chars[i] == '0' && i + 1 < end && (chars[i + 1] == 'x' || chars[i + 1] == 'X'))
+            return true;
+
+        int digits = 0;
+
+        while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+            ++digits;
+            ++i;
+        }
+
+        if (i < end && chars[i] == '.') {
+            ++i;
+
+            while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+                ++digits;
+                ++i;
+            }
+        }
+
+        if (digits == 0)
+            return false;
+
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            ++i;
+
+            if (i < end && (chars[i] == '-' || chars[i] == '+'))
+                ++i;
+
+            if (i == end || chars[i] < '0' || chars[i] > '9')
+                return false;
+
+            while (i < end && chars[i] >= '0' && chars[i] <= '9')
+                ++i;
+        }
+
+        if (i < end && isFloatingPointSuffix(chars[i]))
+            ++i;
+
+        return i == end;
+    }
+
+    /**
+     * Copies text into a buffer reused by the current thread, so that text
+     * can be parsed without creating a character array each time
+     */
+    private static final char[] toChars(CharSequence text) {
+        int length = text.length();
+        char[] chars = CHARS.get();
+
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+
+            CHARS.set(chars);
+        }
+
+        if (text instanceof String) {
+            ((String) text).getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; ++i)
+                chars[i] = text.charAt(i);
+        }
+
+        return chars;
+    }
+
+    private static final boolean matches(String string, char[] chars, int offset, int length) {
+        if (string.length() != length)
+            return false;
+
+        for (int i = 0; i < length; ++i)
+            if (chars[offset + i] != string.charAt(i))
+                return false;
+
+        return true;
+    }
+
+    private static final boolean matchesIgnoreCase(String string, char[] chars, int offset, int length) {
+        if (string.length() != length)
+            return false;
+
+        for (int i = 0; i < length; ++i)
+            if (Character.toLowerCase(chars[offset + i]) != string.charAt(i))
+                return false;
+
+        return true;
+    }
 }
@@ -0,0 +1,451 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Converts text to dates using an ordered list of date and time patterns, as
+ * used by {@link DateTimeFormatter#ofPattern(String)}. The first pattern that
+ * matches the whole text is used, ignoring case, and dates without a time zone
+ * or offset are in the default time zone. The first pattern is also used to
+ * convert dates to text.
+ *
+ * The patterns are compiled once and a parser is immutable, so a parser can
+ * be used by many threads at once. Each pattern is only tried if the text
+ * could match it, judged from its length and first character, and only text
+ * that matches a pattern is resolved to a date, so text that is not a date
+ * is rejected quickly and without exceptions.
+ *
+ * @author Guy Davenport
+ */
+public class DateParser {
+
+    /**
+     * The default patterns, the format used by
+     * {@link ConversionUtilities#convertToString(Object)}, ISO 8601 dates and
+     * times and common US and English forms. Numeric dates with slashes are
+     * month first, so 13/12/2012 is not a date.
+     */
+    public static final List<String> DEFAULT_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+        "yyyyMMddHHmmssZ", "yyyy-MM-dd'T'HH:mm:ss[.SSS]XXX", "yyyy-MM-dd'T'HH:mm:ss[.SSS]", "yyyy-MM-dd HH:mm:ss",
+        "yyyy-MM-dd", "M/d/yy", "M/d/yyyy", "MMM d, yyyy", "MMM d yyyy", "d MMM yyyy",
+        "EEE MMM d HH:mm:ss zzz yyyy"));
+
+    /**
+     * The same patterns as {@link #DEFAULT_PATTERNS}, except that numeric
+     * dates with slashes are day first, as used outside the US. Only one of
+     * the two orders is tried, since a date such as 12/11/2012 matches both.
+     */
+    public static final List<String> DAY_FIRST_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+        "yyyyMMddHHmmssZ", "yyyy-MM-dd'T'HH:mm:ss[.SSS]XXX", "yyyy-MM-dd'T'HH:mm:ss[.SSS]", "yyyy-MM-dd HH:mm:ss",
+        "yyyy-MM-dd", "d/M/yy", "d/M/yyyy", "MMM d, yyyy", "MMM d yyyy", "d MMM yyyy",
+        "EEE MMM d HH:mm:ss zzz yyyy"));
+
+    private static final DateParser DEFAULT = new DateParser(DEFAULT_PATTERNS);
+
+    private static final DateParser DAY_FIRST = new DateParser(DAY_FIRST_PATTERNS);
+
+    // letters of pattern fields that are always parsed as numbers
+    private static final String NUMBER_FIELDS = "yuDdgwWFHkKhmsSnNA";
+
+    // letters of pattern fields that are parsed as numbers if fewer than
+    // three letters are used, otherwise as text
+    private static final String TEXT_OR_NUMBER_FIELDS = "MLQqec";
+
+    // letters of pattern fields that are always parsed as text
+    private static final String TEXT_FIELDS = "GEazv";
+
+    private final List<String> patterns;
+
+    private final DateTimeFormatter[] formatters;
+
+    // the least number of characters matched by each pattern
+    private final int[] minimumLengths;
+
+    // the first character of text matched by each pattern, a digit, a letter,
+    // any character or a literal character
+    private final char[] firstCharacters;
+
+    // true if all patterns need at least one digit
+    private final boolean digitRequired;
+
+    private static final char DIGIT = 0;
+    private static final char LETTER = 1;
+    private static final char ANY = 2;
+
+    /**
+     * Creates a parser using the given patterns
+     *
+     * @param patterns
+     *            the patterns in the order they are tried
+     * @throws IllegalArgumentException
+     *             if there are no patterns or a pattern is invalid
+     */
+    public DateParser(String... patterns) {
+        this(Arrays.asList(patterns));
+    }
+
+    /**
+     * Creates a parser using the given patterns
+     *
+     * @param patterns
+     *            the patterns in the order they are tried
+     * @throws IllegalArgumentException
+     *             if there are no patterns or a pattern is invalid
+     */
+    public DateParser(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty())
+            throw new IllegalArgumentException("At least one pattern must be defined");
+
+        this.patterns = Collections.unmodifiableList(Arrays.asList(patterns.toArray(new String[patterns.size()])));
+
+        formatters = new DateTimeFormatter[patterns.size()];
+        minimumLengths = new int[patterns.size()];
+        firstCharacters = new char[patterns.size()];
+
+        boolean digitRequired = true;
+
+        for (int i = 0; i < formatters.length; ++i) {
+            String pattern = patterns.get(i);
+
+            if (pattern == null)
+                throw new IllegalArgumentException("Pattern undefined");
+
+            formatters[i] = new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern(pattern)
+                .toFormatter(Locale.ENGLISH);
+
+            minimumLengths[i] = getMinimumLength(pattern);
+            firstCharacters[i] = getFirstCharacter(pattern);
+
+            digitRequired = digitRequired && hasNumberField(pattern);
+        }
+
+        this.digitRequired = digitRequired;
+    }
+
+    /**
+     * Gets the parser using the default patterns
+     *
+     * @return the parser using the default patterns
+     * @see #DEFAULT_PATTERNS
+     */
+    public static final DateParser getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the parser using the day first patterns, which can be set with
+     * {@link ConversionUtilities#setDateParser(DateParser)} to read files
+     * with day first dates
+     *
+     * @return the parser using the day first patterns
+     * @see #DAY_FIRST_PATTERNS
+     */
+    public static final DateParser getDayFirst() {
+        return DAY_FIRST;
+    }
+
+    /**
+     * Gets the patterns in the order they are tried
+     *
+     * @return the patterns in the order they are tried
+     */
+    public final List<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Converts text to a date
+     *
+     * @param text
+     *            the text to be converted
+     * @return the date, or <code>null</code> if the text is <code>null</code>
+     *         or does not match any of the patterns
+     */
+    public final Date parse(CharSequence text) {
+        if (text == null)
+            return null;
+
+        int length = text.length();
+
+        if (length == 0 || (digitRequired && !hasDigit(text)))
+            return null;
+
+        char first = text.charAt(0);
+        TemporalAccessor temporal;
+        ParsePosition position;
+
+        for (int i = 0; i < formatters.length; ++i) {
+            if (length >= minimumLengths[i] && matchesFirstCharacter(firstCharacters[i], first)) {
+                // parsing without resolving never throws an exception
+                position = new ParsePosition(0);
+
+                if (formatters[i].parseUnresolved(text, position) != null && position.getErrorIndex() < 0
+                    && position.getIndex() == length) {
+                    try {
+                        temporal = formatters[i].parse(text);
+
+                        Date date = toDate(temporal);
+
+                        if (date != null)
+                            return date;
+                    } catch (DateTimeException e) {
+                        // fields out of range, such as a 13th month
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if text can be converted to a date
+     *
+     * @param text
+     *            the text to be checked
+     * @return <code>true</code> if the text matches one of the patterns
+     */
+    public final boolean isDate(CharSequence text) {
+        return parse(text) != null;
+    }
+
+    /**
+     * Converts a date to text using the first pattern and the default time
+     * zone
+     *
+     * @param date
+     *            the date to be converted
+     * @return the date as text, or <code>null</code> if the date is
+     *         <code>null</code>
+     */
+    public final String format(Date date) {
+        if (date == null)
+            return null;
+
+        return formatters[0].withZone(ZoneId.systemDefault()).format(date.toInstant());
+    }
+
+    private static Date toDate(TemporalAccessor temporal) {
+        if (temporal.isSupported(ChronoField.INSTANT_SECONDS))
+            return Date.from(Instant.from(temporal));
+
+        LocalDate date = temporal.query(TemporalQueries.localDate());
+
+        if (date == null)
+            return null;
+
+        LocalTime time = temporal.query(TemporalQueries.localTime());
+        ZoneId zone = temporal.query(TemporalQueries.zone());
+
+        if (zone == null)
+            zone = ZoneId.systemDefault();
+
+        return Date.from((time != null ? date.atTime(time) : date.atStartOfDay()).atZone(zone).toInstant());
+    }
+
+    private static boolean hasDigit(CharSequence text) {
+        int length = text.length();
+        char c;
+
+        for (int i = 0; i < length; ++i)
+            if ((c = text.charAt(i)) >= '0' && c <= '9')
+                return true;
+
+        return false;
+    }
+
+    private static boolean matchesFirstCharacter(char expected, char c) {
+        switch (expected) {
+            case DIGIT:
+                return c >= '0' && c <= '9';
+            case LETTER:
+                return Character.isLetter(c);
+            case ANY:
+                return true;
+            default:
+                return Character.toLowerCase(c) == Character.toLowerCase(expected);
+        }
+    }
+
+    /**
+     * Gets the least number of characters of text matched by a pattern, not
+     * counting optional sections, one character for a text field and the
+     * number of letters for a number field
+     */
+    private static int getMinimumLength(String pattern) {
+        int length = 0;
+        int optional = 0;
+        int i = 0;
+        int count;
+        char c;
+
+        while (i < pattern.length()) {
+            c = pattern.charAt(i);
+
+            if (c == '[') {
+                ++optional;
+                ++i;
+            } else if (c == ']') {
+                --optional;
+                ++i;
+            } else if (c == '\'') {
+                count = 0;
+                ++i;
+
+                while (i < pattern.length()) {
+                    if (pattern.charAt(i) == '\'') {
+                        // two quotes are a quote
+                        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                            ++count;
+                            i += 2;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        ++count;
+                        ++i;
+                    }
+                }
+
+                // a pair of quotes on their own is a quote
+                if (count == 0)
+                    count = 1;
+
+                if (optional == 0)
+                    length += count;
+
+                ++i;
+            } else if (isPatternLetter(c)) {
+                count = 0;
+
+                while (i < pattern.length() && pattern.charAt(i) == c) {
+                    ++count;
+                    ++i;
+                }
+
+                if (optional == 0)
+                    length += isNumberField(c, count) ? count : 1;
+            } else {
+                if (optional == 0)
+                    ++length;
+
+                ++i;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Gets the first character of text matched by a pattern, or a marker for
+     * a digit, letter or any character
+     */
+    private static char getFirstCharacter(String pattern) {
+        char c = pattern.charAt(0);
+
+        if (c == '[' || c == ']')
+            return ANY;
+
+        if (c == '\'') {
+            if (pattern.length() < 2)
+                return ANY;
+
+            return pattern.charAt(1) == '\'' ? '\'' : pattern.charAt(1);
+        }
+
+        if (isPatternLetter(c)) {
+            int count = 0;
+
+            while (count < pattern.length() && pattern.charAt(count) == c)
+                ++count;
+
+            if (isNumberField(c, count))
+                return DIGIT;
+            else if (isTextField(c, count))
+                return LETTER;
+            else
+                return ANY;
+        }
+
+        return c;
+    }
+
+    private static boolean hasNumberField(String pattern) {
+        boolean quoted = false;
+        int i = 0;
+        int count;
+        char c;
+
+        while (i < pattern.length()) {
+            c = pattern.charAt(i);
+
+            if (c == '\'') {
+                quoted = !quoted;
+                ++i;
+            } else if (!quoted && isPatternLetter(c)) {
+                count = 0;
+
+                while (i < pattern.length() && pattern.charAt(i) == c) {
+                    ++count;
+                    ++i;
+                }
+
+                if (isNumberField(c, count))
+                    return true;
+            } else {
+                ++i;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isNumberField(char letter, int count) {
+        if (TEXT_OR_NUMBER_FIELDS.indexOf(letter) >= 0)
+            return count < 3;
+        else
+            return NUMBER_FIELDS.indexOf(letter) >= 0;
+    }
+
+    private static boolean isTextField(char letter, int count) {
+        if (TEXT_OR_NUMBER_FIELDS.indexOf(letter) >= 0)
+            return count >= 3;
+        else
+            return TEXT_FIELDS.indexOf(letter) >= 0;
+    }
+
+    private static boolean isPatternLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
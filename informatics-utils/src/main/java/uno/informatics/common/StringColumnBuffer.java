@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common;
+
+import static uno.informatics.data.DataTypeConstants.STRING_ID;
+import static uno.informatics.data.DataTypeConstants.UNKNOWN_ID;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Buffers the text values of a column, such as the cells of a column of a
+ * file, while the data types to which all of the values can be converted are
+ * found. The characters of all of the values are kept in a single array, so
+ * a buffered value takes little more memory than its characters, and the
+ * values can be converted once the types of the column are known.
+ *
+ * A buffer is not thread-safe.
+ *
+ * @author Guy Davenport
+ */
+public class StringColumnBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private char[] chars;
+
+    private int length;
+
+    // the end of each value in the characters
+    private int[] ends;
+
+    private int size;
+
+    private final BitSet missing = new BitSet();
+
+    private int possibleDataTypes = ~UNKNOWN_ID;
+
+    private boolean hasValues;
+
+    /**
+     * Creates an empty buffer
+     */
+    public StringColumnBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty buffer with room for a number of values
+     *
+     * @param capacity
+     *            the number of values for which there is room initially
+     */
+    public StringColumnBuffer(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Invalid capacity : " + capacity);
+
+        ends = new int[Math.max(capacity, 1)];
+        chars = new char[Math.max(capacity * 4, DEFAULT_CAPACITY)];
+    }
+
+    /**
+     * Adds a value to the end of the buffer. The data types of the column are
+     * narrowed to those of the value, unless the value is <code>null</code>,
+     * which is a missing value that can be any type.
+     *
+     * @param value
+     *            the value to be added
+     */
+    public final void add(String value) {
+        if (size == ends.length)
+            ends = Arrays.copyOf(ends, size * 2);
+
+        if (value != null) {
+            int valueLength = value.length();
+
+            if (length + valueLength > chars.length)
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + valueLength));
+
+            value.getChars(0, valueLength, chars, length);
+
+            length += valueLength;
+
+            // a string can not be narrowed further
+            if ((possibleDataTypes & ~STRING_ID) != 0)
+                possibleDataTypes = possibleDataTypes & ConversionUtilities.getDataType(value);
+
+            hasValues = true;
+        } else {
+            missing.set(size);
+        }
+
+        ends[size] = length;
+
+        ++size;
+    }
+
+    /**
+     * Gets the number of values in the buffer, including missing values
+     *
+     * @return the number of values in the buffer
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Gets a value in the buffer
+     *
+     * @param index
+     *            the index of the value
+     * @return the value, or <code>null</code> if the value is missing
+     */
+    public final String get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Invalid index : " + index);
+
+        if (missing.get(index))
+            return null;
+
+        int start = index > 0 ? ends[index - 1] : 0;
+
+        return new String(chars, start, ends[index] - start);
+    }
+
+    /**
+     * Gets the number of missing values in the buffer
+     *
+     * @return the number of missing values
+     */
+    public final int getMissingCount() {
+        return missing.cardinality();
+    }
+
+    /**
+     * Gets the data types to which all of the values that are not missing can
+     * be converted
+     *
+     * @return the possible data types as a bit array of
+     *         {@link uno.informatics.data.DataTypeConstants} type ids, or
+     *         {@link uno.informatics.data.DataTypeConstants#UNKNOWN_ID} if all
+     *         of the values are missing
+     */
+    public final int getPossibleDataTypes() {
+        return hasValues ? possibleDataTypes : UNKNOWN_ID;
+    }
+
+    /**
+     * Converts a value in the buffer
+     *
+     * @param converter
+     *            the converter for the column
+     * @param index
+     *            the index of the value
+     * @return the converted value, or <code>null</code> if the value is
+     *         missing
+     * @throws ConversionException
+     *             if the value can not be converted
+     */
+    public final Object convert(ValueConverter converter, int index) throws ConversionException {
+        return converter.convert(get(index));
+    }
+}
@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common;
+
+import static uno.informatics.data.DataTypeConstants.BIG_DECIMAL_ID;
+import static uno.informatics.data.DataTypeConstants.BIG_INTEGER_ID;
+import static uno.informatics.data.DataTypeConstants.BOOLEAN_ID;
+import static uno.informatics.data.DataTypeConstants.DATE_ID;
+import static uno.informatics.data.DataTypeConstants.DOUBLE_ID;
+import static uno.informatics.data.DataTypeConstants.FLOAT_ID;
+import static uno.informatics.data.DataTypeConstants.INT_ID;
+import static uno.informatics.data.DataTypeConstants.LONG_ID;
+import static uno.informatics.data.DataTypeConstants.SHORT_ID;
+import static uno.informatics.data.DataTypeConstants.STRING_ID;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Converts strings to objects for a fixed set of possible types, giving the
+ * same results as {@link ConversionUtilities#convertToObject(String, int)}.
+ * The types are compiled once, so converting a value does not test every
+ * type. A value with only one type, such as a column of a dataset, is
+ * converted directly, otherwise the types to which a value can be converted
+ * are found in one pass with {@link ConversionUtilities#getDataType(String)}
+ * and only the first of the possible types is converted.
+ *
+ * Converters are immutable and can be shared between threads.
+ *
+ * @author Guy Davenport
+ */
+public class ValueConverter {
+
+    // types in the order they are tried
+    private static final int[] ORDER = new int[] { SHORT_ID, INT_ID, LONG_ID, FLOAT_ID, DOUBLE_ID, BIG_INTEGER_ID,
+        BIG_DECIMAL_ID, BOOLEAN_ID, DATE_ID, STRING_ID };
+
+    // all combinations of the types, created when first used
+    private static final ValueConverter[] CONVERTERS = new ValueConverter[STRING_ID << 1];
+
+    private final int types;
+
+    // the single type, or 0 if there is more than one type
+    private final int singleType;
+
+    private ValueConverter(int types) {
+        this.types = types;
+
+        singleType = Integer.bitCount(types) == 1 ? types : 0;
+    }
+
+    /**
+     * Gets the converter for a set of types
+     *
+     * @param types
+     *            possible types to which to convert, as a bit array of
+     *            {@link uno.informatics.data.DataTypeConstants} type ids,
+     *            unknown types are ignored
+     * @return the converter for the types
+     */
+    public static final ValueConverter getConverter(int types) {
+        // unknown types are ignored
+        types = types & (CONVERTERS.length - 1);
+
+        ValueConverter converter = CONVERTERS[types];
+
+        // converters only have final fields, so are safely shared even if
+        // created by more than one thread
+        if (converter == null) {
+            converter = new ValueConverter(types);
+
+            CONVERTERS[types] = converter;
+        }
+
+        return converter;
+    }
+
+    /**
+     * Gets the converters for the types of each column of a row
+     *
+     * @param types
+     *            possible types of each column
+     * @return the converters for the types of each column
+     */
+    public static final ValueConverter[] getConverters(int[] types) {
+        ValueConverter[] converters = new ValueConverter[types.length];
+
+        for (int i = 0; i < types.length; ++i)
+            converters[i] = getConverter(types[i]);
+
+        return converters;
+    }
+
+    /**
+     * Gets the possible types to which values are converted
+     *
+     * @return the possible types to which values are converted
+     */
+    public final int getTypes() {
+        return types;
+    }
+
+    /**
+     * Converts a string to an object of the first possible type, in the
+     * order Short, Integer, Long, Float, Double, BigInteger, BigDecimal,
+     * Boolean, Date and String
+     *
+     * @param string
+     *            the string to be converted
+     * @return an object representation of the string, or <code>null</code> if
+     *         the string is <code>null</code>
+     * @throws ConversionException
+     *             if the string can not be converted to one of the possible
+     *             types
+     */
+    public final Object convert(String string) throws ConversionException {
+        if (string == null)
+            return null;
+
+        switch (singleType) {
+            case STRING_ID:
+                return string;
+            case INT_ID:
+                return convertToInteger(string);
+            case LONG_ID:
+                return convertToLong(string);
+            case DOUBLE_ID:
+                return convertToDouble(string);
+            case BOOLEAN_ID:
+                return convertToBoolean(string);
+            default:
+                return convertToFirstType(string, types & ConversionUtilities.getDataType(string));
+        }
+    }
+
+    /**
+     * Converts a batch of strings, such as the values of a column
+     *
+     * @param strings
+     *            the strings to be converted
+     * @return the converted values in the same order
+     * @throws ConversionException
+     *             if a string can not be converted to one of the possible
+     *             types
+     */
+    public final List<Object> convertAll(List<String> strings) throws ConversionException {
+        List<Object> values = new ArrayList<Object>(strings.size());
+
+        Iterator<String> iterator = strings.iterator();
+
+        while (iterator.hasNext())
+            values.add(convert(iterator.next()));
+
+        return values;
+    }
+
+    /**
+     * Converts a row of strings using a converter for each column. Strings
+     * beyond the last converter are converted with
+     * {@link ConversionUtilities#convertToObject(String)}.
+     *
+     * @param converters
+     *            the converters for each column
+     * @param strings
+     *            the strings of the row
+     * @return the converted values in the same order
+     * @throws ConversionException
+     *             if a string can not be converted to one of the possible
+     *             types of its column
+     */
+    public static final List<Object> convertRow(ValueConverter[] converters, List<String> strings)
+        throws ConversionException {
+        List<Object> values = new ArrayList<Object>(strings.size());
+
+        Iterator<String> iterator = strings.iterator();
+
+        int i = 0;
+
+        while (iterator.hasNext()) {
+            if (i < converters.length)
+                values.add(converters[i].convert(iterator.next()));
+            else
+                values.add(ConversionUtilities.convertToObject(iterator.next()));
+
+            ++i;
+        }
+
+        return values;
+    }
+
+    /**
+     * Converts a row of strings using a converter for each column. Strings
+     * beyond the last converter are converted with
+     * {@link ConversionUtilities#convertToObject(String)}.
+     *
+     * @param converters
+     *            the converters for each column
+     * @param strings
+     *            the strings of the row
+     * @return the converted values in the same order
+     * @throws ConversionException
+     *             if a string can not be converted to one of the possible
+     *             types of its column
+     */
+    public static final Object[] convertRow(ValueConverter[] converters, String[] strings)
+        throws ConversionException {
+        Object[] values = new Object[strings.length];
+
+        for (int i = 0; i < strings.length; ++i) {
+            if (i < converters.length)
+                values[i] = converters[i].convert(strings[i]);
+            else
+                values[i] = ConversionUtilities.convertToObject(strings[i]);
+        }
+
+        return values;
+    }
+
+    private Integer convertToInteger(String string) throws ConversionException {
+        // the smallest long is never a valid int
+        long value = ConversionUtilities.parseLong(string, Long.MIN_VALUE);
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw createException();
+
+        return (int) value;
+    }
+
+    private Long convertToLong(String string) throws ConversionException {
+        long value = ConversionUtilities.parseLong(string, Long.MIN_VALUE);
+
+        // the smallest long is also the value returned for invalid text
+        if (value == Long.MIN_VALUE) {
+            try {
+                return Long.valueOf(string);
+            } catch (NumberFormatException e) {
+                throw createException();
+            }
+        }
+
+        return value;
+    }
+
+    private Double convertToDouble(String string) throws ConversionException {
+        double value = ConversionUtilities.parseDouble(string, Double.NaN);
+
+        // not a number is also the value returned for invalid text
+        if (Double.isNaN(value)) {
+            try {
+                return Double.valueOf(string);
+            } catch (NumberFormatException e) {
+                throw createException();
+            }
+        }
+
+        return value;
+    }
+
+    private Boolean convertToBoolean(String string) throws ConversionException {
+        Boolean value = ConversionUtilities.convertToBoolean(string);
+
+        if (value == null)
+            throw createException();
+
+        return value;
+    }
+
+    private Object convertToFirstType(String string, int possibleTypes) throws ConversionException {
+        for (int type : ORDER) {
+            if ((possibleTypes & type) != 0) {
+                switch (type) {
+                    case SHORT_ID:
+                        return Short.valueOf(string);
+                    case INT_ID:
+                        return Integer.valueOf(string);
+                    case LONG_ID:
+                        return Long.valueOf(string);
+                    case FLOAT_ID:
+                        return Float.valueOf(string);
+                    case DOUBLE_ID:
+                        return Double.valueOf(string);
+                    case BIG_INTEGER_ID:
+                        return new BigInteger(string);
+                    case BIG_DECIMAL_ID:
+                        return new BigDecimal(string);
+                    case BOOLEAN_ID:
+                        return ConversionUtilities.convertToBoolean(string);
+                    case DATE_ID:
+                        return ConversionUtilities.convertToDate(string);
+                    default:
+                        return string;
+                }
+            }
+        }
+
+        throw createException();
+    }
+
+    private ConversionException createException() {
+        return new ConversionException("Can not convert to Object using requested types "
+            + ConversionUtilities.getTypesNames(types) + "!");
+    }
+}
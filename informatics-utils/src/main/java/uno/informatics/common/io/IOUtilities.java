@@ -22,10 +22,21 @@ import static uno.informatics.common.io.TextFileHandler.TAB;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import uno.informatics.common.io.text.FlushPolicy;
+import uno.informatics.common.io.text.MappedTextFileRowReader;
 import uno.informatics.common.io.text.TextFileRowReader;
 import uno.informatics.common.io.text.TextFileRowWriter;
 import uno.informatics.data.io.FileType;
@@ -35,13 +46,53 @@ import uno.informatics.data.io.FileType;
  *
  */
 public class IOUtilities {
+    
+    /**
+     * The size in bytes above which CSV and TXT files are read by a memory
+     * mapped reader
+     */
+    public static final long MAPPED_READER_THRESHOLD = 64L * 1024 * 1024;
+
+    /**
+     * The file name extension of gzip compressed files
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+
+    /**
+     * The size in bytes of the buffers used to compress and decompress gzip
+     * files
+     */
+    public static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    // size in characters of the buffers of compressed text readers and writers
+    private static final int TEXT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    /**
+     * Creates a row reader for a file. Local CSV and TXT files larger than
+     * {@link #MAPPED_READER_THRESHOLD} are read using a
+     * {@link MappedTextFileRowReader}. Gzip compressed files are decompressed
+     * while they are read, see {@link #isGzipFile(Path)}.
+     * 
+     * @param path
+     *            the path of the file to be read
+     * @param type
+     *            the file type
+     * @param options
+     *            reader options, which are combined
+     * @return a row reader for the file
+     * @throws IOException
+     *             if the reader can not be created
+     */
     public static final RowReader createRowReader(Path path, FileType type, int... options)
         throws IOException {
         RowReader reader = null;
 
         switch (type) {
             case CSV:
-                TextFileRowReader textFileRowStringReader = new TextFileRowReader(path);
+                TextFileRowReader textFileRowStringReader = createTextFileRowReader(path);
 
                 textFileRowStringReader.setDelimiterString(COMMA);
 
@@ -50,7 +101,7 @@ public class IOUtilities {
                 reader = textFileRowStringReader;
                 break;
             case TXT:
-                textFileRowStringReader = new TextFileRowReader(path);
+                textFileRowStringReader = createTextFileRowReader(path);
 
                 textFileRowStringReader.setDelimiterString(TAB);
 
@@ -71,6 +122,96 @@ public class IOUtilities {
         return reader;
     }
 
+    /**
+     * Creates a row reader for a file that reads only the selected columns,
+     * see {@link RowReader#setSelectedColumns(int[])}
+     * 
+     * @param path
+     *            the path of the file to be read
+     * @param type
+     *            the file type
+     * @param columns
+     *            the indices of the columns to be read
+     * @param options
+     *            reader options, which are combined
+     * @return a row reader for the selected columns of the file
+     * @throws IOException
+     *             if the reader can not be created
+     */
+    public static final RowReader createRowReaderForColumns(Path path, FileType type, int[] columns,
+        int... options) throws IOException {
+        RowReader reader = createRowReader(path, type, options);
+
+        if (reader != null)
+            reader.setSelectedColumns(columns);
+
+        return reader;
+    }
+
+    /**
+     * Creates a row reader for a file that reads only the columns with the
+     * given names in the first row, see
+     * {@link RowReader#setSelectedColumnNames(String[])}
+     * 
+     * @param path
+     *            the path of the file to be read
+     * @param type
+     *            the file type
+     * @param columnNames
+     *            the names of the columns to be read
+     * @param options
+     *            reader options, which are combined
+     * @return a row reader for the selected columns of the file
+     * @throws IOException
+     *             if the reader can not be created
+     */
+    public static final RowReader createRowReaderForColumns(Path path, FileType type, String[] columnNames,
+        int... options) throws IOException {
+        RowReader reader = createRowReader(path, type, options);
+
+        if (reader != null)
+            reader.setSelectedColumnNames(columnNames);
+
+        return reader;
+    }
+
+    /**
+     * Creates a memory mapped row reader for a local CSV or TXT file
+     * 
+     * @param path
+     *            the path of the file to be read
+     * @param type
+     *            the file type, which must be CSV or TXT
+     * @param options
+     *            reader options, which are combined
+     * @return a memory mapped row reader for the file
+     * @throws IOException
+     *             if the reader can not be created
+     */
+    public static final MappedTextFileRowReader createMappedRowReader(Path path, FileType type, int... options)
+        throws IOException {
+        MappedTextFileRowReader reader;
+
+        switch (type) {
+            case CSV:
+                reader = new MappedTextFileRowReader(path);
+
+                reader.setDelimiterString(COMMA);
+                break;
+            case TXT:
+                reader = new MappedTextFileRowReader(path);
+
+                reader.setDelimiterString(TAB);
+                break;
+            default:
+                throw new IOException(type + " Type not supported");
+        }
+
+        reader.setOptions(getOptions(options));
+
+        return reader;
+    }
+
     public static RowReader createRowReader(BufferedReader bufferedReader, FileType type, int... options)
         throws IOException {
         RowReader reader = null;
@@ -107,6 +248,21 @@ public class IOUtilities {
         return reader;
     }
 
+    /**
+     * Creates a writer for a file. Text files are flushed after each row, the
+     * default {@link FlushPolicy} of {@link TextFileRowWriter}, which can be
+     * changed on the writer.
+     * 
+     * @param filePath
+     *            the path of the file to be written
+     * @param type
+     *            the type of the file
+     * @param options
+     *            not currently used
+     * @return a writer for the file
+     * @throws IOException
+     *             if the file can not be opened or the type is not supported
+     */
     public static final RowWriter createRowWriter(Path filePath, FileType type, int... options)
         throws IOException {
         RowWriter writer = null;
@@ -215,6 +371,144 @@ public class IOUtilities {
 
     }
 
+    /**
+     * Checks if a file is gzip compressed, either by the
+     * {@link #GZIP_EXTENSION} file name extension or, for an existing file, by
+     * the gzip magic bytes at the start of the file
+     * 
+     * @param path
+     *            the path of the file
+     * @return <code>true</code> if the file is gzip compressed
+     * @throws IOException
+     *             if the start of the file can not be read
+     */
+    public static final boolean isGzipFile(Path path) throws IOException {
+        if (path == null)
+            return false;
+
+        if (path.getFileName() != null && path.getFileName().toString().toLowerCase().endsWith(GZIP_EXTENSION))
+            return true;
+
+        if (Files.isRegularFile(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a UTF-8 text file for reading, decompressing it if it is gzip
+     * compressed, see {@link #isGzipFile(Path)}
+     * 
+     * @param path
+     *            the path of the file
+     * @return a buffered reader for the text in the file
+     * @throws IOException
+     *             if the file can not be opened
+     */
+    public static final BufferedReader newBufferedReader(Path path) throws IOException {
+        if (isGzipFile(path)) {
+            InputStream in = Files.newInputStream(path);
+
+            try {
+                return new BufferedReader(new InputStreamReader(
+                    new LookAheadInputStream(new GZIPInputStream(in, GZIP_BUFFER_SIZE)), StandardCharsets.UTF_8),
+                    TEXT_BUFFER_SIZE);
+            } catch (IOException e) {
+                in.close();
+
+                throw e;
+            }
+        } else {
+            return Files.newBufferedReader(path);
+        }
+    }
+
+    /**
+     * Opens a UTF-8 text file for writing. If the file name ends with
+     * {@link #GZIP_EXTENSION} the text is gzip compressed, using a
+     * {@link ParallelGzipOutputStream} if the parallelism is greater than 1.
+     * 
+     * @param path
+     *            the path of the file
+     * @param parallelism
+     *            the number of threads used to compress the text
+     * @return a buffered writer for the file
+     * @throws IOException
+     *             if the file can not be opened
+     */
+    public static final BufferedWriter newBufferedWriter(Path path, int parallelism) throws IOException {
+        if (path.getFileName() != null && path.getFileName().toString().toLowerCase().endsWith(GZIP_EXTENSION)) {
+            OutputStream out = Files.newOutputStream(path);
+
+            try {
+                OutputStream compressed = parallelism > 1 ? new ParallelGzipOutputStream(out, parallelism)
+                    : new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+
+                return new BufferedWriter(new OutputStreamWriter(compressed, StandardCharsets.UTF_8),
+                    TEXT_BUFFER_SIZE);
+            } catch (IOException e) {
+                out.close();
+
+                throw e;
+            }
+        } else {
+            return Files.newBufferedWriter(path);
+        }
+    }
+
+    /**
+     * Gets the exception thrown by a task run on a thread pool, unwrapping the
+     * runtime exceptions in which fork-join tasks wrap the exceptions thrown by
+     * a callable, possibly more than once
+     * 
+     * @param exception
+     *            the exception thrown when the result of the task was requested
+     * @return the exception thrown by the task
+     */
+    public static final Throwable getTaskException(ExecutionException exception) {
+        Throwable cause = exception.getCause();
+
+        while (cause.getClass() == RuntimeException.class && cause.getCause() != null)
+            cause = cause.getCause();
+
+        return cause;
+    }
+
+    /**
+     * Converts the exception thrown by a task run on a thread pool, see
+     * {@link #getTaskException(ExecutionException)}, to an
+     * {@link IOException} to be thrown by the caller. Runtime exceptions and
+     * errors are thrown as is, and other exceptions are wrapped.
+     * 
+     * @param exception
+     *            the exception thrown when the result of the task was requested
+     * @return the exception thrown by the task if it is an {@link IOException},
+     *         otherwise an {@link IOException} wrapping it
+     */
+    public static final IOException toIOException(ExecutionException exception) {
+        Throwable cause = getTaskException(exception);
+
+        if (cause instanceof IOException)
+            return (IOException) cause;
+        else if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+        else if (cause instanceof Error)
+            throw (Error) cause;
+        else
+            return new IOException(cause);
+    }
+
+    private static final TextFileRowReader createTextFileRowReader(Path path) throws IOException {
+        if (path != null && Files.isRegularFile(path) && Files.size(path) > MAPPED_READER_THRESHOLD
+            && !isGzipFile(path))
+            return new MappedTextFileRowReader(path);
+        else
+            return new TextFileRowReader(path);
+    }
+
     private static final int getOptions(int... options) {
         int combinedOptions = 0;
 
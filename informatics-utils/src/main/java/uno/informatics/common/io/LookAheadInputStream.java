@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * Input stream that only reports no available bytes at the end of the data,
+ * by reading a byte ahead if the wrapped stream reports none. This is needed
+ * for streams such as {@link java.util.zip.GZIPInputStream}, which reports no
+ * available bytes at the end of each member of a multi-member file, since
+ * readers use {@link java.io.BufferedReader#ready()} to check for more lines.
+ *
+ * @author Guy Davenport
+ */
+public class LookAheadInputStream extends PushbackInputStream {
+
+    /**
+     * Creates a stream that reads from the given stream
+     *
+     * @param in
+     *            the stream to be read
+     */
+    public LookAheadInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int available() throws IOException {
+        int available = super.available();
+
+        if (available > 0)
+            return available;
+
+        int next = read();
+
+        if (next < 0)
+            return 0;
+
+        unread(next);
+
+        return 1;
+    }
+}
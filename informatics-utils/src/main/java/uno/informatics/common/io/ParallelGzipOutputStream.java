@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream that compresses blocks of data in parallel. Each block is
+ * written as a separate gzip member and the members are written in order, so
+ * the output is a standard multi-member gzip file that can be read by
+ * {@link java.util.zip.GZIPInputStream} or any gzip tool.
+ *
+ * Data in the current block is only compressed when the block is full or
+ * the stream is closed, since compressing small blocks loses most of the
+ * compression. {@link #flush()} writes the blocks that have already been
+ * compressed.
+ *
+ * @author Guy Davenport
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * The default number of bytes compressed in each block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final OutputStream out;
+
+    private final int blockSize;
+
+    // maximum number of blocks being compressed at once
+    private final int maximumPending;
+
+    private final ForkJoinPool pool;
+
+    private final Deque<Future<byte[]>> pending;
+
+    private byte[] block;
+
+    private int count;
+
+    private boolean closed;
+
+    /**
+     * Creates a stream that compresses blocks of the default size using the
+     * given number of threads
+     *
+     * @param out
+     *            the stream to which the compressed data is written
+     * @param parallelism
+     *            the number of threads used to compress blocks
+     */
+    public ParallelGzipOutputStream(OutputStream out, int parallelism) {
+        this(out, parallelism, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a stream that compresses blocks of the given size using the
+     * given number of threads
+     *
+     * @param out
+     *            the stream to which the compressed data is written
+     * @param parallelism
+     *            the number of threads used to compress blocks
+     * @param blockSize
+     *            the number of bytes compressed in each block
+     */
+    public ParallelGzipOutputStream(OutputStream out, int parallelism, int blockSize) {
+        if (out == null)
+            throw new NullPointerException("Output stream is undefined");
+
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be at least 1 byte");
+
+        this.out = out;
+        this.blockSize = blockSize;
+        this.maximumPending = parallelism * 2;
+
+        pool = new ForkJoinPool(parallelism);
+        pending = new ArrayDeque<Future<byte[]>>(maximumPending);
+        block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkOpen();
+
+        block[count++] = (byte) b;
+
+        if (count == blockSize)
+            submitBlock();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        checkOpen();
+
+        if (offset < 0 || length < 0 || offset + length > bytes.length)
+            throw new IndexOutOfBoundsException();
+
+        int size;
+
+        while (length > 0) {
+            size = Math.min(length, blockSize - count);
+
+            System.arraycopy(bytes, offset, block, count, size);
+
+            count += size;
+            offset += size;
+            length -= size;
+
+            if (count == blockSize)
+                submitBlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+
+        while (!pending.isEmpty() && pending.peekFirst().isDone())
+            writeBlock(pending.removeFirst());
+
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                if (count > 0)
+                    submitBlock();
+
+                while (!pending.isEmpty())
+                    writeBlock(pending.removeFirst());
+
+                out.flush();
+            } finally {
+                closed = true;
+
+                pool.shutdownNow();
+
+                out.close();
+            }
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if (pending.size() >= maximumPending)
+            writeBlock(pending.removeFirst());
+
+        byte[] bytes = block;
+        int length = count;
+
+        pending.addLast(pool.submit(() -> compress(bytes, length)));
+
+        block = new byte[blockSize];
+        count = 0;
+    }
+
+    private void writeBlock(Future<byte[]> future) throws IOException {
+        try {
+            out.write(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw IOUtilities.toIOException(e);
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+    }
+
+    private static byte[] compress(byte[] bytes, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, IOUtilities.GZIP_BUFFER_SIZE)) {
+            gzip.write(bytes, 0, length);
+        }
+
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io;
+
+import java.io.IOException;
+
+import uno.informatics.common.ConversionException;
+
+/**
+ * Converts the current row of a {@link RowReader} to an object
+ *
+ * @author Guy Davenport
+ *
+ * @param <T>
+ *            the type of object the row is converted to
+ */
+public interface RowConverter<T> {
+    /**
+     * Converts the current row of the reader. The reader is positioned on the
+     * row, before the first cell.
+     *
+     * @param reader
+     *            the reader positioned on the row to be converted
+     * @param row
+     *            the index of the row in the rows being converted, starting
+     *            from <code>0</code>, or {@link uno.informatics.common.Constants#UNKNOWN_COUNT}
+     *            if the rows before it have not yet been counted
+     * @return the converted row
+     * @throws IOException
+     *             if the row can not be read
+     * @throws ConversionException
+     *             if the cells of the row can not be converted
+     */
+    public T convertRow(RowReader reader, int row) throws IOException, ConversionException;
+}
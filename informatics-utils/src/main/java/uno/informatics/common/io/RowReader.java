@@ -115,4 +115,42 @@ public interface RowReader extends TableReader {
      */
     public boolean[] getRowCellsAsBooleanArray() throws IOException;
 
+    /**
+     * Selects the columns to be read. Unselected columns are skipped, so the
+     * cells of each row are the selected columns in ascending order. The
+     * selection applies to the current row, if any, and all following rows.
+     * Readers that do not support column selection throw an
+     * {@link IllegalStateException}, which is the default.
+     * 
+     * @param columns
+     *            the indices of the columns to be read, or <code>null</code>
+     *            to read all columns
+     * @throws IOException
+     *             if the columns can not be selected
+     * @throws IllegalStateException
+     *             if the reader does not support column selection
+     */
+    public default void setSelectedColumns(int[] columns) throws IOException {
+        throw new IllegalStateException("Column selection not supported by " + getClass().getName());
+    }
+
+    /**
+     * Selects the columns to be read by name. The names are found in the
+     * current row or, if no row has been read yet, in the first row, which
+     * is itself restricted to the selected columns. Readers that do not
+     * support column selection throw an {@link IllegalStateException}, which
+     * is the default.
+     * 
+     * @param names
+     *            the names of the columns to be read, or <code>null</code> to
+     *            read all columns
+     * @throws IOException
+     *             if a name is not found
+     * @throws IllegalStateException
+     *             if the reader does not support column selection
+     */
+    public default void setSelectedColumnNames(String[] names) throws IOException {
+        throw new IllegalStateException("Column selection not supported by " + getClass().getName());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Formats doubles as text directly into a {@link StringBuilder}, without
+ * creating a string for each value.
+ * 
+ * The shortest format uses the same notation as {@link Double#toString(double)}
+ * and is read back as the same double. Values from 0.001 up to 10000000 that
+ * can be written with up to 15 significant digits, which includes most
+ * measured values, are formatted with integer arithmetic. Other values are
+ * formatted by {@link StringBuilder#append(double)}.
+ * 
+ * @author Guy Davenport
+ */
+public final class DoubleFormatter {
+
+    /**
+     * The precision of the shortest format, which has as many decimal places
+     * as needed for the value to be read back as the same double
+     */
+    public static final int SHORTEST = -1;
+
+    /**
+     * The largest number of decimal places of the fixed precision format
+     */
+    public static final int MAX_PRECISION = 17;
+
+    // the largest integer below which all integers are exact doubles
+    private static final double MAX_EXACT_INTEGER = 0x1p53;
+
+    private static final double MIN_PLAIN = 1e-3;
+    private static final double MAX_PLAIN = 1e7;
+
+    private static final double[] POWERS = new double[MAX_PRECISION + 1];
+    private static final long[] LONG_POWERS = new long[MAX_PRECISION + 1];
+
+    static {
+        POWERS[0] = 1;
+        LONG_POWERS[0] = 1;
+
+        for (int i = 1; i <= MAX_PRECISION; ++i) {
+            POWERS[i] = POWERS[i - 1] * 10;
+            LONG_POWERS[i] = LONG_POWERS[i - 1] * 10;
+        }
+    }
+
+    private DoubleFormatter() {
+
+    }
+
+    /**
+     * Appends a double in the shortest format that is read back as the same
+     * double, in the notation of {@link Double#toString(double)}
+     * 
+     * @param builder
+     *            the builder to which the value is appended
+     * @param value
+     *            the value to be appended
+     */
+    public static final void appendShortest(StringBuilder builder, double value) {
+        double absolute = Math.abs(value);
+
+        if (absolute >= MIN_PLAIN && absolute < MAX_PLAIN) {
+            // at least one decimal place, as in Double.toString
+            for (int places = 1; places <= MAX_PRECISION; ++places) {
+                double scaled = Math.rint(absolute * POWERS[places]);
+
+                if (scaled >= MAX_EXACT_INTEGER)
+                    break;
+
+                // both are exact, so the division is the double nearest to
+                // the decimal, which is also the double read back from it
+                if (scaled / POWERS[places] == absolute) {
+                    if (value < 0)
+                        builder.append('-');
+
+                    appendDecimal(builder, (long) scaled, places);
+
+                    return;
+                }
+            }
+        }
+
+        builder.append(value);
+    }
+
+    /**
+     * Appends a double with a fixed number of decimal places, rounded half up.
+     * Values that are not a number or are infinite are appended as by
+     * {@link Double#toString(double)}.
+     * 
+     * @param builder
+     *            the builder to which the value is appended
+     * @param value
+     *            the value to be appended
+     * @param precision
+     *            the number of decimal places, from 0 to
+     *            {@link #MAX_PRECISION}
+     */
+    public static final void appendFixed(StringBuilder builder, double value, int precision) {
+        checkPrecision(precision);
+
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            builder.append(value);
+        } else {
+            double scaled = Math.abs(value) * POWERS[precision];
+
+            if (scaled < MAX_EXACT_INTEGER) {
+                long decimal = Math.round(scaled);
+
+                if (value < 0 && decimal != 0)
+                    builder.append('-');
+
+                appendDecimal(builder, decimal, precision);
+            } else {
+                builder.append(BigDecimal.valueOf(value).setScale(precision, RoundingMode.HALF_UP).toPlainString());
+            }
+        }
+    }
+
+    /**
+     * Checks a precision is valid for {@link #appendFixed(StringBuilder, double, int)}
+     * 
+     * @param precision
+     *            the number of decimal places
+     * @throws IllegalArgumentException
+     *             if the precision is not from 0 to {@link #MAX_PRECISION}
+     */
+    public static final void checkPrecision(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION)
+            throw new IllegalArgumentException("Invalid precision : " + precision);
+    }
+
+    /**
+     * Appends a positive decimal given as an integer and the number of decimal
+     * places in the integer
+     */
+    private static void appendDecimal(StringBuilder builder, long decimal, int places) {
+        long divisor = LONG_POWERS[places];
+
+        builder.append(decimal / divisor);
+
+        if (places > 0) {
+            builder.append('.');
+
+            long fraction = decimal % divisor;
+
+            // leading zeros of the fraction
+            for (long digit = divisor / 10; digit > fraction && digit > 1; digit /= 10)
+                builder.append('0');
+
+            builder.append(fraction);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+/**
+ * When a {@link TextFileRowWriter} flushes the rows written to its file or
+ * stream. Flushing less often avoids a write to the underlying file or stream
+ * for every row, while flushing after every row makes each row visible to
+ * readers of the file as soon as it is written.
+ * 
+ * @author Guy Davenport
+ */
+public enum FlushPolicy {
+    /**
+     * Flushes after a number of rows have been written, by default after every
+     * row
+     */
+    ROWS,
+
+    /**
+     * Flushes after a number of characters have been written, checked at the
+     * end of each row
+     */
+    CHARACTERS,
+
+    /**
+     * Only flushes when the buffer of the writer is full, when
+     * {@link TextFileRowWriter#flush()} is called or when the writer is closed
+     */
+    CLOSE;
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import uno.informatics.common.io.IOUtilities;
+
+/**
+ * A {@link TextFileRowReader} for UTF-8 encoded local files that memory maps
+ * the file and finds lines directly on the mapped bytes, rather than decoding
+ * the whole file through a {@link java.io.BufferedReader}. ASCII lines are
+ * copied straight into the reusable tokeniser buffer, so no string is created
+ * until a cell is requested as a string. Files larger than the mapping window
+ * are mapped one window at a time.
+ *
+ * @author Guy Davenport
+ */
+public class MappedTextFileRowReader extends TextFileRowReader {
+
+    /**
+     * The default size in bytes of the region of the file mapped at any one
+     * time
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte NEW_LINE = '\n';
+    private static final int SPACE = ' ';
+
+    private final int windowSize;
+
+    private final long regionStart;
+
+    private final long requestedRegionEnd;
+
+    private FileChannel channel;
+
+    // the end of the region of the file being read
+    private long regionEnd;
+
+    private MappedByteBuffer buffer;
+
+    // the position in the file of the start of the mapped window
+    private long windowStart;
+
+    // the position of the next line in the mapped window
+    private int position;
+
+    private byte[] lineBytes;
+
+    // the position in the file of the start of the last line read
+    private long lineStart;
+
+    /**
+     * Constructs an initialised reader using a file.
+     *
+     * @param path
+     *            the Path to file to be read.
+     * @throws FileNotFoundException
+     *             if the file to read is not found
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public MappedTextFileRowReader(Path path) throws IOException, FileNotFoundException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs an initialised reader using a file, mapping at most the given
+     * number of bytes of the file at any one time. The window must be larger
+     * than the longest line in the file.
+     *
+     * @param path
+     *            the Path to file to be read.
+     * @param windowSize
+     *            the maximum number of bytes mapped at any one time
+     * @throws FileNotFoundException
+     *             if the file to read is not found
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public MappedTextFileRowReader(Path path, int windowSize) throws IOException, FileNotFoundException {
+        this(path, 0, Long.MAX_VALUE, windowSize);
+    }
+
+    /**
+     * Constructs an initialised reader that reads only the lines in a region
+     * of a file. The region must start at the beginning of a line and end
+     * after a line terminator or at the end of the file.
+     *
+     * @param path
+     *            the Path to file to be read.
+     * @param start
+     *            the position in the file of the start of the region
+     * @param end
+     *            the position in the file of the end of the region, positions
+     *            past the end of the file are treated as the end of the file
+     * @param windowSize
+     *            the maximum number of bytes mapped at any one time
+     * @throws FileNotFoundException
+     *             if the file to read is not found
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public MappedTextFileRowReader(Path path, long start, long end, int windowSize)
+        throws IOException, FileNotFoundException {
+        super();
+
+        if (path == null)
+            throw new FileNotFoundException("Path undefined");
+
+        if (windowSize < 2)
+            throw new IllegalArgumentException("Window size must be at least 2 bytes");
+
+        if (start < 0 || end < start)
+            throw new IllegalArgumentException("Invalid region of file : " + start + " to " + end);
+
+        this.windowSize = windowSize;
+        this.regionStart = start;
+        this.requestedRegionEnd = end;
+
+        setPath(path);
+
+        initialise();
+    }
+
+    @Override
+    protected void openSource() throws FileNotFoundException, IOException {
+        if (getPath() == null)
+            throw new IOException("Unable to initialise reader");
+
+        if (!getPath().toFile().exists())
+            throw new FileNotFoundException("File does not exist : " + getPath());
+
+        if (IOUtilities.isGzipFile(getPath()))
+            throw new IOException("Compressed file can not be memory mapped : " + getPath());
+
+        channel = FileChannel.open(getPath(), StandardOpenOption.READ);
+
+        regionEnd = Math.min(requestedRegionEnd, channel.size());
+
+        lineBytes = new byte[256];
+
+        map(Math.min(regionStart, regionEnd));
+    }
+
+    /**
+     * Gets the position in the file of the start of the next row, which can be
+     * used to continue reading the file from the next row in another reader.
+     *
+     * @return the position in the file of the start of the next row, or the
+     *         end of the region being read if there are no more rows
+     */
+    public final long getNextRowPosition() {
+        return hasNextRow() ? lineStart : regionEnd;
+    }
+
+    @Override
+    protected boolean hasMoreLines() throws IOException {
+        return buffer != null && windowStart + position < regionEnd;
+    }
+
+    @Override
+    protected boolean readLine(TextLineTokenizer tokenizer) throws IOException {
+        if (!hasMoreLines())
+            return false;
+
+        lineStart = windowStart + position;
+
+        int end = findLineEnd();
+
+        // the line or its terminator may continue beyond the mapped window
+        if (!isLineComplete(end)) {
+            map(windowStart + position);
+
+            end = findLineEnd();
+
+            if (!isLineComplete(end))
+                throw new IOException("Line at position " + (windowStart + position)
+                    + " is longer than the mapping window of " + windowSize + " bytes");
+        }
+
+        int start = position;
+
+        if (end < buffer.limit()) {
+            position = end + 1;
+
+            if (buffer.get(end) == CARRIAGE_RETURN && position < buffer.limit()
+                && buffer.get(position) == NEW_LINE)
+                ++position;
+        } else {
+            position = end;
+        }
+
+        // remove leading and trailing white space as String.trim() would
+        while (start < end && (buffer.get(start) & 0xff) <= SPACE)
+            ++start;
+
+        while (end > start && (buffer.get(end - 1) & 0xff) <= SPACE)
+            --end;
+
+        int length = end - start;
+
+        if (lineBytes.length < length)
+            lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+
+        buffer.position(start);
+        buffer.get(lineBytes, 0, length);
+
+        tokenizer.tokenise(lineBytes, 0, length);
+
+        return true;
+    }
+
+    @Override
+    protected void closeSource() throws IOException {
+        buffer = null;
+        lineBytes = null;
+
+        try {
+            if (channel != null)
+                channel.close();
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Finds the end of the line starting at the current position
+     *
+     * @return the position of the line terminator in the mapped window, or the
+     *         limit of the window if none is found
+     */
+    private int findLineEnd() {
+        int limit = buffer.limit();
+        int end = position;
+        byte b;
+
+        while (end < limit && (b = buffer.get(end)) != NEW_LINE && b != CARRIAGE_RETURN)
+            ++end;
+
+        return end;
+    }
+
+    /**
+     * Checks that a line and its terminator are completely within the mapped
+     * window, a carriage return at the end of the window may be followed by a
+     * new line in the next window
+     */
+    private boolean isLineComplete(int end) {
+        int limit = buffer.limit();
+
+        return windowStart + limit >= regionEnd || end < limit - 1
+            || (end == limit - 1 && buffer.get(end) == NEW_LINE);
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        position = 0;
+
+        buffer = channel.map(MapMode.READ_ONLY, start, Math.min(windowSize, regionEnd - start));
+    }
+}
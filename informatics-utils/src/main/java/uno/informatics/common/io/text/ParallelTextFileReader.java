@@ -0,0 +1,422 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import uno.informatics.common.Constants;
+import uno.informatics.common.ConversionException;
+import uno.informatics.common.io.IOUtilities;
+import uno.informatics.common.io.RowConverter;
+
+/**
+ * Reads the rows of a delimited text file in parallel. The file is split into
+ * chunks that start and end on line boundaries, each chunk is read by its own
+ * {@link MappedTextFileRowReader} on a fork-join pool and the converted rows
+ * are returned in file order. Since a row never continues past the end of a
+ * line, quoted cells can not span chunks and the rows are read exactly as a
+ * single {@link TextFileRowReader} would read them.
+ *
+ * @author Guy Davenport
+ */
+public class ParallelTextFileReader {
+
+    /**
+     * The default maximum number of bytes in a chunk
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 16L * 1024 * 1024;
+
+    // smallest chunk that is worth reading in its own task
+    private static final long MINIMUM_CHUNK_SIZE = 64L * 1024;
+
+    // number of chunks per thread, so threads that finish early can take more
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private static final byte NEW_LINE = '\n';
+
+    private final Path path;
+
+    private long start;
+
+    private String delimiter = Constants.DEFAULT_DELIMITER;
+
+    private String comment = Constants.DEFAULT_COMMENT;
+
+    private int options = TextFileRowReader.NO_OPTIONS;
+
+    private boolean inStrictMode;
+
+    private int fixedRowSize = Constants.UNKNOWN_COUNT;
+
+    private int[] selectedColumns;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private long chunkSize = Constants.UNKNOWN_COUNT;
+
+    /**
+     * Constructs a reader for all the rows of a file
+     *
+     * @param path
+     *            the Path to file to be read.
+     * @throws FileNotFoundException
+     *             if the file to read is not found
+     */
+    public ParallelTextFileReader(Path path) throws FileNotFoundException {
+        if (path == null)
+            throw new FileNotFoundException("Path undefined");
+
+        if (!path.toFile().exists())
+            throw new FileNotFoundException("File does not exist : " + path);
+
+        this.path = path;
+    }
+
+    /**
+     * Constructs a reader for the remaining rows of a file, continuing from the
+     * next row of the given reader with the same delimiter, options, row
+     * size and selected columns. This allows any header rows to be read by the given reader and the
+     * data rows in parallel.
+     *
+     * @param reader
+     *            the reader from which to continue
+     * @throws FileNotFoundException
+     *             if the file to read is not found
+     */
+    public ParallelTextFileReader(MappedTextFileRowReader reader) throws FileNotFoundException {
+        this(reader.getPath());
+
+        start = reader.getNextRowPosition();
+        delimiter = reader.getDelimiterString();
+        comment = reader.getCommentString();
+        options = reader.getOptions();
+        inStrictMode = reader.isInStrictMode();
+        selectedColumns = reader.getSelectedColumns();
+
+        if (reader.isRowSizeSetExternally() || (options & TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST) != 0)
+            fixedRowSize = reader.getCurrentRowSize();
+    }
+
+    /**
+     * Checks if a file can be split into chunks that are read in parallel,
+     * which requires a regular file that is not gzip compressed, since a
+     * compressed file can not be memory mapped
+     *
+     * @param path
+     *            the path of the file
+     * @return <code>true</code> if the file can be read in parallel
+     * @throws IOException
+     *             if the start of the file can not be read
+     */
+    public static final boolean isSupported(Path path) throws IOException {
+        return path != null && Files.isRegularFile(path) && !IOUtilities.isGzipFile(path);
+    }
+
+    public final String getDelimiterString() {
+        return delimiter;
+    }
+
+    public final void setDelimiterString(String delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public final String getCommentString() {
+        return comment;
+    }
+
+    public final void setCommentString(String comment) {
+        this.comment = comment;
+    }
+
+    public final int getOptions() {
+        return options;
+    }
+
+    /**
+     * Sets an int representing a bit array of {@link TextFileRowReader}
+     * options
+     *
+     * @param options
+     *            an int representing a bit array of options
+     */
+    public final void setOptions(int options) {
+        this.options = options;
+    }
+
+    public final boolean isInStrictMode() {
+        return inStrictMode;
+    }
+
+    public final void setInStrictMode(boolean inStrictMode) {
+        this.inStrictMode = inStrictMode;
+    }
+
+    /**
+     * Sets a fixed row size, see {@link TextFileRowReader#setFixedRowSize(int)}
+     *
+     * @param fixedRowSize
+     *            the fixed row size, or {@link Constants#UNKNOWN_COUNT} if the
+     *            row size is not fixed
+     */
+    public final void setFixedRowSize(int fixedRowSize) {
+        this.fixedRowSize = fixedRowSize;
+    }
+
+    public final int[] getSelectedColumns() {
+        return selectedColumns != null ? selectedColumns.clone() : null;
+    }
+
+    /**
+     * Selects the columns to be read, see
+     * {@link TextFileRowReader#setSelectedColumns(int[])}
+     *
+     * @param columns
+     *            the indices of the columns to be read, or <code>null</code>
+     *            to read all columns
+     */
+    public final void setSelectedColumns(int[] columns) {
+        this.selectedColumns = columns != null ? columns.clone() : null;
+    }
+
+    public final int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used to read the file
+     *
+     * @param parallelism
+     *            the number of threads used to read the file
+     */
+    public final void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        this.parallelism = parallelism;
+    }
+
+    public final long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of bytes in each chunk of the file. By default the
+     * chunk size is chosen from the size of the file and the parallelism.
+     *
+     * @param chunkSize
+     *            the maximum number of bytes in each chunk, or
+     *            {@link Constants#UNKNOWN_COUNT} to use the default
+     */
+    public final void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads and converts the rows in parallel. The index of each row is only
+     * given to the converter if the rows before it have been counted, which
+     * in parallel is only the case for the first chunk. If the conversion of
+     * a row fails in a later chunk, the chunk is converted again once the rows
+     * before it are counted, so that the error is reported with the index of
+     * the row.
+     *
+     * @param converter
+     *            the converter for each row, which must be safe to use from
+     *            several threads at once
+     * @param <T>
+     *            the type of object each row is converted to
+     * @return the converted rows in file order
+     * @throws IOException
+     *             if the file can not be read
+     * @throws ConversionException
+     *             if a row can not be converted
+     */
+    public final <T> List<T> readRows(RowConverter<T> converter) throws IOException, ConversionException {
+        List<Long> boundaries = findChunkBoundaries();
+
+        if (parallelism == 1 || boundaries.size() <= 2)
+            return readChunk(start, Long.MAX_VALUE, fixedRowSize, 0, converter);
+
+        int rowSize = fixedRowSize;
+
+        // each chunk must use the size of the first row of the whole file
+        if (rowSize == Constants.UNKNOWN_COUNT && (options & TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST) != 0)
+            rowSize = readFirstRowSize();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            List<ForkJoinTask<List<T>>> tasks = new ArrayList<ForkJoinTask<List<T>>>(boundaries.size() - 1);
+
+            for (int i = 1; i < boundaries.size(); ++i) {
+                long chunkStart = boundaries.get(i - 1);
+                long chunkEnd = boundaries.get(i);
+
+                int chunkRowSize = rowSize;
+                int firstRow = i == 1 ? 0 : Constants.UNKNOWN_COUNT;
+
+                tasks.add(pool.submit(() -> readChunk(chunkStart, chunkEnd, chunkRowSize, firstRow, converter)));
+            }
+
+            List<T> rows = new ArrayList<T>();
+
+            for (int i = 0; i < tasks.size(); ++i) {
+                try {
+                    rows.addAll(tasks.get(i).get());
+                } catch (ExecutionException e) {
+                    // the rows of the chunks before are now counted
+                    if (i > 0)
+                        readChunk(boundaries.get(i), boundaries.get(i + 1), rowSize, rows.size(), converter);
+
+                    throw e;
+                }
+            }
+
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IOException("Interrupted while reading " + path, e);
+        } catch (ExecutionException e) {
+            Throwable cause = IOUtilities.getTaskException(e);
+
+            if (cause instanceof ConversionException)
+                throw (ConversionException) cause;
+
+            throw IOUtilities.toIOException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads and converts the rows of a chunk, the first of which has the given
+     * index, or {@link Constants#UNKNOWN_COUNT} if the rows before the chunk
+     * have not been counted
+     */
+    private <T> List<T> readChunk(long chunkStart, long chunkEnd, int rowSize, int firstRow,
+        RowConverter<T> converter) throws IOException, ConversionException {
+        MappedTextFileRowReader reader = createReader(chunkStart, chunkEnd, rowSize);
+
+        try {
+            List<T> rows = new ArrayList<T>();
+
+            while (reader.nextRow())
+                rows.add(converter.convertRow(reader,
+                    firstRow != Constants.UNKNOWN_COUNT ? firstRow + rows.size() : Constants.UNKNOWN_COUNT));
+
+            return rows;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private int readFirstRowSize() throws IOException {
+        MappedTextFileRowReader reader = createReader(start, Long.MAX_VALUE, Constants.UNKNOWN_COUNT);
+
+        try {
+            return reader.nextRow() ? reader.getCurrentRowSize() : Constants.UNKNOWN_COUNT;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private MappedTextFileRowReader createReader(long regionStart, long regionEnd, int rowSize)
+        throws IOException {
+        MappedTextFileRowReader reader = new MappedTextFileRowReader(path, regionStart, regionEnd,
+            MappedTextFileRowReader.DEFAULT_WINDOW_SIZE);
+
+        reader.setDelimiterString(delimiter);
+        reader.setCommentString(comment);
+        reader.setOptions(options);
+        reader.setInStrictMode(inStrictMode);
+        reader.setSelectedColumns(selectedColumns);
+
+        if (rowSize != Constants.UNKNOWN_COUNT)
+            reader.setFixedRowSize(rowSize);
+
+        return reader;
+    }
+
+    /**
+     * Splits the file into chunks, each starting after a new line
+     *
+     * @return the start of each chunk followed by the end of the file
+     * @throws IOException
+     *             if the file can not be read
+     */
+    private List<Long> findChunkBoundaries() throws IOException {
+        List<Long> boundaries = new ArrayList<Long>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = channel.size();
+            long size = chunkSize;
+
+            if (size <= 0)
+                size = Math.min(DEFAULT_CHUNK_SIZE,
+                    Math.max(MINIMUM_CHUNK_SIZE, (end - start) / (parallelism * CHUNKS_PER_THREAD)));
+
+            long boundary = Math.min(start, end);
+
+            boundaries.add(boundary);
+
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+            while (boundary < end) {
+                boundary = findLineStart(channel, buffer, boundary + size, end);
+
+                boundaries.add(boundary);
+            }
+        }
+
+        return boundaries;
+    }
+
+    private long findLineStart(FileChannel channel, ByteBuffer buffer, long position, long end)
+        throws IOException {
+        int read;
+
+        while (position < end) {
+            buffer.clear();
+
+            read = channel.read(buffer, position);
+
+            if (read <= 0)
+                return end;
+
+            for (int i = 0; i < read; ++i)
+                if (buffer.get(i) == NEW_LINE)
+                    return position + i + 1;
+
+            position += read;
+        }
+
+        return end;
+    }
+}
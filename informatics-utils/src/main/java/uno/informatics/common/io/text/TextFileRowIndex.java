@@ -0,0 +1,336 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Sparse index of the rows of a delimited text file, recording the position
+ * in the file of every Kth row, so that reading can start at any row after
+ * reading at most K - 1 other rows. Rows are counted as a
+ * {@link TextFileRowReader} returns them, starting from <code>0</code> for
+ * the first row, including any header rows, without comment lines or empty
+ * lines skipped in strict mode.
+ *
+ * The index can be saved in a sidecar file next to the text file, see
+ * {@link #getIndexPath(Path)}, which is only used while the size and last
+ * modified time of the text file are unchanged.
+ *
+ * @author Guy Davenport
+ */
+public class TextFileRowIndex {
+
+    /**
+     * The extension added to the name of a file for the name of its index
+     * file
+     */
+    public static final String INDEX_EXTENSION = ".idx";
+
+    /**
+     * The default number of rows between indexed rows
+     */
+    public static final int DEFAULT_INTERVAL = 1024;
+
+    // "RIDX"
+    private static final int MAGIC = 0x52494458;
+
+    private static final int VERSION = 1;
+
+    private final Path path;
+
+    private final int interval;
+
+    private final String commentString;
+
+    private final boolean inStrictMode;
+
+    private final long fileSize;
+
+    private final long lastModified;
+
+    private final long rowCount;
+
+    // the position of row i * interval is at index i
+    private final long[] positions;
+
+    private TextFileRowIndex(Path path, int interval, String commentString, boolean inStrictMode,
+        long fileSize, long lastModified, long rowCount, long[] positions) {
+        this.path = path;
+        this.interval = interval;
+        this.commentString = commentString;
+        this.inStrictMode = inStrictMode;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.rowCount = rowCount;
+        this.positions = positions;
+    }
+
+    /**
+     * Builds an index of a file by reading all of its rows
+     *
+     * @param path
+     *            the path of the file
+     * @param commentString
+     *            the comment string used to read the file, or
+     *            <code>null</code> if there are no comment lines
+     * @param inStrictMode
+     *            the strict mode used to read the file
+     * @param interval
+     *            the number of rows between indexed rows
+     * @return the index of the file
+     * @throws IOException
+     *             if the file can not be read
+     */
+    public static final TextFileRowIndex build(Path path, String commentString, boolean inStrictMode,
+        int interval) throws IOException {
+        if (interval < 1)
+            throw new IllegalArgumentException("Interval must be at least 1 row");
+
+        long fileSize = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+        MappedTextFileRowReader reader = new MappedTextFileRowReader(path);
+
+        try {
+            reader.setCommentString(commentString);
+            reader.setInStrictMode(inStrictMode);
+
+            long[] positions = new long[16];
+            int count = 0;
+            long row = 0;
+            long position;
+
+            while (true) {
+                position = reader.getNextRowPosition();
+
+                if (!reader.nextRow())
+                    break;
+
+                if (row % interval == 0) {
+                    if (count == positions.length)
+                        positions = Arrays.copyOf(positions, count * 2);
+
+                    positions[count++] = position;
+                }
+
+                ++row;
+            }
+
+            return new TextFileRowIndex(path, interval, commentString, inStrictMode, fileSize, lastModified, row,
+                Arrays.copyOf(positions, count));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Loads the index of a file from its index file
+     *
+     * @param path
+     *            the path of the file
+     * @param commentString
+     *            the comment string used to read the file, or
+     *            <code>null</code> if there are no comment lines
+     * @param inStrictMode
+     *            the strict mode used to read the file
+     * @return the index of the file, or <code>null</code> if there is no index
+     *         file, or it was built for a different version of the file or
+     *         for a different comment string or strict mode
+     * @throws IOException
+     *             if the index file can not be read
+     */
+    public static final TextFileRowIndex load(Path path, String commentString, boolean inStrictMode)
+        throws IOException {
+        Path indexPath = getIndexPath(path);
+
+        if (!Files.isRegularFile(indexPath))
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not a row index file : " + indexPath);
+
+            if (in.readInt() != VERSION)
+                return null;
+
+            long fileSize = in.readLong();
+            long lastModified = in.readLong();
+            int interval = in.readInt();
+            String indexCommentString = in.readBoolean() ? in.readUTF() : null;
+            boolean indexInStrictMode = in.readBoolean();
+            long rowCount = in.readLong();
+
+            if (fileSize != Files.size(path) || lastModified != Files.getLastModifiedTime(path).toMillis()
+                || !Objects.equals(commentString, indexCommentString) || inStrictMode != indexInStrictMode)
+                return null;
+
+            long[] positions = new long[in.readInt()];
+
+            for (int i = 0; i < positions.length; ++i)
+                positions[i] = in.readLong();
+
+            return new TextFileRowIndex(path, interval, commentString, inStrictMode, fileSize, lastModified,
+                rowCount, positions);
+        }
+    }
+
+    /**
+     * Gets the index of a file, loading it from the index file if it is up
+     * to date, otherwise building it and saving it to the index file
+     *
+     * @param path
+     *            the path of the file
+     * @param commentString
+     *            the comment string used to read the file, or
+     *            <code>null</code> if there are no comment lines
+     * @param inStrictMode
+     *            the strict mode used to read the file
+     * @param interval
+     *            the number of rows between indexed rows, if the index is
+     *            built
+     * @return the index of the file
+     * @throws IOException
+     *             if the file or index file can not be read, or the index file
+     *             can not be written
+     */
+    public static final TextFileRowIndex getIndex(Path path, String commentString, boolean inStrictMode,
+        int interval) throws IOException {
+        if (path == null)
+            throw new FileNotFoundException("Path undefined");
+
+        TextFileRowIndex index = load(path, commentString, inStrictMode);
+
+        if (index == null) {
+            index = build(path, commentString, inStrictMode, interval);
+
+            index.save();
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets the path of the index file of a file, which is the path of the file
+     * with {@link #INDEX_EXTENSION} added
+     *
+     * @param path
+     *            the path of the file
+     * @return the path of the index file
+     */
+    public static final Path getIndexPath(Path path) {
+        return path.resolveSibling(path.getFileName() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Saves the index to the index file of the indexed file
+     *
+     * @throws IOException
+     *             if the index file can not be written
+     */
+    public final void save() throws IOException {
+        Path indexPath = getIndexPath(path);
+
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileSize);
+            out.writeLong(lastModified);
+            out.writeInt(interval);
+            out.writeBoolean(commentString != null);
+
+            if (commentString != null)
+                out.writeUTF(commentString);
+
+            out.writeBoolean(inStrictMode);
+            out.writeLong(rowCount);
+            out.writeInt(positions.length);
+
+            for (long position : positions)
+                out.writeLong(position);
+        }
+    }
+
+    public final Path getPath() {
+        return path;
+    }
+
+    public final int getInterval() {
+        return interval;
+    }
+
+    public final long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the position in the file of the closest indexed row at or before a
+     * row
+     *
+     * @param row
+     *            the row
+     * @return the position in the file of the closest indexed row at or
+     *         before the row, or the size of the file if the row is after the
+     *         last row
+     */
+    public final long getPosition(long row) {
+        if (row < 0)
+            throw new IndexOutOfBoundsException("Invalid row : " + row);
+
+        return row < rowCount ? positions[(int) (row / interval)] : fileSize;
+    }
+
+    /**
+     * Creates a reader whose first row is the given row of the file, by
+     * starting at the closest indexed row and skipping the rows between. The
+     * reader uses the comment string and strict mode of the index and the
+     * delimiter and options can be set as usual. A window of rows can be
+     * read by calling {@link TextFileRowReader#nextRow()} for each row in the
+     * window.
+     *
+     * @param row
+     *            the first row to be read
+     * @return a reader starting at the row
+     * @throws IOException
+     *             if the reader can not be created or the file has changed
+     *             since it was indexed
+     */
+    public final MappedTextFileRowReader createReader(long row) throws IOException {
+        if (fileSize != Files.size(path) || lastModified != Files.getLastModifiedTime(path).toMillis())
+            throw new IOException("File has changed since it was indexed : " + path);
+
+        MappedTextFileRowReader reader = new MappedTextFileRowReader(path, getPosition(row), Long.MAX_VALUE,
+            MappedTextFileRowReader.DEFAULT_WINDOW_SIZE);
+
+        reader.setCommentString(commentString);
+        reader.setInStrictMode(inStrictMode);
+
+        if (row < rowCount)
+            reader.setRowsToSkip(row % interval);
+
+        return reader;
+    }
+}
@@ -23,20 +23,22 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import uno.informatics.common.ConversionException;
 import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.ValueConverter;
+import uno.informatics.common.io.IOUtilities;
 import uno.informatics.common.io.RowReader;
 import uno.informatics.data.DataTypeConstants;
 
@@ -112,6 +114,15 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
      */
     public static final int REMOVE_QUOTES = 32;
 
+    /**
+     * Sets if cells that can not be converted to an int or double, such as
+     * <code>NA</code>, are treated as missing cells rather than causing an
+     * exception, so they are read as the default int or double value, see
+     * {@link #setDefaultInt(int)} and {@link #setDefaultDouble(double)}, or as
+     * <code>null</code> in lists
+     */
+    public static final int INVALID_NUMBERS_AS_MISSING = 64;
+
     private int options = NO_OPTIONS;
 
     private Map<Integer, Integer> conversionTypesMap;
@@ -122,12 +133,57 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
     private int defaultConversionTypes;
 
-    private Pattern pattern;
+    // converters for the conversion types of each column, compiled when
+    // first needed
+    private ValueConverter[] converters;
+
 
     private BufferedReader bufferedReader;
 
-    private String[] line;
-    private String[] nextLine;
+    // tokens of the current line, the next line and a spare buffer for
+    // reuse, swapped as the reader moves on
+    private TextLineTokenizer line;
+    private TextLineTokenizer nextLine;
+    private TextLineTokenizer spareLine;
+
+    // indices of the selected columns in ascending order, or null if all
+    // columns are read, also read by the read ahead thread
+    private volatile int[] selectedColumns;
+
+    // rows still to be skipped before the first row is read
+    private long rowsToSkip;
+
+    // the number of rows read ahead by a background thread, or 0 if rows are
+    // read when requested
+    private int readAheadSize;
+
+    private Thread readAheadThread;
+
+    // rows tokenised by the read ahead thread and free tokenizers for it to
+    // fill, which together form a ring of reusable tokenizers
+    private BlockingQueue<TextLineTokenizer> readAheadRows;
+    private BlockingQueue<TextLineTokenizer> freeRows;
+
+    // a row taken from the read ahead queue but not yet used
+    private TextLineTokenizer readAheadRow;
+
+    private boolean endOfReadAhead;
+
+    private volatile IOException readAheadException;
+
+    // the number of lines read after the last row read ahead, written by the
+    // read ahead thread before the end of the rows is queued
+    private int readAheadTrailingLines;
+
+    // marks the end of the rows in the read ahead queue
+    private static final TextLineTokenizer END_OF_ROWS = new TextLineTokenizer(" ", NO_OPTIONS);
+
+    // tokenizers held by the reader outside the read ahead queue, the
+    // current line, the next line and the read ahead row
+    private static final int HELD_ROWS = 3;
+
+    // names of the selected columns, until they are found in a row
+    private String[] selectedColumnNames;
 
     private int defaultInt;
 
@@ -137,7 +193,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
     private static final String BUFFERREADER_NULL = "Buffer reader is undefined";
 
-    private TextFileRowReader() {
+    protected TextFileRowReader() {
         conversionTypesArray = new int[0];
     }
 
@@ -163,7 +219,9 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
     }
 
     /**
-     * Constructs an initialised reader using a file.
+     * Constructs an initialised reader using a file. Gzip compressed files
+     * are decompressed while they are read, see
+     * {@link IOUtilities#isGzipFile(Path)}.
      * 
      * @param path
      *            the Path to file to be read.
@@ -203,28 +261,93 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
      */
     public final boolean ready() {
         try {
-            if (bufferedReader != null) {
-                return bufferedReader.ready();
-            } else {
-                return false;
-            }
+            return readAheadSize > 0 ? hasReadAheadRow() : hasMoreLines();
         } catch (IOException e) {
             return false;
         }
     }
 
     /**
-     * Close the reader, disposing of any internal resources
+     * Close the reader, disposing of any internal resources. Any read ahead
+     * thread is stopped before the source is closed.
      */
     public final void close() {
+        stopReadAhead();
+
         try {
-            if (bufferedReader != null)
-                bufferedReader.close();
+            closeSource();
         } catch (IOException e) {
 
         }
+    }
 
-        bufferedReader = null;
+    /**
+     * Gets the number of rows still to be skipped before the first row is read
+     * 
+     * @return the number of rows still to be skipped
+     */
+    public final long getRowsToSkip() {
+        return rowsToSkip;
+    }
+
+    /**
+     * Sets the number of rows skipped before the first row is read, for
+     * example to start reading part way through a file. Skipped rows are
+     * tokenised but not converted and do not count as the first row for
+     * {@link #ROWS_SAME_SIZE_AS_FIRST}. Comment lines, and empty lines when in
+     * strict mode, are not counted as rows.
+     * 
+     * @param rowsToSkip
+     *            the number of rows to skip
+     * @throws IOException
+     *             if the reader is already in use
+     */
+    public final void setRowsToSkip(long rowsToSkip) throws IOException {
+        if (rowsToSkip < 0)
+            throw new IllegalArgumentException("Rows to skip must not be negative");
+
+        if (isInUse() || getRowPosition() >= 0 || readAheadThread != null)
+            throw new IOException("Rows to skip can not be changed while reader is in use");
+
+        this.rowsToSkip = rowsToSkip;
+    }
+
+    /**
+     * Gets the number of rows read ahead by a background thread
+     * 
+     * @return the number of rows read ahead, or <code>0</code> if rows are
+     *         read when requested
+     */
+    public final int getReadAheadSize() {
+        return readAheadSize;
+    }
+
+    /**
+     * Sets the number of rows read ahead by a background thread. If the size
+     * is greater than zero, lines are read, trimmed and tokenised on a
+     * separate thread into a bounded queue of reusable tokenizers, while the
+     * rows already read are converted on the calling thread. The thread is
+     * started when the first row is requested and is stopped by
+     * {@link #close()}. Comment lines, and empty lines when in strict mode,
+     * are skipped by the background thread. Rows are returned exactly as
+     * when they are read on request.
+     * 
+     * @param readAheadSize
+     *            the number of rows read ahead, or <code>0</code> to read
+     *            rows when requested
+     * @throws IOException
+     *             if the reader is already in use
+     */
+    public final void setReadAheadSize(int readAheadSize) throws IOException {
+        if (readAheadSize < 0)
+            throw new IllegalArgumentException("Read ahead size must not be negative");
+
+        if (readAheadSize != this.readAheadSize) {
+            if (isInUse() || getRowPosition() >= 0 || readAheadThread != null)
+                throw new IOException("Read ahead size can not be changed while reader is in use");
+
+            this.readAheadSize = readAheadSize;
+        }
     }
 
     /**
@@ -249,7 +372,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
             this.options = options;
 
-            updatePattern();
+            updateTokenizer();
         }
     }
 
@@ -264,7 +387,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
     public final synchronized void setDelimiterString(String delimiter) throws IOException {
         super.setDelimiterString(delimiter);
 
-        updatePattern();
+        updateTokenizer();
     }
 
     @Override
@@ -325,7 +448,10 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         if (hasNextRow()) {
             readNextLine();
             incrementRowIndex();
-            updateRowSize(line != null ? line.length : 0);
+            updateRowSize(line != null ? line.getTokenCount() : 0);
+
+            if (selectedColumnNames != null)
+                selectColumnsByName();
 
             return true;
         } else {
@@ -454,6 +580,238 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         return parseRowCellsAsBooleanArray(getColumnIndex(), getCurrentRowSize());
     }
 
+    /**
+     * Gets the indices of the selected columns
+     * 
+     * @return the indices of the selected columns in ascending order, or
+     *         <code>null</code> if all columns are read
+     */
+    public final int[] getSelectedColumns() {
+        return selectedColumns != null ? selectedColumns.clone() : null;
+    }
+
+    /**
+     * Selects the columns to be read. Unselected columns are skipped while
+     * the line is tokenised, so no tokens are created and no values are
+     * converted for them, and the rest of a line after the last selected
+     * column is not scanned. The cells of each row are the selected columns
+     * in ascending order, so column indices used for cell access and
+     * conversion types refer to the position in the selection.
+     * 
+     * The selection applies to the current row, if any, and all following
+     * rows. If the row size is not set externally, it is updated to the size
+     * of the current row after selection.
+     * 
+     * @param columns
+     *            the indices of the columns to be read, or <code>null</code>
+     *            to read all columns
+     * @throws IOException
+     *             if a column index is negative
+     */
+    @Override
+    public final void setSelectedColumns(int[] columns) throws IOException {
+        selectedColumnNames = null;
+
+        if (columns != null) {
+            int[] sorted = columns.clone();
+
+            Arrays.sort(sorted);
+
+            int count = 0;
+
+            for (int i = 0; i < sorted.length; ++i) {
+                if (sorted[i] < 0)
+                    throw new IOException("Invalid column index : " + sorted[i]);
+
+                if (count == 0 || sorted[count - 1] != sorted[i])
+                    sorted[count++] = sorted[i];
+            }
+
+            selectedColumns = count < sorted.length ? Arrays.copyOf(sorted, count) : sorted;
+        } else {
+            selectedColumns = null;
+        }
+
+        if (line != null) {
+            line.setColumnSelection(selectedColumns);
+            line.retokenise();
+
+            setColumnIndex(-1);
+
+            if (!isRowSizeSetExternally())
+                setCurrentRowSize(line.getTokenCount());
+        }
+
+        if (nextLine != null) {
+            nextLine.setColumnSelection(selectedColumns);
+            nextLine.retokenise();
+        }
+    }
+
+    /**
+     * Selects the columns to be read by name, see
+     * {@link #setSelectedColumns(int[])}. The names are found in the current
+     * row or, if no row has been read yet, in the first row, which is itself
+     * restricted to the selected columns.
+     * 
+     * @param names
+     *            the names of the columns to be read, or <code>null</code> to
+     *            read all columns
+     * @throws IOException
+     *             if a name is not found in the current row
+     */
+    @Override
+    public final void setSelectedColumnNames(String[] names) throws IOException {
+        if (names != null) {
+            selectedColumnNames = names.clone();
+
+            if (line != null)
+                selectColumnsByName();
+        } else {
+            setSelectedColumns(null);
+        }
+    }
+
+    /**
+     * Gets the buffer holding the characters of the current row. The cells of
+     * the row can be read directly from the buffer using
+     * {@link #getCellOffset(int)} and {@link #getCellLength(int)}, for example
+     * with {@link ConversionUtilities#convertToDouble(char[], int, int)},
+     * without creating a string for each cell. The buffer is shared and is
+     * only valid until the next call to {@link #nextRow()}.
+     *
+     * @return the buffer holding the characters of the current row
+     * @throws IOException
+     *             if the reader is before the first row
+     */
+    public final char[] getRowBuffer() throws IOException {
+        if (line == null)
+            throw new IOException("Reader before first row!");
+
+        return line.getChars();
+    }
+
+    /**
+     * Gets the offset in the row buffer of the cell at the current column
+     *
+     * @return the offset in the row buffer of the current cell
+     * @throws IOException
+     *             if the reader is before the first row
+     */
+    public final int getCellOffset() throws IOException {
+        return getCellOffset(getColumnIndex());
+    }
+
+    /**
+     * Gets the number of characters in the row buffer of the cell at the
+     * current column
+     *
+     * @return the number of characters of the current cell
+     * @throws IOException
+     *             if the reader is before the first row
+     */
+    public final int getCellLength() throws IOException {
+        return getCellLength(getColumnIndex());
+    }
+
+    /**
+     * Gets the offset in the row buffer of a cell in the current row. Quotes
+     * are excluded from the cell if {@link #REMOVE_QUOTES} is set and leading
+     * white space if {@link #REMOVE_WHITE_SPACE} is set. Cells missing from
+     * the end of the row have an offset and length of zero.
+     *
+     * @param index
+     *            the column index of the cell
+     * @return the offset in the row buffer of the cell
+     * @throws IOException
+     *             if the reader is before the first row or the index is
+     *             negative
+     */
+    public final int getCellOffset(int index) throws IOException {
+        checkCellIndex(index);
+
+        if (index < line.getTokenCount()) {
+            int start = line.getTokenStart(index);
+
+            if (hasOption(REMOVE_WHITE_SPACE)) {
+                int end = line.getTokenEnd(index);
+                char[] chars = line.getChars();
+
+                while (start < end && chars[start] <= ' ')
+                    ++start;
+            }
+
+            return start;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets the number of characters in the row buffer of a cell in the current
+     * row. Trailing white space is excluded from the cell if
+     * {@link #REMOVE_WHITE_SPACE} is set.
+     *
+     * @param index
+     *            the column index of the cell
+     * @return the number of characters of the cell
+     * @throws IOException
+     *             if the reader is before the first row or the index is
+     *             negative
+     */
+    public final int getCellLength(int index) throws IOException {
+        checkCellIndex(index);
+
+        if (index < line.getTokenCount()) {
+            int end = line.getTokenEnd(index);
+
+            if (hasOption(REMOVE_WHITE_SPACE)) {
+                int start = getCellOffset(index);
+                char[] chars = line.getChars();
+
+                while (end > start && chars[end - 1] <= ' ')
+                    --end;
+
+                return end - start;
+            } else {
+                return end - line.getTokenStart(index);
+            }
+        } else {
+            return 0;
+        }
+    }
+
+    private void selectColumnsByName() throws IOException {
+        String[] names = selectedColumnNames;
+
+        // names are matched against the whole row
+        if (selectedColumns != null)
+            setSelectedColumns(null);
+
+        int[] columns = new int[names.length];
+
+        for (int i = 0; i < names.length; ++i) {
+            columns[i] = -1;
+
+            for (int j = 0; columns[i] < 0 && j < line.getTokenCount(); ++j)
+                if (names[i] != null && names[i].equals(parseCellAsString(j)))
+                    columns[i] = j;
+
+            if (columns[i] < 0)
+                throw new IOException("Column not found : " + names[i]);
+        }
+
+        setSelectedColumns(columns);
+    }
+
+    private void checkCellIndex(int index) throws IOException {
+        if (line == null)
+            throw new IOException("Reader before first row!");
+
+        if (index < 0)
+            throw new IOException("Can not parse cell position " + getRowIndex() + "," + index);
+    }
+
     private Object parseValue(String text, int rowIndex, int columnIndex) throws IOException {
         try {
             return convertValue(text);
@@ -463,10 +821,10 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         }
     }
 
-    private Object parseValue(String text, int rowIndex, int columnIndex, int conversionTypes)
+    private Object parseValue(String text, int rowIndex, int columnIndex, ValueConverter converter)
         throws IOException {
         try {
-            return convertValue(text, conversionTypes);
+            return converter.convert(text);
         } catch (Exception e) {
             throw new IOException("Can not parse cell position " + rowIndex + "," + columnIndex + " due to "
                 + e.getLocalizedMessage(), e);
@@ -477,10 +835,6 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         return ConversionUtilities.convertToObject(text);
     }
 
-    private Object convertValue(String text, int dataTypes) throws ConversionException {
-        return ConversionUtilities.convertToObject(text, dataTypes);
-    }
-
     /**
      * Initialises the reader.
      * 
@@ -500,8 +854,23 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
         conversionTypesArray = null;
 
-        updatePattern();
+        converters = null;
+
+        updateTokenizer();
 
+        openSource();
+    }
+
+    /**
+     * Opens the source of the lines to be read, called once when the reader is
+     * initialised.
+     * 
+     * @throws FileNotFoundException
+     *             if the file to read is not found
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    protected void openSource() throws FileNotFoundException, IOException {
         if (getPathReference() != null)
             initialiseBufferedReader(getBufferReader(getPathReference()));
         else if (getPath() != null)
@@ -511,6 +880,55 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         else
             throw new IOException("Unable to initialise reader");
     }
+
+    /**
+     * Checks to see if there are more lines to be read from the source
+     * 
+     * @return <code>true</code> if there are more lines to be read
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    protected boolean hasMoreLines() throws IOException {
+        return bufferedReader != null && bufferedReader.ready();
+    }
+
+    /**
+     * Reads the next line from the source, with leading and trailing white
+     * space removed, and tokenises it
+     * 
+     * @param tokenizer
+     *            the tokenizer for the line
+     * @return <code>true</code> if a line was read, <code>false</code> if the
+     *         end of the source has been reached
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    protected boolean readLine(TextLineTokenizer tokenizer) throws IOException {
+        String line = bufferedReader.readLine();
+
+        if (line != null) {
+            tokenizer.tokenise(line.trim());
+
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the source of the lines being read
+     * 
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    protected void closeSource() throws IOException {
+        try {
+            if (bufferedReader != null)
+                bufferedReader.close();
+        } finally {
+            bufferedReader = null;
+        }
+    }
     
     @Override
     protected final void updateRowSize(int rowSize) {
@@ -529,113 +947,227 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
      * @throws IOException
      */
     private void readNextLine() throws IOException {
+        if (readAheadSize > 0) {
+            readNextLineAhead();
+
+            return;
+        }
+
+        if (line != null)
+            spareLine = line;
+
         line = nextLine;
         nextLine = null;
         setColumnIndex(-1);
 
-        while (bufferedReader.ready() && nextLine == null) {
+        while (hasMoreLines() && nextLine == null) {
             nextLine = readLine();
 
             incrementRowPosition();
+
+            if (nextLine != null && rowsToSkip > 0) {
+                spareLine = nextLine;
+                nextLine = null;
+
+                --rowsToSkip;
+            }
         }
     }
 
     /**
-     * @return a tokenised version of the next line, or <code>null if the next
-     *         line is a comment or an empty line when not in strict mode
+     * Moves on to the next line read by the read ahead thread, returning the
+     * tokenizer of the current line to the thread for reuse
      * 
      * @throws IOException
+     *             if the read ahead thread failed to read a line
      */
-    private String[] readLine() throws IOException {
-        String line = bufferedReader.readLine();
+    private void readNextLineAhead() throws IOException {
+        if (line != null)
+            freeRows.offer(line);
 
-        if (line != null) {
-            // ignore any commented record or empty lines if not in strict mode
-            if (((line.trim().length() == 0 && isInStrictMode())
-                || (getCommentString() != null && line.trim().startsWith(getCommentString())))) {
-                return null;
-            } else {
-                return parseLine(line.trim());
-            }
-        } else {
-            return null ;
+        line = nextLine;
+        nextLine = null;
+        setColumnIndex(-1);
+
+        if (hasReadAheadRow()) {
+            nextLine = readAheadRow;
+            readAheadRow = null;
+
+            // counts the skipped lines as when reading sequentially
+            setRowPosition(getRowPosition() + nextLine.getLineCount());
+        } else if (readAheadTrailingLines > 0) {
+            setRowPosition(getRowPosition() + readAheadTrailingLines);
+
+            readAheadTrailingLines = 0;
         }
-    }
 
-    private String[] parseLine(String line) {
+        if (nextLine == null && readAheadException != null) {
+            IOException exception = readAheadException;
 
-        // makes sure it parses the last token, not sure if there is better option
-        //line = line + getDelimiterString() ; 
-        
-        Matcher matcher = pattern.matcher(line);
+            readAheadException = null;
 
-        List<String> tokens = new LinkedList<String>();
-        
-        if (line.startsWith(getDelimiterString())) {
-            tokens.add("");
+            throw new IOException(exception.getLocalizedMessage(), exception);
         }
-        
-        if (hasOption(REMOVE_QUOTES)) { // 3 groups
-            if (hasOption(IGNORE_MULTIPLE_DELIMITERS)) {
-                while (matcher.find()) {
-                    if (matcher.group(1) != null) {
-                        // Add double-quoted string without the quotes
-                        tokens.add(matcher.group(1));
-                    } else if (matcher.group(2) != null) {
-                        // Add single-quoted string without the quotes
-                        tokens.add(matcher.group(2));
-                    } else if (matcher.group(3) != null) {
-                        // Add unquoted token
-                        tokens.add(matcher.group(3));
+    }
+
+    /**
+     * Waits if necessary for the read ahead thread to read the next row
+     * 
+     * @return <code>true</code> if there is another row
+     * @throws IOException
+     *             if interrupted while waiting
+     */
+    private boolean hasReadAheadRow() throws IOException {
+        if (readAheadRow == null && !endOfReadAhead) {
+            if (readAheadThread == null)
+                startReadAhead();
+
+            try {
+                TextLineTokenizer row = readAheadRows.take();
+
+                if (row != END_OF_ROWS) {
+                    // the selection may have changed since the row was read
+                    if (!row.hasColumnSelection(selectedColumns)) {
+                        row.setColumnSelection(selectedColumns);
+                        row.retokenise();
                     }
-                } 
-            } else {
-                while (matcher.find()) { // 4 groups
-                    if (matcher.group(1) != null) {
-                        // Add double-quoted string without the quotes
-                        tokens.add(matcher.group(1));
-                    } else if (matcher.group(2) != null) {
-                        // Add single-quoted string without the quotes
-                        tokens.add(matcher.group(2));
-                    } else if (matcher.group(3) != null) {
-                        // Add unquoted token
-                        tokens.add(matcher.group(3));
-                    } else if (matcher.group(4) != null) {
-                        // 2 or more delimiters together, add space for each 'gap' 
-                        for (int i = 1 ; i < matcher.group(4).length() ; ++i) {
-                            tokens.add("");
-                        }
-                    } 
-                } 
+
+                    readAheadRow = row;
+                } else {
+                    endOfReadAhead = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new IOException("Interrupted while waiting for next row", e);
             }
-        } else {
-            if (hasOption(IGNORE_MULTIPLE_DELIMITERS)) { // 1 group
-                while (matcher.find()) {
-                    if (matcher.group(1) != null) {
-                        // Add unquoted token
-                        tokens.add(matcher.group(1));
+        }
+
+        return readAheadRow != null;
+    }
+
+    private void startReadAhead() {
+        readAheadRows = new ArrayBlockingQueue<TextLineTokenizer>(readAheadSize + 1);
+        freeRows = new ArrayBlockingQueue<TextLineTokenizer>(readAheadSize + HELD_ROWS);
+
+        for (int i = 0; i < readAheadSize + HELD_ROWS; ++i)
+            freeRows.add(new TextLineTokenizer(getDelimiterString(), options));
+
+        readAheadThread = new Thread(() -> readAhead(), "TextFileRowReader read ahead");
+
+        readAheadThread.setDaemon(true);
+        readAheadThread.start();
+    }
+
+    /**
+     * Reads and tokenises lines on the read ahead thread until the end of the
+     * source, an error or until interrupted
+     */
+    private void readAhead() {
+        try {
+            TextLineTokenizer tokenizer;
+            boolean read;
+            int lines;
+
+            while (!Thread.currentThread().isInterrupted()) {
+                tokenizer = freeRows.take();
+                read = false;
+                lines = 0;
+
+                tokenizer.setColumnSelection(selectedColumns);
+
+                while (!read && hasMoreLines() && readLine(tokenizer)) {
+                    ++lines;
+
+                    read = !isSkipped(tokenizer);
+
+                    if (read && rowsToSkip > 0) {
+                        read = false;
+
+                        --rowsToSkip;
                     }
-                } 
-            } else {
-                while (matcher.find()) {
-                    if (matcher.group(1) != null) { // 2 groups
-                        // Add unquoted token
-                        tokens.add(matcher.group(1));
-                    } else if (matcher.group(2) != null) {
-                        // 2 or more delimiters together, add space for each 'gap' 
-                        for (int i = 1 ; i < matcher.group(2).length() ; ++i) {
-                            tokens.add("");
-                        }
-                    } 
-                } 
+                }
+
+                if (read) {
+                    tokenizer.setLineCount(lines);
+
+                    readAheadRows.put(tokenizer);
+                } else {
+                    readAheadTrailingLines = lines;
+
+                    readAheadRows.put(END_OF_ROWS);
+
+                    return;
+                }
             }
+        } catch (IOException e) {
+            readAheadException = e;
+
+            try {
+                readAheadRows.put(END_OF_ROWS);
+            } catch (InterruptedException interruptedException) {
+                // closing
+            }
+        } catch (InterruptedException e) {
+            // closing
         }
-        
-        if (matcher.hitEnd() && line.endsWith(getDelimiterString())) {
-            tokens.add("");
+    }
+
+    private void stopReadAhead() {
+        if (readAheadThread != null) {
+            readAheadThread.interrupt();
+
+            try {
+                readAheadThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            endOfReadAhead = true;
+            readAheadRow = null;
         }
+    }
 
-        return tokens.toArray(new String[tokens.size()]);
+    /**
+     * Checks if a line is a comment, or is empty when in strict mode
+     * 
+     * @param tokenizer
+     *            the tokenised line
+     * @return <code>true</code> if the line is skipped
+     */
+    private boolean isSkipped(TextLineTokenizer tokenizer) {
+        return (tokenizer.getLength() == 0 && isInStrictMode())
+            || (getCommentString() != null && tokenizer.startsWith(getCommentString()));
+    }
+
+    /**
+     * @return a tokenised version of the next line, or <code>null if the next
+     *         line is a comment or an empty line when not in strict mode
+     * 
+     * @throws IOException
+     */
+    private TextLineTokenizer readLine() throws IOException {
+        TextLineTokenizer tokenizer = spareLine != null ? spareLine
+            : new TextLineTokenizer(getDelimiterString(), options);
+
+        spareLine = null;
+
+        tokenizer.setColumnSelection(selectedColumns);
+
+        if (readLine(tokenizer)) {
+            // ignore any commented record or empty lines if not in strict mode
+            if (isSkipped(tokenizer)) {
+                spareLine = tokenizer;
+
+                return null;
+            } else {
+                return tokenizer;
+            }
+        } else {
+            spareLine = tokenizer;
+
+            return null ;
+        }
     }
 
     /**
@@ -651,27 +1183,10 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         this.bufferedReader = bufferedReader;
     }
 
-    private final void updatePattern() {
-        // TODO need to check for special characters
-        String regex;
-
-        String delimiter = getDelimiterString();
-
-        if (hasOption(REMOVE_QUOTES)) {
-            if (hasOption(IGNORE_MULTIPLE_DELIMITERS)) {
-                regex = "[ ]*\"([^\"]*)\"[ ]*["+ delimiter +"]?|[ ]*'([^']*)'[ ]*["+ delimiter +"]?|([^"+ delimiter +"\"']+)" ;
-            } else {
-                regex = "[ ]*\"([^\"]*)\"[ ]*["+ delimiter +"]?|[ ]*'([^']*)'[ ]*["+ delimiter +"]?|([^"+ delimiter +"\"']+)|(["+ delimiter +"]{2,})" ;
-            }
-        } else {
-            if (hasOption(IGNORE_MULTIPLE_DELIMITERS)) {
-                regex = "([^" + delimiter + "]+)|(["+ delimiter +"])";
-            } else {
-                regex = "([^" + delimiter + "]+)|(["+ delimiter +"]{2,})";
-            }
-        }
-
-        pattern = Pattern.compile(regex, Pattern.DOTALL);
+    private final void updateTokenizer() {
+        // tokenizers are created on demand with the current delimiter and
+        // options
+        spareLine = null;
     }
 
     protected String convertToken(String string) {
@@ -718,6 +1233,52 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
     public final void setDefaultConversionTypes(int defaultConversionTypes) {
         this.defaultConversionTypes = defaultConversionTypes;
+
+        converters = null;
+    }
+
+    /**
+     * Gets the value read for missing int cells
+     *
+     * @return the value read for missing int cells
+     */
+    public final int getDefaultInt() {
+        return defaultInt;
+    }
+
+    /**
+     * Sets the value read for missing int cells, which are empty or blank
+     * cells unless {@link #PARSE_EMPTY_STRINGS} is set, and any invalid cells
+     * if {@link #INVALID_NUMBERS_AS_MISSING} is set. The default is
+     * <code>0</code>.
+     *
+     * @param defaultInt
+     *            the value read for missing int cells
+     */
+    public final void setDefaultInt(int defaultInt) {
+        this.defaultInt = defaultInt;
+    }
+
+    /**
+     * Gets the value read for missing double cells
+     *
+     * @return the value read for missing double cells
+     */
+    public final double getDefaultDouble() {
+        return defaultDouble;
+    }
+
+    /**
+     * Sets the value read for missing double cells, which are empty or blank
+     * cells unless {@link #PARSE_EMPTY_STRINGS} is set, and any invalid cells
+     * if {@link #INVALID_NUMBERS_AS_MISSING} is set. The default is
+     * <code>0.0</code>, {@link Double#NaN} can be used to mark missing cells.
+     *
+     * @param defaultDouble
+     *            the value read for missing double cells
+     */
+    public final void setDefaultDouble(double defaultDouble) {
+        this.defaultDouble = defaultDouble;
     }
 
     public final int getConversionTypes(int index) {
@@ -747,6 +1308,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
     public final void setAllConversionTypes(int[] conversionTypes) {
         conversionTypesArray = null;
+        converters = null;
         conversionTypesCount = conversionTypes.length;
         for (int i = 0; i < conversionTypes.length; ++i)
             conversionTypesMap.put(i, conversionTypes[i]);
@@ -756,6 +1318,8 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         if (index >= 0) {
             conversionTypesMap.put(index, conversionTypes);
 
+            converters = null;
+
             if (index >= conversionTypesCount) {
                 conversionTypesCount = index + 1;
                 conversionTypesArray = null;
@@ -765,13 +1329,27 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         }
     }
 
+    private ValueConverter getConverter(int index) {
+        if (converters == null) {
+            converters = new ValueConverter[conversionTypesCount];
+
+            for (int i = 0; i < conversionTypesCount; ++i)
+                converters[i] = ValueConverter.getConverter(getConversionTypes(i));
+        }
+
+        if (index < converters.length)
+            return converters[index];
+        else
+            return ValueConverter.getConverter(defaultConversionTypes);
+    }
+
     private Object parseCell(int index) throws IOException {
-        if (line != null && index < line.length) {
+        if (line != null && index < line.getTokenCount()) {
 
             if (conversionTypesCount > 0) {
-                return parseValue(convertToken(line[index]), getRowIndex(), index, getConversionTypes(index));
+                return parseValue(convertToken(line.getToken(index)), getRowIndex(), index, getConverter(index));
             } else {
-                return parseValue(convertToken(line[index]), getRowIndex(), index);
+                return parseValue(convertToken(line.getToken(index)), getRowIndex(), index);
             }
         } else {
             return null;
@@ -781,7 +1359,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
     private String parseCellAsString(int index) throws IOException {
         if (line != null) {
             try {
-                return convertToken(line[index]);
+                return convertToken(line.getToken(index));
             } catch (Exception e) {
                 throw new IOException("Can not parse cell position " + getRowIndex() + "," + index
                     + " due to " + e.getLocalizedMessage(), e);
@@ -791,14 +1369,21 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         }
     }
 
+    // numbers are parsed directly from the row buffer, so that no string or
+    // boxed value is created for each cell
     private int parseCellAsInt(int index) throws IOException {
         if (line != null) {
             try {
-                Integer value = ConversionUtilities.convertToInteger(convertTokenWithoutTrim(line[index]));
-                if (value != null)
-                    return (int) value;
-                else
+                char[] chars = line.getChars();
+                int start = line.getTokenStart(index);
+                int length = line.getTokenEnd(index) - start;
+
+                if (isMissingCell(chars, start, length))
                     return defaultInt;
+                else if (hasOption(INVALID_NUMBERS_AS_MISSING))
+                    return ConversionUtilities.parseInt(chars, start, length, defaultInt);
+                else
+                    return ConversionUtilities.convertToInt(chars, start, length);
             } catch (Exception e) {
                 throw new IOException("Can not parse cell position " + getRowIndex() + "," + index
                     + " due to " + e.getLocalizedMessage(), e);
@@ -811,7 +1396,20 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
     private Integer parseCellAsIntegerObject(int index) throws IOException {
         if (line != null) {
             try {
-                return ConversionUtilities.convertToInteger(convertTokenWithoutTrim(line[index]));
+                char[] chars = line.getChars();
+                int start = line.getTokenStart(index);
+                int length = line.getTokenEnd(index) - start;
+
+                if (isMissingCell(chars, start, length)) {
+                    return null;
+                } else if (hasOption(INVALID_NUMBERS_AS_MISSING)) {
+                    // the smallest long is never a valid int
+                    long value = ConversionUtilities.parseLong(chars, start, length, Long.MIN_VALUE);
+
+                    return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : null;
+                } else {
+                    return ConversionUtilities.convertToInt(chars, start, length);
+                }
             } catch (Exception e) {
                 throw new IOException("Can not parse cell position " + getRowIndex() + "," + index
                     + " due to " + e.getLocalizedMessage(), e);
@@ -824,11 +1422,16 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
     private double parseCellAsDouble(int index) throws IOException {
         if (line != null) {
             try {
-                Double value = ConversionUtilities.convertToDouble(convertTokenWithoutTrim(line[index]));
-                if (value != null)
-                    return (double) value;
-                else
+                char[] chars = line.getChars();
+                int start = line.getTokenStart(index);
+                int length = line.getTokenEnd(index) - start;
+
+                if (isMissingCell(chars, start, length))
                     return defaultDouble;
+                else if (hasOption(INVALID_NUMBERS_AS_MISSING))
+                    return ConversionUtilities.parseDouble(chars, start, length, defaultDouble);
+                else
+                    return ConversionUtilities.convertToDouble(chars, start, length);
             } catch (Exception e) {
                 throw new IOException("Can not parse cell position " + getRowIndex() + "," + index
                     + " due to " + e.getLocalizedMessage(), e);
@@ -840,8 +1443,24 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
     private Double parseCellAsDoubleObject(int index) throws IOException {
         if (line != null) {
+            char[] chars = line.getChars();
+            int start;
+            int length;
+
             try {
-                return ConversionUtilities.convertToDouble(convertTokenWithoutTrim(line[index]));
+                start = line.getTokenStart(index);
+                length = line.getTokenEnd(index) - start;
+
+                if (isMissingCell(chars, start, length))
+                    return null;
+                else
+                    return ConversionUtilities.convertToDouble(chars, start, length);
+            } catch (ConversionException e) {
+                if (hasOption(INVALID_NUMBERS_AS_MISSING))
+                    return null;
+
+                throw new IOException("Can not parse cell position " + getRowIndex() + "," + index
+                    + " due to " + e.getLocalizedMessage(), e);
             } catch (Exception e) {
                 throw new IOException("Can not parse cell position " + getRowIndex() + "," + index
                     + " due to " + e.getLocalizedMessage(), e);
@@ -851,10 +1470,26 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         }
     }
 
+    /**
+     * Checks if a cell is missing, that is empty or blank, unless empty
+     * strings are parsed
+     */
+    private boolean isMissingCell(char[] chars, int start, int length) {
+        if (hasOption(PARSE_EMPTY_STRINGS))
+            return false;
+
+        int end = start + length;
+
+        while (start < end && chars[start] <= ' ')
+            ++start;
+
+        return start == end;
+    }
+
     private boolean parseCellAsBoolean(int index) throws IOException {
         if (line != null) {
             try {
-                Boolean value = ConversionUtilities.convertToBoolean(convertTokenWithoutTrim(line[index]));
+                Boolean value = ConversionUtilities.convertToBoolean(convertTokenWithoutTrim(line.getToken(index)));
                 if (value != null)
                     return (boolean) value;
                 else
@@ -871,7 +1506,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
     private Boolean parseCellAsBooleanObject(int index) throws IOException {
         if (line != null) {
             try {
-                return ConversionUtilities.convertToBoolean(convertTokenWithoutTrim(line[index]));
+                return ConversionUtilities.convertToBoolean(convertTokenWithoutTrim(line.getToken(index)));
             } catch (Exception e) {
                 throw new IOException("Can not parse cell position " + getRowIndex() + "," + index
                     + " due to " + e.getLocalizedMessage(), e);
@@ -885,7 +1520,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         ArrayList<Object> row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -894,20 +1529,20 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
                 if (conversionTypesCount > 0) {
                     if (hasOption(REMOVE_WHITE_SPACE)) {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithTrim(line[i]), getRowIndex(), i,
-                                getConversionTypes(i)));
+                            row.add(parseValue(convertTokenWithTrim(line.getToken(i)), getRowIndex(), i,
+                                getConverter(i)));
                     } else {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithoutTrim(line[i]), getRowIndex(), i));
+                            row.add(parseValue(convertTokenWithoutTrim(line.getToken(i)), getRowIndex(), i));
                     }
                 } else {
                     if (hasOption(REMOVE_WHITE_SPACE)) {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithTrim(line[i]), getRowIndex(), i,
-                                getConversionTypes(i)));
+                            row.add(parseValue(convertTokenWithTrim(line.getToken(i)), getRowIndex(), i,
+                                getConverter(i)));
                     } else {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithoutTrim(line[i]), getRowIndex(), i));
+                            row.add(parseValue(convertTokenWithoutTrim(line.getToken(i)), getRowIndex(), i));
                     }
                 }
 
@@ -919,20 +1554,20 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
                 if (conversionTypesCount > 0) {
                     if (hasOption(REMOVE_WHITE_SPACE)) {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithTrim(line[i]), getRowIndex(), i,
-                                getConversionTypes(i)));
+                            row.add(parseValue(convertTokenWithTrim(line.getToken(i)), getRowIndex(), i,
+                                getConverter(i)));
                     } else {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithoutTrim(line[i]), getRowIndex(), i));
+                            row.add(parseValue(convertTokenWithoutTrim(line.getToken(i)), getRowIndex(), i));
                     }
                 } else {
                     if (hasOption(REMOVE_WHITE_SPACE)) {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithTrim(line[i]), getRowIndex(), i,
-                                getConversionTypes(i)));
+                            row.add(parseValue(convertTokenWithTrim(line.getToken(i)), getRowIndex(), i,
+                                getConverter(i)));
                     } else {
                         for (int i = startIndex; i < size; ++i)
-                            row.add(parseValue(convertTokenWithoutTrim(line[i]), getRowIndex(), i));
+                            row.add(parseValue(convertTokenWithoutTrim(line.getToken(i)), getRowIndex(), i));
                     }
                 }
             }
@@ -947,7 +1582,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         ArrayList<String> row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -956,10 +1591,10 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
                     if (hasOption(REMOVE_WHITE_SPACE))
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithTrim(line[i]));
+                            row.add(convertTokenWithTrim(line.getToken(i)));
                     else
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithoutTrim(line[i]));
+                            row.add(convertTokenWithoutTrim(line.getToken(i)));
 
                     for (int i = size; i < requestedSize; ++i)
                         row.add(null);
@@ -968,10 +1603,10 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
                     if (hasOption(REMOVE_WHITE_SPACE))
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithTrim(line[i]));
+                            row.add(convertTokenWithTrim(line.getToken(i)));
                     else
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithoutTrim(line[i]));
+                            row.add(convertTokenWithoutTrim(line.getToken(i)));
                 }
             } else {
                 if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -979,10 +1614,10 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
                     if (hasOption(REMOVE_WHITE_SPACE))
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithTrim(line[i]));
+                            row.add(convertTokenWithTrim(line.getToken(i)));
                     else
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithoutTrim(line[i]));
+                            row.add(convertTokenWithoutTrim(line.getToken(i)));
 
                     for (int i = size; i < requestedSize; ++i)
                         row.add(null);
@@ -991,10 +1626,10 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
                     if (hasOption(REMOVE_WHITE_SPACE))
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithTrim(line[i]));
+                            row.add(convertTokenWithTrim(line.getToken(i)));
                     else
                         for (int i = startIndex; i < size; ++i)
-                            row.add(convertTokenWithoutTrim(line[i]));
+                            row.add(convertTokenWithoutTrim(line.getToken(i)));
                 }
             }
 
@@ -1009,7 +1644,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         ArrayList<Integer> row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1038,7 +1673,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         ArrayList<Double> row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1066,7 +1701,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         ArrayList<Boolean> row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1095,7 +1730,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         Object[] row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1107,20 +1742,20 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
             if (conversionTypesCount > 0) {
                 if (hasOption(REMOVE_WHITE_SPACE)) {
                     for (int i = startIndex; i < size; ++i)
-                        row[i - startIndex] = parseValue(convertTokenWithTrim(line[i]), getRowIndex(), i,
-                            getConversionTypes(i));
+                        row[i - startIndex] = parseValue(convertTokenWithTrim(line.getToken(i)), getRowIndex(), i,
+                            getConverter(i));
                 } else {
                     for (int i = startIndex; i < size; ++i)
-                        row[i - startIndex] = parseValue(convertTokenWithoutTrim(line[i]), getRowIndex(), i);
+                        row[i - startIndex] = parseValue(convertTokenWithoutTrim(line.getToken(i)), getRowIndex(), i);
                 }
             } else {
                 if (hasOption(REMOVE_WHITE_SPACE)) {
                     for (int i = startIndex; i < size; ++i)
-                        row[i - startIndex] = parseValue(convertTokenWithTrim(line[i]), getRowIndex(), i,
-                            getConversionTypes(i));
+                        row[i - startIndex] = parseValue(convertTokenWithTrim(line.getToken(i)), getRowIndex(), i,
+                            getConverter(i));
                 } else {
                     for (int i = startIndex; i < size; ++i)
-                        row[i - startIndex] = parseValue(convertTokenWithoutTrim(line[i]), getRowIndex(), i);
+                        row[i - startIndex] = parseValue(convertTokenWithoutTrim(line.getToken(i)), getRowIndex(), i);
                 }
             }
         } else {
@@ -1134,7 +1769,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         String[] row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1145,11 +1780,11 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
 
             if (this.hasOption(REMOVE_WHITE_SPACE)) {
                 for (int i = startIndex; i < size; ++i) {
-                    row[i - startIndex] = convertTokenWithTrim(line[i]);
+                    row[i - startIndex] = convertTokenWithTrim(line.getToken(i));
                 }
             } else {
                 for (int i = startIndex; i < size; ++i) {
-                    row[i - startIndex] = convertTokenWithoutTrim(line[i]);
+                    row[i - startIndex] = convertTokenWithoutTrim(line.getToken(i));
                 }
             }
         } else {
@@ -1163,7 +1798,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         int[] row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1185,7 +1820,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         double[] row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1207,7 +1842,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
         boolean[] row;
 
         if (line != null) {
-            int size = requestedSize < line.length ? requestedSize : line.length;
+            int size = requestedSize < line.getTokenCount() ? requestedSize : line.getTokenCount();
             int startIndex = firstIndex < 0 ? 0 : firstIndex >= size ? size : firstIndex;
 
             if (hasOption(ROWS_SAME_SIZE_AS_FIRST)) {
@@ -1244,7 +1879,7 @@ public class TextFileRowReader extends AbstractTextFileHandler implements RowRea
     private static final BufferedReader getBufferReader(Path path) throws FileNotFoundException, IOException {
         // TODO support for other Charsets
         if (path != null)
-            return Files.newBufferedReader(path);
+            return IOUtilities.newBufferedReader(path);
         else
             throw new FileNotFoundException("File object is null");
     }
@@ -20,18 +20,45 @@ import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 
 import uno.informatics.common.Constants;
 import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.io.IOUtilities;
 import uno.informatics.common.io.RowWriter;
 
+/**
+ * Writes rows of cells to a text file or stream, separated by the delimiter
+ * string. By default the writer is flushed after every row, which can be
+ * changed with {@link #setFlushPolicy(FlushPolicy, int)} so that many rows are
+ * written to the file or stream at a time.
+ * 
+ * @author Guy Davenport
+ */
 public class TextFileRowWriter extends AbstractTextFileHandler implements RowWriter {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     private BufferedWriter bufferedWriter;
 
+    // number of threads used to compress a gzip file
+    private int compressionParallelism = 1;
+
+    private FlushPolicy flushPolicy = FlushPolicy.ROWS;
+    private int flushInterval = 1;
+
+    // rows and characters written since the last flush
+    private int rowsSinceFlush;
+    private long charactersSinceFlush;
+
+    // the number of decimal places of doubles written as primitives
+    private int doublePrecision = DoubleFormatter.SHORTEST;
+
+    // reused to build each row written as a whole
+    private final StringBuilder rowBuilder = new StringBuilder();
+    private char[] rowCharacters = new char[256];
+
     private static final String BUFFERWRITER_NULL = "Buffer writer is undefined";
 
     /**
@@ -51,7 +78,8 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
     }
 
     /**
-     * Constructs an initialised reader using a file.
+     * Constructs an initialised reader using a file. If the file name ends
+     * with {@link IOUtilities#GZIP_EXTENSION} the file is gzip compressed.
      * 
      * @param path
      *            the Path to file to be written.
@@ -66,6 +94,32 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
         initialise();
     }
 
+    /**
+     * Constructs an initialised reader using a file. If the file name ends
+     * with {@link IOUtilities#GZIP_EXTENSION} the file is gzip compressed in
+     * blocks by the given number of threads, see
+     * {@link uno.informatics.common.io.ParallelGzipOutputStream}.
+     * 
+     * @param path
+     *            the Path to file to be written.
+     * @param compressionParallelism
+     *            the number of threads used to compress the file
+     * @throws FileNotFoundException
+     *             if the file to write is not found
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public TextFileRowWriter(Path path, int compressionParallelism) throws IOException, FileNotFoundException {
+        super(path);
+
+        if (compressionParallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        this.compressionParallelism = compressionParallelism;
+
+        initialise();
+    }
+
     public TextFileRowWriter(BufferedWriter bufferedWriter) throws IOException {
         super();
 
@@ -96,17 +150,84 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
         } catch (IOException e) {
 
         }
+
+        rowsSinceFlush = 0;
+        charactersSinceFlush = 0;
+    }
+
+    public final FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    public final int getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Sets when the writer is flushed, see
+     * {@link #setFlushPolicy(FlushPolicy, int)}. The interval is unchanged.
+     * 
+     * @param flushPolicy
+     *            when the writer is flushed
+     */
+    public final void setFlushPolicy(FlushPolicy flushPolicy) {
+        setFlushPolicy(flushPolicy, flushInterval);
+    }
+
+    /**
+     * Sets when the writer is flushed. The writer is always flushed when
+     * closed.
+     * 
+     * @param flushPolicy
+     *            when the writer is flushed
+     * @param flushInterval
+     *            the number of rows, for {@link FlushPolicy#ROWS}, or
+     *            characters, for {@link FlushPolicy#CHARACTERS}, written
+     *            between each flush. Ignored for {@link FlushPolicy#CLOSE}
+     */
+    public final void setFlushPolicy(FlushPolicy flushPolicy, int flushInterval) {
+        if (flushPolicy == null)
+            throw new IllegalArgumentException("Flush policy not defined");
+
+        if (flushInterval < 1)
+            throw new IllegalArgumentException("Invalid flush interval : " + flushInterval);
+
+        this.flushPolicy = flushPolicy;
+        this.flushInterval = flushInterval;
+    }
+
+    public final int getDoublePrecision() {
+        return doublePrecision;
+    }
+
+    /**
+     * Sets the number of decimal places of the doubles written by
+     * {@link #writeDoubleCell(double)} and {@link #writeRowCells(double[])}, for
+     * example when exporting a matrix. By default doubles are written in the
+     * shortest format that is read back as the same double, see
+     * {@link DoubleFormatter}. Doubles written as objects are not affected.
+     * 
+     * @param doublePrecision
+     *            the number of decimal places, from 0 to
+     *            {@link DoubleFormatter#MAX_PRECISION}, or
+     *            {@link DoubleFormatter#SHORTEST} for the shortest format
+     */
+    public final void setDoublePrecision(int doublePrecision) {
+        if (doublePrecision != DoubleFormatter.SHORTEST)
+            DoubleFormatter.checkPrecision(doublePrecision);
+
+        this.doublePrecision = doublePrecision;
     }
 
     @Override
     public final void writeCellsAsArray(Object[][] cells) throws IOException {
-        if (cells != null) {
-            writeRowCellsAsArray(cells[0]);
+        if (cells != null && cells.length > 0) {
+            writeRow(cells[0]);
 
             for (int i = 1; i < cells.length; ++i) {
                 newRow();
 
-                writeRowCellsAsArray(cells[i]);
+                writeRow(cells[i]);
             }
         }
     }
@@ -117,56 +238,132 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
             Iterator<List<Object>> iterator = cells.iterator();
 
             if (iterator.hasNext()) {
-                writeRowCells(iterator.next());
+                writeRow(iterator.next());
 
                 while (iterator.hasNext()) {
                     newRow();
 
-                    writeRowCells(iterator.next());
+                    writeRow(iterator.next());
                 }
             }
-
-            bufferedWriter.flush();
         }
     }
 
     @Override
     public final void writeRowCellsAsArray(Object[] cells) throws IOException {
+        if (cells != null)
+            writeRow(cells);
+    }
+
+    @Override
+    public final void writeRowCells(List<Object> cells) throws IOException {
+        if (cells != null)
+            writeRow(cells);
+    }
+
+    @Override
+    public final void writeCell(Object cell) throws IOException {
+        write(convertValue(cell));
+    }
+
+    /**
+     * Writes the cells of the current row from an array of doubles, in the
+     * format set by {@link #setDoublePrecision(int)}, without creating an
+     * object or a string for each value
+     * 
+     * @param cells
+     *            the values of the cells
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public final void writeRowCells(double[] cells) throws IOException {
         if (cells != null) {
-            writeCell(cells[0]);
+            if (cells.length > 0) {
+                rowBuilder.setLength(0);
 
-            for (int i = 1; i < cells.length; ++i) {
-                newColumn();
+                appendDouble(cells[0]);
+
+                String delimiter = getDelimiterString();
 
-                writeCell(cells[i]);
+                for (int i = 1; i < cells.length; ++i) {
+                    rowBuilder.append(delimiter);
+                    appendDouble(cells[i]);
+
+                    incrementColumnIndex();
+                }
+
+                write(rowBuilder);
             }
 
-            bufferedWriter.flush();
+            rowWritten();
         }
     }
 
-    @Override
-    public final void writeRowCells(List<Object> cells) throws IOException {
+    /**
+     * Writes the cells of the current row from an array of integers, without
+     * creating an object or a string for each value
+     * 
+     * @param cells
+     *            the values of the cells
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public final void writeRowCells(int[] cells) throws IOException {
         if (cells != null) {
-            Iterator<Object> iterator = cells.iterator();
+            if (cells.length > 0) {
+                rowBuilder.setLength(0);
 
-            if (iterator.hasNext()) {
-                writeCell(iterator.next());
+                rowBuilder.append(cells[0]);
 
-                while (iterator.hasNext()) {
-                    newColumn();
+                String delimiter = getDelimiterString();
+
+                for (int i = 1; i < cells.length; ++i) {
+                    rowBuilder.append(delimiter);
+                    rowBuilder.append(cells[i]);
 
-                    writeCell(iterator.next());
+                    incrementColumnIndex();
                 }
+
+                write(rowBuilder);
             }
 
-            bufferedWriter.flush();
+            rowWritten();
         }
     }
 
-    @Override
-    public final void writeCell(Object cell) throws IOException {
-        bufferedWriter.write(convertValue(cell));
+    /**
+     * Writes a double to the current cell, in the format set by
+     * {@link #setDoublePrecision(int)}. This is not an overload of
+     * {@link #writeCell(Object)}, so that other primitives, such as longs and
+     * floats, are still written as objects.
+     * 
+     * @param cell
+     *            the value of the cell
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public final void writeDoubleCell(double cell) throws IOException {
+        rowBuilder.setLength(0);
+
+        appendDouble(cell);
+
+        write(rowBuilder);
+    }
+
+    /**
+     * Writes an integer to the current cell, without boxing it as an object
+     * 
+     * @param cell
+     *            the value of the cell
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public final void writeIntCell(int cell) throws IOException {
+        rowBuilder.setLength(0);
+
+        rowBuilder.append(cell);
+
+        write(rowBuilder);
     }
 
     protected String convertValue(Object value) {
@@ -179,7 +376,7 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
 
     @Override
     public final boolean newRow() throws IOException {
-        bufferedWriter.newLine();
+        write(LINE_SEPARATOR);
 
         incrementRowIndex();
         resetCellIndex();
@@ -189,13 +386,112 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
 
     @Override
     public final boolean newColumn() throws IOException {
-        bufferedWriter.write(getDelimiterString());
+        write(getDelimiterString());
 
         incrementColumnIndex();
 
         return true;
     }
 
+    /**
+     * Writes the cells of a row as a single string, built in a reused builder,
+     * and then flushes the writer if required by the flush policy
+     */
+    private void writeRow(Object[] cells) throws IOException {
+        if (cells.length > 0) {
+            rowBuilder.setLength(0);
+
+            rowBuilder.append(convertValue(cells[0]));
+
+            String delimiter = getDelimiterString();
+
+            for (int i = 1; i < cells.length; ++i) {
+                rowBuilder.append(delimiter);
+                rowBuilder.append(convertValue(cells[i]));
+
+                incrementColumnIndex();
+            }
+
+            write(rowBuilder);
+        }
+
+        rowWritten();
+    }
+
+    private void writeRow(List<Object> cells) throws IOException {
+        Iterator<Object> iterator = cells.iterator();
+
+        if (iterator.hasNext()) {
+            rowBuilder.setLength(0);
+
+            rowBuilder.append(convertValue(iterator.next()));
+
+            String delimiter = getDelimiterString();
+
+            while (iterator.hasNext()) {
+                rowBuilder.append(delimiter);
+                rowBuilder.append(convertValue(iterator.next()));
+
+                incrementColumnIndex();
+            }
+
+            write(rowBuilder);
+        }
+
+        rowWritten();
+    }
+
+    private void appendDouble(double value) {
+        if (doublePrecision == DoubleFormatter.SHORTEST)
+            DoubleFormatter.appendShortest(rowBuilder, value);
+        else
+            DoubleFormatter.appendFixed(rowBuilder, value, doublePrecision);
+    }
+
+    private void write(String value) throws IOException {
+        bufferedWriter.write(value);
+
+        charactersSinceFlush += value.length();
+    }
+
+    private void write(StringBuilder value) throws IOException {
+        int length = value.length();
+
+        if (length > rowCharacters.length)
+            rowCharacters = new char[Math.max(length, rowCharacters.length * 2)];
+
+        // avoids the copy to a string made by Writer.append
+        value.getChars(0, length, rowCharacters, 0);
+
+        bufferedWriter.write(rowCharacters, 0, length);
+
+        charactersSinceFlush += length;
+    }
+
+    private void rowWritten() throws IOException {
+        ++rowsSinceFlush;
+
+        switch (flushPolicy) {
+            case ROWS:
+                if (rowsSinceFlush >= flushInterval)
+                    flushBuffer();
+                break;
+            case CHARACTERS:
+                if (charactersSinceFlush >= flushInterval)
+                    flushBuffer();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        bufferedWriter.flush();
+
+        rowsSinceFlush = 0;
+        charactersSinceFlush = 0;
+    }
+
     /**
      * Initialises the writer.
      * 
@@ -210,7 +506,7 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
         if (getPathReference() != null)
             initialiseBufferedWriter(getBufferedWriter(getPathReference()));
         else if (getPath() != null)
-            initialiseBufferedWriter(getBufferedWriter(getPath()));
+            initialiseBufferedWriter(getBufferedWriter(getPath(), compressionParallelism));
         else if (bufferedWriter != null)
             initialiseBufferedWriter(bufferedWriter);
         else
@@ -246,10 +542,10 @@ public class TextFileRowWriter extends AbstractTextFileHandler implements RowWri
      * @exception IOException
      *                if the reader can not open an inputstream to the file
      */
-    private static final BufferedWriter getBufferedWriter(Path filePath)
+    private static final BufferedWriter getBufferedWriter(Path filePath, int compressionParallelism)
         throws FileNotFoundException, IOException {
         if (filePath != null)
-            return Files.newBufferedWriter(filePath);
+            return IOUtilities.newBufferedWriter(filePath, compressionParallelism);
         else
             throw new FileNotFoundException("File object is null");
     }
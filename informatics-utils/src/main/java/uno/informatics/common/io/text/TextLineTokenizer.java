@@ -0,0 +1,486 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single pass tokeniser for a line of delimited text. Tokens are recorded as
+ * start and end offsets into a character buffer that is reused from line to
+ * line, so no strings are created until a token is actually requested.
+ *
+ * The tokeniser produces the same tokens as the regular expressions
+ * previously used by {@link TextFileRowReader} for all combinations of
+ * {@link TextFileRowReader#REMOVE_QUOTES} and
+ * {@link TextFileRowReader#IGNORE_MULTIPLE_DELIMITERS}. Any character in the
+ * delimiter string is treated as a delimiter.
+ *
+ * If a column selection is set, only the fields at the selected positions
+ * become tokens. Other fields are skipped without being recorded and the
+ * rest of the line is not scanned once the last selected field is found.
+ *
+ * @author Guy Davenport
+ */
+public class TextLineTokenizer {
+    private static final char SPACE = ' ';
+    private static final char DOUBLE_QUOTE = '"';
+    private static final char SINGLE_QUOTE = '\'';
+
+    private static final int INITIAL_LINE_SIZE = 256;
+    private static final int INITIAL_TOKEN_COUNT = 16;
+
+    private final String delimiter;
+    private final char delimiterChar;
+    private final boolean singleCharDelimiter;
+    private final boolean removeQuotes;
+    private final boolean ignoreMultipleDelimiters;
+
+    private char[] chars;
+    private int length;
+
+    // start and end offsets of each token, token i is at 2 * i and 2 * i + 1
+    private int[] bounds;
+    private int tokenCount;
+
+    // positions of the selected fields as last set, and the selected fields,
+    // or null if all fields are tokens
+    private int[] columns;
+    private boolean[] selected;
+
+    // the number of fields found so far in the line
+    private int fieldCount;
+
+    // the number of lines read to find the line, including the skipped lines
+    // before it, as counted by a reader reading ahead
+    private int lineCount;
+
+    /**
+     * Creates a tokeniser for the given delimiter and reader options
+     *
+     * @param delimiter
+     *            the delimiter string
+     * @param options
+     *            an int representing a bit array of {@link TextFileRowReader}
+     *            options
+     */
+    public TextLineTokenizer(String delimiter, int options) {
+        if (delimiter == null || delimiter.isEmpty())
+            throw new IllegalArgumentException("Delimiter not defined.");
+
+        this.delimiter = delimiter;
+        this.delimiterChar = delimiter.charAt(0);
+        this.singleCharDelimiter = delimiter.length() == 1;
+        this.removeQuotes = (options & TextFileRowReader.REMOVE_QUOTES) != 0;
+        this.ignoreMultipleDelimiters = (options & TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS) != 0;
+
+        chars = new char[INITIAL_LINE_SIZE];
+        bounds = new int[INITIAL_TOKEN_COUNT * 2];
+    }
+
+    /**
+     * Tokenises a line, replacing any tokens from the previous line
+     *
+     * @param line
+     *            the line to be tokenised
+     * @return the number of tokens found
+     */
+    public final int tokenise(String line) {
+        ensureCapacity(line.length());
+
+        length = line.length();
+
+        line.getChars(0, length, chars, 0);
+
+        return tokenise();
+    }
+
+    /**
+     * Tokenises a line of UTF-8 encoded bytes, replacing any tokens from the
+     * previous line. ASCII text is copied directly into the character buffer,
+     * without creating a string for the line.
+     *
+     * @param bytes
+     *            the byte buffer
+     * @param offset
+     *            the offset of the first byte of the line
+     * @param length
+     *            the number of bytes in the line
+     * @return the number of tokens found
+     */
+    public final int tokenise(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+
+        int i = 0;
+
+        while (i < length && bytes[offset + i] >= 0) {
+            chars[i] = (char) bytes[offset + i];
+            ++i;
+        }
+
+        if (i < length)
+            return tokenise(new String(bytes, offset, length, StandardCharsets.UTF_8));
+
+        this.length = length;
+
+        return tokenise();
+    }
+
+    /**
+     * Tokenises the last line again, for example after the column selection
+     * has changed
+     *
+     * @return the number of tokens found
+     */
+    public final int retokenise() {
+        return tokenise();
+    }
+
+    /**
+     * Sets the positions of the fields in a line that become tokens, which is
+     * applied from the next line tokenised
+     *
+     * @param columns
+     *            the positions of the selected fields in ascending order, or
+     *            <code>null</code> to select all fields. The array must not be
+     *            modified afterwards, since setting the same array again has
+     *            no effect.
+     */
+    public final void setColumnSelection(int[] columns) {
+        if (columns == this.columns)
+            return;
+
+        this.columns = columns;
+
+        if (columns != null) {
+            selected = new boolean[columns.length > 0 ? columns[columns.length - 1] + 1 : 0];
+
+            for (int column : columns)
+                selected[column] = true;
+        } else {
+            selected = null;
+        }
+    }
+
+    /**
+     * Checks if the given column selection is the one last set
+     *
+     * @param columns
+     *            the positions of the selected fields, or <code>null</code>
+     * @return <code>true</code> if the given array is the one last set by
+     *         {@link #setColumnSelection(int[])}
+     */
+    public final boolean hasColumnSelection(int[] columns) {
+        return this.columns == columns;
+    }
+
+    /**
+     * Gets the number of characters in the last line tokenised
+     *
+     * @return the number of characters in the last line tokenised
+     */
+    public final int getLength() {
+        return length;
+    }
+
+    /**
+     * Checks if the last line tokenised starts with the given prefix
+     *
+     * @param prefix
+     *            the prefix to check
+     * @return <code>true</code> if the last line tokenised starts with the
+     *         prefix
+     */
+    public final boolean startsWith(String prefix) {
+        return matches(0, prefix);
+    }
+
+    /**
+     * Gets the number of tokens in the last line tokenised
+     *
+     * @return the number of tokens in the last line tokenised
+     */
+    public final int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Gets the buffer holding the characters of the last line tokenised. The
+     * buffer is reused and will be overwritten by the next line.
+     *
+     * @return the shared character buffer
+     */
+    public final char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Gets the offset of the first character of a token in the buffer
+     *
+     * @param index
+     *            the index of the token
+     * @return the offset of the first character of a token
+     */
+    public final int getTokenStart(int index) {
+        checkIndex(index);
+
+        return bounds[index << 1];
+    }
+
+    /**
+     * Gets the offset after the last character of a token in the buffer
+     *
+     * @param index
+     *            the index of the token
+     * @return the offset after the last character of a token
+     */
+    public final int getTokenEnd(int index) {
+        checkIndex(index);
+
+        return bounds[(index << 1) + 1];
+    }
+
+    /**
+     * Gets a token as a string
+     *
+     * @param index
+     *            the index of the token
+     * @return the token as a string
+     */
+    public final String getToken(int index) {
+        checkIndex(index);
+
+        int start = bounds[index << 1];
+
+        return new String(chars, start, bounds[(index << 1) + 1] - start);
+    }
+
+    /**
+     * Gets all tokens of the last line tokenised as strings
+     *
+     * @return all tokens of the last line
+     */
+    public final String[] getTokens() {
+        String[] tokens = new String[tokenCount];
+
+        for (int i = 0; i < tokenCount; ++i)
+            tokens[i] = getToken(i);
+
+        return tokens;
+    }
+
+    final int getLineCount() {
+        return lineCount;
+    }
+
+    final void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    private int tokenise() {
+        tokenCount = 0;
+        fieldCount = 0;
+
+        if (length > 0 && matches(0, delimiter))
+            addField(0, 0);
+
+        if (removeQuotes)
+            scanWithQuotes();
+        else
+            scan();
+
+        if (length > 0 && !isComplete() && matches(length - delimiter.length(), delimiter))
+            addField(length, length);
+
+        return tokenCount;
+    }
+
+    /**
+     * Splits on delimiters. Runs of n delimiters give n - 1 empty tokens,
+     * unless multiple delimiters are ignored
+     */
+    private void scan() {
+        int position = 0;
+        int start;
+
+        while (position < length && !isComplete()) {
+            if (isDelimiter(chars[position])) {
+                start = position;
+
+                do {
+                    ++position;
+                } while (position < length && isDelimiter(chars[position]));
+
+                if (!ignoreMultipleDelimiters)
+                    for (int i = start + 1; i < position; ++i)
+                        addField(position, position);
+            } else {
+                start = position;
+
+                do {
+                    ++position;
+                } while (position < length && !isDelimiter(chars[position]));
+
+                addField(start, position);
+            }
+        }
+    }
+
+    /**
+     * Splits on delimiters, treating text between matching single or double
+     * quotes as one token without the quotes. A quoted token may be preceded
+     * and followed by spaces and absorbs one following delimiter. Unmatched
+     * quotes are dropped.
+     */
+    private void scanWithQuotes() {
+        int position = 0;
+        int next;
+        int start;
+
+        while (position < length && !isComplete()) {
+            next = scanQuoted(position, DOUBLE_QUOTE);
+
+            if (next < 0)
+                next = scanQuoted(position, SINGLE_QUOTE);
+
+            if (next >= 0) {
+                position = next;
+            } else if (isDelimiter(chars[position])) {
+                start = position;
+
+                do {
+                    ++position;
+                } while (position < length && isDelimiter(chars[position]));
+
+                if (!ignoreMultipleDelimiters)
+                    for (int i = start + 1; i < position; ++i)
+                        addField(position, position);
+            } else if (isQuote(chars[position])) {
+                // unmatched quote
+                ++position;
+            } else {
+                start = position;
+
+                do {
+                    ++position;
+                } while (position < length && !isDelimiter(chars[position]) && !isQuote(chars[position]));
+
+                addField(start, position);
+            }
+        }
+    }
+
+    /**
+     * Attempts to read a quoted token at the given position
+     *
+     * @param position
+     *            the position to start from
+     * @param quote
+     *            the quote character
+     * @return the position after the token, or <code>-1</code> if there is no
+     *         quoted token at the position
+     */
+    private int scanQuoted(int position, char quote) {
+        int i = position;
+
+        while (i < length && chars[i] == SPACE)
+            ++i;
+
+        if (i < length && chars[i] == quote) {
+            int start = i + 1;
+            int end = start;
+
+            while (end < length && chars[end] != quote)
+                ++end;
+
+            if (end < length) {
+                addField(start, end);
+
+                i = end + 1;
+
+                while (i < length && chars[i] == SPACE)
+                    ++i;
+
+                if (i < length && isDelimiter(chars[i]))
+                    ++i;
+
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void addField(int start, int end) {
+        if (selected == null || (fieldCount < selected.length && selected[fieldCount]))
+            addToken(start, end);
+
+        ++fieldCount;
+    }
+
+    /**
+     * Checks if all the selected fields have been found
+     */
+    private boolean isComplete() {
+        return selected != null && fieldCount >= selected.length;
+    }
+
+    private void addToken(int start, int end) {
+        int index = tokenCount << 1;
+
+        if (index + 1 >= bounds.length) {
+            int[] newBounds = new int[bounds.length * 2];
+
+            System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+
+            bounds = newBounds;
+        }
+
+        bounds[index] = start;
+        bounds[index + 1] = end;
+
+        ++tokenCount;
+    }
+
+    private void ensureCapacity(int size) {
+        if (chars.length < size)
+            chars = new char[Math.max(size, chars.length * 2)];
+    }
+
+    private boolean matches(int position, String string) {
+        if (position < 0 || position + string.length() > length)
+            return false;
+
+        for (int i = 0; i < string.length(); ++i)
+            if (chars[position + i] != string.charAt(i))
+                return false;
+
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= tokenCount)
+            throw new ArrayIndexOutOfBoundsException(index);
+    }
+
+    private boolean isDelimiter(char c) {
+        return singleCharDelimiter ? c == delimiterChar : delimiter.indexOf(c) >= 0;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == DOUBLE_QUOTE || c == SINGLE_QUOTE;
+    }
+}
@@ -18,6 +18,7 @@ package uno.informatics.common;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static uno.informatics.data.DataTypeConstants.BIG_DECIMAL_ID;
 import static uno.informatics.data.DataTypeConstants.BIG_INTEGER_ID;
@@ -36,6 +37,8 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -299,6 +302,171 @@ public class ConversionUtilitiesTest {
         }
     }
 
+    /**
+     * Test method for
+     * {@link uno.informatics.common.ConversionUtilities#convertToInt(char[], int, int)}.
+     */
+    @Test
+    public void testConvertToIntChars() {
+        String[] values = new String[] { "0", "1", "-1", "+1", "007", "2147483647", "-2147483648", "123456789" };
+
+        try {
+            for (String value : values)
+                assertEquals(value, Integer.parseInt(value), ConversionUtilities.convertToInt(chars(value), 2,
+                    value.length()));
+        } catch (ConversionException e) {
+            fail(e.getLocalizedMessage());
+        }
+
+        String[] invalid = new String[] { "", "-", "+", "1.0", "a", "1 ", "2147483648", "-2147483649",
+            "99999999999" };
+
+        for (String value : invalid) {
+            try {
+                ConversionUtilities.convertToInt(chars(value), 2, value.length());
+                fail("Converted " + value);
+            } catch (ConversionException e) {
+
+            }
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link uno.informatics.common.ConversionUtilities#convertToDouble(char[], int, int)}.
+     */
+    @Test
+    public void testConvertToDoubleChars() {
+        String[] values = new String[] { "0", "-0", "0.0", "1.1", "-1.1", "+2.5", ".5", "5.", "1e10", "1E-10",
+            "-3.25e+2", "0.1", "0.3", "123456789.123456789", "9007199254740993", "1e22", "1e23", "1e-400",
+            "1.7976931348623157E308", "4.9E-324", "NaN", "-Infinity", "1d", " 2.0 ", "0x1p3" };
+
+        try {
+            for (String value : values)
+                assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                    Double.doubleToLongBits(ConversionUtilities.convertToDouble(chars(value), 2, value.length())));
+
+            Random random = new Random(42);
+
+            for (int i = 0; i < 10000; ++i) {
+                String value = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(20) - 10));
+
+                assertEquals(value, Double.parseDouble(value),
+                    ConversionUtilities.convertToDouble(chars(value), 2, value.length()), 0.0);
+
+                value = String.format(Locale.ROOT, "%." + random.nextInt(8) + "f", random.nextGaussian() * 1000);
+
+                assertEquals(value, Double.parseDouble(value),
+                    ConversionUtilities.convertToDouble(chars(value), 2, value.length()), 0.0);
+            }
+        } catch (ConversionException e) {
+            fail(e.getLocalizedMessage());
+        }
+
+        String[] invalid = new String[] { "", ".", "-", "e5", "1e", "1.0.0", "a" };
+
+        for (String value : invalid) {
+            try {
+                ConversionUtilities.convertToDouble(chars(value), 2, value.length());
+                fail("Converted " + value);
+            } catch (ConversionException e) {
+
+            }
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link uno.informatics.common.ConversionUtilities#parseInt(char[], int, int, int)}.
+     */
+    @Test
+    public void testParseInt() {
+        String[] values = new String[] { "0", "1", "-1", "+1", "007", "2147483647", "-2147483648", "123456789" };
+
+        for (String value : values) {
+            assertEquals(value, Integer.parseInt(value), ConversionUtilities.parseInt(chars(value), 2,
+                value.length(), 42));
+            assertEquals(value, Integer.parseInt(value), ConversionUtilities.parseInt(value, 42));
+        }
+
+        String[] invalid = new String[] { "", "-", "+", "1.0", "a", "NA", "1 ", "2147483648", "-2147483649",
+            "99999999999" };
+
+        for (String value : invalid) {
+            assertEquals(value, 42, ConversionUtilities.parseInt(chars(value), 2, value.length(), 42));
+            assertEquals(value, 42, ConversionUtilities.parseInt(value, 42));
+        }
+
+        assertEquals(42, ConversionUtilities.parseInt(null, 42));
+    }
+
+    /**
+     * Test method for
+     * {@link uno.informatics.common.ConversionUtilities#parseLong(char[], int, int, long)}.
+     */
+    @Test
+    public void testParseLong() {
+        String[] values = new String[] { "0", "-1", "+1", "2147483648", "9223372036854775807",
+            "-9223372036854775808" };
+
+        for (String value : values) {
+            assertEquals(value, Long.parseLong(value), ConversionUtilities.parseLong(chars(value), 2,
+                value.length(), 42));
+            assertEquals(value, Long.parseLong(value), ConversionUtilities.parseLong(new StringBuilder(value), 42));
+        }
+
+        String[] invalid = new String[] { "", "-", "1e3", "NA", "9223372036854775808", "-9223372036854775809" };
+
+        for (String value : invalid)
+            assertEquals(value, 42, ConversionUtilities.parseLong(chars(value), 2, value.length(), 42));
+    }
+
+    /**
+     * Test method for
+     * {@link uno.informatics.common.ConversionUtilities#parseDouble(char[], int, int, double)}.
+     */
+    @Test
+    public void testParseDouble() {
+        String[] values = new String[] { "0", "-0", "1.1", "-1.1", ".5", "5.", "1E-10", "-3.25e+2", "0.1",
+            "9007199254740993", "1e23", "1e-400", "4.9E-324", "NaN", "-Infinity", "1d", " 2.0 ", "0x1p3" };
+
+        for (String value : values) {
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                Double.doubleToLongBits(ConversionUtilities.parseDouble(chars(value), 2, value.length(), 42.0)));
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                Double.doubleToLongBits(ConversionUtilities.parseDouble(value, 42.0)));
+        }
+
+        String[] invalid = new String[] { "", " ", ".", "-", "e5", "1e", "1.0.0", "a", "NA", "nan", "1,5", "0x" };
+
+        for (String value : invalid) {
+            assertEquals(value, 42.0, ConversionUtilities.parseDouble(chars(value), 2, value.length(), 42.0), 0.0);
+            assertTrue(value, Double.isNaN(ConversionUtilities.parseDouble(value, Double.NaN)));
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link uno.informatics.common.ConversionUtilities#convertToBoolean(char[], int, int)}.
+     */
+    @Test
+    public void testConvertToBooleanChars() {
+        try {
+            assertEquals(true, ConversionUtilities.convertToBoolean(chars("true"), 2, 4));
+            assertEquals(true, ConversionUtilities.convertToBoolean(chars("TRUE"), 2, 4));
+            assertEquals(false, ConversionUtilities.convertToBoolean(chars("False"), 2, 5));
+        } catch (ConversionException e) {
+            fail(e.getLocalizedMessage());
+        }
+
+        try {
+            ConversionUtilities.convertToBoolean(chars("yes"), 2, 3);
+            fail("Converted yes");
+        } catch (ConversionException e) {
+
+        }
+    }
+
     /**
      * Test method for
      * {@link uno.informatics.common.ConversionUtilities#convertToDate(java.lang.String)}.
@@ -375,6 +543,46 @@ public class ConversionUtilitiesTest {
                     ConversionUtilities.getDataType(TEST_STRINGS[i][j]));
     }
 
+    /**
+     * Test method for
+     * {@link uno.informatics.common.ConversionUtilities#getDataType(java.lang.String)}.
+     */
+    @Test
+    public void testGetDataTypeString() {
+        int integer = STRING_ID | FLOAT_ID | DOUBLE_ID | BIG_INTEGER_ID | BIG_DECIMAL_ID;
+        int decimal = STRING_ID | FLOAT_ID | DOUBLE_ID | BIG_DECIMAL_ID;
+
+        assertEquals(0, ConversionUtilities.getDataType(null));
+        assertEquals(STRING_ID, ConversionUtilities.getDataType(""));
+        assertEquals(integer | LONG_ID | INT_ID | SHORT_ID, ConversionUtilities.getDataType("-32768"));
+        assertEquals(integer | LONG_ID | INT_ID, ConversionUtilities.getDataType("32768"));
+        assertEquals(integer | LONG_ID | INT_ID, ConversionUtilities.getDataType("-2147483648"));
+        assertEquals(integer | LONG_ID, ConversionUtilities.getDataType("+2147483648"));
+        assertEquals(integer | LONG_ID, ConversionUtilities.getDataType("9223372036854775807"));
+        assertEquals(integer, ConversionUtilities.getDataType("9223372036854775808"));
+        assertEquals(integer | LONG_ID | INT_ID | SHORT_ID, ConversionUtilities.getDataType("000000000000000000000001"));
+        assertEquals(decimal, ConversionUtilities.getDataType("-1.5"));
+        assertEquals(decimal, ConversionUtilities.getDataType(".5"));
+        assertEquals(decimal, ConversionUtilities.getDataType("5."));
+        assertEquals(decimal, ConversionUtilities.getDataType("1.2345E+05"));
+        assertEquals(STRING_ID | FLOAT_ID | DOUBLE_ID, ConversionUtilities.getDataType("1e9999999999"));
+        assertEquals(STRING_ID | FLOAT_ID | DOUBLE_ID, ConversionUtilities.getDataType("1.5f"));
+        assertEquals(STRING_ID | FLOAT_ID | DOUBLE_ID, ConversionUtilities.getDataType("-NaN"));
+        assertEquals(STRING_ID | FLOAT_ID | DOUBLE_ID, ConversionUtilities.getDataType("Infinity"));
+        assertEquals(STRING_ID | FLOAT_ID | DOUBLE_ID, ConversionUtilities.getDataType("0x1.8p1"));
+        assertEquals(STRING_ID | FLOAT_ID | DOUBLE_ID, ConversionUtilities.getDataType(" 5"));
+        assertEquals(STRING_ID | BOOLEAN_ID, ConversionUtilities.getDataType("TRUE"));
+        assertEquals(STRING_ID | BOOLEAN_ID, ConversionUtilities.getDataType("false"));
+        assertEquals(STRING_ID | DATE_ID, ConversionUtilities.getDataType("12/12/12"));
+        assertEquals(STRING_ID | DATE_ID, ConversionUtilities.getDataType("Dec 25, 2016"));
+        assertEquals(STRING_ID | DATE_ID, ConversionUtilities.getDataType("20160101120000+0000"));
+        assertEquals(STRING_ID, ConversionUtilities.getDataType("NA"));
+        assertEquals(STRING_ID, ConversionUtilities.getDataType("n/a"));
+        assertEquals(STRING_ID, ConversionUtilities.getDataType("1e"));
+        assertEquals(STRING_ID, ConversionUtilities.getDataType("1.0.0"));
+        assertEquals(STRING_ID, ConversionUtilities.getDataType("-"));
+    }
+
     /**
      * Test method for
      * {@link uno.informatics.common.ConversionUtilities#getDataTypes(java.util.List)}.
@@ -456,4 +664,9 @@ public class ConversionUtilitiesTest {
 
         return list;
     }
+
+    // places the value in the middle of a larger buffer, starting at offset 2
+    private static char[] chars(String value) {
+        return ("[," + value + ",]").toCharArray();
+    }
 }
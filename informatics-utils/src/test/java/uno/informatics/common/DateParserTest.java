@@ -0,0 +1,147 @@
+package uno.informatics.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class DateParserTest {
+
+    @Test
+    public void testDefaultPatterns() {
+        DateParser parser = DateParser.getDefault();
+
+        assertEquals(date(2012, 12, 12), parser.parse("12/12/12"));
+        assertEquals(date(2012, 12, 12), parser.parse("12/12/2012"));
+        assertEquals(date(2012, 11, 12), parser.parse("11/12/2012"));
+        assertNull(parser.parse("13/12/2012"));
+        assertEquals(date(2016, 12, 25), parser.parse("Dec 25, 2016"));
+        assertEquals(date(2016, 12, 25), parser.parse("25 DEC 2016"));
+        assertEquals(date(2016, 1, 2), parser.parse("2016-01-02"));
+        assertEquals(Date.from(LocalDateTime.of(2016, 1, 1, 12, 0).toInstant(ZoneOffset.UTC)),
+            parser.parse("20160101120000+0000"));
+        assertEquals(Date.from(LocalDateTime.of(2016, 1, 1, 12, 0, 0, 500000000).toInstant(ZoneOffset.ofHours(2))),
+            parser.parse("2016-01-01T12:00:00.500+02:00"));
+        assertEquals(Date.from(LocalDateTime.of(2016, 1, 1, 12, 30).atZone(ZoneId.systemDefault()).toInstant()),
+            parser.parse("2016-01-01 12:30:00"));
+    }
+
+    @Test
+    public void testDayFirstPatterns() {
+        DateParser parser = DateParser.getDayFirst();
+
+        assertEquals(DateParser.DAY_FIRST_PATTERNS, parser.getPatterns());
+        assertEquals(date(2012, 12, 12), parser.parse("12/12/12"));
+        assertEquals(date(2012, 12, 11), parser.parse("11/12/2012"));
+        assertEquals(date(2012, 12, 13), parser.parse("13/12/2012"));
+        assertEquals(date(2016, 1, 2), parser.parse("2016-01-02"));
+        assertNull(parser.parse("12/13/2012"));
+    }
+
+    @Test
+    public void testNotDates() {
+        DateParser parser = DateParser.getDefault();
+
+        String[] values = new String[] { null, "", "NA", "n/a", "abc", "1", "1.5", "-3", "12/12", "13/13/2012",
+            "2016-02-30x", "Dec 25", "R1C3", "2016-13-01", "12/12/12/12" };
+
+        for (String value : values) {
+            assertNull(value, parser.parse(value));
+            assertFalse(value, parser.isDate(value));
+        }
+    }
+
+    @Test
+    public void testCustomPatterns() {
+        DateParser parser = new DateParser("dd.MM.yyyy", "'Q'Q yyyy");
+
+        assertEquals(Arrays.asList("dd.MM.yyyy", "'Q'Q yyyy"), parser.getPatterns());
+        assertEquals(date(2016, 3, 1), parser.parse("01.03.2016"));
+        assertNull(parser.parse("1.3.2016"));
+        assertNull(parser.parse("12/12/12"));
+        assertEquals("01.03.2016", parser.format(date(2016, 3, 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPattern() {
+        new DateParser("yyyy-MM-dd", "bb");
+    }
+
+    @Test
+    public void testConvertToString() {
+        try {
+            Date date = new Date(1451649600000L);
+
+            assertEquals(date, ConversionUtilities.convertToDate(ConversionUtilities.convertToString(date)));
+
+            DateParser defaultParser = ConversionUtilities.getDateParser();
+
+            try {
+                ConversionUtilities.setDateParser(new DateParser("yyyy-MM-dd"));
+
+                assertEquals(date(2016, 1, 2), ConversionUtilities.convertToDate("2016-01-02"));
+                assertEquals("2016-01-02", ConversionUtilities.convertToString(date(2016, 1, 2)));
+            } finally {
+                ConversionUtilities.setDateParser(defaultParser);
+            }
+        } catch (ConversionException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testManyThreads() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+
+            for (int t = 0; t < 8; ++t) {
+                int offset = t;
+
+                futures.add(executor.submit(() -> {
+                    DateParser parser = DateParser.getDefault();
+                    LocalDate start = LocalDate.of(2000, 1, 1);
+
+                    for (int i = 0; i < 2000; ++i) {
+                        LocalDate day = start.plusDays(i * 8 + offset);
+
+                        if (!date(day.getYear(), day.getMonthValue(), day.getDayOfMonth())
+                            .equals(parser.parse(day.toString())))
+                            return false;
+                    }
+
+                    return true;
+                }));
+            }
+
+            for (Future<Boolean> future : futures)
+                assertTrue(future.get());
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
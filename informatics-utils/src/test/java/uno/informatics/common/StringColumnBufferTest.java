@@ -0,0 +1,75 @@
+package uno.informatics.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static uno.informatics.data.DataTypeConstants.INT_ID;
+import static uno.informatics.data.DataTypeConstants.STRING_ID;
+import static uno.informatics.data.DataTypeConstants.UNKNOWN_ID;
+
+import org.junit.Test;
+
+public class StringColumnBufferTest {
+
+    @Test
+    public void testAddAndGet() {
+        StringColumnBuffer buffer = new StringColumnBuffer(1);
+
+        for (int i = 0; i < 1000; ++i)
+            buffer.add(i % 10 == 0 ? null : i % 7 == 0 ? "" : "value" + i);
+
+        assertEquals(1000, buffer.size());
+        assertEquals(100, buffer.getMissingCount());
+
+        for (int i = 0; i < 1000; ++i) {
+            if (i % 10 == 0)
+                assertNull(buffer.get(i));
+            else
+                assertEquals(i % 7 == 0 ? "" : "value" + i, buffer.get(i));
+        }
+    }
+
+    @Test
+    public void testPossibleDataTypes() {
+        StringColumnBuffer buffer = new StringColumnBuffer();
+
+        assertEquals(UNKNOWN_ID, buffer.getPossibleDataTypes());
+
+        buffer.add(null);
+
+        assertEquals(UNKNOWN_ID, buffer.getPossibleDataTypes());
+
+        buffer.add("1");
+        buffer.add(null);
+        buffer.add("100000");
+
+        assertEquals(INT_ID, buffer.getPossibleDataTypes() & INT_ID);
+
+        buffer.add("x");
+
+        assertEquals(STRING_ID, buffer.getPossibleDataTypes());
+    }
+
+    @Test
+    public void testConvert() {
+        StringColumnBuffer buffer = new StringColumnBuffer();
+
+        buffer.add("12");
+        buffer.add(null);
+
+        try {
+            ValueConverter converter = ValueConverter.getConverter(INT_ID);
+
+            assertEquals(12, buffer.convert(converter, 0));
+            assertNull(buffer.convert(converter, 1));
+        } catch (ConversionException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidIndex() {
+        new StringColumnBuffer().get(0);
+    }
+}
@@ -0,0 +1,144 @@
+package uno.informatics.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static uno.informatics.data.DataTypeConstants.BIG_DECIMAL_ID;
+import static uno.informatics.data.DataTypeConstants.BIG_INTEGER_ID;
+import static uno.informatics.data.DataTypeConstants.BOOLEAN_ID;
+import static uno.informatics.data.DataTypeConstants.DATE_ID;
+import static uno.informatics.data.DataTypeConstants.DEFAULT_TYPE_IDS;
+import static uno.informatics.data.DataTypeConstants.DOUBLE_ID;
+import static uno.informatics.data.DataTypeConstants.FLOAT_ID;
+import static uno.informatics.data.DataTypeConstants.INT_ID;
+import static uno.informatics.data.DataTypeConstants.LONG_ID;
+import static uno.informatics.data.DataTypeConstants.SHORT_ID;
+import static uno.informatics.data.DataTypeConstants.STRING_ID;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class ValueConverterTest {
+
+    private static final String[] VALUES = new String[] { "1", "-32769", "2147483648", "9223372036854775808",
+        "-9223372036854775808", "1.5", "NaN", "-Infinity", "1e400", "1.5f", " 2 ", "true", "FALSE", "12/12/2012",
+        "AB", "NA", "" };
+
+    private static final int[] TYPES = new int[] { INT_ID, LONG_ID, DOUBLE_ID, STRING_ID, BOOLEAN_ID, SHORT_ID,
+        FLOAT_ID, BIG_INTEGER_ID, BIG_DECIMAL_ID, DATE_ID, INT_ID | STRING_ID, DOUBLE_ID | BOOLEAN_ID,
+        LONG_ID | BIG_DECIMAL_ID, DEFAULT_TYPE_IDS, SHORT_ID | INT_ID | LONG_ID | FLOAT_ID | DOUBLE_ID
+            | BIG_INTEGER_ID | BIG_DECIMAL_ID | BOOLEAN_ID | DATE_ID | STRING_ID };
+
+    @Test
+    public void testSingleTypes() {
+        try {
+            assertEquals(-12, ValueConverter.getConverter(INT_ID).convert("-12"));
+            assertEquals(Long.MIN_VALUE, ValueConverter.getConverter(LONG_ID).convert("-9223372036854775808"));
+            assertEquals(2.5, ValueConverter.getConverter(DOUBLE_ID).convert("2.5"));
+            assertEquals(Double.NaN, ValueConverter.getConverter(DOUBLE_ID).convert("NaN"));
+            assertEquals(true, ValueConverter.getConverter(BOOLEAN_ID).convert("True"));
+            assertEquals("1", ValueConverter.getConverter(STRING_ID).convert("1"));
+            assertEquals((short) 3, ValueConverter.getConverter(SHORT_ID).convert("3"));
+            assertEquals(new BigInteger("123456789012345678901"),
+                ValueConverter.getConverter(BIG_INTEGER_ID).convert("123456789012345678901"));
+            assertNull(ValueConverter.getConverter(INT_ID).convert(null));
+        } catch (ConversionException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testSameAsConvertToObject() {
+        for (int types : TYPES) {
+            ValueConverter converter = ValueConverter.getConverter(types);
+
+            assertEquals(types, converter.getTypes());
+            assertSame(converter, ValueConverter.getConverter(types));
+
+            for (String value : VALUES) {
+                Object expected;
+                Object actual;
+
+                try {
+                    expected = convertToObject(value, types);
+                } catch (ConversionException e) {
+                    expected = e;
+                }
+
+                try {
+                    actual = converter.convert(value);
+                } catch (ConversionException e) {
+                    actual = e;
+                }
+
+                String message = "'" + value + "' as " + ConversionUtilities.getTypesNames(types);
+
+                if (expected instanceof ConversionException) {
+                    assertEquals(message, ConversionException.class, actual.getClass());
+                } else {
+                    assertEquals(message, expected, actual);
+                    assertEquals(message, expected.getClass(), actual.getClass());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConvertRow() {
+        try {
+            ValueConverter[] converters = ValueConverter.getConverters(new int[] { INT_ID, DOUBLE_ID, STRING_ID });
+
+            assertEquals(Arrays.asList(1, 2.0, "3", 4), ValueConverter.convertRow(converters,
+                Arrays.asList("1", "2", "3", "4")));
+            assertArrayEquals(new Object[] { null, 1.5, "x" }, ValueConverter.convertRow(converters,
+                new String[] { null, "1.5", "x" }));
+            assertEquals(Arrays.asList(1, 2, 3), converters[0].convertAll(Arrays.asList("1", "2", "3")));
+        } catch (ConversionException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = ConversionException.class)
+    public void testInvalidValue() throws ConversionException {
+        ValueConverter.getConverters(new int[] { INT_ID, DOUBLE_ID })[1].convert("NA");
+    }
+
+    /**
+     * Converts by trying each type in turn, as
+     * {@link ConversionUtilities#convertToObject(String, int)} is specified
+     */
+    private static Object convertToObject(String string, int types) throws ConversionException {
+        Object[] candidates = new Object[] { (types & SHORT_ID) != 0 ? tryConvert(() -> Short.valueOf(string)) : null,
+            (types & INT_ID) != 0 ? tryConvert(() -> Integer.valueOf(string)) : null,
+            (types & LONG_ID) != 0 ? tryConvert(() -> Long.valueOf(string)) : null,
+            (types & FLOAT_ID) != 0 ? tryConvert(() -> Float.valueOf(string)) : null,
+            (types & DOUBLE_ID) != 0 ? tryConvert(() -> Double.valueOf(string)) : null,
+            (types & BIG_INTEGER_ID) != 0 ? tryConvert(() -> new BigInteger(string)) : null,
+            (types & BIG_DECIMAL_ID) != 0 ? tryConvert(() -> new BigDecimal(string)) : null,
+            (types & BOOLEAN_ID) != 0 ? ConversionUtilities.convertToBoolean(string) : null,
+            (types & DATE_ID) != 0 ? ConversionUtilities.getDateParser().parse(string) : null,
+            (types & STRING_ID) != 0 ? string : null };
+
+        for (Object candidate : candidates)
+            if (candidate != null)
+                return candidate;
+
+        throw new ConversionException("Can not convert " + string);
+    }
+
+    private static Object tryConvert(Supplier<Object> conversion) {
+        try {
+            return conversion.get();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -17,15 +17,23 @@
 package uno.informatics.common.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
+import uno.informatics.common.io.text.FlushPolicy;
 import uno.informatics.common.io.text.TextFileRowReader;
+import uno.informatics.common.io.text.TextFileRowWriter;
 import uno.informatics.data.io.FileType;
 
 /**
@@ -64,6 +72,25 @@ public class IOUtilitiesTest {
         }
     }
 
+    @Test
+    public void testCreateRowWriterFlushPolicy() {
+        try {
+            Path path = Files.createTempFile("writer", ".csv");
+
+            path.toFile().deleteOnExit();
+
+            RowWriter writer = IOUtilities.createRowWriter(path, FileType.CSV);
+
+            try {
+                assertEquals(FlushPolicy.ROWS, ((TextFileRowWriter) writer).getFlushPolicy());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            fail(e.getLocalizedMessage());
+        }
+    }
+
     /**
      * Test method for
      * {@link uno.informatics.common.io.IOUtilities#getSheets(uno.informatics.common.io.FileProperties)}
@@ -93,4 +120,47 @@ public class IOUtilitiesTest {
         }
     }
 
+    @Test
+    public void testTaskException() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+
+        try {
+            IOException exception = new IOException("test");
+
+            Future<?> future = pool.submit(() -> {
+                throw exception;
+            });
+
+            try {
+                future.get();
+
+                fail("No exception thrown");
+            } catch (ExecutionException e) {
+                assertSame(exception, IOUtilities.getTaskException(e));
+                assertSame(exception, IOUtilities.toIOException(e));
+            }
+
+            Future<?> runtimeFuture = pool.submit(() -> {
+                throw new IllegalArgumentException("test");
+            });
+
+            try {
+                runtimeFuture.get();
+
+                fail("No exception thrown");
+            } catch (ExecutionException e) {
+                try {
+                    IOUtilities.toIOException(e);
+
+                    fail("No exception thrown");
+                } catch (IllegalArgumentException runtimeException) {
+                    // thrown as is
+                }
+            }
+        } catch (InterruptedException e) {
+            fail(e.getLocalizedMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package uno.informatics.common.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+public class ParallelGzipOutputStreamTest {
+
+    @Test
+    public void testWrite() {
+        try {
+            byte[] data = createData(100000);
+
+            for (int parallelism : new int[] { 1, 2, 4 }) {
+                for (int blockSize : new int[] { 1, 1000, 4096, 1000000 }) {
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+                    ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, parallelism, blockSize);
+
+                    // mix of single bytes and arrays across block boundaries
+                    int position = 0;
+
+                    while (position < data.length) {
+                        if (position % 7 == 0) {
+                            out.write(data[position++]);
+                        } else {
+                            int length = Math.min(data.length - position, 1 + position % 5000);
+
+                            out.write(data, position, length);
+                            position += length;
+                        }
+
+                        if (position % 13 == 0)
+                            out.flush();
+                    }
+
+                    out.close();
+
+                    assertArrayEquals("parallelism " + parallelism + " block size " + blockSize, data,
+                        decompress(compressed.toByteArray()));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testCompresses() {
+        try {
+            byte[] data = createData(1000000);
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+            try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, 4, 64 * 1024)) {
+                out.write(data);
+            }
+
+            assertTrue(compressed.size() < data.length / 2);
+            assertArrayEquals(data, decompress(compressed.toByteArray()));
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterClose() throws IOException {
+        ParallelGzipOutputStream out = new ParallelGzipOutputStream(new ByteArrayOutputStream(), 2);
+
+        out.close();
+        out.write(1);
+    }
+
+    private static byte[] createData(int size) {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(size);
+
+        while (builder.length() < size)
+            builder.append("r").append(random.nextInt(1000)).append(',').append(random.nextDouble()).append('\n');
+
+        return builder.substring(0, size).getBytes();
+    }
+
+    private static byte[] decompress(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[8192];
+            int read;
+
+            while ((read = in.read(buffer)) > 0)
+                out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -23,13 +23,33 @@ import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.util.List;
 
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.DateParser;
+
 /**
  * @author Guy Davenport
  *
  */
 public abstract class RowReaderObjectTest extends RowReaderTest {
+    private static DateParser defaultDateParser;
+
+    // the dates in the object tables are day first
+    @BeforeClass
+    public static void setDayFirstDateParser() {
+        defaultDateParser = ConversionUtilities.getDateParser();
+
+        ConversionUtilities.setDateParser(DateParser.getDayFirst());
+    }
+
+    @AfterClass
+    public static void resetDateParser() {
+        ConversionUtilities.setDateParser(defaultDateParser);
+    }
+
     @Test
     public void testGetCellAsType() {
         try {
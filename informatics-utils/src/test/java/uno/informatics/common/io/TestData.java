@@ -17,7 +17,8 @@
 package uno.informatics.common.io;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
 import java.util.List;
 
 public class TestData {
@@ -132,17 +133,14 @@ public class TestData {
         STRING_TABLE_AS_LIST2_WITH_GAPS.get(2).add(STRING_ROW3[1]);
         STRING_TABLE_AS_LIST2_WITH_GAPS.get(2).add(null);
     }
-    @SuppressWarnings("deprecation")
     protected final static Object[] OBJECT_ROW1 = new Object[] {
-        1, 1.1, "R1C3", true, new Date("12/12/2012")
+        1, 1.1, "R1C3", true, new GregorianCalendar(2012, Calendar.DECEMBER, 12).getTime()
     };
-    @SuppressWarnings("deprecation")
     protected final static Object[] OBJECT_ROW2 = new Object[] {
-        2, 2.2, "R2C3", false, new Date("13/12/2012")
+        2, 2.2, "R2C3", false, new GregorianCalendar(2012, Calendar.DECEMBER, 13).getTime()
     };
-    @SuppressWarnings("deprecation")
     protected final static Object[] OBJECT_ROW3 = new Object[] {
-        3, 3.3, "R3C3", true, new Date("14/12/2012")
+        3, 3.3, "R3C3", true, new GregorianCalendar(2012, Calendar.DECEMBER, 14).getTime()
     };
 
     protected final static Object[][] OBJECT_TABLE_AS_ARRAY = new Object[][] {
@@ -0,0 +1,195 @@
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import uno.informatics.common.ConversionUtilities;
+import uno.informatics.common.io.TextFileHandler;
+
+public class CellBufferTextFileRowReaderTest {
+
+    @Test
+    public void testReadDoubleCells() {
+        try {
+            TextFileRowReader reader = new TextFileRowReader(getClass().getResource("/double_table1.csv").getPath());
+            TextFileRowReader expectedReader = new TextFileRowReader(
+                getClass().getResource("/double_table1.csv").getPath());
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            expectedReader.setDelimiterString(TextFileHandler.COMMA);
+
+            // skip headers
+            assertTrue(reader.nextRow() && reader.nextRow());
+            assertTrue(expectedReader.nextRow() && expectedReader.nextRow());
+
+            int rows = 0;
+
+            while (reader.nextRow()) {
+                assertTrue(expectedReader.nextRow());
+
+                double[] expected = expectedReader.getRowCellsAsDoubleArray();
+                double[] row = new double[reader.getCurrentRowSize()];
+
+                char[] buffer = reader.getRowBuffer();
+
+                for (int i = 0; i < row.length; ++i)
+                    row[i] = ConversionUtilities.convertToDouble(buffer, reader.getCellOffset(i),
+                        reader.getCellLength(i));
+
+                assertArrayEquals("row " + rows + " not equal", expected, row, 0.0);
+
+                ++rows;
+            }
+
+            assertEquals(5, rows);
+            assertFalse(expectedReader.nextRow());
+
+            reader.close();
+            expectedReader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testReadIntCellsWithQuotes() {
+        try {
+            TextFileRowReader reader = new TextFileRowReader(
+                getClass().getResource("/int_table_with_quotes.txt").getPath());
+
+            reader.setDelimiterString(TextFileHandler.TAB);
+            reader.setOptions(TextFileRowReader.REMOVE_QUOTES);
+
+            int[][] expected = new int[][] { { 11, 21, 31 }, { 12, 22, 32 }, { 13, 23, 33 } };
+
+            int i = 0;
+
+            while (reader.nextRow()) {
+                int j = 0;
+
+                while (reader.nextColumn()) {
+                    assertEquals("cell " + i + "," + j, expected[i][j], ConversionUtilities
+                        .convertToInt(reader.getRowBuffer(), reader.getCellOffset(), reader.getCellLength()));
+                    ++j;
+                }
+
+                assertEquals(expected[i].length, j);
+
+                ++i;
+            }
+
+            assertEquals(expected.length, i);
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testRemoveWhiteSpace() {
+        try {
+            Path path = Files.createTempFile("cells", ".csv");
+
+            path.toFile().deleteOnExit();
+
+            Files.write(path, " true ,  FALSE\t, \n".getBytes());
+
+            TextFileRowReader reader = new TextFileRowReader(path);
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            reader.setOptions(TextFileRowReader.REMOVE_WHITE_SPACE);
+
+            assertTrue(reader.nextRow());
+
+            char[] buffer = reader.getRowBuffer();
+
+            assertEquals("true", new String(buffer, reader.getCellOffset(0), reader.getCellLength(0)));
+            assertTrue(ConversionUtilities.convertToBoolean(buffer, reader.getCellOffset(0), reader.getCellLength(0)));
+            assertFalse(ConversionUtilities.convertToBoolean(buffer, reader.getCellOffset(1), reader.getCellLength(1)));
+
+            // missing cell
+            assertEquals(0, reader.getCellLength(5));
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testInvalidNumbersAsMissing() {
+        try {
+            Path path = Files.createTempFile("cells", ".csv");
+
+            path.toFile().deleteOnExit();
+
+            Files.write(path, "1,NA,,3.5\n".getBytes());
+
+            TextFileRowReader reader = new TextFileRowReader(path);
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            reader.setOptions(TextFileRowReader.INVALID_NUMBERS_AS_MISSING);
+            reader.setDefaultInt(-1);
+            reader.setDefaultDouble(Double.NaN);
+
+            assertTrue(reader.nextRow());
+
+            assertArrayEquals(new int[] { 1, -1, -1, -1 }, reader.getRowCellsAsIntArray());
+            assertArrayEquals(new double[] { 1.0, Double.NaN, Double.NaN, 3.5 }, reader.getRowCellsAsDoubleArray(),
+                0.0);
+            assertEquals(Arrays.asList(1.0, null, null, 3.5), reader.getRowCellsAsDouble());
+            assertEquals(Arrays.asList(1, null, null, null), reader.getRowCellsAsInt());
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidNumber() throws IOException {
+        Path path = Files.createTempFile("cells", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, "1,NA\n".getBytes());
+
+        TextFileRowReader reader = new TextFileRowReader(path);
+
+        try {
+            reader.setDelimiterString(TextFileHandler.COMMA);
+
+            assertTrue(reader.nextRow());
+
+            reader.getRowCellsAsDoubleArray();
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testBeforeFirstRow() throws IOException {
+        TextFileRowReader reader = new TextFileRowReader(getClass().getResource("/double_table.csv").getPath());
+
+        try {
+            reader.getRowBuffer();
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import uno.informatics.common.io.IOUtilities;
+import uno.informatics.common.io.RowReader;
+import uno.informatics.common.io.TextFileHandler;
+import uno.informatics.data.io.FileType;
+
+public class ColumnSelectionTextFileRowReaderTest {
+    private static final String[] FILES = new String[] { "/double_table1.csv", "/object_table_with_gaps.csv",
+        "/string_table_with_quotes.csv", "/string_table_with_quotes2.csv", "/boolean_table_with_gaps.csv" };
+
+    private static final int[] OPTIONS = new int[] { TextFileRowReader.NO_OPTIONS,
+        TextFileRowReader.REMOVE_WHITE_SPACE | TextFileRowReader.PARSE_EMPTY_STRINGS,
+        TextFileRowReader.REMOVE_QUOTES | TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
+        TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS | TextFileRowReader.REMOVE_QUOTES };
+
+    private static final int[][] SELECTIONS = new int[][] { { 0 }, { 1, 3 }, { 4, 0, 2 }, { 2, 2, 7 }, {} };
+
+    @Test
+    public void testSelectedColumns() {
+        try {
+            for (String file : FILES) {
+                Path path = Paths.get(getClass().getResource(file).getPath());
+
+                for (int options : OPTIONS)
+                    for (int[] selection : SELECTIONS)
+                        assertSelectedCells(path, options, selection);
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testSelectedColumnNames() {
+        try {
+            Path path = createFile("ID,NAME,a,b,c\nr1,n1,1,2,3\nr2,n2,4,5,6\n");
+
+            RowReader reader = IOUtilities.createRowReaderForColumns(path, FileType.CSV,
+                new String[] { "c", "ID", "a" }, TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST);
+
+            assertTrue(reader.nextRow());
+            assertArrayEquals(new String[] { "ID", "a", "c" }, reader.getRowCellsAsStringArray());
+            assertTrue(reader.nextRow());
+            assertArrayEquals(new String[] { "r1", "1", "3" }, reader.getRowCellsAsStringArray());
+            assertTrue(reader.nextRow());
+            assertArrayEquals(new int[] { 4, 6 }, nextColumnThenInts(reader));
+            assertFalse(reader.nextRow());
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownColumnName() throws IOException {
+        Path path = createFile("ID,a,b\nr1,1,2\n");
+
+        RowReader reader = IOUtilities.createRowReaderForColumns(path, FileType.CSV, new String[] { "x" });
+
+        try {
+            reader.nextRow();
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testSelectAfterHeader() {
+        try {
+            Path path = createFile("ID,a,b,c\n# comment\nr1,1,2,3\nr2,4,5,6\n");
+
+            TextFileRowReader reader = new TextFileRowReader(path);
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            reader.setOptions(TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST);
+
+            assertTrue(reader.nextRow());
+            assertEquals(4, reader.getCurrentRowSize());
+
+            // header row and the already buffered next row are both reduced
+            reader.setSelectedColumns(new int[] { 0, 3 });
+
+            assertArrayEquals(new int[] { 0, 3 }, reader.getSelectedColumns());
+            assertEquals(2, reader.getCurrentRowSize());
+            assertArrayEquals(new String[] { "ID", "c" }, reader.getRowCellsAsStringArray());
+            assertTrue(reader.nextRow());
+            assertArrayEquals(new String[] { "r1", "3" }, reader.getRowCellsAsStringArray());
+
+            reader.setSelectedColumns(null);
+
+            assertNull(reader.getSelectedColumns());
+            assertTrue(reader.nextRow());
+            assertArrayEquals(new String[] { "r2", "4", "5", "6" }, reader.getRowCellsAsStringArray());
+            assertFalse(reader.nextRow());
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testParallelSelectedColumns() {
+        try {
+            StringBuilder builder = new StringBuilder("ID,a,b,c,d\n");
+
+            for (int i = 0; i < 5000; ++i)
+                builder.append("r").append(i).append(',').append(i).append(",\"x,").append(i)
+                    .append("\",").append(i * 2).append(",y\n");
+
+            Path path = createFile(builder.toString());
+
+            MappedTextFileRowReader reader = new MappedTextFileRowReader(path);
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            reader.setOptions(TextFileRowReader.REMOVE_QUOTES | TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST);
+            reader.setSelectedColumnNames(new String[] { "ID", "c" });
+
+            assertTrue(reader.nextRow());
+
+            ParallelTextFileReader parallelReader = new ParallelTextFileReader(reader);
+
+            parallelReader.setParallelism(4);
+            parallelReader.setChunkSize(1024);
+
+            reader.close();
+
+            List<String[]> rows = parallelReader.readRows((rowReader, row) -> rowReader.getRowCellsAsStringArray());
+
+            assertEquals(5000, rows.size());
+
+            for (int i = 0; i < rows.size(); ++i)
+                assertArrayEquals(new String[] { "r" + i, String.valueOf(i * 2) }, rows.get(i));
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    private int[] nextColumnThenInts(RowReader reader) throws IOException {
+        // skip the row identifier
+        reader.nextColumn();
+        reader.nextColumn();
+
+        return reader.getRowCellsAsIntArray();
+    }
+
+    private Path createFile(String text) throws IOException {
+        Path path = Files.createTempFile("selection", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+
+        return path;
+    }
+
+    private void assertSelectedCells(Path path, int options, int[] selection) throws IOException {
+        TextFileRowReader expectedReader = new TextFileRowReader(path);
+        TextFileRowReader reader = new TextFileRowReader(path);
+
+        expectedReader.setDelimiterString(TextFileHandler.COMMA);
+        expectedReader.setOptions(options);
+        reader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setOptions(options);
+        reader.setSelectedColumns(selection);
+
+        int row = 0;
+
+        while (expectedReader.nextRow()) {
+            String message = path + " options " + options + " row " + row;
+
+            Object[] cells = expectedReader.getRowCellsAsArray();
+            List<Object> expected = new ArrayList<Object>();
+
+            for (int column : reader.getSelectedColumns())
+                if (column < cells.length)
+                    expected.add(cells[column]);
+
+            assertTrue(message, reader.nextRow());
+
+            Object[] selected = reader.getRowCellsAsArray();
+
+            // rows the same size as the first are padded to the selection size
+            for (int i = expected.size(); i < selected.length; ++i)
+                assertNull(message, selected[i]);
+
+            assertArrayEquals(message, expected.toArray(), trim(selected, expected.size()));
+
+            ++row;
+        }
+
+        assertFalse(reader.nextRow());
+
+        expectedReader.close();
+        reader.close();
+    }
+
+    private static Object[] trim(Object[] cells, int size) {
+        Object[] trimmed = new Object[Math.min(size, cells.length)];
+
+        System.arraycopy(cells, 0, trimmed, 0, trimmed.length);
+
+        return trimmed;
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DoubleFormatterTest {
+
+    @Test
+    public void testShortest() {
+        assertEquals("1.0", shortest(1));
+        assertEquals("-1.5", shortest(-1.5));
+        assertEquals("0.1", shortest(0.1));
+        assertEquals("0.001", shortest(0.001));
+        assertEquals("0.3333333333333333", shortest(1.0 / 3));
+        assertEquals("9999999.25", shortest(9999999.25));
+        assertEquals("1.0E7", shortest(1e7));
+        assertEquals("1.0E-4", shortest(1e-4));
+        assertEquals("0.0", shortest(0));
+        assertEquals("-0.0", shortest(-0.0));
+        assertEquals("NaN", shortest(Double.NaN));
+        assertEquals("-Infinity", shortest(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void testShortestRoundTrip() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; ++i) {
+            double value;
+
+            switch (i % 4) {
+                case 0:
+                    value = random.nextDouble();
+                    break;
+                case 1:
+                    value = Math.round(random.nextGaussian() * 1e6) / 100.0;
+                    break;
+                case 2:
+                    value = random.nextInt(100000) / 1000.0;
+                    break;
+                default:
+                    value = Double.longBitsToDouble(random.nextLong());
+                    break;
+            }
+
+            String text = shortest(value);
+
+            assertEquals(text, Double.doubleToLongBits(value), Double.doubleToLongBits(Double.parseDouble(text)));
+
+            // no more digits than Double.toString
+            assertEquals(text, true, text.length() <= Double.toString(value).length());
+        }
+    }
+
+    @Test
+    public void testFixed() {
+        assertEquals("1.000", fixed(1, 3));
+        assertEquals("1.235", fixed(1.23456, 3));
+        assertEquals("-0.010", fixed(-0.0099, 3));
+        assertEquals("0.000", fixed(-0.0001, 3));
+        assertEquals("3", fixed(2.5, 0));
+        assertEquals("NaN", fixed(Double.NaN, 2));
+        assertEquals("123456789012345680.00", fixed(123456789012345678.0, 2));
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10000; ++i) {
+            double value = random.nextGaussian() * 1000;
+
+            assertEquals(BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP).doubleValue(),
+                    Double.parseDouble(fixed(value, 4)), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrecision() {
+        fixed(1, DoubleFormatter.MAX_PRECISION + 1);
+    }
+
+    private static String shortest(double value) {
+        StringBuilder builder = new StringBuilder();
+
+        DoubleFormatter.appendShortest(builder, value);
+
+        return builder.toString();
+    }
+
+    private static String fixed(double value, int precision) {
+        StringBuilder builder = new StringBuilder();
+
+        DoubleFormatter.appendFixed(builder, value, precision);
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import uno.informatics.common.io.IOUtilities;
+import uno.informatics.common.io.RowReader;
+import uno.informatics.common.io.TextFileHandler;
+import uno.informatics.data.io.FileType;
+
+public class GzipTextFileRowReaderTest {
+    private static final String[] FILES = new String[] { "/double_table1.csv", "/object_table_with_gaps.csv",
+        "/string_table_with_quotes.csv", "/string_table_with_quotes2.csv", "/boolean_table_with_gaps.csv" };
+
+    @Test
+    public void testReadCompressed() {
+        try {
+            for (String file : FILES) {
+                Path path = Paths.get(getClass().getResource(file).getPath());
+
+                // detected by extension and by the magic bytes
+                assertSameRows(path, compress(path, ".csv.gz"));
+                assertSameRows(path, compress(path, ".csv"));
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWriteCompressed() {
+        try {
+            for (int parallelism : new int[] { 1, 4 }) {
+                Path path = createPath(".csv.gz");
+
+                TextFileRowWriter writer = new TextFileRowWriter(path, parallelism);
+
+                writer.setDelimiterString(TextFileHandler.COMMA);
+
+                // large enough for several blocks when compressed in parallel
+                for (int i = 0; i < 200000; ++i) {
+                    if (i > 0)
+                        writer.newRow();
+
+                    writer.writeRowCellsAsArray(new Object[] { "r" + i, i, i * 0.5 });
+                }
+
+                writer.close();
+
+                assertTrue(IOUtilities.isGzipFile(path));
+
+                RowReader reader = IOUtilities.createRowReader(path, FileType.CSV);
+
+                for (int i = 0; i < 200000; ++i) {
+                    assertTrue(reader.nextRow());
+                    assertArrayEquals(new String[] { "r" + i, String.valueOf(i), String.valueOf(i * 0.5) },
+                        reader.getRowCellsAsStringArray());
+                }
+
+                assertFalse(reader.nextRow());
+
+                reader.close();
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMappedReaderRejectsCompressed() throws IOException {
+        Path path = Paths.get(getClass().getResource(FILES[0]).getPath());
+
+        new MappedTextFileRowReader(compress(path, ".csv")).close();
+    }
+
+    private void assertSameRows(Path path, Path compressedPath) throws IOException {
+        TextFileRowReader expectedReader = new TextFileRowReader(path);
+        TextFileRowReader reader = new TextFileRowReader(compressedPath);
+
+        expectedReader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setDelimiterString(TextFileHandler.COMMA);
+
+        int rows = 0;
+
+        while (expectedReader.nextRow()) {
+            assertTrue(reader.nextRow());
+            assertArrayEquals(expectedReader.getRowCellsAsArray(), reader.getRowCellsAsArray());
+
+            ++rows;
+        }
+
+        assertFalse(reader.nextRow());
+        assertEquals(expectedReader.getRowIndex(), reader.getRowIndex());
+        assertTrue(rows > 0);
+
+        expectedReader.close();
+        reader.close();
+    }
+
+    private Path compress(Path path, String suffix) throws IOException {
+        Path compressedPath = createPath(suffix);
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedPath))) {
+            Files.copy(path, out);
+        }
+
+        return compressedPath;
+    }
+
+    private Path createPath(String suffix) throws IOException {
+        Path path = Files.createTempFile("compressed", suffix);
+
+        path.toFile().deleteOnExit();
+
+        return path;
+    }
+}
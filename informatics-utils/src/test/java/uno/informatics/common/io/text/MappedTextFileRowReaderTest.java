@@ -0,0 +1,127 @@
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import uno.informatics.common.io.TextFileHandler;
+
+public class MappedTextFileRowReaderTest {
+    private static final String[] FILES = new String[] { "/double_table1.csv", "/object_table_with_gaps.csv",
+        "/string_table_with_quotes.csv", "/string_table_with_quotes2.csv", "/boolean_table_with_gaps.csv" };
+
+    private static final int[] OPTIONS = new int[] { TextFileRowReader.NO_OPTIONS,
+        TextFileRowReader.REMOVE_WHITE_SPACE | TextFileRowReader.PARSE_EMPTY_STRINGS,
+        TextFileRowReader.REMOVE_QUOTES | TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
+        TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS | TextFileRowReader.REMOVE_QUOTES };
+
+    private static final int[] WINDOW_SIZES = new int[] { 100, 128, 257, MappedTextFileRowReader.DEFAULT_WINDOW_SIZE };
+
+    @Test
+    public void testSameAsBufferedReader() {
+        try {
+            for (String file : FILES) {
+                Path path = Paths.get(getClass().getResource(file).getPath());
+
+                for (int options : OPTIONS)
+                    for (int windowSize : WINDOW_SIZES)
+                        assertSameCells(path, options, windowSize);
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testLineTerminators() {
+        try {
+            Path path = Files.createTempFile("mapped", ".csv");
+
+            path.toFile().deleteOnExit();
+
+            Files.write(path, "a,b\r\nc,d\re,f\n\n# comment\ng,é\r\n".getBytes(StandardCharsets.UTF_8));
+
+            for (int windowSize = 10; windowSize < 40; ++windowSize)
+                assertSameCells(path, TextFileRowReader.NO_OPTIONS, windowSize);
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testEmptyFile() {
+        try {
+            Path path = Files.createTempFile("mapped", ".csv");
+
+            path.toFile().deleteOnExit();
+
+            MappedTextFileRowReader reader = new MappedTextFileRowReader(path);
+
+            assertFalse(reader.ready());
+            assertFalse(reader.nextRow());
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testLineLongerThanWindow() throws IOException {
+        Path path = Files.createTempFile("mapped", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, "a,b\nc,d,e,f,g,h\n".getBytes(StandardCharsets.UTF_8));
+
+        MappedTextFileRowReader reader = new MappedTextFileRowReader(path, 4);
+
+        try {
+            while (reader.nextRow())
+                reader.getRowCellsAsStringArray();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void assertSameCells(Path path, int options, int windowSize) throws IOException {
+        TextFileRowReader expectedReader = new TextFileRowReader(path);
+        TextFileRowReader reader = new MappedTextFileRowReader(path, windowSize);
+
+        expectedReader.setDelimiterString(TextFileHandler.COMMA);
+        expectedReader.setOptions(options);
+        reader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setOptions(options);
+
+        int row = 0;
+
+        while (expectedReader.nextRow()) {
+            String message = path + " options " + options + " window " + windowSize + " row " + row;
+
+            assertTrue(message, reader.nextRow());
+            assertEquals(message, expectedReader.getCurrentRowSize(), reader.getCurrentRowSize());
+            assertArrayEquals(message, expectedReader.getRowCellsAsStringArray(), reader.getRowCellsAsStringArray());
+            assertArrayEquals(message, expectedReader.getRowCellsAsArray(), reader.getRowCellsAsArray());
+
+            ++row;
+        }
+
+        assertFalse(reader.nextRow());
+
+        expectedReader.close();
+        reader.close();
+    }
+}
@@ -0,0 +1,192 @@
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import uno.informatics.common.Constants;
+import uno.informatics.common.ConversionException;
+import uno.informatics.common.io.TextFileHandler;
+
+public class ParallelTextFileReaderTest {
+    private static final String[] FILES = new String[] { "/double_table1.csv", "/object_table_with_gaps.csv",
+        "/string_table_with_quotes.csv", "/string_table_with_quotes2.csv", "/boolean_table_with_gaps.csv" };
+
+    private static final int[] OPTIONS = new int[] { TextFileRowReader.NO_OPTIONS,
+        TextFileRowReader.REMOVE_WHITE_SPACE | TextFileRowReader.PARSE_EMPTY_STRINGS,
+        TextFileRowReader.REMOVE_QUOTES | TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
+        TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS | TextFileRowReader.REMOVE_QUOTES };
+
+    private static final long[] CHUNK_SIZES = new long[] { 1, 16, 64, 1024 };
+
+    @Test
+    public void testSameAsSequentialReader() {
+        try {
+            for (String file : FILES) {
+                Path path = Paths.get(getClass().getResource(file).getPath());
+
+                for (int options : OPTIONS)
+                    for (int parallelism = 1; parallelism <= 4; ++parallelism)
+                        for (long chunkSize : CHUNK_SIZES)
+                            assertSameRows(path, options, parallelism, chunkSize);
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testLargeFile() {
+        try {
+            Path path = Files.createTempFile("parallel", ".csv");
+
+            path.toFile().deleteOnExit();
+
+            StringBuilder builder = new StringBuilder();
+
+            for (int i = 0; i < 50000; ++i) {
+                builder.append(i).append(",\"a, ").append(i % 17).append("\",").append(i * 0.5);
+
+                builder.append(i % 3 == 0 ? "\r\n" : "\n");
+
+                if (i % 1000 == 0)
+                    builder.append("# comment\n\n");
+            }
+
+            Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+            for (int parallelism = 1; parallelism <= 8; parallelism *= 2)
+                assertSameRows(path, TextFileRowReader.REMOVE_QUOTES, parallelism, Constants.UNKNOWN_COUNT);
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testContinueFromReader() {
+        try {
+            Path path = Paths.get(getClass().getResource("/double_table1.csv").getPath());
+
+            MappedTextFileRowReader reader = new MappedTextFileRowReader(path);
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            reader.setOptions(TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST);
+
+            List<String[]> expected = new ArrayList<String[]>();
+
+            // header row read by the reader, the rest in parallel
+            reader.nextRow();
+            reader.getRowCellsAsStringArray();
+
+            ParallelTextFileReader parallelReader = new ParallelTextFileReader(reader);
+
+            parallelReader.setParallelism(3);
+            parallelReader.setChunkSize(16);
+
+            while (reader.nextRow())
+                expected.add(reader.getRowCellsAsStringArray());
+
+            reader.close();
+
+            List<String[]> rows = parallelReader.readRows((rowReader, row) -> rowReader.getRowCellsAsStringArray());
+
+            assertEquals(expected.size(), rows.size());
+
+            for (int i = 0; i < expected.size(); ++i)
+                assertArrayEquals("row " + i, expected.get(i), rows.get(i));
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testConversionError() throws IOException, ConversionException {
+        Path path = Files.createTempFile("parallel", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, "1,2\n3,4\n5,x\n7,8\n".getBytes(StandardCharsets.UTF_8));
+
+        ParallelTextFileReader reader = new ParallelTextFileReader(path);
+
+        reader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setParallelism(2);
+        reader.setChunkSize(1);
+
+        reader.readRows((rowReader, row) -> rowReader.getRowCellsAsIntArray());
+    }
+
+    @Test
+    public void testRowIndexOfError() throws IOException, ConversionException {
+        Path path = Files.createTempFile("parallel", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, "1,2\n3,4\n5,6\n7\n9,10\n".getBytes(StandardCharsets.UTF_8));
+
+        ParallelTextFileReader reader = new ParallelTextFileReader(path);
+
+        reader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setParallelism(2);
+        reader.setChunkSize(1);
+
+        try {
+            reader.readRows((rowReader, row) -> {
+                int[] cells = rowReader.getRowCellsAsIntArray();
+
+                if (cells.length != 2)
+                    throw new IOException("Row " + row + " is not right size");
+
+                return cells;
+            });
+
+            fail("Row size not checked");
+        } catch (IOException e) {
+            assertEquals("Row 3 is not right size", e.getMessage());
+        }
+    }
+
+    private void assertSameRows(Path path, int options, int parallelism, long chunkSize)
+        throws IOException, ConversionException {
+        TextFileRowReader expectedReader = new TextFileRowReader(path);
+
+        expectedReader.setDelimiterString(TextFileHandler.COMMA);
+        expectedReader.setOptions(options);
+
+        List<Object[]> expected = new ArrayList<Object[]>();
+
+        while (expectedReader.nextRow())
+            expected.add(expectedReader.getRowCellsAsArray());
+
+        expectedReader.close();
+
+        ParallelTextFileReader reader = new ParallelTextFileReader(path);
+
+        reader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setOptions(options);
+        reader.setParallelism(parallelism);
+        reader.setChunkSize(chunkSize);
+
+        List<Object[]> rows = reader.readRows((rowReader, row) -> rowReader.getRowCellsAsArray());
+
+        String message = path + " options " + options + " parallelism " + parallelism + " chunk " + chunkSize;
+
+        assertEquals(message, expected.size(), rows.size());
+
+        for (int i = 0; i < expected.size(); ++i)
+            assertArrayEquals(message + " row " + i, expected.get(i), rows.get(i));
+    }
+}
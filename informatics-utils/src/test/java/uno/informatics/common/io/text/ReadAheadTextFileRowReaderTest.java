@@ -0,0 +1,230 @@
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import uno.informatics.common.io.TextFileHandler;
+
+public class ReadAheadTextFileRowReaderTest {
+    private static final String[] FILES = new String[] { "/double_table1.csv", "/object_table_with_gaps.csv",
+        "/string_table_with_quotes.csv", "/string_table_with_quotes2.csv", "/boolean_table_with_gaps.csv" };
+
+    private static final int[] OPTIONS = new int[] { TextFileRowReader.NO_OPTIONS,
+        TextFileRowReader.REMOVE_WHITE_SPACE | TextFileRowReader.PARSE_EMPTY_STRINGS,
+        TextFileRowReader.REMOVE_QUOTES | TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST,
+        TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS | TextFileRowReader.REMOVE_QUOTES };
+
+    private static final int[] READ_AHEAD_SIZES = new int[] { 1, 2, 64 };
+
+    @Test
+    public void testSameRowsAsSequentialReader() {
+        try {
+            for (String file : FILES) {
+                Path path = Paths.get(getClass().getResource(file).getPath());
+
+                for (int options : OPTIONS) {
+                    for (int size : READ_AHEAD_SIZES) {
+                        assertSameRows(path, new TextFileRowReader(path), options, size);
+                        assertSameRows(path, new MappedTextFileRowReader(path), options, size);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testCommentsAndSelectionChange() {
+        try {
+            StringBuilder builder = new StringBuilder("ID,a,b\n# comment\n");
+
+            for (int i = 0; i < 1000; ++i) {
+                builder.append("r").append(i).append(',').append(i).append(',').append(i * 2).append('\n');
+
+                if (i % 10 == 0)
+                    builder.append("# comment ").append(i).append('\n');
+            }
+
+            Path path = createFile(builder.toString());
+
+            TextFileRowReader reader = new TextFileRowReader(path);
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            reader.setReadAheadSize(4);
+
+            assertTrue(reader.nextRow());
+            assertArrayEquals(new String[] { "ID", "a", "b" }, reader.getRowCellsAsStringArray());
+
+            for (int i = 0; i < 500; ++i) {
+                assertTrue(reader.nextRow());
+                assertArrayEquals(new String[] { "r" + i, String.valueOf(i), String.valueOf(i * 2) },
+                    reader.getRowCellsAsStringArray());
+            }
+
+            // rows already read ahead are tokenised again for the new selection
+            reader.setSelectedColumns(new int[] { 0, 2 });
+
+            for (int i = 500; i < 1000; ++i) {
+                assertTrue(reader.nextRow());
+                assertArrayEquals(new String[] { "r" + i, String.valueOf(i * 2) }, reader.getRowCellsAsStringArray());
+            }
+
+            assertFalse(reader.nextRow());
+            assertFalse(reader.hasNextRow());
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testRowPositionCountsComments() {
+        try {
+            Path path = createFile("# comment\nID,a\n# comment\n# comment\nr0,0\nr1,1\n# comment\nr2,2\n# comment\n");
+
+            for (int rowsToSkip = 0; rowsToSkip < 3; ++rowsToSkip) {
+                for (int size : READ_AHEAD_SIZES) {
+                    TextFileRowReader expectedReader = new TextFileRowReader(path);
+                    TextFileRowReader reader = new TextFileRowReader(path);
+
+                    expectedReader.setCommentString("#");
+                    expectedReader.setRowsToSkip(rowsToSkip);
+                    reader.setCommentString("#");
+                    reader.setRowsToSkip(rowsToSkip);
+                    reader.setReadAheadSize(size);
+
+                    int row = 0;
+
+                    while (expectedReader.nextRow()) {
+                        String message = "skip " + rowsToSkip + " read ahead " + size + " row " + row;
+
+                        assertTrue(message, reader.nextRow());
+                        assertEquals(message, expectedReader.getRowPosition(), reader.getRowPosition());
+
+                        ++row;
+                    }
+
+                    assertFalse(reader.nextRow());
+                    assertEquals(expectedReader.getRowPosition(), reader.getRowPosition());
+
+                    expectedReader.close();
+                    reader.close();
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testEmptyFile() {
+        try {
+            TextFileRowReader reader = new TextFileRowReader(createFile(""));
+
+            reader.setReadAheadSize(8);
+
+            assertFalse(reader.ready());
+            assertFalse(reader.hasNextRow());
+            assertFalse(reader.nextRow());
+
+            reader.close();
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testCloseWhileReading() {
+        try {
+            StringBuilder builder = new StringBuilder();
+
+            for (int i = 0; i < 10000; ++i)
+                builder.append(i).append(',').append(i).append('\n');
+
+            TextFileRowReader reader = new TextFileRowReader(createFile(builder.toString()));
+
+            reader.setDelimiterString(TextFileHandler.COMMA);
+            reader.setReadAheadSize(2);
+
+            assertTrue(reader.nextRow());
+            assertTrue(reader.nextRow());
+            assertTrue(reader.nextColumn());
+            assertEquals(1, reader.getCellAsInt());
+
+            reader.close();
+
+            for (Thread thread : Thread.getAllStackTraces().keySet())
+                assertFalse(thread.getName().equals("TextFileRowReader read ahead") && thread.isAlive());
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadAheadSizeInUse() throws IOException {
+        TextFileRowReader reader = new TextFileRowReader(createFile("a,b\nc,d\n"));
+
+        try {
+            reader.nextRow();
+            reader.setReadAheadSize(4);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void assertSameRows(Path path, TextFileRowReader reader, int options, int readAheadSize)
+        throws IOException {
+        TextFileRowReader expectedReader = new TextFileRowReader(path);
+
+        expectedReader.setDelimiterString(TextFileHandler.COMMA);
+        expectedReader.setOptions(options);
+        reader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setOptions(options);
+        reader.setReadAheadSize(readAheadSize);
+
+        int row = 0;
+
+        while (expectedReader.nextRow()) {
+            String message = path + " options " + options + " read ahead " + readAheadSize + " row " + row;
+
+            assertTrue(message, reader.nextRow());
+            assertEquals(message, expectedReader.getCurrentRowSize(), reader.getCurrentRowSize());
+            assertArrayEquals(message, expectedReader.getRowCellsAsArray(), reader.getRowCellsAsArray());
+
+            ++row;
+        }
+
+        assertFalse(reader.nextRow());
+
+        expectedReader.close();
+        reader.close();
+    }
+
+    private Path createFile(String text) throws IOException {
+        Path path = Files.createTempFile("readahead", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+
+        return path;
+    }
+}
@@ -0,0 +1,154 @@
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import uno.informatics.common.Constants;
+import uno.informatics.common.io.TextFileHandler;
+
+public class TextFileRowIndexTest {
+    private static final int ROWS = 2500;
+
+    @Test
+    public void testReadWindows() {
+        try {
+            Path path = createFile();
+
+            for (int interval : new int[] { 1, 7, 100, TextFileRowIndex.DEFAULT_INTERVAL }) {
+                TextFileRowIndex index = TextFileRowIndex.build(path, Constants.DEFAULT_COMMENT, false, interval);
+
+                // header row and the data rows
+                assertEquals(ROWS + 1, index.getRowCount());
+
+                for (long row : new long[] { 0, 1, 6, 7, 99, 100, 101, 1234, ROWS - 3, ROWS })
+                    assertWindow(index, row, 5);
+
+                assertWindow(index, ROWS + 1, 5);
+                assertWindow(index, ROWS + 100, 5);
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testIndexFile() {
+        try {
+            Path path = createFile();
+            Path indexPath = TextFileRowIndex.getIndexPath(path);
+
+            indexPath.toFile().deleteOnExit();
+
+            assertNull(TextFileRowIndex.load(path, Constants.DEFAULT_COMMENT, false));
+
+            TextFileRowIndex index = TextFileRowIndex.getIndex(path, Constants.DEFAULT_COMMENT, false, 10);
+
+            assertTrue(Files.exists(indexPath));
+
+            TextFileRowIndex loaded = TextFileRowIndex.load(path, Constants.DEFAULT_COMMENT, false);
+
+            assertNotNull(loaded);
+            assertEquals(10, loaded.getInterval());
+            assertEquals(index.getRowCount(), loaded.getRowCount());
+
+            for (long row = 0; row <= index.getRowCount(); ++row)
+                assertEquals(index.getPosition(row), loaded.getPosition(row));
+
+            assertWindow(loaded, 1501, 3);
+
+            // not used for a different comment string
+            assertNull(TextFileRowIndex.load(path, null, false));
+
+            // not used once the file has changed
+            Files.write(path, "ID,a\n".getBytes(StandardCharsets.UTF_8));
+
+            assertNull(TextFileRowIndex.load(path, Constants.DEFAULT_COMMENT, false));
+            assertEquals(1, TextFileRowIndex.getIndex(path, Constants.DEFAULT_COMMENT, false, 10).getRowCount());
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testRowsToSkip() {
+        try {
+            Path path = createFile();
+
+            for (int readAheadSize : new int[] { 0, 4 }) {
+                TextFileRowReader reader = new TextFileRowReader(path);
+
+                reader.setDelimiterString(TextFileHandler.COMMA);
+                reader.setReadAheadSize(readAheadSize);
+                reader.setRowsToSkip(11);
+
+                assertTrue(reader.nextRow());
+                assertArrayEquals(expectedRow(11), reader.getRowCellsAsStringArray());
+
+                reader.close();
+            }
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    private void assertWindow(TextFileRowIndex index, long firstRow, int size) throws IOException {
+        MappedTextFileRowReader reader = index.createReader(firstRow);
+
+        reader.setDelimiterString(TextFileHandler.COMMA);
+        reader.setOptions(TextFileRowReader.ROWS_SAME_SIZE_AS_FIRST);
+
+        for (long row = firstRow; row < firstRow + size; ++row) {
+            String message = "interval " + index.getInterval() + " row " + row;
+
+            if (row < index.getRowCount()) {
+                assertTrue(message, reader.nextRow());
+                assertArrayEquals(message, expectedRow(row), reader.getRowCellsAsStringArray());
+            } else {
+                assertFalse(message, reader.nextRow());
+            }
+        }
+
+        reader.close();
+    }
+
+    private static String[] expectedRow(long row) {
+        if (row == 0)
+            return new String[] { "ID", "a", "b" };
+        else
+            return new String[] { "r" + (row - 1), String.valueOf(row - 1), String.valueOf((row - 1) * 2) };
+    }
+
+    private Path createFile() throws IOException {
+        StringBuilder builder = new StringBuilder("# header comment\nID,a,b\n");
+
+        for (int i = 0; i < ROWS; ++i) {
+            builder.append("r").append(i).append(',').append(i).append(',').append(i * 2).append('\n');
+
+            if (i % 17 == 0)
+                builder.append("# comment ").append(i).append('\n');
+        }
+
+        Path path = Files.createTempFile("index", ".csv");
+
+        path.toFile().deleteOnExit();
+
+        Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+        return path;
+    }
+}
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TextFileRowWriterTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private static final Object[][] CELLS = new Object[][] { { 1, "a", 1.5 }, { 2, null, 2.5 }, { 3, "c", null } };
+
+    private static final String EXPECTED = "1,a,1.5" + NEW_LINE + "2,,2.5" + NEW_LINE + "3,c,";
+
+    @Test
+    public void testWriteCellsAsArray() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            writer.writeCellsAsArray(CELLS);
+
+            assertEquals(EXPECTED, output.toString());
+
+            writer.close();
+
+            assertEquals(EXPECTED, output.toString());
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWriteCells() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            List<List<Object>> cells = Arrays.asList(Arrays.asList(CELLS[0]), Arrays.asList(CELLS[1]),
+                    Arrays.asList(CELLS[2]));
+
+            writer.writeCells(cells);
+
+            writer.close();
+
+            assertEquals(EXPECTED, output.toString());
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWriteCell() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            writer.setFlushPolicy(FlushPolicy.CLOSE);
+
+            writer.writeCell(1);
+            writer.newColumn();
+            writer.writeRowCellsAsArray(new Object[] { "a", 1.5 });
+            writer.newRow();
+            writer.writeRowCells(Arrays.asList(CELLS[1]));
+            writer.newRow();
+            writer.writeCellsAsArray(new Object[][] { CELLS[2] });
+
+            writer.close();
+
+            assertEquals(EXPECTED, output.toString());
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testFlushEveryRow() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            assertEquals(FlushPolicy.ROWS, writer.getFlushPolicy());
+            assertEquals(1, writer.getFlushInterval());
+
+            writer.writeRowCellsAsArray(CELLS[0]);
+
+            assertEquals("1,a,1.5", output.toString());
+
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testFlushRows() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            writer.setFlushPolicy(FlushPolicy.ROWS, 2);
+
+            writer.writeRowCellsAsArray(CELLS[0]);
+
+            assertEquals("", output.toString());
+
+            writer.newRow();
+            writer.writeRowCellsAsArray(CELLS[1]);
+
+            assertEquals("1,a,1.5" + NEW_LINE + "2,,2.5", output.toString());
+
+            writer.newRow();
+            writer.writeRowCellsAsArray(CELLS[2]);
+
+            assertEquals("1,a,1.5" + NEW_LINE + "2,,2.5", output.toString());
+
+            writer.close();
+
+            assertEquals(EXPECTED, output.toString());
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testFlushCharacters() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            writer.setFlushPolicy(FlushPolicy.CHARACTERS, 10);
+
+            writer.writeRowCellsAsArray(CELLS[0]);
+
+            assertEquals("", output.toString());
+
+            writer.newRow();
+            writer.writeRowCellsAsArray(CELLS[1]);
+
+            assertEquals("1,a,1.5" + NEW_LINE + "2,,2.5", output.toString());
+
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testFlushOnClose() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            writer.setFlushPolicy(FlushPolicy.CLOSE);
+
+            writer.writeCellsAsArray(CELLS);
+
+            assertEquals("", output.toString());
+
+            writer.flush();
+
+            assertEquals(EXPECTED, output.toString());
+
+            writer.close();
+
+            assertEquals(EXPECTED, output.toString());
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWritePrimitives() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            writer.writeRowCells(new double[] { 1, 0.1, -2.5, Double.NaN });
+            writer.newRow();
+            writer.writeRowCells(new int[] { 1, -20, Integer.MIN_VALUE });
+            writer.newRow();
+            writer.writeDoubleCell(1.25);
+            writer.newColumn();
+            writer.writeIntCell(3);
+
+            writer.setDoublePrecision(2);
+
+            writer.newRow();
+            writer.writeRowCells(new double[] { 1, 0.125, -2.5 });
+
+            writer.close();
+
+            assertEquals("1.0,0.1,-2.5,NaN" + NEW_LINE + "1,-20,-2147483648" + NEW_LINE + "1.25,3" + NEW_LINE
+                    + "1.00,0.13,-2.50", output.toString());
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void testWriteOtherPrimitivesAsObjects() {
+        try {
+            StringWriter output = new StringWriter();
+
+            TextFileRowWriter writer = createWriter(output);
+
+            writer.writeCell(12345678901234567L);
+            writer.newColumn();
+            writer.writeCell('x');
+            writer.newColumn();
+            writer.writeCell(0.1f);
+            writer.newColumn();
+            writer.writeCell((short) 12);
+            writer.newColumn();
+            writer.writeCell((byte) 7);
+            writer.newColumn();
+            writer.writeCell(0.5);
+            writer.newColumn();
+            writer.writeCell(3);
+
+            writer.close();
+
+            assertEquals("12345678901234567,x,0.1,12,7,0.5,3", output.toString());
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            fail(e.getLocalizedMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFlushInterval() throws IOException {
+        createWriter(new StringWriter()).setFlushPolicy(FlushPolicy.ROWS, 0);
+    }
+
+    private TextFileRowWriter createWriter(StringWriter output) throws IOException {
+        TextFileRowWriter writer = new TextFileRowWriter(new BufferedWriter(output, 1 << 16));
+
+        writer.setDelimiterString(",");
+
+        return writer;
+    }
+}
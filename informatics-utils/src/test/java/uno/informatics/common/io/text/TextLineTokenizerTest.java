@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright 2016 Guy Davenport
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package uno.informatics.common.io.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import uno.informatics.common.io.TextFileHandler;
+
+public class TextLineTokenizerTest {
+    private static final int[] OPTIONS = new int[] { TextFileRowReader.NO_OPTIONS,
+        TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS, TextFileRowReader.REMOVE_QUOTES,
+        TextFileRowReader.REMOVE_QUOTES | TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS };
+
+    private static final String[] LINES = new String[] { "", "a", "a,b,c", ",a", "a,", ",", ",,", "a,,b",
+        "a,,,b", ",,a,,", "\"a\",b", "\"a,b\",c", "'a',\"b\"", "\"a\",,b", "a,,\"b\"", " \"a\" , b",
+        "a\"b", "it's", "\"a", "'a\"b'", "a, b ,c", "\"\",''", "\"a\"", "\"a\",", "ab\"c\"d" };
+
+    private static final char[] ALPHABET = new char[] { 'a', 'b', ' ', ',', '\t', '"', '\'' };
+
+    @Test
+    public void testKnownLines() {
+        for (int option : OPTIONS) {
+            for (String line : LINES) {
+                assertTokens(TextFileHandler.COMMA, option, line);
+                assertTokens(TextFileHandler.TAB, option, line.replace(',', '\t'));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomLines() {
+        Random random = new Random(42);
+
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 20000; ++i) {
+            builder.setLength(0);
+
+            int length = random.nextInt(16);
+
+            for (int j = 0; j < length; ++j)
+                builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+
+            String line = builder.toString().trim();
+
+            for (int option : OPTIONS) {
+                assertTokens(TextFileHandler.COMMA, option, line);
+                assertTokens(TextFileHandler.TAB, option, line);
+            }
+        }
+    }
+
+    @Test
+    public void testBufferReuse() {
+        TextLineTokenizer tokenizer = new TextLineTokenizer(TextFileHandler.COMMA, TextFileRowReader.NO_OPTIONS);
+
+        StringBuilder builder = new StringBuilder("x");
+
+        for (int i = 1; i < 500; ++i)
+            builder.append(",x").append(i);
+
+        assertEquals(500, tokenizer.tokenise(builder.toString()));
+        assertEquals("x499", tokenizer.getToken(499));
+
+        assertEquals(2, tokenizer.tokenise("y,z"));
+        assertArrayEquals(new String[] { "y", "z" }, tokenizer.getTokens());
+        assertEquals(2, tokenizer.getTokenStart(1));
+        assertEquals(3, tokenizer.getTokenEnd(1));
+    }
+
+    @Test
+    public void testColumnSelection() {
+        Random random = new Random(7);
+
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 20000; ++i) {
+            builder.setLength(0);
+
+            int length = random.nextInt(24);
+
+            for (int j = 0; j < length; ++j)
+                builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+
+            String line = builder.toString().trim();
+
+            List<Integer> columns = new LinkedList<Integer>();
+
+            for (int column = 0; column < 10; ++column)
+                if (random.nextBoolean())
+                    columns.add(column);
+
+            int[] selection = new int[columns.size()];
+
+            for (int j = 0; j < selection.length; ++j)
+                selection[j] = columns.get(j);
+
+            for (int option : OPTIONS) {
+                TextLineTokenizer tokenizer = new TextLineTokenizer(TextFileHandler.COMMA, option);
+
+                tokenizer.tokenise(line);
+
+                String[] tokens = tokenizer.getTokens();
+
+                List<String> expected = new LinkedList<String>();
+
+                for (int column : selection)
+                    if (column < tokens.length)
+                        expected.add(tokens[column]);
+
+                tokenizer.setColumnSelection(selection);
+                tokenizer.retokenise();
+
+                assertArrayEquals("Options " + option + " line [" + line + "] columns " + columns,
+                    expected.toArray(new String[expected.size()]), tokenizer.getTokens());
+
+                tokenizer.setColumnSelection(null);
+                tokenizer.tokenise(line);
+
+                assertArrayEquals(tokens, tokenizer.getTokens());
+            }
+        }
+    }
+
+    private void assertTokens(String delimiter, int options, String line) {
+        TextLineTokenizer tokenizer = new TextLineTokenizer(delimiter, options);
+
+        tokenizer.tokenise(line);
+
+        assertArrayEquals("Options " + options + " line [" + line + "]", parseWithRegex(delimiter, options, line),
+            tokenizer.getTokens());
+    }
+
+    /**
+     * The regular expression tokeniser previously used by
+     * {@link TextFileRowReader}, kept as a reference
+     */
+    private static String[] parseWithRegex(String delimiter, int options, String line) {
+        boolean removeQuotes = (options & TextFileRowReader.REMOVE_QUOTES) != 0;
+        boolean ignoreMultipleDelimiters = (options & TextFileRowReader.IGNORE_MULTIPLE_DELIMITERS) != 0;
+
+        String regex;
+
+        if (removeQuotes) {
+            if (ignoreMultipleDelimiters) {
+                regex = "[ ]*\"([^\"]*)\"[ ]*[" + delimiter + "]?|[ ]*'([^']*)'[ ]*[" + delimiter + "]?|([^"
+                    + delimiter + "\"']+)";
+            } else {
+                regex = "[ ]*\"([^\"]*)\"[ ]*[" + delimiter + "]?|[ ]*'([^']*)'[ ]*[" + delimiter + "]?|([^"
+                    + delimiter + "\"']+)|([" + delimiter + "]{2,})";
+            }
+        } else {
+            if (ignoreMultipleDelimiters) {
+                regex = "([^" + delimiter + "]+)|([" + delimiter + "])";
+            } else {
+                regex = "([^" + delimiter + "]+)|([" + delimiter + "]{2,})";
+            }
+        }
+
+        Matcher matcher = Pattern.compile(regex, Pattern.DOTALL).matcher(line);
+
+        List<String> tokens = new LinkedList<String>();
+
+        if (line.startsWith(delimiter))
+            tokens.add("");
+
+        int gapGroup = removeQuotes ? 4 : 2;
+        int tokenGroups = removeQuotes ? 3 : 1;
+
+        while (matcher.find()) {
+            boolean found = false;
+
+            for (int group = 1; !found && group <= tokenGroups; ++group) {
+                if (matcher.group(group) != null) {
+                    tokens.add(matcher.group(group));
+                    found = true;
+                }
+            }
+
+            if (!found && !ignoreMultipleDelimiters && matcher.group(gapGroup) != null)
+                for (int i = 1; i < matcher.group(gapGroup).length(); ++i)
+                    tokens.add("");
+        }
+
+        if (matcher.hitEnd() && line.endsWith(delimiter))
+            tokens.add("");
+
+        return tokens.toArray(new String[tokens.size()]);
+    }
+}